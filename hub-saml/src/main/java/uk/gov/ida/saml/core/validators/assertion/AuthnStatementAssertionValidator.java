@@ -10,15 +10,9 @@ import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.authnCo
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.authnInstantMissing;
 
 public class AuthnStatementAssertionValidator {
-    private final DuplicateAssertionValidator duplicateAssertionValidator;
-
-    public AuthnStatementAssertionValidator(DuplicateAssertionValidator duplicateAssertionValidator) {
-        this.duplicateAssertionValidator = duplicateAssertionValidator;
-    }
 
     public void validate(Assertion assertion) {
         validateAuthnStatement(assertion.getAuthnStatements().get(0));
-        duplicateAssertionValidator.validateAuthnStatementAssertion(assertion);
     }
 
     private void validateAuthnStatement(AuthnStatement authnStatement) {
@@ -3,7 +3,21 @@ package uk.gov.ida.saml.core.validators.assertion;
 import org.opensaml.saml.saml2.core.Assertion;
 
 public interface DuplicateAssertionValidator {
+    /**
+     * @deprecated use {@link #validateIdpAssertions}, which checks both assertions from a response in one go
+     */
+    @Deprecated
     void validateAuthnStatementAssertion(Assertion assertion);
 
+    /**
+     * @deprecated use {@link #validateIdpAssertions}, which checks both assertions from a response in one go
+     */
+    @Deprecated
     void validateMatchingDataSetAssertion(Assertion assertion, String responseIssuerId);
+
+    /**
+     * Validates and records the authn statement and matching dataset assertions from an IdP
+     * response together, failing on the matching dataset assertion first.
+     */
+    void validateIdpAssertions(Assertion authnStatementAssertion, Assertion matchingDatasetAssertion, String responseIssuerId);
 }
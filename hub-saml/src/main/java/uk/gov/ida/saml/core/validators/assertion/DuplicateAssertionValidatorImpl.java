@@ -6,6 +6,9 @@ import org.opensaml.saml.saml2.core.Assertion;
 import uk.gov.ida.saml.hub.exception.SamlValidationException;
 import uk.gov.ida.saml.hub.validators.authnrequest.IdExpirationCache;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.authnStatementAlreadyReceived;
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.duplicateMatchingDataset;
 
@@ -19,28 +22,37 @@ public class DuplicateAssertionValidatorImpl implements DuplicateAssertionValida
     }
 
     @Override
+    @Deprecated
     public void validateAuthnStatementAssertion(Assertion assertion) {
         if (!valid(assertion))
             throw new SamlValidationException(authnStatementAlreadyReceived(assertion.getID()));
     }
 
     @Override
+    @Deprecated
     public void validateMatchingDataSetAssertion(Assertion assertion, String responseIssuerId) {
         if (!valid(assertion))
             throw new SamlValidationException(duplicateMatchingDataset(assertion.getID(), responseIssuerId));
     }
 
-    private boolean valid(Assertion assertion) {
-        if (isDuplicateNonExpired(assertion))
-            return false;
+    @Override
+    public void validateIdpAssertions(Assertion authnStatementAssertion, Assertion matchingDatasetAssertion, String responseIssuerId) {
+        Map<String, DateTime> expirations = new LinkedHashMap<>();
+        expirations.put(matchingDatasetAssertion.getID(), expiration(matchingDatasetAssertion));
+        expirations.putIfAbsent(authnStatementAssertion.getID(), expiration(authnStatementAssertion));
+
+        Map<String, DateTime> duplicates = idExpirationCache.checkAndRecordAll(expirations);
+        if (duplicates.containsKey(matchingDatasetAssertion.getID()))
+            throw new SamlValidationException(duplicateMatchingDataset(matchingDatasetAssertion.getID(), responseIssuerId));
+        if (duplicates.containsKey(authnStatementAssertion.getID()) || authnStatementAssertion.getID().equals(matchingDatasetAssertion.getID()))
+            throw new SamlValidationException(authnStatementAlreadyReceived(authnStatementAssertion.getID()));
+    }
 
-        DateTime expire = assertion.getSubject().getSubjectConfirmations().get(0).getSubjectConfirmationData().getNotOnOrAfter();
-        idExpirationCache.setExpiration(assertion.getID(), expire);
-        return true;
+    private boolean valid(Assertion assertion) {
+        return idExpirationCache.putIfAbsentOrExpired(assertion.getID(), expiration(assertion)) == null;
     }
 
-    private boolean isDuplicateNonExpired(Assertion assertion) {
-        return idExpirationCache.contains(assertion.getID())
-                && idExpirationCache.getExpiration(assertion.getID()).isAfterNow();
+    private static DateTime expiration(Assertion assertion) {
+        return assertion.getSubject().getSubjectConfirmations().get(0).getSubjectConfirmationData().getNotOnOrAfter();
     }
 }
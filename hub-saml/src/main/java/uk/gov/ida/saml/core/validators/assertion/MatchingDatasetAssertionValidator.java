@@ -48,14 +48,7 @@ public class MatchingDatasetAssertionValidator {
             IdaConstants.Attributes_1_1.CurrentAddress.NAME, Address.TYPE_NAME,
             IdaConstants.Attributes_1_1.PreviousAddress.NAME, Address.TYPE_NAME);
 
-    private final DuplicateAssertionValidator duplicateAssertionValidator;
-
-    public MatchingDatasetAssertionValidator(DuplicateAssertionValidator duplicateAssertionValidator) {
-        this.duplicateAssertionValidator = duplicateAssertionValidator;
-    }
-
-    public void validate(Assertion assertion, String responseIssuerId) {
-        duplicateAssertionValidator.validateMatchingDataSetAssertion(assertion, responseIssuerId);
+    public void validate(Assertion assertion) {
         validateAttributes(assertion);
     }
 
@@ -486,10 +486,9 @@ public class HubTransformersFactory {
                         new AssertionAttributeStatementValidator(),
                         new AssertionSubjectConfirmationValidator()
                 ),
-                new MatchingDatasetAssertionValidator(new DuplicateAssertionValidatorImpl(assertionIdCache)),
-                new AuthnStatementAssertionValidator(
-                        new DuplicateAssertionValidatorImpl(assertionIdCache)
-                ),
+                new MatchingDatasetAssertionValidator(),
+                new AuthnStatementAssertionValidator(),
+                new DuplicateAssertionValidatorImpl(assertionIdCache),
                 new IPAddressValidator(),
                 hubEntityId
         );
@@ -1,6 +1,7 @@
 package uk.gov.ida.saml.hub.domain;
 
 import org.joda.time.DateTime;
+import org.opensaml.saml.saml2.core.Assertion;
 import org.opensaml.xmlsec.signature.Signature;
 import uk.gov.ida.saml.core.domain.IdaSamlResponse;
 import uk.gov.ida.saml.core.domain.PassthroughAssertion;
@@ -11,6 +12,8 @@ import java.util.Optional;
 public class InboundResponseFromIdp extends IdaSamlResponse {
     private Optional<PassthroughAssertion> matchingDatasetAssertion;
     private Optional<PassthroughAssertion> authnStatementAssertion;
+    private Optional<Assertion> matchingDatasetSamlAssertion;
+    private Optional<Assertion> authnStatementSamlAssertion;
     private Optional<DateTime> notOnOrAfter;
     private Optional<Signature> signature;
     private IdpIdaStatus status;
@@ -26,11 +29,29 @@ public class InboundResponseFromIdp extends IdaSamlResponse {
             Optional<PassthroughAssertion> matchingDatasetAssertion,
             URI destination,
             Optional<PassthroughAssertion> authnStatementAssertion) {
+        this(id, inResponseTo, issuer, issueInstant, notOnOrAfter, status, signature, matchingDatasetAssertion, destination, authnStatementAssertion, Optional.empty(), Optional.empty());
+    }
+
+    public InboundResponseFromIdp(
+            String id,
+            String inResponseTo,
+            String issuer,
+            DateTime issueInstant,
+            Optional<DateTime> notOnOrAfter,
+            IdpIdaStatus status,
+            Optional<Signature> signature,
+            Optional<PassthroughAssertion> matchingDatasetAssertion,
+            URI destination,
+            Optional<PassthroughAssertion> authnStatementAssertion,
+            Optional<Assertion> matchingDatasetSamlAssertion,
+            Optional<Assertion> authnStatementSamlAssertion) {
         super(id, issueInstant, inResponseTo, issuer, destination);
         this.notOnOrAfter = notOnOrAfter;
         this.signature = signature;
         this.matchingDatasetAssertion = matchingDatasetAssertion;
         this.authnStatementAssertion = authnStatementAssertion;
+        this.matchingDatasetSamlAssertion = matchingDatasetSamlAssertion;
+        this.authnStatementSamlAssertion = authnStatementSamlAssertion;
         this.status = status;
     }
 
@@ -42,6 +63,21 @@ public class InboundResponseFromIdp extends IdaSamlResponse {
         return authnStatementAssertion;
     }
 
+    /**
+     * The validated assertion the matching dataset passthrough assertion was built from, so callers
+     * can read it without parsing {@link PassthroughAssertion#getUnderlyingAssertionBlob()} again.
+     */
+    public Optional<Assertion> getMatchingDatasetSamlAssertion() {
+        return matchingDatasetSamlAssertion;
+    }
+
+    /**
+     * The validated assertion the authn statement passthrough assertion was built from.
+     */
+    public Optional<Assertion> getAuthnStatementSamlAssertion() {
+        return authnStatementSamlAssertion;
+    }
+
     public Optional<Signature> getSignature() {
         return signature;
     }
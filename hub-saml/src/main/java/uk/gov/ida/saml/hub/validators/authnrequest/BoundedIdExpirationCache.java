@@ -0,0 +1,158 @@
+package uk.gov.ida.saml.hub.validators.authnrequest;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import org.joda.time.DateTime;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * An in-memory replay cache for a single node. IDs are evicted once their expiration passes, and
+ * once {@code maximumSize} unexpired IDs are held, new IDs are rejected with an
+ * {@link IdExpirationCacheFullException} rather than evicting IDs that could still be replayed.
+ */
+public class BoundedIdExpirationCache<T> implements IdExpirationCache<T> {
+
+    private static final Gauge cacheSize = Gauge.build(
+            "verify_saml_hub_replay_cache_size",
+            "Number of IDs held in an in-memory replay cache")
+            .labelNames("cache")
+            .register();
+
+    private static final Counter evictions = Counter.build(
+            "verify_saml_hub_replay_cache_evictions_total",
+            "Number of IDs evicted from an in-memory replay cache once expired")
+            .labelNames("cache")
+            .register();
+
+    private static final Counter rejections = Counter.build(
+            "verify_saml_hub_replay_cache_rejections_total",
+            "Number of new IDs rejected because an in-memory replay cache was full")
+            .labelNames("cache")
+            .register();
+
+    private final String name;
+    private final int maximumSize;
+    private final Map<T, DateTime> expirations = new HashMap<>();
+    private final PriorityQueue<Expiry<T>> expiryOrder = new PriorityQueue<>(comparingLong(Expiry::getMillis));
+
+    public BoundedIdExpirationCache(String name, int maximumSize) {
+        this.name = name;
+        this.maximumSize = maximumSize;
+        cacheSize.labels(name).set(0);
+    }
+
+    @Override
+    public synchronized boolean contains(T key) {
+        evictExpired();
+        return expirations.containsKey(key);
+    }
+
+    @Override
+    public synchronized DateTime getExpiration(T key) {
+        evictExpired();
+        return expirations.get(key);
+    }
+
+    @Override
+    public synchronized void setExpiration(T key, DateTime expirationTime) {
+        evictExpired();
+        if (!expirations.containsKey(key)) {
+            ensureCapacityFor(1);
+        }
+        store(key, expirationTime);
+    }
+
+    @Override
+    public synchronized DateTime putIfAbsentOrExpired(T key, DateTime expirationTime) {
+        evictExpired();
+        return putIfAbsent(key, expirationTime);
+    }
+
+    @Override
+    public synchronized Map<T, DateTime> checkAndRecordAll(Map<T, DateTime> newExpirations) {
+        evictExpired();
+        ensureCapacityFor((int) newExpirations.keySet().stream().filter(key -> !expirations.containsKey(key)).count());
+        Map<T, DateTime> unexpired = new HashMap<>();
+        newExpirations.forEach((key, expirationTime) -> {
+            DateTime previous = putIfAbsent(key, expirationTime);
+            if (previous != null) {
+                unexpired.put(key, previous);
+            }
+        });
+        return unexpired;
+    }
+
+    public synchronized int size() {
+        return expirations.size();
+    }
+
+    // Anything still held after evictExpired has not expired.
+    private DateTime putIfAbsent(T key, DateTime expirationTime) {
+        DateTime current = expirations.get(key);
+        if (current != null) {
+            return current;
+        }
+        ensureCapacityFor(1);
+        store(key, expirationTime);
+        return null;
+    }
+
+    private void store(T key, DateTime expirationTime) {
+        expirations.put(key, expirationTime);
+        expiryOrder.add(new Expiry<>(key, expirationTime.getMillis()));
+        // Replacing an unexpired ID leaves its old entry in the queue until that expires too, so
+        // rebuild the queue if enough of those pile up.
+        if (expiryOrder.size() > 2 * maximumSize) {
+            expiryOrder.clear();
+            expirations.forEach((k, v) -> expiryOrder.add(new Expiry<>(k, v.getMillis())));
+        }
+        cacheSize.labels(name).set(expirations.size());
+    }
+
+    private void ensureCapacityFor(int newIds) {
+        if (expirations.size() + newIds > maximumSize) {
+            rejections.labels(name).inc(newIds);
+            throw new IdExpirationCacheFullException(name, maximumSize);
+        }
+    }
+
+    private void evictExpired() {
+        long now = DateTime.now().getMillis();
+        int evicted = 0;
+        while (!expiryOrder.isEmpty() && expiryOrder.peek().getMillis() <= now) {
+            Expiry<T> expiry = expiryOrder.poll();
+            DateTime current = expirations.get(expiry.getKey());
+            if (current != null && current.getMillis() == expiry.getMillis()) {
+                expirations.remove(expiry.getKey());
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            evictions.labels(name).inc(evicted);
+            cacheSize.labels(name).set(expirations.size());
+        }
+    }
+
+    private static final class Expiry<T> {
+        private final T key;
+        private final long millis;
+
+        private Expiry(T key, long millis) {
+            this.key = key;
+            this.millis = millis;
+        }
+
+        private T getKey() {
+            return key;
+        }
+
+        private long getMillis() {
+            return millis;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package uk.gov.ida.saml.hub.validators.authnrequest;
 
 import org.joda.time.DateTime;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
 public class ConcurrentMapIdExpirationCache<T> implements IdExpirationCache<T> {
@@ -25,4 +27,29 @@ public class ConcurrentMapIdExpirationCache<T> implements IdExpirationCache<T> {
     public void setExpiration(T key, DateTime expirationTime) {
         map.put(key, expirationTime);
     }
+
+    @Override
+    public DateTime putIfAbsentOrExpired(T key, DateTime expirationTime) {
+        DateTime[] unexpired = new DateTime[1];
+        map.compute(key, (k, current) -> {
+            if (current != null && current.isAfterNow()) {
+                unexpired[0] = current;
+                return current;
+            }
+            return expirationTime;
+        });
+        return unexpired[0];
+    }
+
+    @Override
+    public Map<T, DateTime> checkAndRecordAll(Map<T, DateTime> expirations) {
+        Map<T, DateTime> unexpired = new HashMap<>();
+        expirations.forEach((key, expirationTime) -> {
+            DateTime previous = putIfAbsentOrExpired(key, expirationTime);
+            if (previous != null) {
+                unexpired.put(key, previous);
+            }
+        });
+        return unexpired;
+    }
 }
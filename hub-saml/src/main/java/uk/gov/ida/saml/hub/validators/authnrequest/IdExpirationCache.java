@@ -2,10 +2,28 @@ package uk.gov.ida.saml.hub.validators.authnrequest;
 
 import org.joda.time.DateTime;
 
+import java.util.Map;
+
 public interface IdExpirationCache<T> {
     boolean contains(T key);
 
     DateTime getExpiration(T key);
 
     void setExpiration(T key, DateTime dateTime);
+
+    /**
+     * Stores {@code expiration} for {@code key} unless the cache already holds an expiration for it
+     * that has not passed, as one atomic step.
+     *
+     * @return the unexpired expiration already held for {@code key}, which is left in place, or
+     * {@code null} if {@code expiration} was stored
+     */
+    DateTime putIfAbsentOrExpired(T key, DateTime expiration);
+
+    /**
+     * Does {@link #putIfAbsentOrExpired} for each of {@code expirations} together.
+     *
+     * @return the keys that already held an unexpired expiration, with those expirations
+     */
+    Map<T, DateTime> checkAndRecordAll(Map<T, DateTime> expirations);
 }
@@ -0,0 +1,9 @@
+package uk.gov.ida.saml.hub.validators.authnrequest;
+
+import static java.text.MessageFormat.format;
+
+public class IdExpirationCacheFullException extends RuntimeException {
+    public IdExpirationCacheFullException(String cacheName, int maximumSize) {
+        super(format("Replay cache {0} is full with {1} unexpired IDs, so new IDs cannot be accepted", cacheName, maximumSize));
+    }
+}
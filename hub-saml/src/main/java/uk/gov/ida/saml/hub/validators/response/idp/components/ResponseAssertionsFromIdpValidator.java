@@ -3,6 +3,7 @@ package uk.gov.ida.saml.hub.validators.response.idp.components;
 import org.opensaml.saml.saml2.core.Assertion;
 import uk.gov.ida.saml.core.validation.assertion.IdentityProviderAssertionValidator;
 import uk.gov.ida.saml.core.validators.assertion.AuthnStatementAssertionValidator;
+import uk.gov.ida.saml.core.validators.assertion.DuplicateAssertionValidator;
 import uk.gov.ida.saml.core.validators.assertion.IPAddressValidator;
 import uk.gov.ida.saml.core.validators.assertion.MatchingDatasetAssertionValidator;
 import uk.gov.ida.saml.hub.exception.SamlValidationException;
@@ -18,17 +19,20 @@ public class ResponseAssertionsFromIdpValidator {
     private final IdentityProviderAssertionValidator identityProviderAssertionValidator;
     private final MatchingDatasetAssertionValidator matchingDatasetAssertionValidator;
     private final AuthnStatementAssertionValidator authnStatementAssertionValidator;
+    private final DuplicateAssertionValidator duplicateAssertionValidator;
     private final IPAddressValidator ipAddressValidator;
     private String hubEntityId;
 
     public ResponseAssertionsFromIdpValidator(IdentityProviderAssertionValidator assertionValidator,
                                               MatchingDatasetAssertionValidator matchingDatasetAssertionValidator,
                                               AuthnStatementAssertionValidator authnStatementAssertionValidator,
+                                              DuplicateAssertionValidator duplicateAssertionValidator,
                                               IPAddressValidator ipAddressValidator,
                                               String hubEntityId) {
         this.identityProviderAssertionValidator = assertionValidator;
         this.matchingDatasetAssertionValidator = matchingDatasetAssertionValidator;
         this.authnStatementAssertionValidator = authnStatementAssertionValidator;
+        this.duplicateAssertionValidator = duplicateAssertionValidator;
         this.ipAddressValidator = ipAddressValidator;
         this.hubEntityId = hubEntityId;
     }
@@ -47,10 +51,12 @@ public class ResponseAssertionsFromIdpValidator {
             throw new SamlValidationException(multipleAuthnStatements());
         }
 
-        matchingDatasetAssertionValidator.validate(matchingDatasetAssertion, validatedResponse.getIssuer().getValue());
+        matchingDatasetAssertionValidator.validate(matchingDatasetAssertion);
         authnStatementAssertionValidator.validate(authnStatementAssertion);
         identityProviderAssertionValidator.validateConsistency(authnStatementAssertion, matchingDatasetAssertion);
         ipAddressValidator.validate(authnStatementAssertion);
+        // Only record the assertion IDs once the response is otherwise valid, so a rejected response does not use them up
+        duplicateAssertionValidator.validateIdpAssertions(authnStatementAssertion, matchingDatasetAssertion, validatedResponse.getIssuer().getValue());
     }
 
     private Assertion getAuthnStatementAssertion(ValidatedAssertions validatedAssertions) {
@@ -3,8 +3,6 @@ package uk.gov.ida.saml.core.validators.assertion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.opensaml.saml.saml2.core.Assertion;
 import org.opensaml.saml.saml2.core.AuthnContext;
 import org.opensaml.saml.saml2.core.AuthnContextClassRef;
@@ -15,8 +13,6 @@ import uk.gov.ida.saml.core.test.builders.AuthnContextBuilder;
 import uk.gov.ida.saml.core.test.builders.AuthnContextClassRefBuilder;
 import uk.gov.ida.saml.core.test.builders.AuthnStatementBuilder;
 
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.authnContextClassRefMissing;
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.authnContextClassRefValueMissing;
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.authnContextMissingError;
@@ -24,17 +20,13 @@ import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.authnIn
 import static uk.gov.ida.saml.core.test.SamlTransformationErrorManagerTestHelper.validateFail;
 
 @ExtendWith(OpenSAMLExtension.class)
-@ExtendWith(MockitoExtension.class)
 public class AuthnStatementAssertionValidatorTest {
 
-    @Mock
-    private DuplicateAssertionValidator duplicateAssertionValidator;
-
     private AuthnStatementAssertionValidator validator;
 
     @BeforeEach
     public void setup() {
-        validator = new AuthnStatementAssertionValidator(duplicateAssertionValidator);
+        validator = new AuthnStatementAssertionValidator();
     }
 
     @Test
@@ -72,16 +64,6 @@ public class AuthnStatementAssertionValidatorTest {
         validateFail(() -> validator.validate(assertion), authnContextClassRefValueMissing());
     }
 
-    @Test
-    public void validate_shouldValidateForDuplicateIds() {
-        String id = "duplicate-id";
-        Assertion assertion = AssertionBuilder.anAssertion().withId(id).addAuthnStatement(AuthnStatementBuilder.anAuthnStatement().build()).buildUnencrypted();
-
-        validator.validate(assertion);
-
-        verify(duplicateAssertionValidator, times(1)).validateAuthnStatementAssertion(assertion);
-    }
-
     @Test
     public void validate_shouldThrowExceptionIfAuthnInstantIsAbsent() {
         AuthnStatement authnStatement = AuthnStatementBuilder.anAuthnStatement().withAuthnInstant(null).build();
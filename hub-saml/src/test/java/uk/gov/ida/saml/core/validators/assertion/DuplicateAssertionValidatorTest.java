@@ -45,75 +45,106 @@ public class DuplicateAssertionValidatorTest {
     }
 
     @Test
-    public void validateAuthnStatementAssertion_shouldPassIfTheAssertionIsNotADuplicateOfAPreviousOne() throws Exception {
-        Assertion assertion = anAssertion().withId("not-duplicate").buildUnencrypted();
-        duplicateAssertionValidator.validateAuthnStatementAssertion(assertion);
+    public void validateIdpAssertions_shouldStoreBothAssertionIdsIfNeitherIsADuplicate() throws Exception {
+        DateTime futureDate = DateTime.now().plusMinutes(6);
+
+        duplicateAssertionValidator.validateIdpAssertions(createAssertion("new-authn-id", futureDate), createAssertion("new-mds-id", futureDate), "issuer");
+
+        assertThat(duplicateIds.get("new-authn-id")).isEqualTo(futureDate.toDateTime(UTC));
+        assertThat(duplicateIds.get("new-mds-id")).isEqualTo(futureDate.toDateTime(UTC));
     }
 
     @Test
-    public void validateAuthnStatementAssertion_shouldPassIfTwoAssertionsHaveTheSameIdButTheFirstAssertionHasExpired() throws Exception {
+    public void validateIdpAssertions_shouldPassIfAnAssertionHasTheSameIdAsOneThatHasExpired() throws Exception {
         DateTime futureDate = DateTime.now().plusMinutes(6);
 
-        Assertion assertion = createAssertion("expired-duplicate", futureDate);
-        duplicateAssertionValidator.validateAuthnStatementAssertion(assertion);
+        duplicateAssertionValidator.validateIdpAssertions(createAssertion("expired-duplicate", futureDate), createAssertion("new-mds-id", futureDate), "issuer");
 
         assertThat(duplicateIds.get("expired-duplicate")).isEqualTo(futureDate.toDateTime(UTC));
     }
 
     @Test
-    public void validateAuthnStatementAssertion_shouldThrowAnExceptionIfTheAssertionIsADuplicateOfAPreviousOne() throws Exception {
-        Assertion assertion = anAssertion().withId("duplicate").buildUnencrypted();
+    public void validateIdpAssertions_shouldThrowIfTheMatchingDatasetAssertionIsADuplicate() throws Exception {
+        DateTime futureDate = DateTime.now().plusMinutes(6);
+
         validateFail(
-            ()-> duplicateAssertionValidator.validateAuthnStatementAssertion(assertion),
-            authnStatementAlreadyReceived("duplicate")
+            () -> duplicateAssertionValidator.validateIdpAssertions(createAssertion("new-authn-id", futureDate), createAssertion("duplicate", futureDate), "issuer"),
+            duplicateMatchingDataset("duplicate", "issuer")
         );
     }
 
     @Test
-    public void validateAuthnStatementAssertion_shouldStoreTheAssertionIdIfNotADuplicate() throws Exception {
+    public void validateIdpAssertions_shouldThrowForTheMatchingDatasetAssertionFirstIfBothAreDuplicates() throws Exception {
         DateTime futureDate = DateTime.now().plusMinutes(6);
+        duplicateIds.put("mds-duplicate", DateTime.now().plusMinutes(5));
 
-        Assertion assertion = createAssertion("new-id", futureDate);
-        duplicateAssertionValidator.validateAuthnStatementAssertion(assertion);
+        validateFail(
+            () -> duplicateAssertionValidator.validateIdpAssertions(createAssertion("duplicate", futureDate), createAssertion("mds-duplicate", futureDate), "issuer"),
+            duplicateMatchingDataset("mds-duplicate", "issuer")
+        );
+    }
 
-        assertThat(duplicateIds.get("new-id")).isEqualTo(futureDate.toDateTime(UTC));
+    @Test
+    public void validateIdpAssertions_shouldThrowIfTheAuthnStatementAssertionIsADuplicate() throws Exception {
+        DateTime futureDate = DateTime.now().plusMinutes(6);
+
+        validateFail(
+            () -> duplicateAssertionValidator.validateIdpAssertions(createAssertion("duplicate", futureDate), createAssertion("new-mds-id", futureDate), "issuer"),
+            authnStatementAlreadyReceived("duplicate")
+        );
+        assertThat(duplicateIds.get("new-mds-id")).isEqualTo(futureDate.toDateTime(UTC));
     }
 
     @Test
-    public void validateMatchingDataSetAssertion_shouldPassIfTheAssertionIsNotADuplicateOfAPreviousOne() throws Exception {
-        Assertion assertion = anAssertion().withId("not-duplicate").buildUnencrypted();
-        duplicateAssertionValidator.validateMatchingDataSetAssertion(assertion, "issuer");
+    public void validateIdpAssertions_shouldThrowIfBothAssertionsHaveTheSameId() throws Exception {
+        DateTime futureDate = DateTime.now().plusMinutes(6);
+
+        validateFail(
+            () -> duplicateAssertionValidator.validateIdpAssertions(createAssertion("shared-id", futureDate), createAssertion("shared-id", futureDate), "issuer"),
+            authnStatementAlreadyReceived("shared-id")
+        );
     }
 
     @Test
-    public void validateMatchingDataSetAssertion_shouldPassIfTwoAssertionsHaveTheSameIdButTheFirstAssertionHasExpired() throws Exception {
+    @SuppressWarnings("deprecation")
+    public void validateAuthnStatementAssertion_shouldStoreTheAssertionIdIfNotADuplicate() throws Exception {
         DateTime futureDate = DateTime.now().plusMinutes(6);
 
-        Assertion assertion = createAssertion("expired-duplicate", futureDate);
-        duplicateAssertionValidator.validateMatchingDataSetAssertion(assertion, "issuer");
+        duplicateAssertionValidator.validateAuthnStatementAssertion(createAssertion("new-id", futureDate));
 
-        assertThat(duplicateIds.get("expired-duplicate")).isEqualTo(futureDate.toDateTime(UTC));
+        assertThat(duplicateIds.get("new-id")).isEqualTo(futureDate.toDateTime(UTC));
     }
 
     @Test
-    public void validateMatchingDataSetAssertion_shouldThrowAnExceptionIfTheAssertionIsADuplicateOfAPreviousOne() throws Exception {
+    @SuppressWarnings("deprecation")
+    public void validateAuthnStatementAssertion_shouldThrowAnExceptionIfTheAssertionIsADuplicateOfAPreviousOne() throws Exception {
         Assertion assertion = anAssertion().withId("duplicate").buildUnencrypted();
         validateFail(
-            ()-> duplicateAssertionValidator.validateMatchingDataSetAssertion(assertion, "issuer"),
-            duplicateMatchingDataset("duplicate", "issuer")
+            () -> duplicateAssertionValidator.validateAuthnStatementAssertion(assertion),
+            authnStatementAlreadyReceived("duplicate")
         );
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     public void validateMatchingDataSetAssertion_shouldStoreTheAssertionIdIfNotADuplicate() throws Exception {
         DateTime futureDate = DateTime.now().plusMinutes(6);
 
-        Assertion assertion = createAssertion("new-id", futureDate);
-        duplicateAssertionValidator.validateMatchingDataSetAssertion(assertion, "issuer");
+        duplicateAssertionValidator.validateMatchingDataSetAssertion(createAssertion("new-id", futureDate), "issuer");
 
         assertThat(duplicateIds.get("new-id")).isEqualTo(futureDate.toDateTime(UTC));
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    public void validateMatchingDataSetAssertion_shouldThrowAnExceptionIfTheAssertionIsADuplicateOfAPreviousOne() throws Exception {
+        Assertion assertion = anAssertion().withId("duplicate").buildUnencrypted();
+        validateFail(
+            () -> duplicateAssertionValidator.validateMatchingDataSetAssertion(assertion, "issuer"),
+            duplicateMatchingDataset("duplicate", "issuer")
+        );
+    }
+
     private Assertion createAssertion(String id, DateTime notOnOrAfter) {
         SubjectConfirmationData subjectConfirmationData = aSubjectConfirmationData()
             .withNotOnOrAfter(notOnOrAfter).build();
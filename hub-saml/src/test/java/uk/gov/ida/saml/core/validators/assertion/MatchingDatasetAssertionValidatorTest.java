@@ -3,8 +3,6 @@ package uk.gov.ida.saml.core.validators.assertion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.opensaml.saml.saml2.core.Assertion;
 import org.opensaml.saml.saml2.core.Attribute;
 import org.opensaml.saml.saml2.core.AttributeStatement;
@@ -14,8 +12,6 @@ import uk.gov.ida.saml.core.extensions.PersonName;
 import uk.gov.ida.saml.core.extensions.StringBasedMdsAttributeValue;
 import uk.gov.ida.saml.core.test.OpenSAMLExtension;
 
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.attributeStatementEmpty;
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.attributeWithIncorrectType;
 import static uk.gov.ida.saml.core.errors.SamlTransformationErrorFactory.emptyAttribute;
@@ -31,19 +27,13 @@ import static uk.gov.ida.saml.core.test.builders.PersonNameAttributeValueBuilder
 import static uk.gov.ida.saml.core.test.builders.SimpleStringAttributeBuilder.aSimpleStringAttribute;
 
 @ExtendWith(OpenSAMLExtension.class)
-@ExtendWith(MockitoExtension.class)
 public class MatchingDatasetAssertionValidatorTest {
 
-    private static final String RESPONSE_ISSUER_ID = "issuer ID";
-
-    @Mock
-    private DuplicateAssertionValidator duplicateAssertionValidator;
-
     private MatchingDatasetAssertionValidator validator;
 
     @BeforeEach
     public void setUp() {
-        validator = new MatchingDatasetAssertionValidator(duplicateAssertionValidator);
+        validator = new MatchingDatasetAssertionValidator();
     }
 
     @Test
@@ -53,7 +43,7 @@ public class MatchingDatasetAssertionValidatorTest {
         Assertion assertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
         validateFail(
-            () -> validator.validate(assertion, RESPONSE_ISSUER_ID),
+            () -> validator.validate(assertion),
             mdsAttributeNotRecognised("dummy attribute")
         );
     }
@@ -63,7 +53,7 @@ public class MatchingDatasetAssertionValidatorTest {
         AttributeStatement attributeStatement = anEmptyMatchingDatasetAttributeStatement_1_1().withFirstname(aPersonName_1_1().buildAsFirstname()).build();
         Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -71,7 +61,7 @@ public class MatchingDatasetAssertionValidatorTest {
         AttributeStatement attributeStatement = anEmptyMatchingDatasetAttributeStatement_1_1().withMiddleNames(aPersonName_1_1().buildAsMiddlename()).build();
         Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -79,7 +69,7 @@ public class MatchingDatasetAssertionValidatorTest {
         AttributeStatement attributeStatement = anEmptyMatchingDatasetAttributeStatement_1_1().withSurname(aPersonName_1_1().buildAsSurname()).build();
         Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -87,7 +77,7 @@ public class MatchingDatasetAssertionValidatorTest {
         AttributeStatement attributeStatement = anEmptyMatchingDatasetAttributeStatement_1_1().withDateOfBirth().build();
         Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -95,7 +85,7 @@ public class MatchingDatasetAssertionValidatorTest {
         AttributeStatement attributeStatement = anEmptyMatchingDatasetAttributeStatement_1_1().withGender().build();
         Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -103,7 +93,7 @@ public class MatchingDatasetAssertionValidatorTest {
         AttributeStatement attributeStatement = anEmptyMatchingDatasetAttributeStatement_1_1().withCurrentAddress().build();
         Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -111,7 +101,7 @@ public class MatchingDatasetAssertionValidatorTest {
         AttributeStatement attributeStatement = anEmptyMatchingDatasetAttributeStatement_1_1().addPreviousAddress().build();
         Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -120,7 +110,7 @@ public class MatchingDatasetAssertionValidatorTest {
         Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
 
         validateFail(
-            () -> validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID),
+            () -> validator.validate(matchingDatasetAssertion),
             attributeStatementEmpty(matchingDatasetAssertion.getID())
         );
     }
@@ -130,7 +120,7 @@ public class MatchingDatasetAssertionValidatorTest {
         Assertion matchingDatasetAssertion = anAssertion().buildUnencrypted();
 
         validateFail(
-            () -> validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID),
+            () -> validator.validate(matchingDatasetAssertion),
             mdsStatementMissing()
         );
     }
@@ -144,7 +134,7 @@ public class MatchingDatasetAssertionValidatorTest {
                 .buildUnencrypted();
 
         validateFail(
-            () -> validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID),
+            () -> validator.validate(matchingDatasetAssertion),
             mdsMultipleStatements()
         );
     }
@@ -161,7 +151,7 @@ public class MatchingDatasetAssertionValidatorTest {
                 .buildUnencrypted();
 
         validateFail(
-            () -> validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID),
+            () -> validator.validate(matchingDatasetAssertion),
             emptyAttribute("MDS_firstname")
         );
     }
@@ -177,7 +167,7 @@ public class MatchingDatasetAssertionValidatorTest {
                 .buildUnencrypted();
 
         validateFail(
-            () -> validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID),
+            () -> validator.validate(matchingDatasetAssertion),
             attributeWithIncorrectType(IdaConstants.Attributes_1_1.Firstname.NAME, PersonName.TYPE_NAME, StringBasedMdsAttributeValue.TYPE_NAME)
         );
     }
@@ -192,7 +182,7 @@ public class MatchingDatasetAssertionValidatorTest {
                 .addAttributeStatement(attributeStatement)
                 .buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -205,7 +195,7 @@ public class MatchingDatasetAssertionValidatorTest {
                 .addAttributeStatement(attributeStatement)
                 .buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -218,7 +208,7 @@ public class MatchingDatasetAssertionValidatorTest {
                 .addAttributeStatement(attributeStatement)
                 .buildUnencrypted();
 
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
+        validator.validate(matchingDatasetAssertion);
     }
 
     @Test
@@ -233,16 +223,8 @@ public class MatchingDatasetAssertionValidatorTest {
                 .buildUnencrypted();
 
         validateFail(
-            () -> validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID),
+            () -> validator.validate(matchingDatasetAssertion),
             attributeWithIncorrectType(IdaConstants.Attributes_1_1.DateOfBirth.NAME, Date.TYPE_NAME, PersonName.TYPE_NAME)
         );
     }
-
-    @Test
-    public void validate_shouldValidateForDuplicateIds() {
-        AttributeStatement attributeStatement = anEmptyMatchingDatasetAttributeStatement_1_1().withFirstname(aPersonName_1_1().buildAsFirstname()).build();
-        Assertion matchingDatasetAssertion = anAssertion().addAttributeStatement(attributeStatement).buildUnencrypted();
-        validator.validate(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
-        verify(duplicateAssertionValidator, times(1)).validateMatchingDataSetAssertion(matchingDatasetAssertion, RESPONSE_ISSUER_ID);
-    }
 }
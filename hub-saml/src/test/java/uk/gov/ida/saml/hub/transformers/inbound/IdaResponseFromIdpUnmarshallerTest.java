@@ -66,5 +66,7 @@ public class IdaResponseFromIdpUnmarshallerTest {
         assertThat(inboundResponseFromIdp.getSignature().get()).isEqualTo(signature);
         assertThat(inboundResponseFromIdp.getAuthnStatementAssertion().get()).isEqualTo(passthroughAuthnAssertion);
         assertThat(inboundResponseFromIdp.getMatchingDatasetAssertion().get()).isEqualTo(passthroughMdsAssertion);
+        assertThat(inboundResponseFromIdp.getAuthnStatementSamlAssertion()).containsSame(authnStatementAssertion);
+        assertThat(inboundResponseFromIdp.getMatchingDatasetSamlAssertion()).containsSame(mdsAssertion);
     }
 }
@@ -0,0 +1,106 @@
+package uk.gov.ida.saml.hub.validators.authnrequest;
+
+import io.prometheus.client.CollectorRegistry;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.ida.shared.utils.datetime.DateTimeFreezer;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BoundedIdExpirationCacheTest {
+
+    private static final String CACHE_NAME = "test_cache";
+
+    private BoundedIdExpirationCache<String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        DateTimeFreezer.freezeTime();
+        cache = new BoundedIdExpirationCache<>(CACHE_NAME, 2);
+    }
+
+    @AfterEach
+    public void unfreezeTime() {
+        DateTimeFreezer.unfreezeTime();
+    }
+
+    @Test
+    public void putIfAbsentOrExpired_shouldReturnTheUnexpiredExpirationOfADuplicate() {
+        DateTime expiration = DateTime.now().plusMinutes(5);
+        cache.putIfAbsentOrExpired("id", expiration);
+
+        assertThat(cache.putIfAbsentOrExpired("id", DateTime.now().plusMinutes(10))).isEqualTo(expiration);
+    }
+
+    @Test
+    public void shouldEvictIdsOnceTheirExpirationHasPassed() {
+        double evictionsBefore = sample("verify_saml_hub_replay_cache_evictions_total");
+        cache.putIfAbsentOrExpired("id", DateTime.now().plusMinutes(5));
+
+        DateTimeFreezer.freezeTime(DateTime.now().plusMinutes(5));
+
+        assertThat(cache.contains("id")).isFalse();
+        assertThat(cache.size()).isZero();
+        assertThat(sample("verify_saml_hub_replay_cache_evictions_total")).isEqualTo(evictionsBefore + 1);
+        assertThat(sample("verify_saml_hub_replay_cache_size")).isZero();
+    }
+
+    @Test
+    public void shouldRejectNewIdsOnceFull() {
+        double rejectionsBefore = sample("verify_saml_hub_replay_cache_rejections_total");
+        DateTime expiration = DateTime.now().plusMinutes(5);
+        cache.putIfAbsentOrExpired("first", expiration);
+        cache.putIfAbsentOrExpired("second", expiration);
+
+        assertThrows(IdExpirationCacheFullException.class, () -> cache.putIfAbsentOrExpired("third", expiration));
+        assertThat(cache.putIfAbsentOrExpired("first", expiration)).isEqualTo(expiration);
+        assertThat(cache.contains("third")).isFalse();
+        assertThat(sample("verify_saml_hub_replay_cache_rejections_total")).isEqualTo(rejectionsBefore + 1);
+    }
+
+    @Test
+    public void shouldAcceptNewIdsAgainOnceExpiredIdsMakeRoom() {
+        cache.putIfAbsentOrExpired("first", DateTime.now().plusMinutes(1));
+        cache.putIfAbsentOrExpired("second", DateTime.now().plusMinutes(5));
+
+        DateTimeFreezer.freezeTime(DateTime.now().plusMinutes(2));
+
+        assertThat(cache.putIfAbsentOrExpired("third", DateTime.now().plusMinutes(5))).isNull();
+        assertThat(cache.contains("second")).isTrue();
+    }
+
+    @Test
+    public void checkAndRecordAll_shouldRecordNothingIfTheNewIdsDoNotFit() {
+        double rejectionsBefore = sample("verify_saml_hub_replay_cache_rejections_total");
+        DateTime expiration = DateTime.now().plusMinutes(5);
+        cache.putIfAbsentOrExpired("first", expiration);
+
+        assertThrows(IdExpirationCacheFullException.class, () -> cache.checkAndRecordAll(Map.of("second", expiration, "third", expiration)));
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(sample("verify_saml_hub_replay_cache_rejections_total")).isEqualTo(rejectionsBefore + 2);
+    }
+
+    @Test
+    public void shouldStayTheSameSizeOverMillionsOfShortLivedIds() {
+        BoundedIdExpirationCache<String> largeCache = new BoundedIdExpirationCache<>(CACHE_NAME, 1_000);
+        DateTime now = DateTime.now();
+
+        for (int i = 0; i < 2_000_000; i++) {
+            now = now.plusMillis(1);
+            DateTimeFreezer.freezeTime(now);
+            largeCache.putIfAbsentOrExpired("id-" + i, now.plusMillis(10));
+        }
+
+        assertThat(largeCache.size()).isLessThanOrEqualTo(10);
+    }
+
+    private double sample(String name) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue(name, new String[]{"cache"}, new String[]{CACHE_NAME});
+        return value == null ? 0 : value;
+    }
+}
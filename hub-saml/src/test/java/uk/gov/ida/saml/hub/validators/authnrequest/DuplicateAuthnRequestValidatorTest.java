@@ -11,8 +11,15 @@ import uk.gov.ida.saml.core.test.OpenSAMLExtension;
 import uk.gov.ida.saml.hub.configuration.SamlDuplicateRequestValidationConfiguration;
 import uk.gov.ida.shared.utils.datetime.DateTimeFreezer;
 
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -79,4 +86,24 @@ public class DuplicateAuthnRequestValidatorTest {
         boolean isValid = duplicateAuthnRequestValidator.valid(duplicateRequestId);
         assertThat(isValid).isEqualTo(false);
     }
+
+    @Test
+    public void valid_shouldPassOnlyOneOfManyConcurrentAuthnRequestsWithTheSameId() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> validations = IntStream.range(0, 64)
+                .mapToObj(i -> (Callable<Boolean>) () -> duplicateAuthnRequestValidator.valid("concurrent-id"))
+                .collect(Collectors.toList());
+
+        try {
+            long passed = 0;
+            for (Future<Boolean> result : executor.invokeAll(validations)) {
+                if (result.get()) {
+                    passed++;
+                }
+            }
+            assertThat(passed).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
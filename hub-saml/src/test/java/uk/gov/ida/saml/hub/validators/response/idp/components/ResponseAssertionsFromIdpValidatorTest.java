@@ -14,8 +14,10 @@ import uk.gov.ida.saml.core.validation.SamlTransformationErrorException;
 import uk.gov.ida.saml.core.validation.SamlValidationSpecificationFailure;
 import uk.gov.ida.saml.core.validation.assertion.IdentityProviderAssertionValidator;
 import uk.gov.ida.saml.core.validators.assertion.AuthnStatementAssertionValidator;
+import uk.gov.ida.saml.core.validators.assertion.DuplicateAssertionValidator;
 import uk.gov.ida.saml.core.validators.assertion.IPAddressValidator;
 import uk.gov.ida.saml.core.validators.assertion.MatchingDatasetAssertionValidator;
+import uk.gov.ida.saml.hub.exception.SamlValidationException;
 import uk.gov.ida.saml.security.validators.ValidatedAssertions;
 import uk.gov.ida.saml.security.validators.ValidatedResponse;
 
@@ -24,7 +26,9 @@ import java.util.List;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static uk.gov.ida.saml.core.test.builders.AssertionBuilder.anAssertion;
 import static uk.gov.ida.saml.core.test.builders.AuthnStatementBuilder.anAuthnStatement;
 import static uk.gov.ida.saml.core.test.builders.MatchingDatasetAttributeStatementBuilder_1_1.aMatchingDatasetAttributeStatement_1_1;
@@ -41,6 +45,8 @@ public class ResponseAssertionsFromIdpValidatorTest {
     @Mock
     private AuthnStatementAssertionValidator authnStatementValidator;
     @Mock
+    private DuplicateAssertionValidator duplicateAssertionValidator;
+    @Mock
     private IPAddressValidator ipAddressValidator;
 
     private ResponseAssertionsFromIdpValidator validator;
@@ -51,6 +57,7 @@ public class ResponseAssertionsFromIdpValidatorTest {
                 assertionValidator,
                 matchingDatasetAssertionValidator,
                 authnStatementValidator,
+                duplicateAssertionValidator,
                 ipAddressValidator,
                 TestEntityIds.HUB_ENTITY_ID
         );
@@ -83,7 +90,38 @@ public class ResponseAssertionsFromIdpValidatorTest {
 
         validator.validate(new ValidatedResponse(response), new ValidatedAssertions(assertions));
 
-        verify(matchingDatasetAssertionValidator).validate(mdsAssertion, response.getIssuer().getValue());
+        verify(matchingDatasetAssertionValidator).validate(mdsAssertion);
+    }
+
+    @Test
+    public void validate_shouldCheckBothAssertionsForDuplicatesTogether() throws Exception {
+        Response response = aResponse()
+                .addEncryptedAssertion(anAssertion().addAttributeStatement(aMatchingDatasetAttributeStatement_1_1().build()).build())
+                .addEncryptedAssertion(anAssertion().build())
+                .build();
+        Assertion authNAssertion = anAssertion().buildUnencrypted();
+        Assertion mdsAssertion = anAssertion().addAttributeStatement(aMatchingDatasetAttributeStatement_1_1().build()).buildUnencrypted();
+        List<Assertion> assertions = asList(mdsAssertion, authNAssertion);
+
+        validator.validate(new ValidatedResponse(response), new ValidatedAssertions(assertions));
+
+        verify(duplicateAssertionValidator).validateIdpAssertions(authNAssertion, mdsAssertion, response.getIssuer().getValue());
+    }
+
+    @Test
+    public void validate_shouldNotRecordTheAssertionIdsIfTheAuthnStatementIsInvalid() throws Exception {
+        Response response = aResponse()
+                .addEncryptedAssertion(anAssertion().addAttributeStatement(aMatchingDatasetAttributeStatement_1_1().build()).build())
+                .addEncryptedAssertion(anAssertion().build())
+                .build();
+        Assertion authNAssertion = anAssertion().buildUnencrypted();
+        Assertion mdsAssertion = anAssertion().addAttributeStatement(aMatchingDatasetAttributeStatement_1_1().build()).buildUnencrypted();
+        List<Assertion> assertions = asList(mdsAssertion, authNAssertion);
+        doThrow(new SamlValidationException(SamlTransformationErrorFactory.authnInstantMissing())).when(authnStatementValidator).validate(authNAssertion);
+
+        assertThrows(SamlValidationException.class, () -> validator.validate(new ValidatedResponse(response), new ValidatedAssertions(assertions)));
+
+        verifyNoInteractions(duplicateAssertionValidator);
     }
 
     @Test
@@ -0,0 +1,118 @@
+package uk.gov.ida.integrationtest.hub.config.apprule;
+
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.gov.ida.hub.config.ConfigApplication;
+import uk.gov.ida.hub.config.Urls;
+import uk.gov.ida.hub.config.domain.LevelOfAssurance;
+import uk.gov.ida.hub.config.dto.IdpSelectionContextDto;
+import uk.gov.ida.integrationtest.hub.config.apprule.support.ConfigAppExtension;
+import uk.gov.ida.integrationtest.hub.config.apprule.support.ConfigAppExtension.ConfigAppExtensionBuilder;
+import uk.gov.ida.integrationtest.hub.config.apprule.support.ConfigAppExtension.ConfigClient;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import java.net.URI;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.hub.config.domain.builders.IdentityProviderConfigDataBuilder.anIdentityProviderConfigData;
+import static uk.gov.ida.hub.config.domain.builders.MatchingServiceConfigBuilder.aMatchingServiceConfig;
+import static uk.gov.ida.hub.config.domain.builders.TransactionConfigBuilder.aTransactionConfigData;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+public class IdpSelectionContextResourceIntegrationTest {
+    private static final String RP_ENTITY_ID = "rp-entity-id";
+    private static final String MS_ENTITY_ID = "ms-entity-id";
+    private static final String ENABLED_IDP = "enabled-idp";
+    private static final String SOFT_DISCONNECTING_IDP = "soft-disconnecting-idp";
+    private static final String DISABLED_IDP = "disabled-idp";
+
+    private static final ConfigAppExtension app = ConfigAppExtensionBuilder.forApp(ConfigApplication.class)
+            .addTransaction(aTransactionConfigData()
+                    .withEntityId(RP_ENTITY_ID)
+                    .withLevelsOfAssurance(singletonList(LevelOfAssurance.LEVEL_2))
+                    .withMatchingServiceEntityId(MS_ENTITY_ID)
+                    .build())
+            .addMatchingService(aMatchingServiceConfig()
+                    .withEntityId(MS_ENTITY_ID)
+                    .build())
+            .addIdp(anIdentityProviderConfigData()
+                    .withEntityId(ENABLED_IDP)
+                    .withSupportedLevelsOfAssurance(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2))
+                    .build())
+            .addIdp(anIdentityProviderConfigData()
+                    .withEntityId(SOFT_DISCONNECTING_IDP)
+                    .withSupportedLevelsOfAssurance(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2))
+                    .withProvideRegistrationUntil(DateTime.now().minusDays(1))
+                    .withProvideAuthenticationUntil(DateTime.now().plusDays(1))
+                    .build())
+            .addIdp(anIdentityProviderConfigData()
+                    .withEntityId(DISABLED_IDP)
+                    .withEnabled(false)
+                    .build())
+            .build();
+
+    private ConfigClient client;
+
+    @BeforeEach
+    void setup() { client = app.getClient(); }
+
+    @AfterAll
+    static void tearDown() { app.tearDown(); }
+
+    @Test
+    public void getIdpSelectionContext_whenRegistering_returnsTheIdpsEnabledForRegistration() {
+        Response response = getIdpSelectionContext(RP_ENTITY_ID, ENABLED_IDP, true, LevelOfAssurance.LEVEL_2);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        IdpSelectionContextDto context = response.readEntity(IdpSelectionContextDto.class);
+        assertThat(context.getLevelsOfAssurance()).containsExactly(LevelOfAssurance.LEVEL_2);
+        assertThat(context.getEnabledIdentityProviders()).contains(ENABLED_IDP).doesNotContain(SOFT_DISCONNECTING_IDP, DISABLED_IDP);
+        assertThat(context.getIdpConfig().getSupportedLevelsOfAssurance()).containsExactly(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2);
+        assertThat(context.isIdpEnabledForRegistration()).isTrue();
+    }
+
+    @Test
+    public void getIdpSelectionContext_whenSigningIn_returnsTheIdpsEnabledForSignIn() {
+        Response response = getIdpSelectionContext(RP_ENTITY_ID, SOFT_DISCONNECTING_IDP, false, LevelOfAssurance.LEVEL_2);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        IdpSelectionContextDto context = response.readEntity(IdpSelectionContextDto.class);
+        assertThat(context.getEnabledIdentityProviders()).contains(ENABLED_IDP, SOFT_DISCONNECTING_IDP).doesNotContain(DISABLED_IDP);
+        assertThat(context.getIdpConfig()).isNotNull();
+        assertThat(context.isIdpEnabledForRegistration()).isFalse();
+    }
+
+    @Test
+    public void getIdpSelectionContext_leavesOutTheConfigOfADisabledIdp() {
+        Response response = getIdpSelectionContext(RP_ENTITY_ID, DISABLED_IDP, false, LevelOfAssurance.LEVEL_2);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        IdpSelectionContextDto context = response.readEntity(IdpSelectionContextDto.class);
+        assertThat(context.getIdpConfig()).isNull();
+        assertThat(context.isIdpEnabledForRegistration()).isFalse();
+    }
+
+    @Test
+    public void getIdpSelectionContext_returnsNotFoundForAnUnknownTransaction() {
+        Response response = getIdpSelectionContext("unknown-rp", ENABLED_IDP, true, LevelOfAssurance.LEVEL_2);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.NOT_FOUND.getStatusCode());
+    }
+
+    private Response getIdpSelectionContext(String transactionEntityId, String idpEntityId, boolean registering, LevelOfAssurance levelOfAssurance) {
+        URI uri = UriBuilder.fromPath(Urls.ConfigUrls.IDP_SELECTION_CONTEXT_ROOT)
+                .queryParam(Urls.SharedUrls.TRANSACTION_ENTITY_ID_PARAM, transactionEntityId)
+                .queryParam(Urls.SharedUrls.IDP_ENTITY_ID_PARAM, idpEntityId)
+                .queryParam(Urls.SharedUrls.REGISTERING_PARAM, registering)
+                .queryParam(Urls.SharedUrls.LEVEL_OF_ASSURANCE_PARAM, levelOfAssurance)
+                .build();
+        return client.targetMain(uri);
+    }
+}
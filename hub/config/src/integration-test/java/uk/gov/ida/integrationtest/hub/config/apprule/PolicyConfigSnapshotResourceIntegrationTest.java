@@ -0,0 +1,98 @@
+package uk.gov.ida.integrationtest.hub.config.apprule;
+
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.gov.ida.hub.config.ConfigApplication;
+import uk.gov.ida.hub.config.Urls;
+import uk.gov.ida.hub.config.domain.LevelOfAssurance;
+import uk.gov.ida.hub.config.dto.PolicyConfigSnapshotDto;
+import uk.gov.ida.hub.config.dto.TransactionPolicyConfigDto;
+import uk.gov.ida.integrationtest.hub.config.apprule.support.ConfigAppExtension;
+import uk.gov.ida.integrationtest.hub.config.apprule.support.ConfigAppExtension.ConfigAppExtensionBuilder;
+import uk.gov.ida.integrationtest.hub.config.apprule.support.ConfigAppExtension.ConfigClient;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.net.URI;
+import java.util.Collections;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.hub.config.domain.builders.AssertionConsumerServiceBuilder.anAssertionConsumerService;
+import static uk.gov.ida.hub.config.domain.builders.IdentityProviderConfigDataBuilder.anIdentityProviderConfigData;
+import static uk.gov.ida.hub.config.domain.builders.MatchingProcessBuilder.aMatchingProcess;
+import static uk.gov.ida.hub.config.domain.builders.MatchingServiceConfigBuilder.aMatchingServiceConfig;
+import static uk.gov.ida.hub.config.domain.builders.TransactionConfigBuilder.aTransactionConfigData;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+public class PolicyConfigSnapshotResourceIntegrationTest {
+    private static final String ENTITY_ID = "test-entity-id";
+    private static final String DISABLED_ENTITY_ID = "disabled-entity-id";
+    private static final String MS_ENTITY_ID = "ms-entity-id";
+    private static final String IDP_ENTITY_ID = "idp-entity-id";
+    private static final String DEFAULT_URI = "http://foo.bar/default";
+    private static final String INDEXED_URI = "http://foo.bar/indexed";
+
+    private static final ConfigAppExtension app = ConfigAppExtensionBuilder.forApp(ConfigApplication.class)
+            .addTransaction(aTransactionConfigData()
+                    .withEntityId(ENTITY_ID)
+                    .withLevelsOfAssurance(Collections.singletonList(LevelOfAssurance.LEVEL_2))
+                    .withMatchingProcess(aMatchingProcess().withCycle3AttributeName("NationalInsuranceNumber").build())
+                    .addAssertionConsumerService(anAssertionConsumerService().isDefault(true).withUri(URI.create(DEFAULT_URI)).withIndex(0).build())
+                    .addAssertionConsumerService(anAssertionConsumerService().isDefault(false).withUri(URI.create(INDEXED_URI)).withIndex(1).build())
+                    .withMatchingServiceEntityId(MS_ENTITY_ID)
+                    .withUsingMatching(true)
+                    .build())
+            .addTransaction(aTransactionConfigData()
+                    .withEntityId(DISABLED_ENTITY_ID)
+                    .withEnabled(false)
+                    .withMatchingServiceEntityId(MS_ENTITY_ID)
+                    .build())
+            .addMatchingService(aMatchingServiceConfig()
+                    .withEntityId(MS_ENTITY_ID)
+                    .build())
+            .addIdp(anIdentityProviderConfigData()
+                    .withEntityId(IDP_ENTITY_ID)
+                    .withOnboarding(singletonList(ENTITY_ID))
+                    .build())
+            .build();
+
+    private ConfigClient client;
+
+    @BeforeEach
+    void setup() { client = app.getClient(); }
+
+    @AfterAll
+    static void tearDown() { app.tearDown(); }
+
+    @Test
+    public void getPolicyConfigSnapshot_returnsTheConfigOfEveryEnabledTransaction() {
+        Response response = client.targetMain(Urls.ConfigUrls.POLICY_CONFIG_SNAPSHOT_ROOT);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(response.getEntityTag()).isNotNull();
+        PolicyConfigSnapshotDto snapshot = response.readEntity(PolicyConfigSnapshotDto.class);
+        assertThat(snapshot.getTransactions()).containsOnlyKeys(ENTITY_ID);
+        TransactionPolicyConfigDto transaction = snapshot.getTransactions().get(ENTITY_ID);
+        assertThat(transaction.getDefaultAssertionConsumerServiceUri()).isEqualTo(URI.create(DEFAULT_URI));
+        assertThat(transaction.getAssertionConsumerServiceUris()).containsEntry(1, URI.create(INDEXED_URI));
+        assertThat(transaction.getCycle3AttributeName()).isEqualTo("NationalInsuranceNumber");
+        assertThat(transaction.isUsingMatching()).isTrue();
+        assertThat(transaction.getMatchingServiceEntityId()).isEqualTo(MS_ENTITY_ID);
+        assertThat(transaction.getEnabledIdentityProvidersForSignIn()).containsExactly(IDP_ENTITY_ID);
+        assertThat(snapshot.getIdentityProviders()).containsOnlyKeys(IDP_ENTITY_ID);
+        assertThat(snapshot.getMatchingServices()).containsOnlyKeys(MS_ENTITY_ID);
+    }
+
+    @Test
+    public void getPolicyConfigSnapshot_returnsNotModifiedWhenTheTagStillMatches() {
+        Response first = client.targetMain(Urls.ConfigUrls.POLICY_CONFIG_SNAPSHOT_ROOT);
+
+        Response second = client.targetMain(Urls.ConfigUrls.POLICY_CONFIG_SNAPSHOT_ROOT, HttpHeaders.IF_NONE_MATCH, first.getEntityTag().toString());
+
+        assertThat(second.getStatus()).isEqualTo(Response.Status.NOT_MODIFIED.getStatusCode());
+    }
+}
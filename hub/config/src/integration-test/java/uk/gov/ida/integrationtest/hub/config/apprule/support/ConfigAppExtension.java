@@ -222,6 +222,13 @@ public class ConfigAppExtension extends DropwizardAppExtension {
 
         public Response targetAdmin(String path) { return target(UriBuilder.fromPath(path).build(), getAdminPort()); }
 
+        public Response targetMain(String path, String headerName, Object headerValue) {
+            return client.target(UriBuilder.fromUri("http://localhost").port(getLocalPort()).path(path).build())
+                    .request()
+                    .header(headerName, headerValue)
+                    .get();
+        }
+
         public Response target(URI uri, int port) {
             UriBuilder uriBuilder = UriBuilder.fromUri("http://localhost").port(port).path(uri.getRawPath());
             if (uri.getQuery() != null) {
@@ -14,7 +14,9 @@ import uk.gov.ida.common.shared.security.TrustStoreMetrics;
 import uk.gov.ida.hub.config.filters.SessionIdQueryParamLoggingFilter;
 import uk.gov.ida.hub.config.resources.CertificatesResource;
 import uk.gov.ida.hub.config.resources.IdentityProviderResource;
+import uk.gov.ida.hub.config.resources.IdpSelectionContextResource;
 import uk.gov.ida.hub.config.resources.MatchingServiceResource;
+import uk.gov.ida.hub.config.resources.PolicyConfigSnapshotResource;
 import uk.gov.ida.hub.config.resources.TransactionsResource;
 import uk.gov.ida.hub.shared.guice.GuiceBundle;
 import uk.gov.ida.metrics.bundle.PrometheusBundle;
@@ -84,5 +86,7 @@ public class ConfigApplication extends Application<ConfigConfiguration> {
         environment.jersey().register(IdentityProviderResource.class);
         environment.jersey().register(TransactionsResource.class);
         environment.jersey().register(MatchingServiceResource.class);
+        environment.jersey().register(PolicyConfigSnapshotResource.class);
+        environment.jersey().register(IdpSelectionContextResource.class);
     }
 }
@@ -17,6 +17,8 @@ public interface Urls {
         String ENTITY_ID_PARAM = "entityId";
         String SIMPLE_ID_PARAM = "simpleId";
         String LOCALE_PARAM = "locale";
+        String IDP_ENTITY_ID_PARAM = "idpEntityId";
+        String REGISTERING_PARAM = "registering";
     }
 
     interface ConfigUrls {
@@ -94,6 +96,9 @@ public interface Urls {
         String MATCHING_SERVICE_PATH = ENTITY_ID_PATH_PARAM;
         String MATCHING_SERVICE_RESOURCE = MATCHING_SERVICE_ROOT + MATCHING_SERVICE_PATH;
 
+        String POLICY_CONFIG_SNAPSHOT_ROOT = CONFIG_ROOT + "/policy-snapshot";
+        String IDP_SELECTION_CONTEXT_ROOT = CONFIG_ROOT + "/idp-selection-context";
+
         String MATCHING_ENABLED_FOR_TRANSACTION_PATH = ENTITY_ID_PATH_PARAM + "/matching-enabled";
         String MATCHING_ENABLED_FOR_TRANSACTION_RESOURCE = TRANSACTIONS_ROOT + MATCHING_ENABLED_FOR_TRANSACTION_PATH;
     }
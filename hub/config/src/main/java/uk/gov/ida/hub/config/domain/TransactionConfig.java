@@ -167,6 +167,13 @@ public class TransactionConfig implements CertificateConfigurable<TransactionCon
         return Optional.empty();
     }
 
+    public List<Integer> getAssertionConsumerServiceIndices() {
+        return assertionConsumerServices.stream()
+                .map(AssertionConsumerService::getIndex)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
     public URI getServiceHomepage() {
         return serviceHomepage;
     }
@@ -0,0 +1,48 @@
+package uk.gov.ida.hub.config.dto;
+
+import uk.gov.ida.hub.config.domain.LevelOfAssurance;
+
+import java.util.List;
+
+/**
+ * What policy needs to know when a user selects an identity provider. The identity provider's config
+ * is left out if it is unknown or disabled, since it will not be one of the enabled identity providers.
+ */
+public class IdpSelectionContextDto {
+
+    private List<LevelOfAssurance> levelsOfAssurance;
+    private List<String> enabledIdentityProviders;
+    private IdpConfigDto idpConfig;
+    private boolean idpEnabledForRegistration;
+
+    @SuppressWarnings("unused") // NEEDED BY JAXB
+    protected IdpSelectionContextDto() {
+    }
+
+    public IdpSelectionContextDto(
+            List<LevelOfAssurance> levelsOfAssurance,
+            List<String> enabledIdentityProviders,
+            IdpConfigDto idpConfig,
+            boolean idpEnabledForRegistration) {
+        this.levelsOfAssurance = levelsOfAssurance;
+        this.enabledIdentityProviders = enabledIdentityProviders;
+        this.idpConfig = idpConfig;
+        this.idpEnabledForRegistration = idpEnabledForRegistration;
+    }
+
+    public List<LevelOfAssurance> getLevelsOfAssurance() {
+        return levelsOfAssurance;
+    }
+
+    public List<String> getEnabledIdentityProviders() {
+        return enabledIdentityProviders;
+    }
+
+    public IdpConfigDto getIdpConfig() {
+        return idpConfig;
+    }
+
+    public boolean isIdpEnabledForRegistration() {
+        return idpEnabledForRegistration;
+    }
+}
@@ -0,0 +1,39 @@
+package uk.gov.ida.hub.config.dto;
+
+import java.util.Map;
+
+/**
+ * The transaction, identity provider and matching service config that policy needs, in one document.
+ * Disabled transactions and identity providers are left out, so that policy asks for them individually
+ * and gets the same error it always has.
+ */
+public class PolicyConfigSnapshotDto {
+    private Map<String, TransactionPolicyConfigDto> transactions;
+    private Map<String, IdpConfigDto> identityProviders;
+    private Map<String, MatchingServiceConfigDto> matchingServices;
+
+    @SuppressWarnings("unused") // NEEDED BY JAXB
+    protected PolicyConfigSnapshotDto() {
+    }
+
+    public PolicyConfigSnapshotDto(
+            Map<String, TransactionPolicyConfigDto> transactions,
+            Map<String, IdpConfigDto> identityProviders,
+            Map<String, MatchingServiceConfigDto> matchingServices) {
+        this.transactions = transactions;
+        this.identityProviders = identityProviders;
+        this.matchingServices = matchingServices;
+    }
+
+    public Map<String, TransactionPolicyConfigDto> getTransactions() {
+        return transactions;
+    }
+
+    public Map<String, IdpConfigDto> getIdentityProviders() {
+        return identityProviders;
+    }
+
+    public Map<String, MatchingServiceConfigDto> getMatchingServices() {
+        return matchingServices;
+    }
+}
@@ -0,0 +1,93 @@
+package uk.gov.ida.hub.config.dto;
+
+import uk.gov.ida.hub.config.domain.LevelOfAssurance;
+import uk.gov.ida.hub.config.domain.UserAccountCreationAttribute;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything policy reads about one enabled transaction, as its individual endpoints in
+ * {@link uk.gov.ida.hub.config.resources.TransactionsResource} and
+ * {@link uk.gov.ida.hub.config.resources.IdentityProviderResource} would return it.
+ */
+public class TransactionPolicyConfigDto {
+    private URI defaultAssertionConsumerServiceUri;
+    private Map<Integer, URI> assertionConsumerServiceUris;
+    private String cycle3AttributeName;
+    private boolean usingMatching;
+    private List<LevelOfAssurance> levelsOfAssurance;
+    private String matchingServiceEntityId;
+    private List<UserAccountCreationAttribute> userAccountCreationAttributes;
+    private List<String> enabledIdentityProvidersForSignIn;
+    private Map<LevelOfAssurance, List<String>> enabledIdentityProvidersForRegistrationAuthnRequest;
+    private Map<LevelOfAssurance, List<String>> enabledIdentityProvidersForRegistrationAuthnResponse;
+
+    @SuppressWarnings("unused") // NEEDED BY JAXB
+    protected TransactionPolicyConfigDto() {
+    }
+
+    public TransactionPolicyConfigDto(
+            URI defaultAssertionConsumerServiceUri,
+            Map<Integer, URI> assertionConsumerServiceUris,
+            String cycle3AttributeName,
+            boolean usingMatching,
+            List<LevelOfAssurance> levelsOfAssurance,
+            String matchingServiceEntityId,
+            List<UserAccountCreationAttribute> userAccountCreationAttributes,
+            List<String> enabledIdentityProvidersForSignIn,
+            Map<LevelOfAssurance, List<String>> enabledIdentityProvidersForRegistrationAuthnRequest,
+            Map<LevelOfAssurance, List<String>> enabledIdentityProvidersForRegistrationAuthnResponse) {
+        this.defaultAssertionConsumerServiceUri = defaultAssertionConsumerServiceUri;
+        this.assertionConsumerServiceUris = assertionConsumerServiceUris;
+        this.cycle3AttributeName = cycle3AttributeName;
+        this.usingMatching = usingMatching;
+        this.levelsOfAssurance = levelsOfAssurance;
+        this.matchingServiceEntityId = matchingServiceEntityId;
+        this.userAccountCreationAttributes = userAccountCreationAttributes;
+        this.enabledIdentityProvidersForSignIn = enabledIdentityProvidersForSignIn;
+        this.enabledIdentityProvidersForRegistrationAuthnRequest = enabledIdentityProvidersForRegistrationAuthnRequest;
+        this.enabledIdentityProvidersForRegistrationAuthnResponse = enabledIdentityProvidersForRegistrationAuthnResponse;
+    }
+
+    public URI getDefaultAssertionConsumerServiceUri() {
+        return defaultAssertionConsumerServiceUri;
+    }
+
+    public Map<Integer, URI> getAssertionConsumerServiceUris() {
+        return assertionConsumerServiceUris;
+    }
+
+    public String getCycle3AttributeName() {
+        return cycle3AttributeName;
+    }
+
+    public boolean isUsingMatching() {
+        return usingMatching;
+    }
+
+    public List<LevelOfAssurance> getLevelsOfAssurance() {
+        return levelsOfAssurance;
+    }
+
+    public String getMatchingServiceEntityId() {
+        return matchingServiceEntityId;
+    }
+
+    public List<UserAccountCreationAttribute> getUserAccountCreationAttributes() {
+        return userAccountCreationAttributes;
+    }
+
+    public List<String> getEnabledIdentityProvidersForSignIn() {
+        return enabledIdentityProvidersForSignIn;
+    }
+
+    public Map<LevelOfAssurance, List<String>> getEnabledIdentityProvidersForRegistrationAuthnRequest() {
+        return enabledIdentityProvidersForRegistrationAuthnRequest;
+    }
+
+    public Map<LevelOfAssurance, List<String>> getEnabledIdentityProvidersForRegistrationAuthnResponse() {
+        return enabledIdentityProvidersForRegistrationAuthnResponse;
+    }
+}
@@ -0,0 +1,98 @@
+package uk.gov.ida.hub.config.resources;
+
+import com.codahale.metrics.annotation.Timed;
+import uk.gov.ida.hub.config.Urls;
+import uk.gov.ida.hub.config.data.LocalConfigRepository;
+import uk.gov.ida.hub.config.data.ManagedEntityConfigRepository;
+import uk.gov.ida.hub.config.domain.IdentityProviderConfig;
+import uk.gov.ida.hub.config.domain.LevelOfAssurance;
+import uk.gov.ida.hub.config.domain.TransactionConfig;
+import uk.gov.ida.hub.config.domain.filters.IdpPredicateFactory;
+import uk.gov.ida.hub.config.dto.IdpConfigDto;
+import uk.gov.ida.hub.config.dto.IdpSelectionContextDto;
+import uk.gov.ida.hub.config.exceptions.ExceptionFactory;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Answers the questions policy asks config when a user selects an identity provider in one request:
+ * the transaction's levels of assurance, the identity providers enabled for it, and the config of the
+ * selected identity provider along with whether it may be used to register.
+ */
+@Path(Urls.ConfigUrls.IDP_SELECTION_CONTEXT_ROOT)
+@Produces(MediaType.APPLICATION_JSON)
+public class IdpSelectionContextResource {
+
+    private final ManagedEntityConfigRepository<TransactionConfig> transactionConfigRepository;
+    private final LocalConfigRepository<IdentityProviderConfig> identityProviderConfigRepository;
+    private final IdpPredicateFactory idpPredicateFactory;
+    private final ExceptionFactory exceptionFactory;
+
+    @Inject
+    public IdpSelectionContextResource(
+            ManagedEntityConfigRepository<TransactionConfig> transactionConfigRepository,
+            LocalConfigRepository<IdentityProviderConfig> identityProviderConfigRepository,
+            IdpPredicateFactory idpPredicateFactory,
+            ExceptionFactory exceptionFactory) {
+        this.transactionConfigRepository = transactionConfigRepository;
+        this.identityProviderConfigRepository = identityProviderConfigRepository;
+        this.idpPredicateFactory = idpPredicateFactory;
+        this.exceptionFactory = exceptionFactory;
+    }
+
+    @GET
+    @Timed
+    public IdpSelectionContextDto getIdpSelectionContext(
+            @QueryParam(Urls.SharedUrls.TRANSACTION_ENTITY_ID_PARAM) String transactionEntityId,
+            @QueryParam(Urls.SharedUrls.IDP_ENTITY_ID_PARAM) String idpEntityId,
+            @QueryParam(Urls.SharedUrls.REGISTERING_PARAM) boolean registering,
+            @QueryParam(Urls.SharedUrls.LEVEL_OF_ASSURANCE_PARAM) LevelOfAssurance levelOfAssurance) {
+
+        TransactionConfig transactionConfig = getTransactionConfigData(transactionEntityId);
+
+        List<String> idpsForRegistration = idpEntityIdsFilteredBy(
+                idpPredicateFactory.createPredicateForSendingRegistrationRequest(transactionEntityId, levelOfAssurance));
+        List<String> enabledIdentityProviders = registering ?
+                idpsForRegistration :
+                idpEntityIdsFilteredBy(idpPredicateFactory.createPredicateForSignIn(transactionEntityId));
+
+        IdpConfigDto idpConfig = identityProviderConfigRepository.getData(idpEntityId)
+                .filter(IdentityProviderConfig::isEnabled)
+                .map(idpData -> new IdpConfigDto(
+                        idpData.getSimpleId(),
+                        idpData.isEnabled(),
+                        idpData.getSupportedLevelsOfAssurance(),
+                        idpData.getUseExactComparisonType()))
+                .orElse(null);
+
+        return new IdpSelectionContextDto(
+                transactionConfig.getLevelsOfAssurance(),
+                enabledIdentityProviders,
+                idpConfig,
+                idpsForRegistration.contains(idpEntityId));
+    }
+
+    private TransactionConfig getTransactionConfigData(String entityId) {
+        final TransactionConfig configData = transactionConfigRepository.get(entityId)
+                .orElseThrow(() -> exceptionFactory.createNoDataForEntityException(entityId));
+        if (!configData.isEnabled()) {
+            throw exceptionFactory.createDisabledTransactionException(entityId);
+        }
+        return configData;
+    }
+
+    private List<String> idpEntityIdsFilteredBy(Predicate<IdentityProviderConfig> predicate) {
+        return identityProviderConfigRepository.getAllData().stream()
+                .filter(predicate)
+                .map(IdentityProviderConfig::getEntityId)
+                .collect(Collectors.toList());
+    }
+}
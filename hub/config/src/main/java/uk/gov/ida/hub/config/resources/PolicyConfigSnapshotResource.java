@@ -0,0 +1,148 @@
+package uk.gov.ida.hub.config.resources;
+
+import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import uk.gov.ida.hub.config.Urls;
+import uk.gov.ida.hub.config.data.LocalConfigRepository;
+import uk.gov.ida.hub.config.data.ManagedEntityConfigRepository;
+import uk.gov.ida.hub.config.domain.IdentityProviderConfig;
+import uk.gov.ida.hub.config.domain.LevelOfAssurance;
+import uk.gov.ida.hub.config.domain.MatchingProcess;
+import uk.gov.ida.hub.config.domain.MatchingServiceConfig;
+import uk.gov.ida.hub.config.domain.TransactionConfig;
+import uk.gov.ida.hub.config.domain.filters.IdpPredicateFactory;
+import uk.gov.ida.hub.config.dto.IdpConfigDto;
+import uk.gov.ida.hub.config.dto.MatchingServiceConfigDto;
+import uk.gov.ida.hub.config.dto.PolicyConfigSnapshotDto;
+import uk.gov.ida.hub.config.dto.TransactionPolicyConfigDto;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.net.URI;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * All the config policy needs in one response, tagged with a digest of its content so that policy
+ * can poll it with conditional requests and only download it again once something has changed.
+ * Entities are sorted so that every config instance gives the same content the same tag.
+ */
+@Path(Urls.ConfigUrls.POLICY_CONFIG_SNAPSHOT_ROOT)
+@Produces(MediaType.APPLICATION_JSON)
+public class PolicyConfigSnapshotResource {
+
+    private final ManagedEntityConfigRepository<TransactionConfig> transactionConfigRepository;
+    private final ManagedEntityConfigRepository<MatchingServiceConfig> matchingServiceConfigRepository;
+    private final LocalConfigRepository<IdentityProviderConfig> identityProviderConfigRepository;
+    private final IdpPredicateFactory idpPredicateFactory;
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public PolicyConfigSnapshotResource(
+            ManagedEntityConfigRepository<TransactionConfig> transactionConfigRepository,
+            ManagedEntityConfigRepository<MatchingServiceConfig> matchingServiceConfigRepository,
+            LocalConfigRepository<IdentityProviderConfig> identityProviderConfigRepository,
+            IdpPredicateFactory idpPredicateFactory,
+            ObjectMapper objectMapper) {
+        this.transactionConfigRepository = transactionConfigRepository;
+        this.matchingServiceConfigRepository = matchingServiceConfigRepository;
+        this.identityProviderConfigRepository = identityProviderConfigRepository;
+        this.idpPredicateFactory = idpPredicateFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    @GET
+    @Timed
+    public Response getPolicyConfigSnapshot(@Context Request request) throws JsonProcessingException {
+        PolicyConfigSnapshotDto snapshot = buildSnapshot();
+        EntityTag entityTag = new EntityTag(Hashing.sha256().hashBytes(objectMapper.writeValueAsBytes(snapshot)).toString());
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(snapshot).tag(entityTag).build();
+    }
+
+    private PolicyConfigSnapshotDto buildSnapshot() {
+        Map<String, TransactionPolicyConfigDto> transactions = new TreeMap<>();
+        transactionConfigRepository.getAll().stream()
+                .filter(TransactionConfig::isEnabled)
+                .forEach(transaction -> transactions.put(transaction.getEntityId(), toTransactionPolicyConfig(transaction)));
+
+        Map<String, IdpConfigDto> identityProviders = new TreeMap<>();
+        identityProviderConfigRepository.getAllData().stream()
+                .filter(IdentityProviderConfig::isEnabled)
+                .forEach(idp -> identityProviders.put(idp.getEntityId(), new IdpConfigDto(
+                        idp.getSimpleId(),
+                        idp.isEnabled(),
+                        idp.getSupportedLevelsOfAssurance(),
+                        idp.getUseExactComparisonType())));
+
+        Map<String, MatchingServiceConfigDto> matchingServices = new TreeMap<>();
+        matchingServiceConfigRepository.getAll()
+                .forEach(config -> matchingServices.put(config.getEntityId(), new MatchingServiceConfigDto(
+                        config.getEntityId(),
+                        config.getUri(),
+                        config.getEntityId(),
+                        config.getHealthCheckEnabled(),
+                        config.getOnboarding(),
+                        config.getUserAccountCreationUri())));
+
+        return new PolicyConfigSnapshotDto(transactions, identityProviders, matchingServices);
+    }
+
+    private TransactionPolicyConfigDto toTransactionPolicyConfig(TransactionConfig transaction) {
+        String entityId = transaction.getEntityId();
+        Map<Integer, URI> assertionConsumerServiceUris = new TreeMap<>();
+        for (Integer index : transaction.getAssertionConsumerServiceIndices()) {
+            transaction.getAssertionConsumerServiceUri(Optional.of(index))
+                    .ifPresent(uri -> assertionConsumerServiceUris.put(index, uri));
+        }
+
+        Map<LevelOfAssurance, List<String>> forRegistrationAuthnRequest = new EnumMap<>(LevelOfAssurance.class);
+        Map<LevelOfAssurance, List<String>> forRegistrationAuthnResponse = new EnumMap<>(LevelOfAssurance.class);
+        for (LevelOfAssurance levelOfAssurance : LevelOfAssurance.values()) {
+            forRegistrationAuthnRequest.put(levelOfAssurance, idpEntityIdsFilteredBy(
+                    idpPredicateFactory.createPredicateForSendingRegistrationRequest(entityId, levelOfAssurance)));
+            forRegistrationAuthnResponse.put(levelOfAssurance, idpEntityIdsFilteredBy(
+                    idpPredicateFactory.createPredicateForReceivingRegistrationResponse(entityId, levelOfAssurance)));
+        }
+
+        return new TransactionPolicyConfigDto(
+                transaction.getAssertionConsumerServiceUri(Optional.empty()).orElse(null),
+                assertionConsumerServiceUris,
+                transaction.getMatchingProcess().map(MatchingProcess::getCycle3AttributeName).orElse(null),
+                transaction.isUsingMatching(),
+                transaction.getLevelsOfAssurance(),
+                transaction.getMatchingServiceEntityId(),
+                transaction.getUserAccountCreationAttributes().orElse(Collections.emptyList()),
+                idpEntityIdsFilteredBy(idpPredicateFactory.createPredicateForSignIn(entityId)),
+                forRegistrationAuthnRequest,
+                forRegistrationAuthnResponse);
+    }
+
+    private List<String> idpEntityIdsFilteredBy(Predicate<IdentityProviderConfig> predicate) {
+        return identityProviderConfigRepository.getAllData().stream()
+                .filter(predicate)
+                .map(IdentityProviderConfig::getEntityId)
+                .sorted()
+                .collect(toList());
+    }
+}
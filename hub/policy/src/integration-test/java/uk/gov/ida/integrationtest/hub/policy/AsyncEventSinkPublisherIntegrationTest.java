@@ -0,0 +1,135 @@
+package uk.gov.ida.integrationtest.hub.policy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.jackson.Jackson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.ida.common.ServiceInfoConfiguration;
+import uk.gov.ida.common.ServiceInfoConfigurationBuilder;
+import uk.gov.ida.eventemitter.EventDetailsKey;
+import uk.gov.ida.hub.shared.eventsink.AsyncEventSinkConfiguration;
+import uk.gov.ida.hub.shared.eventsink.AsyncEventSinkPublisher;
+import uk.gov.ida.hub.shared.eventsink.EventSinkHubEvent;
+import uk.gov.ida.hub.shared.eventsink.EventSinkHubEventConstants;
+import uk.gov.ida.integrationtest.hub.policy.apprule.support.EventSinkStubExtension;
+import uk.gov.ida.jerseyclient.ErrorHandlingClient;
+import uk.gov.ida.jerseyclient.JsonClient;
+import uk.gov.ida.jerseyclient.JsonResponseProcessor;
+
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Response;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
+
+public class AsyncEventSinkPublisherIntegrationTest {
+
+    private static final ServiceInfoConfiguration SERVICE_INFO = ServiceInfoConfigurationBuilder.aServiceInfo().withName("policy").build();
+    private static final ObjectMapper objectMapper = Jackson.newObjectMapper();
+
+    @RegisterExtension
+    public static EventSinkStubExtension eventSinkStub = new EventSinkStubExtension();
+
+    @TempDir
+    public Path tempDir;
+
+    private final JsonClient jsonClient = new JsonClient(new ErrorHandlingClient(ClientBuilder.newClient()), new JsonResponseProcessor(objectMapper));
+    private AsyncEventSinkPublisher publisher;
+
+    @BeforeEach
+    public void setUp() {
+        eventSinkStub.reset();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    public void shouldSendEventsInBatches() {
+        eventSinkStub.setupStubForBatchLogging(Response.Status.NO_CONTENT);
+        publisher = startedPublisher(Map.of("batchSize", 10));
+
+        EventSinkHubEvent first = anEvent();
+        EventSinkHubEvent second = anEvent();
+        publisher.logHubEvent(first);
+        publisher.logHubEvent(second);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+                eventSinkStub.getBatchedEntities().contains(second.getEventId().toString()));
+        assertThat(eventSinkStub.getBatchedEntities()).contains(first.getEventId().toString());
+    }
+
+    @Test
+    public void shouldSpillWhileTheEventSinkIsDownAndSendTheSpillOnceItIsBack() throws Exception {
+        Path spillFile = tempDir.resolve("events.spill");
+        eventSinkStub.setupStubForBatchLogging(Response.Status.SERVICE_UNAVAILABLE);
+        publisher = startedPublisher(Map.of(
+                "maxAttempts", 2,
+                "retryBackoff", "10ms",
+                "spillFile", spillFile.toString()));
+
+        EventSinkHubEvent whileDown = anEvent();
+        publisher.logHubEvent(whileDown);
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+                Files.exists(spillFile) && Files.readString(spillFile).contains(whileDown.getEventId().toString()));
+        assertThat(eventSinkStub.getCountOfRequestsTo(EventSinkStubExtension.HUB_SUPPORT_EVENT_SINK_BATCH_RESOURCE)).isEqualTo(2);
+
+        eventSinkStub.reset();
+        eventSinkStub.setupStubForBatchLogging(Response.Status.NO_CONTENT);
+        EventSinkHubEvent onceBack = anEvent();
+        publisher.logHubEvent(onceBack);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+                eventSinkStub.getBatchedEntities().contains(whileDown.getEventId().toString()));
+        assertThat(eventSinkStub.getBatchedEntities()).contains(onceBack.getEventId().toString());
+        assertThat(spillFile).doesNotExist();
+    }
+
+    @Test
+    public void shouldSpillEventsThatArriveWhileTheBufferIsFull() throws Exception {
+        Path spillFile = tempDir.resolve("events.spill");
+        AsyncEventSinkPublisher notStarted = publisher(Map.of(
+                "bufferSize", 1,
+                "spillFile", spillFile.toString()));
+
+        notStarted.logHubEvent(anEvent());
+        notStarted.logHubEvent(anEvent());
+        notStarted.logHubEvent(anEvent());
+
+        assertThat(Files.readAllLines(spillFile)).hasSize(2);
+    }
+
+    private AsyncEventSinkPublisher startedPublisher(Map<String, Object> configuration) {
+        AsyncEventSinkPublisher started = publisher(configuration);
+        started.start();
+        return started;
+    }
+
+    private AsyncEventSinkPublisher publisher(Map<String, Object> configuration) {
+        return new AsyncEventSinkPublisher(
+                jsonClient,
+                eventSinkStub.baseUri().build(),
+                objectMapper,
+                objectMapper.convertValue(configuration, AsyncEventSinkConfiguration.class));
+    }
+
+    private static EventSinkHubEvent anEvent() {
+        return new EventSinkHubEvent(
+                SERVICE_INFO,
+                aSessionId().build(),
+                EventSinkHubEventConstants.EventTypes.SESSION_EVENT,
+                Map.of(EventDetailsKey.session_event_type, EventSinkHubEventConstants.SessionEvents.SESSION_STARTED));
+    }
+}
@@ -0,0 +1,272 @@
+package uk.gov.ida.integrationtest.hub.policy;
+
+import com.google.common.base.Strings;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import uk.gov.ida.hub.policy.PolicyModule;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+import uk.gov.ida.hub.policy.domain.state.AwaitingCycle3DataState;
+import uk.gov.ida.hub.policy.domain.state.Cycle0And1MatchRequestSentState;
+import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
+import uk.gov.ida.hub.policy.domain.state.TimeoutState;
+import uk.gov.ida.hub.policy.redis.SessionStoreRedisCodec;
+import uk.gov.ida.hub.policy.session.HashAsyncSessionStore;
+import uk.gov.ida.hub.policy.session.HashSessionStore;
+import uk.gov.ida.hub.policy.session.RedisSessionStore;
+import uk.gov.ida.hub.policy.session.SessionRecord;
+import uk.gov.ida.integrationtest.hub.policy.apprule.support.CommandCountingRecorder;
+import uk.gov.ida.integrationtest.hub.policy.apprule.support.RedisTestExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
+import static uk.gov.ida.hub.policy.builder.state.AwaitingCycle3DataStateBuilder.anAwaitingCycle3DataState;
+import static uk.gov.ida.hub.policy.builder.state.Cycle0And1MatchRequestSentStateBuilder.aCycle0And1MatchRequestSentState;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+import static uk.gov.ida.hub.policy.builder.state.TimeoutStateBuilder.aTimeoutState;
+
+public class HashSessionStoreIntegrationTest {
+
+    private static final int REDIS_PORT = 6391;
+    private static final long RECORD_TTL = 3600L;
+    private static final int BLOB_THRESHOLD = 1024;
+    private static final String MATCHING_DATASET = Strings.repeat("encrypted-matching-dataset-assertion ", 200);
+
+    @RegisterExtension
+    public static RedisTestExtension redis = new RedisTestExtension(REDIS_PORT);
+
+    private static final CommandCountingRecorder commandRecorder = new CommandCountingRecorder();
+    private static final SessionStoreRedisCodec codec = new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper());
+    private static ClientResources clientResources;
+    private static RedisClient redisClient;
+    private static StatefulRedisConnection<SessionId, State> connection;
+    private static StatefulRedisConnection<String, String> inspection;
+
+    private HashSessionStore sessionStore;
+
+    @BeforeAll
+    public static void connect() {
+        clientResources = DefaultClientResources.builder().commandLatencyRecorder(commandRecorder).build();
+        redisClient = RedisClient.create(clientResources);
+        RedisURI redisUri = new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2));
+        connection = redisClient.connect(codec, redisUri);
+        inspection = redisClient.connect(StringCodec.UTF8, redisUri);
+    }
+
+    @AfterAll
+    public static void disconnect() {
+        redisClient.shutdown();
+        clientResources.shutdown();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        sessionStore = new HashSessionStore(
+                connection.sync(),
+                connection.sync(),
+                codec,
+                PolicyModule.getRedisObjectMapper(),
+                BLOB_THRESHOLD,
+                RECORD_TTL);
+        // Load the scripts into the server cache so only steady-state commands are counted
+        SessionStartedState state = aSessionStartedState().build();
+        sessionStore.insert(state.getSessionId(), state);
+        sessionStore.replace(state.getSessionId(), state, 0L);
+        commandRecorder.reset();
+    }
+
+    @Test
+    public void getWithTtl_shouldReassembleTheStateFromItsFields() {
+        Cycle0And1MatchRequestSentState state = aCycle0And1MatchRequestSentState().withEncryptedMatchingDatasetAssertion(MATCHING_DATASET).build();
+        sessionStore.insert(state.getSessionId(), state);
+
+        SessionRecord sessionRecord = sessionStore.getWithTtl(state.getSessionId()).get();
+
+        assertThat(sessionRecord.getState()).usingRecursiveComparison().isEqualTo(state);
+        assertThat(sessionRecord.getVersion()).isEqualTo(0L);
+        assertThat(sessionRecord.getRemainingTtlInMillis()).isBetween(1L, RECORD_TTL * 1000);
+        assertThat(sessionStore.get(state.getSessionId())).usingRecursiveComparison().isEqualTo(state);
+        assertThat(blobFields(state.getSessionId())).isEqualTo(1L);
+    }
+
+    @Test
+    public void replace_shouldOnlyRewriteTheHeaderWhenTheLargeStringsAreCarriedForward() {
+        Cycle0And1MatchRequestSentState state = aCycle0And1MatchRequestSentState().withEncryptedMatchingDatasetAssertion(MATCHING_DATASET).build();
+        SessionId sessionId = state.getSessionId();
+        sessionStore.insert(sessionId, state);
+        commandRecorder.reset();
+
+        AwaitingCycle3DataState nextState = anAwaitingCycle3DataState()
+                .withSessionId(sessionId)
+                .withEncryptedMatchingDatasetAssertion(MATCHING_DATASET)
+                .build();
+        long version = sessionStore.replace(sessionId, nextState, 0L);
+
+        assertThat(commandRecorder.getCommands()).containsExactly(CommandType.EVALSHA);
+        assertThat(version).isEqualTo(1L);
+        assertThat(sessionStore.getWithTtl(sessionId).get().getState()).usingRecursiveComparison().isEqualTo(nextState);
+    }
+
+    @Test
+    public void replace_shouldSendANewLargeStringOnlyOnce() {
+        SessionStartedState state = aSessionStartedState().build();
+        SessionId sessionId = state.getSessionId();
+        sessionStore.insert(sessionId, state);
+        Cycle0And1MatchRequestSentState nextState = aCycle0And1MatchRequestSentState()
+                .withSessionId(sessionId)
+                .withEncryptedMatchingDatasetAssertion(MATCHING_DATASET)
+                .build();
+        commandRecorder.reset();
+
+        long version = sessionStore.replace(sessionId, nextState, 0L);
+
+        assertThat(commandRecorder.getCommands()).containsExactly(CommandType.EVALSHA, CommandType.EVALSHA);
+        assertThat(version).isEqualTo(1L);
+        assertThat(sessionStore.getWithTtl(sessionId).get().getState()).usingRecursiveComparison().isEqualTo(nextState);
+    }
+
+    @Test
+    public void replace_shouldDropLargeStringsTheNewStateNoLongerCarries() {
+        Cycle0And1MatchRequestSentState state = aCycle0And1MatchRequestSentState().withEncryptedMatchingDatasetAssertion(MATCHING_DATASET).build();
+        SessionId sessionId = state.getSessionId();
+        sessionStore.insert(sessionId, state);
+
+        sessionStore.replace(sessionId, aTimeoutState().withSessionId(sessionId).build(), 0L);
+
+        assertThat(blobFields(sessionId)).isEqualTo(0L);
+        assertThat(sessionStore.getWithTtl(sessionId).get().getState()).isInstanceOf(TimeoutState.class);
+    }
+
+    @Test
+    public void replace_shouldPreserveTheExistingExpiry() {
+        Cycle0And1MatchRequestSentState state = aCycle0And1MatchRequestSentState().withEncryptedMatchingDatasetAssertion(MATCHING_DATASET).build();
+        SessionId sessionId = state.getSessionId();
+        sessionStore.insert(sessionId, state);
+        inspection.sync().expire(hashKey(sessionId), 100);
+
+        sessionStore.replace(sessionId, anAwaitingCycle3DataState().withSessionId(sessionId).build(), 0L);
+
+        assertThat(inspection.sync().ttl(hashKey(sessionId))).isBetween(1L, 100L);
+        assertThat(sessionStore.getWithTtl(sessionId).get().getRemainingTtlInMillis()).isBetween(1L, 100_000L);
+    }
+
+    @Test
+    public void replace_shouldRejectAWriteBasedOnAStaleVersion() {
+        SessionStartedState state = aSessionStartedState().build();
+        SessionId sessionId = state.getSessionId();
+        sessionStore.insert(sessionId, state);
+        sessionStore.replace(sessionId, state, 0L);
+
+        assertThrows(SessionStateConflictException.class, () -> sessionStore.replace(sessionId, aTimeoutState().withSessionId(sessionId).build(), 0L));
+        assertThat(sessionStore.getWithTtl(sessionId).get().getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void replace_shouldThrowSessionNotFoundWhenTheSessionHasExpired() {
+        SessionId sessionId = aSessionId().build();
+
+        assertThrows(SessionNotFoundException.class, () -> sessionStore.replace(sessionId, aTimeoutState().withSessionId(sessionId).build(), 0L));
+        assertThat(sessionStore.hasSession(sessionId)).isFalse();
+    }
+
+    @Test
+    public void getWithTtl_shouldLeaveAShortStringThatLooksLikeAFieldNameAlone() {
+        SessionStartedState state = aSessionStartedState().withRequestId("blob:not-a-field").build();
+        sessionStore.insert(state.getSessionId(), state);
+
+        assertThat(sessionStore.getWithTtl(state.getSessionId()).get().getState()).usingRecursiveComparison().isEqualTo(state);
+    }
+
+    @Test
+    public void get_shouldReadASessionStillHeldInTheStringLayout() {
+        Cycle0And1MatchRequestSentState state = aCycle0And1MatchRequestSentState().withEncryptedMatchingDatasetAssertion(MATCHING_DATASET).build();
+        SessionId sessionId = state.getSessionId();
+        RedisSessionStore stringSessionStore = new RedisSessionStore(connection.sync(), codec, RECORD_TTL);
+        stringSessionStore.insert(sessionId, state);
+        stringSessionStore.replace(sessionId, state, 0L);
+
+        SessionRecord sessionRecord = sessionStore.getWithTtl(sessionId).get();
+
+        assertThat(sessionRecord.getState()).usingRecursiveComparison().isEqualTo(state);
+        assertThat(sessionRecord.getVersion()).isEqualTo(1L);
+        assertThat(sessionRecord.getRemainingTtlInMillis()).isBetween(1L, RECORD_TTL * 1000);
+        assertThat(sessionStore.get(sessionId)).usingRecursiveComparison().isEqualTo(state);
+        assertThat(sessionStore.hasSession(sessionId)).isTrue();
+    }
+
+    @Test
+    public void replace_shouldMoveASessionOutOfTheStringLayout() {
+        Cycle0And1MatchRequestSentState state = aCycle0And1MatchRequestSentState().withEncryptedMatchingDatasetAssertion(MATCHING_DATASET).build();
+        SessionId sessionId = state.getSessionId();
+        RedisSessionStore stringSessionStore = new RedisSessionStore(connection.sync(), codec, RECORD_TTL);
+        stringSessionStore.insert(sessionId, state);
+        stringSessionStore.replace(sessionId, state, 0L);
+        inspection.sync().expire(sessionId.getSessionId(), 100);
+
+        AwaitingCycle3DataState nextState = anAwaitingCycle3DataState()
+                .withSessionId(sessionId)
+                .withEncryptedMatchingDatasetAssertion(MATCHING_DATASET)
+                .build();
+        long version = sessionStore.replace(sessionId, nextState, 1L);
+
+        assertThat(version).isEqualTo(2L);
+        assertThat(inspection.sync().exists(sessionId.getSessionId(), "{" + sessionId.getSessionId() + "}:version")).isZero();
+        assertThat(inspection.sync().ttl(hashKey(sessionId))).isBetween(1L, 100L);
+        assertThat(sessionStore.getWithTtl(sessionId).get().getState()).usingRecursiveComparison().isEqualTo(nextState);
+        assertThat(blobFields(sessionId)).isEqualTo(1L);
+    }
+
+    @Test
+    public void replace_shouldRejectAStaleWriteToASessionInTheStringLayout() {
+        SessionStartedState state = aSessionStartedState().build();
+        SessionId sessionId = state.getSessionId();
+        RedisSessionStore stringSessionStore = new RedisSessionStore(connection.sync(), codec, RECORD_TTL);
+        stringSessionStore.insert(sessionId, state);
+        stringSessionStore.replace(sessionId, state, 0L);
+
+        assertThrows(SessionStateConflictException.class, () -> sessionStore.replace(sessionId, aTimeoutState().withSessionId(sessionId).build(), 0L));
+        assertThat(stringSessionStore.getWithTtl(sessionId).get().getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void asyncStore_shouldReadWhatTheSyncStoreWrote() {
+        HashAsyncSessionStore asyncSessionStore = new HashAsyncSessionStore(
+                connection.async(),
+                connection.async(),
+                codec,
+                PolicyModule.getRedisObjectMapper(),
+                BLOB_THRESHOLD,
+                RECORD_TTL);
+        Cycle0And1MatchRequestSentState state = aCycle0And1MatchRequestSentState().withEncryptedMatchingDatasetAssertion(MATCHING_DATASET).build();
+        sessionStore.insert(state.getSessionId(), state);
+
+        assertThat(asyncSessionStore.getWithTtl(state.getSessionId()).toCompletableFuture().join().get().getState())
+                .usingRecursiveComparison().isEqualTo(state);
+        assertThat(asyncSessionStore.get(state.getSessionId()).toCompletableFuture().join())
+                .usingRecursiveComparison().isEqualTo(state);
+        assertThat(asyncSessionStore.hasSession(state.getSessionId()).toCompletableFuture().join()).isTrue();
+    }
+
+    private static long blobFields(SessionId sessionId) {
+        return inspection.sync().hkeys(hashKey(sessionId)).stream().filter(field -> field.startsWith("blob:")).count();
+    }
+
+    private static String hashKey(SessionId sessionId) {
+        return "{" + sessionId.getSessionId() + "}:session";
+    }
+}
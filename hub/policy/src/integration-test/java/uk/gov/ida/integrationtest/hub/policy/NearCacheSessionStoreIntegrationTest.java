@@ -0,0 +1,123 @@
+package uk.gov.ida.integrationtest.hub.policy;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import uk.gov.ida.hub.policy.PolicyModule;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
+import uk.gov.ida.hub.policy.domain.state.TimeoutState;
+import uk.gov.ida.hub.policy.redis.SessionStoreRedisCodec;
+import uk.gov.ida.hub.policy.session.NearCacheSessionStore;
+import uk.gov.ida.hub.policy.session.RedisSessionStore;
+import uk.gov.ida.hub.policy.session.SessionRecord;
+import uk.gov.ida.hub.policy.session.SessionUpdatesSubscriber;
+import uk.gov.ida.integrationtest.hub.policy.apprule.support.CommandCountingRecorder;
+import uk.gov.ida.integrationtest.hub.policy.apprule.support.RedisTestExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+import static uk.gov.ida.hub.policy.builder.state.TimeoutStateBuilder.aTimeoutState;
+
+public class NearCacheSessionStoreIntegrationTest {
+
+    private static final int REDIS_PORT = 6384;
+    private static final long RECORD_TTL = 3600L;
+    private static final RedisURI REDIS_URI = new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2));
+
+    @RegisterExtension
+    public static RedisTestExtension redis = new RedisTestExtension(REDIS_PORT);
+
+    private final SessionStoreRedisCodec codec = new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper());
+
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        nodeA = new Node();
+        nodeB = new Node();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+    }
+
+    @Test
+    public void getWithTtl_shouldServeARepeatedReadWithoutCallingRedis() {
+        SessionStartedState state = aSessionStartedState().build();
+        nodeB.sessionStore.insert(state.getSessionId(), state);
+        nodeA.sessionStore.getWithTtl(state.getSessionId());
+        nodeA.commandRecorder.reset();
+
+        SessionRecord sessionRecord = nodeA.sessionStore.getWithTtl(state.getSessionId()).get();
+
+        assertThat(sessionRecord.getState()).usingRecursiveComparison().isEqualTo(state);
+        assertThat(nodeA.commandRecorder.getCommands()).isEmpty();
+    }
+
+    @Test
+    public void replace_shouldInvalidateTheCopyCachedByAnotherNode() {
+        SessionStartedState state = aSessionStartedState().build();
+        SessionId sessionId = state.getSessionId();
+        nodeA.sessionStore.insert(sessionId, state);
+        SessionRecord readByB = nodeB.sessionStore.getWithTtl(sessionId).get();
+
+        long version = nodeB.sessionStore.replace(sessionId, aTimeoutState().withSessionId(sessionId).build(), readByB.getVersion());
+
+        await().atMost(5, TimeUnit.SECONDS).until(
+                () -> nodeA.sessionStore.getWithTtl(sessionId).get().getVersion() == version);
+        assertThat(nodeA.sessionStore.getWithTtl(sessionId).get().getState()).isInstanceOf(TimeoutState.class);
+    }
+
+    @Test
+    public void replace_shouldKeepTheWritingNodesOwnCopy() throws InterruptedException {
+        SessionStartedState state = aSessionStartedState().build();
+        SessionId sessionId = state.getSessionId();
+        nodeA.sessionStore.insert(sessionId, state);
+
+        long version = nodeA.sessionStore.replace(sessionId, aTimeoutState().withSessionId(sessionId).build(), 0L);
+        // Give the published update time to arrive back at the writing node
+        Thread.sleep(200);
+        nodeA.commandRecorder.reset();
+
+        SessionRecord sessionRecord = nodeA.sessionStore.getWithTtl(sessionId).get();
+
+        assertThat(sessionRecord.getVersion()).isEqualTo(version);
+        assertThat(sessionRecord.getState()).isInstanceOf(TimeoutState.class);
+        assertThat(nodeA.commandRecorder.getCommands()).isEmpty();
+    }
+
+    private class Node {
+        private final CommandCountingRecorder commandRecorder = new CommandCountingRecorder();
+        private final ClientResources clientResources = DefaultClientResources.builder().commandLatencyRecorder(commandRecorder).build();
+        private final RedisClient redisClient = RedisClient.create(clientResources);
+        private final StatefulRedisConnection<SessionId, State> connection = redisClient.connect(codec, REDIS_URI);
+        private final NearCacheSessionStore sessionStore = new NearCacheSessionStore(
+                new RedisSessionStore(connection.sync(), codec, RECORD_TTL),
+                RECORD_TTL,
+                100);
+
+        private Node() {
+            new SessionUpdatesSubscriber(sessionStore).subscribe(redisClient, redisClient.connectPubSub(REDIS_URI));
+        }
+
+        private void shutdown() {
+            redisClient.shutdown();
+            clientResources.shutdown();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package uk.gov.ida.integrationtest.hub.policy;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import uk.gov.ida.hub.policy.PolicyModule;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
+import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
+import uk.gov.ida.hub.policy.redis.SessionStoreRedisCodec;
+import uk.gov.ida.hub.policy.session.RedisSessionPopulation;
+import uk.gov.ida.hub.policy.session.RedisSessionPopulation.Dimension;
+import uk.gov.ida.integrationtest.hub.policy.apprule.support.RedisTestExtension;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.hub.policy.builder.state.IdpSelectedStateBuilder.anIdpSelectedState;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+import static uk.gov.ida.hub.policy.builder.state.TimeoutStateBuilder.aTimeoutState;
+
+public class RedisSessionPopulationIntegrationTest {
+
+    private static final int REDIS_PORT = 6392;
+    private static final long RECORD_TTL = 3600L;
+    private static final long RECORD_TTL_IN_MILLIS = RECORD_TTL * 1000;
+
+    @RegisterExtension
+    public static RedisTestExtension redis = new RedisTestExtension(REDIS_PORT);
+
+    private static final SessionStoreRedisCodec codec = new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper());
+    private static RedisClient redisClient;
+    private static StatefulRedisConnection<SessionId, State> connection;
+
+    private RedisSessionPopulation population;
+
+    @BeforeAll
+    public static void connect() {
+        redisClient = RedisClient.create();
+        connection = redisClient.connect(codec, new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2)));
+    }
+
+    @AfterAll
+    public static void disconnect() {
+        redisClient.shutdown();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        connection.sync().flushdb();
+        population = new RedisSessionPopulation(connection.sync(), connection.async(), codec, RECORD_TTL);
+    }
+
+    @Test
+    public void count_shouldCountNewSessionsByStateAndRelyingParty() {
+        SessionStartedState state = aSessionStartedState().build();
+        population.sessionCreated(state);
+        population.sessionCreated(aSessionStartedState().build());
+
+        population.flush().toCompletableFuture().join();
+        Map<Dimension, Map<String, Long>> counts = population.count();
+
+        assertThat(counts.get(Dimension.STATE)).containsExactly(Map.entry("SESSION_STARTED", 2L));
+        assertThat(counts.get(Dimension.RP)).containsExactly(Map.entry(state.getRequestIssuerEntityId(), 2L));
+        assertThat(counts.get(Dimension.IDP)).isEmpty();
+    }
+
+    @Test
+    public void count_shouldMoveATransitionedSessionToItsNewStateAndIdentityProvider() {
+        SessionStartedState started = aSessionStartedState().build();
+        SessionId sessionId = started.getSessionId();
+        population.sessionCreated(started);
+        population.sessionCreated(aSessionStartedState().build());
+        IdpSelectedState idpSelected = anIdpSelectedState().withSessionId(sessionId).withIdpEntityId("idp-a").build();
+
+        population.sessionTransitioned(started, idpSelected, RECORD_TTL_IN_MILLIS);
+
+        population.flush().toCompletableFuture().join();
+        Map<Dimension, Map<String, Long>> counts = population.count();
+        assertThat(counts.get(Dimension.STATE)).containsOnly(Map.entry("SESSION_STARTED", 1L), Map.entry("IDP_SELECTED", 1L));
+        assertThat(counts.get(Dimension.IDP)).containsExactly(Map.entry("idp-a", 1L));
+    }
+
+    @Test
+    public void count_shouldDropStatesAndIdentityProvidersThatNoSessionIsIn() {
+        SessionStartedState started = aSessionStartedState().build();
+        SessionId sessionId = started.getSessionId();
+        IdpSelectedState idpSelected = anIdpSelectedState().withSessionId(sessionId).withIdpEntityId("idp-a").build();
+        population.sessionCreated(started);
+        population.sessionTransitioned(started, idpSelected, RECORD_TTL_IN_MILLIS);
+
+        population.sessionTransitioned(idpSelected, aTimeoutState().withSessionId(sessionId).build(), RECORD_TTL_IN_MILLIS);
+
+        population.flush().toCompletableFuture().join();
+        Map<Dimension, Map<String, Long>> counts = population.count();
+        assertThat(counts.get(Dimension.STATE)).containsExactly(Map.entry("TIMEOUT", 1L));
+        assertThat(counts.get(Dimension.IDP)).isEmpty();
+    }
+
+    @Test
+    public void sessionCreated_shouldWaitForAFlushBeforeReachingRedis() {
+        population.sessionCreated(aSessionStartedState().build());
+
+        assertThat(connection.sync().dbsize()).isZero();
+        population.flush().toCompletableFuture().join();
+        assertThat(population.count().get(Dimension.STATE)).containsExactly(Map.entry("SESSION_STARTED", 1L));
+    }
+
+    @Test
+    public void count_shouldTrimSessionsThatHaveExpired() throws InterruptedException {
+        SessionStartedState expiring = aSessionStartedState().build();
+        population.sessionCreated(aSessionStartedState().build());
+        population.sessionTransitioned(expiring, anIdpSelectedState().withSessionId(expiring.getSessionId()).build(), 1L);
+        population.flush().toCompletableFuture().join();
+        Thread.sleep(10);
+
+        Map<Dimension, Map<String, Long>> counts = population.count();
+
+        assertThat(counts.get(Dimension.STATE)).containsExactly(Map.entry("SESSION_STARTED", 1L));
+        assertThat(connection.sync().dbsize()).isEqualTo(3L);
+    }
+}
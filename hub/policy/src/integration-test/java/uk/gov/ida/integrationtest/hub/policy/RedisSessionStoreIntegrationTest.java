@@ -0,0 +1,217 @@
+package uk.gov.ida.integrationtest.hub.policy;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import uk.gov.ida.hub.policy.PolicyModule;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.SessionRepository;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.StateController;
+import uk.gov.ida.hub.policy.domain.StateTransitionAction;
+import uk.gov.ida.hub.policy.domain.controller.StateControllerFactory;
+import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
+import uk.gov.ida.hub.policy.domain.state.TimeoutState;
+import uk.gov.ida.hub.policy.redis.SessionStoreRedisCodec;
+import uk.gov.ida.hub.policy.session.RedisAsyncSessionStore;
+import uk.gov.ida.hub.policy.session.RedisSessionStore;
+import uk.gov.ida.hub.policy.session.SessionRecord;
+import uk.gov.ida.integrationtest.hub.policy.apprule.support.CommandCountingRecorder;
+import uk.gov.ida.integrationtest.hub.policy.apprule.support.RedisTestExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+import static uk.gov.ida.hub.policy.builder.state.TimeoutStateBuilder.aTimeoutState;
+
+public class RedisSessionStoreIntegrationTest {
+
+    private static final int REDIS_PORT = 6383;
+    private static final long RECORD_TTL = 3600L;
+
+    @RegisterExtension
+    public static RedisTestExtension redis = new RedisTestExtension(REDIS_PORT);
+
+    private static final CommandCountingRecorder commandRecorder = new CommandCountingRecorder();
+    private static ClientResources clientResources;
+    private static RedisClient redisClient;
+    private static final SessionStoreRedisCodec codec = new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper());
+    private static StatefulRedisConnection<SessionId, State> connection;
+
+    private RedisSessionStore sessionStore;
+
+    @BeforeAll
+    public static void connect() {
+        clientResources = DefaultClientResources.builder().commandLatencyRecorder(commandRecorder).build();
+        redisClient = RedisClient.create(clientResources);
+        connection = redisClient.connect(
+                codec,
+                new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2)));
+    }
+
+    @AfterAll
+    public static void disconnect() {
+        connection.close();
+        redisClient.shutdown();
+        clientResources.shutdown();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        sessionStore = new RedisSessionStore(connection.sync(), codec, RECORD_TTL);
+        // Load the scripts into the server cache so only steady-state commands are counted
+        SessionStartedState state = aSessionStartedState().build();
+        sessionStore.insert(state.getSessionId(), state);
+        sessionStore.replace(state.getSessionId(), state, sessionStore.getWithTtl(state.getSessionId()).get().getVersion());
+        commandRecorder.reset();
+    }
+
+    @Test
+    public void getWithTtl_shouldReturnStateAndTtlInOneRoundTrip() {
+        SessionStartedState state = aSessionStartedState().build();
+        sessionStore.insert(state.getSessionId(), state);
+        commandRecorder.reset();
+
+        Optional<SessionRecord> sessionRecord = sessionStore.getWithTtl(state.getSessionId());
+
+        assertThat(sessionRecord).isPresent();
+        assertThat(sessionRecord.get().getState()).usingRecursiveComparison().isEqualTo(state);
+        assertThat(sessionRecord.get().getRemainingTtlInMillis()).isBetween(1L, RECORD_TTL * 1000);
+        assertThat(commandRecorder.getCommands()).containsExactly(CommandType.EVALSHA);
+    }
+
+    @Test
+    public void getWithTtl_shouldReturnEmptyWhenSessionDoesNotExist() {
+        assertThat(sessionStore.getWithTtl(aSessionId().build())).isEmpty();
+        assertThat(commandRecorder.getCommands()).containsExactly(CommandType.EVALSHA);
+    }
+
+    @Test
+    public void getStateController_shouldMakeASingleRedisCallPerRequest() {
+        StateControllerFactory controllerFactory = mock(StateControllerFactory.class);
+        SessionRepository sessionRepository = sessionRepositoryFor(controllerFactory);
+        SessionStartedState state = aSessionStartedState().build();
+        sessionRepository.createSession(state);
+        commandRecorder.reset();
+
+        sessionRepository.getStateController(state.getSessionId(), SessionStartedState.class);
+
+        verify(controllerFactory).build(any(SessionStartedState.class), any(StateTransitionAction.class));
+        assertThat(commandRecorder.getCommands()).containsExactly(CommandType.EVALSHA);
+    }
+
+    @Test
+    public void replace_shouldPreserveTheExistingExpiryInOneRoundTrip() {
+        SessionStartedState state = aSessionStartedState().build();
+        SessionId sessionId = state.getSessionId();
+        sessionStore.insert(sessionId, state);
+        connection.sync().pexpire(sessionId, 5000L);
+        SessionRecord sessionRecord = sessionStore.getWithTtl(sessionId).get();
+        commandRecorder.reset();
+
+        long version = sessionStore.replace(sessionId, aSessionStartedState().withSessionId(sessionId).build(), sessionRecord.getVersion());
+
+        assertThat(version).isEqualTo(sessionRecord.getVersion() + 1);
+        assertThat(commandRecorder.getCommands()).containsExactly(CommandType.EVALSHA);
+        assertThat(connection.sync().pttl(sessionId)).isBetween(1L, 5000L);
+        assertThat(sessionStore.getWithTtl(sessionId).get().getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    public void replace_shouldRejectAWriteBasedOnAStaleVersion() {
+        SessionStartedState state = aSessionStartedState().build();
+        SessionId sessionId = state.getSessionId();
+        sessionStore.insert(sessionId, state);
+        SessionRecord firstRead = sessionStore.getWithTtl(sessionId).get();
+        SessionRecord secondRead = sessionStore.getWithTtl(sessionId).get();
+
+        sessionStore.replace(sessionId, aTimeoutState().withSessionId(sessionId).build(), firstRead.getVersion());
+
+        assertThrows(SessionStateConflictException.class,
+                () -> sessionStore.replace(sessionId, state, secondRead.getVersion()));
+        assertThat(sessionStore.get(sessionId)).isInstanceOf(TimeoutState.class);
+    }
+
+    @Test
+    public void replace_shouldThrowSessionNotFoundWhenTheSessionHasExpired() {
+        assertThrows(SessionNotFoundException.class,
+                () -> sessionStore.replace(aSessionId().build(), aSessionStartedState().build(), 0L));
+    }
+
+    @Test
+    public void transitionTo_shouldSurfaceAConflictWithAConcurrentTransition() {
+        StateControllerFactory controllerFactory = mock(StateControllerFactory.class);
+        SessionRepository sessionRepository = sessionRepositoryFor(controllerFactory);
+        SessionStartedState state = aSessionStartedState().build();
+        sessionRepository.createSession(state);
+
+        sessionRepository.getStateController(state.getSessionId(), SessionStartedState.class);
+        sessionRepository.getStateController(state.getSessionId(), SessionStartedState.class);
+        ArgumentCaptor<StateTransitionAction> transitions = ArgumentCaptor.forClass(StateTransitionAction.class);
+        verify(controllerFactory, times(2)).build(any(SessionStartedState.class), transitions.capture());
+
+        transitions.getAllValues().get(0).transitionTo(aTimeoutState().withSessionId(state.getSessionId()).build());
+
+        assertThrows(SessionStateConflictException.class,
+                () -> transitions.getAllValues().get(1).transitionTo(aTimeoutState().withSessionId(state.getSessionId()).build()));
+    }
+
+    @Test
+    public void getStateControllerAsync_shouldNotHoldTheCallingThreadWhileRedisIsSlow() throws Exception {
+        StateControllerFactory controllerFactory = mock(StateControllerFactory.class);
+        SessionRepository sessionRepository = sessionRepositoryFor(controllerFactory);
+        SessionStartedState state = aSessionStartedState().build();
+        sessionRepository.createSession(state);
+        StatefulRedisConnection<SessionId, State> slowConnection = redisClient.connect(codec, new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2)));
+
+        try {
+            // Stall the server so the session load has to wait on it
+            RedisFuture<String> sleep = slowConnection.async().debugSleep(1);
+            Thread.sleep(100);
+            long start = System.nanoTime();
+            CompletableFuture<StateController> stateController = sessionRepository
+                    .getStateControllerAsync(state.getSessionId(), SessionStartedState.class)
+                    .toCompletableFuture();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(elapsedMillis).isLessThan(500L);
+            assertThat(stateController).isNotDone();
+            sleep.get(5, TimeUnit.SECONDS);
+            stateController.get(5, TimeUnit.SECONDS);
+            verify(controllerFactory).build(any(SessionStartedState.class), any(StateTransitionAction.class));
+        } finally {
+            slowConnection.close();
+        }
+    }
+
+    private SessionRepository sessionRepositoryFor(StateControllerFactory controllerFactory) {
+        return new SessionRepository(
+                sessionStore,
+                new RedisAsyncSessionStore(connection.async(), codec, RECORD_TTL),
+                controllerFactory,
+                Executors.newSingleThreadExecutor());
+    }
+}
@@ -0,0 +1,119 @@
+package uk.gov.ida.integrationtest.hub.policy;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+import uk.gov.ida.hub.policy.PolicyModule;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
+import uk.gov.ida.hub.policy.domain.state.TimeoutState;
+import uk.gov.ida.hub.policy.redis.SessionStoreRedisCodec;
+import uk.gov.ida.hub.policy.session.RedisAsyncSessionStore;
+import uk.gov.ida.hub.policy.session.RedisSessionStore;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+import static uk.gov.ida.hub.policy.builder.state.TimeoutStateBuilder.aTimeoutState;
+
+public class ReplicaReadSessionStoreIntegrationTest {
+
+    private static final int PRIMARY_PORT = 6389;
+    private static final int REPLICA_PORT = 6390;
+    private static final long RECORD_TTL = 3600L;
+
+    private static final SessionStoreRedisCodec codec = new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper());
+    private static RedisServer primary;
+    private static RedisServer replica;
+    private static RedisClient redisClient;
+    private static StatefulRedisConnection<SessionId, State> primaryConnection;
+    private static StatefulRedisConnection<SessionId, State> replicaConnection;
+
+    private RedisSessionStore sessionStore;
+    private RedisAsyncSessionStore asyncSessionStore;
+
+    @BeforeAll
+    public static void startServers() throws Exception {
+        primary = RedisServer.builder().setting("bind 127.0.0.1").port(PRIMARY_PORT).build();
+        replica = RedisServer.builder().setting("bind 127.0.0.1").port(REPLICA_PORT).slaveOf("127.0.0.1", PRIMARY_PORT).build();
+        primary.start();
+        replica.start();
+        redisClient = RedisClient.create();
+        primaryConnection = redisClient.connect(codec, new RedisURI("localhost", PRIMARY_PORT, Duration.ofSeconds(2)));
+        replicaConnection = redisClient.connect(codec, new RedisURI("localhost", REPLICA_PORT, Duration.ofSeconds(2)));
+    }
+
+    @AfterAll
+    public static void stopServers() {
+        redisClient.shutdown();
+        replica.stop();
+        primary.stop();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        sessionStore = new RedisSessionStore(primaryConnection.sync(), replicaConnection.sync(), codec, RECORD_TTL);
+        asyncSessionStore = new RedisAsyncSessionStore(primaryConnection.async(), replicaConnection.async(), codec, RECORD_TTL);
+    }
+
+    @AfterEach
+    public void resumeReplication() {
+        replicaConnection.sync().slaveof("127.0.0.1", PRIMARY_PORT);
+    }
+
+    @Test
+    public void get_shouldBeServedByTheReplicaOnceItHasCaughtUp() {
+        SessionStartedState state = aSessionStartedState().build();
+        sessionStore.insert(state.getSessionId(), state);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> replicaConnection.sync().get(state.getSessionId()) != null);
+
+        assertThat(sessionStore.get(state.getSessionId())).usingRecursiveComparison().isEqualTo(state);
+        assertThat(sessionStore.hasSession(state.getSessionId())).isTrue();
+    }
+
+    @Test
+    public void queries_shouldFallBackToThePrimaryWhenTheReplicaHasNotCaughtUp() {
+        replicaConnection.sync().slaveofNoOne();
+        SessionStartedState state = aSessionStartedState().build();
+        sessionStore.insert(state.getSessionId(), state);
+
+        assertThat(sessionStore.get(state.getSessionId())).usingRecursiveComparison().isEqualTo(state);
+        assertThat(sessionStore.hasSession(state.getSessionId())).isTrue();
+        assertThat(asyncSessionStore.get(state.getSessionId()).toCompletableFuture().join()).usingRecursiveComparison().isEqualTo(state);
+        assertThat(asyncSessionStore.hasSession(state.getSessionId()).toCompletableFuture().join()).isTrue();
+    }
+
+    @Test
+    public void queries_shouldReportAMissingSessionOnlyWhenThePrimaryAgrees() {
+        SessionId sessionId = aSessionId().build();
+
+        assertThat(sessionStore.get(sessionId)).isNull();
+        assertThat(sessionStore.hasSession(sessionId)).isFalse();
+        assertThat(asyncSessionStore.hasSession(sessionId).toCompletableFuture().join()).isFalse();
+    }
+
+    @Test
+    public void getWithTtl_shouldAlwaysSeeTheLatestReplace() {
+        SessionStartedState state = aSessionStartedState().build();
+        SessionId sessionId = state.getSessionId();
+        sessionStore.insert(sessionId, state);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> replicaConnection.sync().get(sessionId) != null);
+        replicaConnection.sync().slaveofNoOne();
+
+        long version = sessionStore.replace(sessionId, aTimeoutState().withSessionId(sessionId).build(), 0L);
+
+        assertThat(sessionStore.getWithTtl(sessionId).get().getVersion()).isEqualTo(version);
+        assertThat(sessionStore.getWithTtl(sessionId).get().getState()).isInstanceOf(TimeoutState.class);
+    }
+}
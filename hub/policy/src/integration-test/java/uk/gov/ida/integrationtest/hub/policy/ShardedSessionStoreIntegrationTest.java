@@ -0,0 +1,107 @@
+package uk.gov.ida.integrationtest.hub.policy;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+import uk.gov.ida.hub.policy.PolicyModule;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
+import uk.gov.ida.hub.policy.redis.SessionStoreRedisCodec;
+import uk.gov.ida.hub.policy.session.RedisSessionStore;
+import uk.gov.ida.hub.policy.session.SessionStore;
+import uk.gov.ida.hub.policy.session.ShardedSessionStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+
+public class ShardedSessionStoreIntegrationTest {
+
+    private static final List<Integer> SHARD_PORTS = asList(6386, 6387, 6388);
+    private static final long RECORD_TTL = 3600L;
+
+    private static final SessionStoreRedisCodec codec = new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper());
+    private static final Map<Integer, RedisServer> servers = new LinkedHashMap<>();
+    private static final Map<Integer, RedisCommands<SessionId, State>> shardCommands = new LinkedHashMap<>();
+    private static RedisClient redisClient;
+    private static SessionStore sessionStore;
+
+    @BeforeAll
+    public static void startShards() throws Exception {
+        redisClient = RedisClient.create();
+        Map<String, SessionStore> shards = new LinkedHashMap<>();
+        for (int port : SHARD_PORTS) {
+            RedisServer server = RedisServer.builder().setting("bind 127.0.0.1").port(port).build();
+            server.start();
+            servers.put(port, server);
+            RedisCommands<SessionId, State> commands = redisClient.connect(codec, new RedisURI("localhost", port, Duration.ofMillis(500))).sync();
+            shardCommands.put(port, commands);
+            shards.put("localhost:" + port, new RedisSessionStore(commands, codec, RECORD_TTL));
+        }
+        sessionStore = new ShardedSessionStore(shards);
+    }
+
+    @AfterAll
+    public static void stopShards() {
+        redisClient.shutdown();
+        servers.values().forEach(RedisServer::stop);
+    }
+
+    @Test
+    public void shouldSpreadSessionsOverEveryShard() {
+        List<SessionId> sessionIds = insertSessions(300);
+
+        for (SessionId sessionId : sessionIds) {
+            assertThat(sessionStore.hasSession(sessionId)).isTrue();
+        }
+        shardCommands.values().forEach(shard -> assertThat(shard.dbsize()).isGreaterThan(0L));
+    }
+
+    @Test
+    public void shouldKeepServingTheOtherShardsWhenOneIsDown() throws Exception {
+        List<SessionId> sessionIds = insertSessions(30);
+        int downPort = SHARD_PORTS.get(SHARD_PORTS.size() - 1);
+        servers.get(downPort).stop();
+
+        int served = 0;
+        int failed = 0;
+        try {
+            for (SessionId sessionId : sessionIds) {
+                try {
+                    assertThat(sessionStore.getWithTtl(sessionId)).isPresent();
+                    served++;
+                } catch (RedisException e) {
+                    failed++;
+                }
+            }
+        } finally {
+            servers.get(downPort).start();
+        }
+
+        assertThat(served).isGreaterThan(0);
+        assertThat(failed).isGreaterThan(0);
+        assertThat(served + failed).isEqualTo(sessionIds.size());
+    }
+
+    private List<SessionId> insertSessions(int count) {
+        List<SessionId> sessionIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SessionStartedState state = aSessionStartedState().build();
+            sessionStore.insert(state.getSessionId(), state);
+            sessionIds.add(state.getSessionId());
+        }
+        return sessionIds;
+    }
+}
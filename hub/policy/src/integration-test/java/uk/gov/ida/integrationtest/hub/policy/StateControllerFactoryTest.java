@@ -97,7 +97,7 @@ public class StateControllerFactoryTest {
             })
         );
 
-        factory = new StateControllerFactory(injector);
+        factory = injector.getInstance(StateControllerFactory.class);
     }
 
     @Test
@@ -0,0 +1,26 @@
+package uk.gov.ida.integrationtest.hub.policy.apprule.support;
+
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.protocol.ProtocolKeyword;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class CommandCountingRecorder implements CommandLatencyRecorder {
+    private final List<ProtocolKeyword> commands = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void recordCommandLatency(SocketAddress local, SocketAddress remote, ProtocolKeyword commandType, long firstResponseLatency, long completionLatency) {
+        commands.add(commandType);
+    }
+
+    public List<ProtocolKeyword> getCommands() {
+        return new ArrayList<>(commands);
+    }
+
+    public void reset() {
+        commands.clear();
+    }
+}
@@ -7,6 +7,7 @@ import uk.gov.ida.common.ErrorStatusDto;
 import uk.gov.ida.common.ExceptionType;
 import uk.gov.ida.hub.policy.Urls;
 import uk.gov.ida.hub.policy.builder.domain.IdpConfigDtoBuilder;
+import uk.gov.ida.hub.policy.contracts.IdpSelectionContextDto;
 import uk.gov.ida.hub.policy.contracts.MatchingServiceConfigEntityDataDto;
 import uk.gov.ida.hub.policy.domain.IdpConfigDto;
 import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
@@ -18,8 +19,11 @@ import uk.gov.ida.shared.utils.string.StringEncoding;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -32,6 +36,12 @@ public class ConfigStubExtension extends HttpStubExtension {
 
     private final int OK = Response.Status.OK.getStatusCode();
 
+    // What has been stubbed so far, so that the IdP selection context can be stubbed to agree with it
+    private final Map<String, List<LevelOfAssurance>> levelsOfAssurance = new HashMap<>();
+    private final Map<String, Collection<String>> enabledIdpsForSignIn = new HashMap<>();
+    private final Map<String, Map<LevelOfAssurance, Collection<String>>> enabledIdpsForRegistration = new HashMap<>();
+    private final Map<String, IdpConfigDto> idpConfigs = new HashMap<>();
+
     public void setupStubForEnabledIdps(String transactionEntityId, boolean registering, LevelOfAssurance supportedLoa, Collection<String> enabledIdps) throws JsonProcessingException {
         setupStubForEnabledIdps(transactionEntityId, registering, supportedLoa, enabledIdps, enabledIdps);
     }
@@ -42,12 +52,15 @@ public class ConfigStubExtension extends HttpStubExtension {
         if (registering) {
             setupStubForEnabledIdpsForIdpAuthnRequestAndLoa(transactionEntityId, supportedLoa, enabledIdpsForAuthnRequest);
             setupStubForEnabledIdpsForIdpResponseProcessingAndLoa(transactionEntityId, supportedLoa, enabledIdpsForResponseProcessing);
+            enabledIdpsForRegistration.computeIfAbsent(transactionEntityId, entityId -> new HashMap<>()).put(supportedLoa, enabledIdpsForAuthnRequest);
         }
         else {
             setupStubForEnabledIdpsForSignIn(transactionEntityId, allIdps);
+            enabledIdpsForSignIn.put(transactionEntityId, allIdps);
         }
 
         setupStubForIdpConfig(allIdps, supportedLoa);
+        setupStubForIdpSelectionContexts(transactionEntityId);
     }
 
     public void setUpStubForAssertionConsumerServiceUri(String entityId) throws JsonProcessingException {
@@ -75,6 +88,8 @@ public class ConfigStubExtension extends HttpStubExtension {
             .build(StringEncoding.urlEncode(entityId).replace("+", "%20"))
             .getPath();
         register(uri, OK, asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
+        levelsOfAssurance.put(entityId, asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
+        setupStubForIdpSelectionContexts(entityId);
     }
 
     public void setUpStubForMatchingServiceRequest(String rpEntityId, String matchingServiceEntityId) throws JsonProcessingException {
@@ -155,6 +170,39 @@ public class ConfigStubExtension extends HttpStubExtension {
     public void setupStubForIdpConfig(String idpEntityId, IdpConfigDto idpConfigDto) throws JsonProcessingException {
         String uri = UriBuilder.fromPath(Urls.ConfigUrls.IDENTITY_PROVIDER_CONFIG_DATA_RESOURCE).build(idpEntityId).getPath();
         register(uri, OK, idpConfigDto);
+        idpConfigs.put(idpEntityId, idpConfigDto);
+        for (String transactionEntityId : levelsOfAssurance.keySet()) {
+            setupStubForIdpSelectionContexts(transactionEntityId);
+        }
+    }
+
+    private void setupStubForIdpSelectionContexts(String transactionEntityId) throws JsonProcessingException {
+        if (!levelsOfAssurance.containsKey(transactionEntityId)) {
+            return;
+        }
+        Map<LevelOfAssurance, Collection<String>> forRegistration = enabledIdpsForRegistration.getOrDefault(transactionEntityId, Map.of());
+        for (LevelOfAssurance loa : LevelOfAssurance.values()) {
+            for (boolean registering : List.of(true, false)) {
+                Collection<String> enabledIdps = registering ? forRegistration.get(loa) : enabledIdpsForSignIn.get(transactionEntityId);
+                if (enabledIdps == null) {
+                    continue;
+                }
+                for (String idpEntityId : enabledIdps) {
+                    String uri = UriBuilder.fromPath(Urls.ConfigUrls.IDP_SELECTION_CONTEXT_RESOURCE)
+                            .queryParam(Urls.ConfigUrls.TRANSACTION_ENTITY_ID_PARAM, transactionEntityId)
+                            .queryParam(Urls.ConfigUrls.IDP_ENTITY_ID_PARAM, idpEntityId)
+                            .queryParam(Urls.ConfigUrls.REGISTERING_PARAM, registering)
+                            .queryParam(Urls.SharedUrls.LEVEL_OF_ASSURANCE_PARAM, loa)
+                            .build()
+                            .toString();
+                    register(uri, OK, new IdpSelectionContextDto(
+                            levelsOfAssurance.get(transactionEntityId),
+                            new ArrayList<>(enabledIdps),
+                            idpConfigs.get(idpEntityId),
+                            forRegistration.getOrDefault(loa, List.of()).contains(idpEntityId)));
+                }
+            }
+        }
     }
 
     private void setupStubForEnabledIdpsForIdpAuthnRequestAndLoa(String transactionEntityId, LevelOfAssurance supportedLoa, Collection<String> enabledIdps) throws JsonProcessingException {
@@ -171,7 +219,9 @@ public class ConfigStubExtension extends HttpStubExtension {
 
     private void setupStubForIdpConfig(Collection<String> enabledIdps, LevelOfAssurance supportedLoa) throws JsonProcessingException {
         for(String idpEntityId:enabledIdps) {
-            register(UriBuilder.fromPath(Urls.ConfigUrls.IDENTITY_PROVIDER_CONFIG_DATA_RESOURCE).build(idpEntityId).getPath(), OK, IdpConfigDtoBuilder.anIdpConfigDto().withLevelsOfAssurance(supportedLoa).build());
+            IdpConfigDto idpConfigDto = IdpConfigDtoBuilder.anIdpConfigDto().withLevelsOfAssurance(supportedLoa).build();
+            register(UriBuilder.fromPath(Urls.ConfigUrls.IDENTITY_PROVIDER_CONFIG_DATA_RESOURCE).build(idpEntityId).getPath(), OK, idpConfigDto);
+            idpConfigs.put(idpEntityId, idpConfigDto);
         }
     }
 }
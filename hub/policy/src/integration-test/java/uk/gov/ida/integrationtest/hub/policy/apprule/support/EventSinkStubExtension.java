@@ -2,11 +2,27 @@ package uk.gov.ida.integrationtest.hub.policy.apprule.support;
 
 import httpstub.HttpStubExtension;
 import uk.gov.ida.hub.policy.Urls;
+import uk.gov.ida.hub.shared.eventsink.AsyncEventSinkPublisher;
 
 import javax.ws.rs.core.Response;
+import java.util.stream.Collectors;
 
 public class EventSinkStubExtension extends HttpStubExtension {
+    public static final String HUB_SUPPORT_EVENT_SINK_BATCH_RESOURCE = Urls.HubSupportUrls.HUB_SUPPORT_EVENT_SINK_RESOURCE + AsyncEventSinkPublisher.BATCH_PATH;
+
     public void setupStubForLogging() {
         register(Urls.HubSupportUrls.HUB_SUPPORT_EVENT_SINK_RESOURCE, Response.Status.OK.getStatusCode());
     }
+
+    public void setupStubForBatchLogging(Response.Status status) {
+        register(HUB_SUPPORT_EVENT_SINK_BATCH_RESOURCE, status.getStatusCode());
+    }
+
+    public String getBatchedEntities() {
+        return getRecordedRequest()
+                .stream()
+                .filter(request -> request.getPath().equals(HUB_SUPPORT_EVENT_SINK_BATCH_RESOURCE))
+                .map(request -> new String(request.getEntityBytes()))
+                .collect(Collectors.joining());
+    }
 }
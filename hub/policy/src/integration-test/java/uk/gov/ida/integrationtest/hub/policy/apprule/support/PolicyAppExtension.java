@@ -40,8 +40,9 @@ public class PolicyAppExtension extends DropwizardAppExtension {
     }
 
     public static <T extends State> T getSessionState(SessionId sessionId, Class<T> stateClazz) {
-        StatefulRedisConnection<SessionId, State> redisConnection = RedisClient.create().connect(new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper()), new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2)));
-        RedisSessionStore redisSessionStore = new RedisSessionStore(redisConnection.sync(), 3600L);
+        SessionStoreRedisCodec codec = new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper());
+        StatefulRedisConnection<SessionId, State> redisConnection = RedisClient.create().connect(codec, new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2)));
+        RedisSessionStore redisSessionStore = new RedisSessionStore(redisConnection.sync(), codec, 3600L);
         return stateClazz.cast(redisSessionStore.get(sessionId));
     }
 
@@ -14,13 +14,17 @@ import uk.gov.ida.hub.policy.configuration.PolicyConfiguration;
 import uk.gov.ida.hub.policy.domain.exception.SessionAlreadyExistingExceptionMapper;
 import uk.gov.ida.hub.policy.domain.exception.SessionCreationFailureExceptionMapper;
 import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundExceptionMapper;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictExceptionMapper;
 import uk.gov.ida.hub.policy.domain.exception.StateProcessingValidationExceptionMapper;
 import uk.gov.ida.hub.policy.exception.IdaJsonProcessingExceptionMapperBundle;
 import uk.gov.ida.hub.policy.exception.IdpDisabledExceptionMapper;
 import uk.gov.ida.hub.policy.exception.InvalidSessionStateExceptionMapper;
 import uk.gov.ida.hub.policy.exception.PolicyApplicationExceptionMapper;
 import uk.gov.ida.hub.policy.exception.SessionTimeoutExceptionMapper;
+import uk.gov.ida.hub.policy.filters.HubEventFlushingFilter;
 import uk.gov.ida.hub.policy.filters.SessionIdPathParamLoggingFilter;
+import uk.gov.ida.hub.policy.filters.SingleFlightPerSessionFilter;
+import uk.gov.ida.hub.policy.filters.StateTransitionEndingListener;
 import uk.gov.ida.hub.policy.resources.AuthnRequestFromTransactionResource;
 import uk.gov.ida.hub.policy.resources.Cycle3DataResource;
 import uk.gov.ida.hub.policy.resources.MatchingServiceFailureResponseResource;
@@ -75,6 +79,9 @@ public class PolicyApplication extends Application<PolicyConfiguration> {
         registerResources(configuration, environment);
         registerExceptionMappers(environment);
         environment.jersey().register(SessionIdPathParamLoggingFilter.class);
+        environment.jersey().register(HubEventFlushingFilter.class);
+        environment.jersey().register(SingleFlightPerSessionFilter.class);
+        environment.jersey().register(StateTransitionEndingListener.class);
     }
 
     private void registerExceptionMappers(Environment environment) {
@@ -83,6 +90,7 @@ public class PolicyApplication extends Application<PolicyConfiguration> {
         environment.jersey().register(StateProcessingValidationExceptionMapper.class);
         environment.jersey().register(SessionNotFoundExceptionMapper.class);
         environment.jersey().register(SessionAlreadyExistingExceptionMapper.class);
+        environment.jersey().register(SessionStateConflictExceptionMapper.class);
         environment.jersey().register(InvalidSessionStateExceptionMapper.class);
         environment.jersey().register(PolicyApplicationExceptionMapper.class);
         environment.jersey().register(SessionCreationFailureExceptionMapper.class);
@@ -2,6 +2,7 @@ package uk.gov.ida.hub.policy;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
@@ -11,10 +12,8 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import io.dropwizard.setup.Environment;
-import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.sync.RedisCommands;
-import io.lettuce.core.masterslave.MasterSlave;
-import io.lettuce.core.masterslave.StatefulRedisMasterSlaveConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
 import uk.gov.ida.common.ServiceInfoConfiguration;
 import uk.gov.ida.common.shared.security.IdGenerator;
 import uk.gov.ida.eventemitter.Configuration;
@@ -22,33 +21,57 @@ import uk.gov.ida.hub.policy.annotations.Config;
 import uk.gov.ida.hub.policy.annotations.SamlEngine;
 import uk.gov.ida.hub.policy.annotations.SamlSoapProxy;
 import uk.gov.ida.hub.policy.configuration.AssertionLifetimeConfiguration;
+import uk.gov.ida.hub.policy.configuration.ConfigSnapshotConfiguration;
+import uk.gov.ida.hub.policy.configuration.DownstreamExecutorConfiguration;
+import uk.gov.ida.hub.policy.configuration.ExecutorConfiguration;
 import uk.gov.ida.hub.policy.configuration.PolicyConfiguration;
 import uk.gov.ida.hub.policy.configuration.RedisConfiguration;
 import uk.gov.ida.hub.policy.controllogic.AuthnRequestFromTransactionHandler;
 import uk.gov.ida.hub.policy.controllogic.ResponseFromIdpHandler;
 import uk.gov.ida.hub.policy.domain.AssertionRestrictionsFactory;
 import uk.gov.ida.hub.policy.domain.ResponseFromHubFactory;
-import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.hub.policy.domain.SessionRepository;
-import uk.gov.ida.hub.policy.domain.State;
 import uk.gov.ida.hub.policy.domain.controller.StateControllerFactory;
 import uk.gov.ida.hub.policy.factories.SamlAuthnResponseTranslatorDtoFactory;
+import uk.gov.ida.hub.policy.logging.HubEventAccumulator;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
+import uk.gov.ida.hub.policy.proxy.AsyncJsonClient;
+import uk.gov.ida.hub.policy.proxy.DownstreamCallTimingFilter;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
 import uk.gov.ida.hub.policy.proxy.MatchingServiceConfigProxy;
+import uk.gov.ida.hub.policy.proxy.PolicyConfigSnapshot;
 import uk.gov.ida.hub.policy.proxy.SamlEngineProxy;
 import uk.gov.ida.hub.policy.proxy.SamlSoapProxyProxy;
 import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
+import uk.gov.ida.hub.policy.redis.JsonStateSerializer;
+import uk.gov.ida.hub.policy.redis.SessionStateFormat;
+import uk.gov.ida.hub.policy.redis.SessionStoreConnections;
+import uk.gov.ida.hub.policy.redis.SessionStoreLayout;
 import uk.gov.ida.hub.policy.redis.SessionStoreRedisCodec;
+import uk.gov.ida.hub.policy.redis.SmileStateSerializer;
+import uk.gov.ida.hub.policy.redis.StateSerializer;
 import uk.gov.ida.hub.policy.services.AttributeQueryService;
 import uk.gov.ida.hub.policy.services.AuthnResponseFromIdpService;
 import uk.gov.ida.hub.policy.services.Cycle3Service;
 import uk.gov.ida.hub.policy.services.MatchingServiceResponseService;
 import uk.gov.ida.hub.policy.services.SessionService;
+import uk.gov.ida.hub.policy.session.AsyncSessionStore;
+import uk.gov.ida.hub.policy.session.HashAsyncSessionStore;
+import uk.gov.ida.hub.policy.session.HashSessionStore;
+import uk.gov.ida.hub.policy.session.NearCacheSessionStore;
+import uk.gov.ida.hub.policy.session.RedisAsyncSessionStore;
+import uk.gov.ida.hub.policy.session.RedisSessionPopulation;
 import uk.gov.ida.hub.policy.session.RedisSessionStore;
+import uk.gov.ida.hub.policy.session.SessionPopulation;
+import uk.gov.ida.hub.policy.session.SessionPopulationMetrics;
 import uk.gov.ida.hub.policy.session.SessionStore;
+import uk.gov.ida.hub.policy.session.SessionUpdatesSubscriber;
+import uk.gov.ida.hub.policy.session.ShardedAsyncSessionStore;
+import uk.gov.ida.hub.policy.session.ShardedSessionStore;
+import uk.gov.ida.hub.shared.eventsink.AsyncEventSinkPublisher;
 import uk.gov.ida.hub.shared.eventsink.EventSinkHttpProxy;
 import uk.gov.ida.hub.shared.eventsink.EventSinkProxy;
+import uk.gov.ida.hub.shared.redis.RedisCommandLatencyRecorder;
 import uk.gov.ida.jerseyclient.DefaultClientProvider;
 import uk.gov.ida.jerseyclient.ErrorHandlingClient;
 import uk.gov.ida.jerseyclient.JsonClient;
@@ -64,8 +87,14 @@ import javax.inject.Singleton;
 import javax.ws.rs.client.Client;
 import java.net.URI;
 import java.security.KeyStore;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-import static java.util.Collections.singletonList;
+import static java.util.Arrays.asList;
 
 public class PolicyModule extends AbstractModule {
 
@@ -79,10 +108,11 @@ public class PolicyModule extends AbstractModule {
         bind(SessionStoreStartupTasks.class).asEagerSingleton();
         bind(JsonResponseProcessor.class);
         bind(HubEventLogger.class);
+        bind(HubEventAccumulator.class).in(Scopes.SINGLETON);
         bind(SessionService.class);
         bind(AuthnRequestFromTransactionHandler.class);
         bind(SessionRepository.class);
-        bind(StateControllerFactory.class);
+        bind(StateControllerFactory.class).in(Scopes.SINGLETON);
         bind(SamlEngineProxy.class);
         bind(TransactionsConfigProxy.class);
         bind(IdentityProvidersConfigProxy.class);
@@ -96,7 +126,7 @@ public class PolicyModule extends AbstractModule {
         bind(MatchingServiceConfigProxy.class);
         bind(Cycle3Service.class);
         bind(MatchingServiceResponseService.class);
-        bind(ResponseFromIdpHandler.class);
+        bind(ResponseFromIdpHandler.class).in(Scopes.SINGLETON);
     }
 
     @Provides
@@ -119,6 +149,7 @@ public class PolicyModule extends AbstractModule {
                 configuration.getJerseyClientConfiguration(),
                 configuration.getEnableRetryTimeOutConnections(),
                 "policyClient").get();
+        client.register(new DownstreamCallTimingFilter());
         ErrorHandlingClient errorHandlingClient = new ErrorHandlingClient(client);
         return new JsonClient(errorHandlingClient, jsonResponseProcessor);
     }
@@ -132,31 +163,190 @@ public class PolicyModule extends AbstractModule {
                 configuration.getSamlSoapProxyClient(),
                 configuration.getEnableRetryTimeOutConnections(),
                 "SamlSoapProxyClient").get();
+        client.register(new DownstreamCallTimingFilter());
         ErrorHandlingClient errorHandlingClient = new ErrorHandlingClient(client);
         return new JsonClient(errorHandlingClient, responseProcessor);
     }
 
     @Provides
     @Singleton
-    public SessionStore getSessionStore(PolicyConfiguration configuration) {
-        return getRedisSessionStore(
-                configuration.getSessionStoreConfiguration().getRedisConfiguration());
+    public SessionStoreConnections getSessionStoreConnections(PolicyConfiguration configuration, SessionStoreRedisCodec codec) {
+        ClientResources clientResources = DefaultClientResources.builder()
+                .commandLatencyRecorder(new RedisCommandLatencyRecorder(
+                        "verify_policy_session_store_command_duration_seconds",
+                        "Time taken for the session store to complete a Redis command, by node"))
+                .build();
+        return SessionStoreConnections.open(
+                configuration.getSessionStoreConfiguration().getRedisConfiguration(),
+                codec,
+                clientResources);
     }
 
-    private RedisSessionStore getRedisSessionStore(RedisConfiguration config) {
-        RedisClient redisClient = RedisClient.create();
-        redisClient.setDefaultTimeout(config.getTimeout());
-        StatefulRedisMasterSlaveConnection<SessionId, State> redisConnection = MasterSlave.connect(
-                redisClient,
-                new SessionStoreRedisCodec(getRedisObjectMapper()),
-                singletonList(config.getUri())
-        );
-        RedisCommands<SessionId, State> redisCommands = redisConnection.sync();
-        return new RedisSessionStore(redisCommands, config.getRecordTTL());
+    @Provides
+    @Singleton
+    public SessionStoreRedisCodec getSessionStoreRedisCodec(PolicyConfiguration configuration) {
+        return getSessionStoreRedisCodec(configuration.getSessionStoreConfiguration().getRedisConfiguration());
+    }
+
+    @Provides
+    @Singleton
+    public SessionStore getSessionStore(
+            PolicyConfiguration configuration,
+            SessionStoreConnections connections,
+            SessionStoreRedisCodec codec) {
+        RedisConfiguration config = configuration.getSessionStoreConfiguration().getRedisConfiguration();
+        Map<String, SessionStore> shards = new LinkedHashMap<>();
+        connections.getSyncShards().forEach((name, commands) -> shards.put(name, config.getLayout() == SessionStoreLayout.HASH
+                ? new HashSessionStore(
+                        commands,
+                        connections.getSyncQueryShards().get(name),
+                        codec,
+                        getRedisObjectMapper(),
+                        config.getBlobThreshold(),
+                        config.getRecordTTL())
+                : new RedisSessionStore(
+                        commands,
+                        connections.getSyncQueryShards().get(name),
+                        codec,
+                        config.getRecordTTL())));
+        SessionStore sessionStore = shards.size() == 1 ? shards.values().iterator().next() : new ShardedSessionStore(shards);
+        if (!config.getNearCache().isEnabled()) {
+            return sessionStore;
+        }
+        NearCacheSessionStore nearCache = new NearCacheSessionStore(
+                sessionStore,
+                config.getRecordTTL(),
+                config.getNearCache().getMaximumSize());
+        SessionUpdatesSubscriber subscriber = new SessionUpdatesSubscriber(nearCache);
+        connections.connectPubSub().forEach(connection -> subscriber.subscribe(connections.getClient(), connection));
+        return nearCache;
+    }
+
+    @Provides
+    @Singleton
+    public AsyncSessionStore getAsyncSessionStore(
+            PolicyConfiguration configuration,
+            SessionStore sessionStore,
+            SessionStoreConnections connections,
+            SessionStoreRedisCodec codec) {
+        RedisConfiguration config = configuration.getSessionStoreConfiguration().getRedisConfiguration();
+        Map<String, AsyncSessionStore> shards = new LinkedHashMap<>();
+        connections.getAsyncShards().forEach((name, commands) -> shards.put(name, config.getLayout() == SessionStoreLayout.HASH
+                ? new HashAsyncSessionStore(
+                        commands,
+                        connections.getAsyncQueryShards().get(name),
+                        codec,
+                        getRedisObjectMapper(),
+                        config.getBlobThreshold(),
+                        config.getRecordTTL())
+                : new RedisAsyncSessionStore(
+                        commands,
+                        connections.getAsyncQueryShards().get(name),
+                        codec,
+                        config.getRecordTTL())));
+        AsyncSessionStore asyncSessionStore = shards.size() == 1 ? shards.values().iterator().next() : new ShardedAsyncSessionStore(shards);
+        if (sessionStore instanceof NearCacheSessionStore) {
+            return ((NearCacheSessionStore) sessionStore).withAsyncDelegate(asyncSessionStore);
+        }
+        return asyncSessionStore;
+    }
+
+    @Provides
+    @Singleton
+    public SessionPopulation getSessionPopulation(
+            PolicyConfiguration configuration,
+            SessionStoreConnections connections,
+            SessionStoreRedisCodec codec,
+            Environment environment) {
+        RedisConfiguration config = configuration.getSessionStoreConfiguration().getRedisConfiguration();
+        if (!config.getPopulation().isEnabled()) {
+            return SessionPopulation.NONE;
+        }
+        // With client-side sharding every count is kept on the first shard
+        RedisSessionPopulation population = new RedisSessionPopulation(
+                connections.getSyncShards().values().iterator().next(),
+                connections.getAsyncShards().values().iterator().next(),
+                codec,
+                config.getRecordTTL());
+        ScheduledExecutorService executor = environment.lifecycle()
+                .scheduledExecutorService("Session population %s", true)
+                .build();
+        executor.scheduleWithFixedDelay(
+                population::flush,
+                0,
+                config.getPopulation().getFlushPeriod().toMilliseconds(),
+                TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(
+                new SessionPopulationMetrics(population),
+                0,
+                config.getPopulation().getRefreshPeriod().toSeconds(),
+                TimeUnit.SECONDS);
+        return population;
+    }
+
+    @Provides
+    @Singleton
+    public PolicyConfigSnapshot getPolicyConfigSnapshot(PolicyConfiguration configuration, @Config URI configUri, Environment environment) {
+        ConfigSnapshotConfiguration config = configuration.getConfigSnapshot();
+        if (!config.isEnabled()) {
+            return PolicyConfigSnapshot.NONE;
+        }
+        Client client = new ClientProvider(
+                environment,
+                configuration.getJerseyClientConfiguration(),
+                configuration.getEnableRetryTimeOutConnections(),
+                "policyConfigSnapshotClient").get();
+        PolicyConfigSnapshot snapshot = new PolicyConfigSnapshot(client, configUri);
+        ScheduledExecutorService executor = environment.lifecycle()
+                .scheduledExecutorService("Policy config snapshot %s", true)
+                .build();
+        executor.scheduleWithFixedDelay(
+                snapshot,
+                0,
+                config.getRefreshPeriod().toMilliseconds(),
+                TimeUnit.MILLISECONDS);
+        return snapshot;
+    }
+
+    @Provides
+    @Singleton
+    @Named(SessionRepository.STATE_CONTROLLER_EXECUTOR)
+    public Executor getStateControllerExecutor(Environment environment, PolicyConfiguration configuration) {
+        ExecutorConfiguration executorConfiguration = configuration.getStateControllerExecutor();
+        return environment.lifecycle()
+                .executorService("State controller %s")
+                .minThreads(executorConfiguration.getCorePoolSize())
+                .maxThreads(executorConfiguration.getMaxPoolSize())
+                .keepAliveTime(executorConfiguration.getKeepAliveDuration())
+                .build();
+    }
+
+    @Provides
+    @Singleton
+    public AsyncJsonClient getAsyncJsonClient(JsonClient jsonClient, Environment environment, PolicyConfiguration configuration, HubEventAccumulator hubEventAccumulator) {
+        DownstreamExecutorConfiguration executorConfiguration = configuration.getDownstreamExecutor();
+        ExecutorService executor = environment.lifecycle()
+                .executorService("Downstream call %s")
+                .minThreads(executorConfiguration.getCorePoolSize())
+                .maxThreads(executorConfiguration.getMaxPoolSize())
+                .keepAliveTime(executorConfiguration.getKeepAliveDuration())
+                .build();
+        return new AsyncJsonClient(jsonClient, executor, executorConfiguration.getDeadline(), hubEventAccumulator);
+    }
+
+    protected SessionStoreRedisCodec getSessionStoreRedisCodec(RedisConfiguration config) {
+        StateSerializer json = new JsonStateSerializer(getRedisObjectMapper());
+        StateSerializer smile = new SmileStateSerializer();
+        StateSerializer writer = config.getStateFormat() == SessionStateFormat.SMILE ? smile : json;
+        return new SessionStoreRedisCodec(writer, asList(json, smile), config.getCompressionThreshold());
     }
 
     public static ObjectMapper getRedisObjectMapper() {
-        return new ObjectMapper()
+        return getRedisObjectMapper(new JsonFactory());
+    }
+
+    public static ObjectMapper getRedisObjectMapper(JsonFactory jsonFactory) {
+        return new ObjectMapper(jsonFactory)
                 .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.NONE)
                 .setVisibility(PropertyAccessor.SETTER, JsonAutoDetect.Visibility.NONE)
                 .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
@@ -188,6 +378,14 @@ public class PolicyModule extends AbstractModule {
     @Singleton
     public EventSinkProxy eventSinkProxy(JsonClient jsonClient, PolicyConfiguration policyConfiguration, Environment environment) {
         URI eventSinkUri = policyConfiguration.getEventSinkUri();
+        if (eventSinkUri != null && policyConfiguration.getEventSinkPublisher().isEnabled()) {
+            // Started and stopped with the application, as it is Managed
+            return new AsyncEventSinkPublisher(
+                    jsonClient,
+                    eventSinkUri,
+                    environment.getObjectMapper(),
+                    policyConfiguration.getEventSinkPublisher());
+        }
         if (eventSinkUri != null) {
             return new EventSinkHttpProxy(jsonClient, eventSinkUri, environment);
         }
@@ -139,6 +139,13 @@ public interface Urls {
 
         String MATCHING_ENABLED_FOR_TRANSACTION_PATH = ENTITY_ID_PATH_PARAM + "/matching-enabled";
         String MATCHING_ENABLED_FOR_TRANSACTION_RESOURCE = TRANSACTIONS_ROOT + MATCHING_ENABLED_FOR_TRANSACTION_PATH;
+
+        String POLICY_CONFIG_SNAPSHOT_RESOURCE = CONFIG_ROOT + "/policy-snapshot";
+
+        String IDP_SELECTION_CONTEXT_RESOURCE = CONFIG_ROOT + "/idp-selection-context";
+        String TRANSACTION_ENTITY_ID_PARAM = "transactionEntityId";
+        String IDP_ENTITY_ID_PARAM = "idpEntityId";
+        String REGISTERING_PARAM = "registering";
     }
 
     interface FrontendUrls {
@@ -148,5 +155,6 @@ public interface Urls {
 
     interface SamlSoapProxyUrls {
         String MATCHING_SERVICE_REQUEST_SENDER_RESOURCE = "/matching-service-request-sender";
+        String MATCHING_SERVICE_REQUEST_GENERATOR_RESOURCE = MATCHING_SERVICE_REQUEST_SENDER_RESOURCE + "/generate-and-send";
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package uk.gov.ida.hub.policy.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+public class ConfigSnapshotConfiguration {
+
+    @JsonProperty
+    private boolean enabled = false;
+
+    /**
+     * How often config is asked whether the snapshot has changed. This bounds how long a config
+     * change, or a time-based change in which identity providers are enabled, takes to reach policy.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private Duration refreshPeriod = Duration.seconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getRefreshPeriod() {
+        return refreshPeriod;
+    }
+}
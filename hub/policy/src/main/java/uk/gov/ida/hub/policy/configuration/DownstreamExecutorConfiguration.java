@@ -0,0 +1,22 @@
+package uk.gov.ida.hub.policy.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+public class DownstreamExecutorConfiguration extends ExecutorConfiguration {
+
+    /**
+     * How long a downstream call made through the executor may take before the request making it fails.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    protected Duration deadline = Duration.seconds(10);
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+}
@@ -0,0 +1,36 @@
+package uk.gov.ida.hub.policy.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+public class ExecutorConfiguration {
+
+    @Min(1)
+    @JsonProperty
+    protected int corePoolSize = 16;
+
+    @Min(1)
+    @JsonProperty
+    protected int maxPoolSize = 16;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    protected Duration keepAliveDuration = Duration.minutes(1);
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public Duration getKeepAliveDuration() {
+        return keepAliveDuration;
+    }
+}
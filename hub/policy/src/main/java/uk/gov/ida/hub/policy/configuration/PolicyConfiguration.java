@@ -7,6 +7,7 @@ import io.dropwizard.client.JerseyClientConfiguration;
 import io.dropwizard.util.Duration;
 import uk.gov.ida.common.ServiceInfoConfiguration;
 import uk.gov.ida.configuration.ServiceNameConfiguration;
+import uk.gov.ida.hub.shared.eventsink.AsyncEventSinkConfiguration;
 import uk.gov.ida.metrics.config.PrometheusConfiguration;
 import uk.gov.ida.restclient.RestfulClientConfiguration;
 import uk.gov.ida.truststore.ClientTrustStoreConfiguration;
@@ -57,6 +58,11 @@ public class PolicyConfiguration extends Configuration implements RestfulClientC
     @JsonProperty
     public URI eventSinkUri;
 
+    @Valid
+    @NotNull
+    @JsonProperty
+    protected AsyncEventSinkConfiguration eventSinkPublisher = new AsyncEventSinkConfiguration();
+
     @Valid
     @NotNull
     @JsonProperty
@@ -86,6 +92,28 @@ public class PolicyConfiguration extends Configuration implements RestfulClientC
     @JsonProperty
     public EventEmitterConfiguration eventEmitterConfiguration;
 
+    @Valid
+    @NotNull
+    @JsonProperty
+    protected ExecutorConfiguration stateControllerExecutor = new ExecutorConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    protected ConfigSnapshotConfiguration configSnapshot = new ConfigSnapshotConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    protected DownstreamExecutorConfiguration downstreamExecutor = new DownstreamExecutorConfiguration();
+
+    /**
+     * Send attribute query requests to saml-soap-proxy, which has saml-engine generate the query,
+     * rather than generating the query here and passing the signed query on.
+     */
+    @JsonProperty
+    protected boolean generateAttributeQueriesInSamlSoapProxy = false;
+
     protected PolicyConfiguration() {}
 
     public URI getSamlSoapProxyUri() { return samlSoapProxyUri;  }
@@ -116,6 +144,10 @@ public class PolicyConfiguration extends Configuration implements RestfulClientC
         return eventSinkUri;
     }
 
+    public AsyncEventSinkConfiguration getEventSinkPublisher() {
+        return eventSinkPublisher;
+    }
+
     public URI getSamlEngineUri() {
         return samlEngineUri;
     }
@@ -152,4 +184,20 @@ public class PolicyConfiguration extends Configuration implements RestfulClientC
     public SessionStoreConfiguration getSessionStoreConfiguration() {
         return sessionStore;
     }
+
+    public ExecutorConfiguration getStateControllerExecutor() {
+        return stateControllerExecutor;
+    }
+
+    public ConfigSnapshotConfiguration getConfigSnapshot() {
+        return configSnapshot;
+    }
+
+    public DownstreamExecutorConfiguration getDownstreamExecutor() {
+        return downstreamExecutor;
+    }
+
+    public boolean shouldGenerateAttributeQueriesInSamlSoapProxy() {
+        return generateAttributeQueriesInSamlSoapProxy;
+    }
 }
@@ -2,13 +2,22 @@ package uk.gov.ida.hub.policy.configuration;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.lettuce.core.RedisURI;
+import uk.gov.ida.hub.policy.redis.SessionStateFormat;
+import uk.gov.ida.hub.policy.redis.SessionStoreLayout;
+import uk.gov.ida.hub.policy.redis.SessionStoreMode;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static java.time.temporal.ChronoUnit.SECONDS;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 
 public class RedisConfiguration {
 
@@ -20,10 +29,59 @@ public class RedisConfiguration {
     @JsonProperty
     private URI uri;
 
+    @NotNull
+    @JsonProperty
+    private SessionStoreMode mode = SessionStoreMode.STANDALONE;
+
+    /**
+     * The cluster seed nodes or the shards, depending on {@link #mode}. Defaults to just {@link #uri}.
+     */
+    @Valid
+    @JsonProperty
+    private List<URI> uris = new ArrayList<>();
+
+    @Valid
+    @JsonProperty
+    private Duration topologyRefreshPeriod = Duration.of(60, SECONDS);
+
+    /**
+     * Whether session queries that never lead to a transition may be read from replicas.
+     */
+    @JsonProperty
+    private boolean replicaReads = false;
+
     @Valid
     @JsonProperty
     private Duration timeout = Duration.of(20L, SECONDS);
 
+    @Valid
+    @JsonProperty
+    private SessionStateFormat stateFormat = SessionStateFormat.JSON;
+
+    @Valid
+    @JsonProperty
+    private int compressionThreshold = 4096;
+
+    @NotNull
+    @JsonProperty
+    private SessionStoreLayout layout = SessionStoreLayout.STRING;
+
+    /**
+     * With the {@link SessionStoreLayout#HASH} layout, the length from which a string in a session state
+     * is stored in its own field.
+     */
+    @Min(1)
+    @JsonProperty
+    private int blobThreshold = 1024;
+
+    @Valid
+    @JsonProperty
+    private NearCacheConfiguration nearCache = new NearCacheConfiguration();
+
+    @Valid
+    @JsonProperty
+    private SessionPopulationConfiguration population = new SessionPopulationConfiguration();
+
     public Long getRecordTTL() {
         return recordTTL.getSeconds();
     }
@@ -32,7 +90,50 @@ public class RedisConfiguration {
         return RedisURI.create(uri);
     }
 
+    public SessionStoreMode getMode() {
+        return mode;
+    }
+
+    public List<RedisURI> getUris() {
+        if (uris.isEmpty()) {
+            return singletonList(getUri());
+        }
+        return uris.stream().map(RedisURI::create).collect(toList());
+    }
+
+    public Duration getTopologyRefreshPeriod() {
+        return topologyRefreshPeriod;
+    }
+
+    public boolean isReplicaReads() {
+        return replicaReads;
+    }
+
     public Duration getTimeout() {
         return timeout;
     }
+
+    public SessionStateFormat getStateFormat() {
+        return stateFormat;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public SessionStoreLayout getLayout() {
+        return layout;
+    }
+
+    public int getBlobThreshold() {
+        return blobThreshold;
+    }
+
+    public NearCacheConfiguration getNearCache() {
+        return nearCache;
+    }
+
+    public SessionPopulationConfiguration getPopulation() {
+        return population;
+    }
 }
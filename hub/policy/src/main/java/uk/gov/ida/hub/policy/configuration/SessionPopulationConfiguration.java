@@ -0,0 +1,41 @@
+package uk.gov.ida.hub.policy.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+public class SessionPopulationConfiguration {
+
+    @JsonProperty
+    private boolean enabled = false;
+
+    /**
+     * How often the counts are read back and published as gauges.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private Duration refreshPeriod = Duration.seconds(30);
+
+    /**
+     * How often the creations and transitions made since the last flush are sent to Redis.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private Duration flushPeriod = Duration.seconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getRefreshPeriod() {
+        return refreshPeriod;
+    }
+
+    public Duration getFlushPeriod() {
+        return flushPeriod;
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.ida.hub.policy.contracts;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import uk.gov.ida.hub.policy.domain.IdpConfigDto;
+import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class IdpSelectionContextDto {
+
+    private List<LevelOfAssurance> levelsOfAssurance;
+    private List<String> enabledIdentityProviders;
+    private IdpConfigDto idpConfig;
+    private boolean idpEnabledForRegistration;
+
+    @SuppressWarnings("unused") // NEEDED BY JAXB
+    protected IdpSelectionContextDto() {
+    }
+
+    public IdpSelectionContextDto(
+            List<LevelOfAssurance> levelsOfAssurance,
+            List<String> enabledIdentityProviders,
+            IdpConfigDto idpConfig,
+            boolean idpEnabledForRegistration) {
+        this.levelsOfAssurance = levelsOfAssurance;
+        this.enabledIdentityProviders = enabledIdentityProviders;
+        this.idpConfig = idpConfig;
+        this.idpEnabledForRegistration = idpEnabledForRegistration;
+    }
+
+    public List<LevelOfAssurance> getLevelsOfAssurance() {
+        return levelsOfAssurance;
+    }
+
+    public List<String> getEnabledIdentityProviders() {
+        return enabledIdentityProviders;
+    }
+
+    /**
+     * Null if the identity provider is unknown or disabled.
+     */
+    public IdpConfigDto getIdpConfig() {
+        return idpConfig;
+    }
+
+    public boolean isIdpEnabledForRegistration() {
+        return idpEnabledForRegistration;
+    }
+}
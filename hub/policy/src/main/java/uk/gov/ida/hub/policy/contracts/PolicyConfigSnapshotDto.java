@@ -0,0 +1,38 @@
+package uk.gov.ida.hub.policy.contracts;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import uk.gov.ida.hub.policy.domain.IdpConfigDto;
+
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PolicyConfigSnapshotDto {
+    private Map<String, TransactionPolicyConfigDto> transactions;
+    private Map<String, IdpConfigDto> identityProviders;
+    private Map<String, MatchingServiceConfigEntityDataDto> matchingServices;
+
+    @SuppressWarnings("unused") // NEEDED BY JAXB
+    protected PolicyConfigSnapshotDto() {
+    }
+
+    public PolicyConfigSnapshotDto(
+            Map<String, TransactionPolicyConfigDto> transactions,
+            Map<String, IdpConfigDto> identityProviders,
+            Map<String, MatchingServiceConfigEntityDataDto> matchingServices) {
+        this.transactions = transactions;
+        this.identityProviders = identityProviders;
+        this.matchingServices = matchingServices;
+    }
+
+    public Map<String, TransactionPolicyConfigDto> getTransactions() {
+        return transactions;
+    }
+
+    public Map<String, IdpConfigDto> getIdentityProviders() {
+        return identityProviders;
+    }
+
+    public Map<String, MatchingServiceConfigEntityDataDto> getMatchingServices() {
+        return matchingServices;
+    }
+}
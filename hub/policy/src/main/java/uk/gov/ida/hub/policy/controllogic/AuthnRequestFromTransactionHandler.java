@@ -27,7 +27,6 @@ import uk.gov.ida.hub.policy.domain.state.ResponsePreparedState;
 import uk.gov.ida.hub.policy.domain.state.RestartJourneyState;
 import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 import javax.inject.Inject;
 import java.net.URI;
@@ -40,7 +39,6 @@ public class AuthnRequestFromTransactionHandler {
     private final SessionRepository sessionRepository;
     private final HubEventLogger hubEventLogger;
     private final PolicyConfiguration policyConfiguration;
-    private final TransactionsConfigProxy transactionsConfigProxy;
     private final IdGenerator idGenerator;
 
     @Inject
@@ -48,17 +46,15 @@ public class AuthnRequestFromTransactionHandler {
             SessionRepository sessionRepository,
             HubEventLogger hubEventLogger,
             PolicyConfiguration policyConfiguration,
-            TransactionsConfigProxy transactionsConfigProxy,
             IdGenerator idGenerator) {
 
         this.sessionRepository = sessionRepository;
         this.hubEventLogger = hubEventLogger;
         this.policyConfiguration = policyConfiguration;
-        this.transactionsConfigProxy = transactionsConfigProxy;
         this.idGenerator = idGenerator;
     }
 
-    public SessionId handleRequestFromTransaction(SamlResponseWithAuthnRequestInformationDto samlResponse, Optional<String> relayState, String ipAddress, URI assertionConsumerServiceUri) {
+    public SessionId handleRequestFromTransaction(SamlResponseWithAuthnRequestInformationDto samlResponse, Optional<String> relayState, String ipAddress, URI assertionConsumerServiceUri, List<LevelOfAssurance> transactionLevelsOfAssurance) {
         Duration sessionLength = policyConfiguration.getSessionLength();
         DateTime sessionExpiryTimestamp = DateTime.now().plus(sessionLength);
         SessionId sessionId = SessionId.createNewSessionId();
@@ -70,7 +66,6 @@ public class AuthnRequestFromTransactionHandler {
                 samlResponse.getForceAuthentication().orElse(null),
                 sessionExpiryTimestamp,
                 sessionId);
-        final List<LevelOfAssurance> transactionLevelsOfAssurance = transactionsConfigProxy.getLevelsOfAssurance(samlResponse.getIssuer());
 
         hubEventLogger.logSessionStartedEvent(
             samlResponse,
@@ -111,13 +106,13 @@ public class AuthnRequestFromTransactionHandler {
 
     public AuthnRequestSignInProcess getSignInProcessDto(SessionId sessionIdParameter) {
         IdpSelectingStateController stateController = (IdpSelectingStateController)
-                sessionRepository.getStateController(sessionIdParameter, IdpSelectingState.class);
+                sessionRepository.getStateControllerForQuery(sessionIdParameter, IdpSelectingState.class);
         return stateController.getSignInProcessDetails();
     }
 
     public String getRequestIssuerId(SessionId sessionId) {
         IdpSelectingStateController stateController = (IdpSelectingStateController)
-                sessionRepository.getStateController(sessionId, IdpSelectingState.class);
+                sessionRepository.getStateControllerForQuery(sessionId, IdpSelectingState.class);
         return stateController.getRequestIssuerId();
     }
 
@@ -10,10 +10,14 @@ import uk.gov.ida.hub.policy.domain.state.AuthnFailedErrorState;
 import uk.gov.ida.hub.policy.domain.state.ResponseProcessingState;
 
 import javax.inject.Inject;
+import java.util.concurrent.CompletionStage;
 
 public class ResponseFromIdpHandler {
 
     private final SessionRepository sessionRepository;
+    // The frontend polls and double-submits, so concurrent identical requests share one result
+    private final SingleFlight<SessionId, ResponseProcessingDetails> responseProcessingDetails = new SingleFlight<>();
+    private final SingleFlight<SessionId, FailureResponseDetails> errorResponses = new SingleFlight<>();
 
     @Inject
     public ResponseFromIdpHandler(SessionRepository sessionRepository) {
@@ -21,13 +25,13 @@ public class ResponseFromIdpHandler {
         this.sessionRepository = sessionRepository;
     }
 
-    public ResponseProcessingDetails getResponseProcessingDetails(SessionId sessionId) {
-        ResponseProcessingStateController stateController = (ResponseProcessingStateController) sessionRepository.getStateController(sessionId, ResponseProcessingState.class);
-        return stateController.getResponseProcessingDetails();
+    public CompletionStage<ResponseProcessingDetails> getResponseProcessingDetails(SessionId sessionId) {
+        return responseProcessingDetails.call(sessionId, () -> sessionRepository.getStateControllerAsync(sessionId, ResponseProcessingState.class)
+                .thenApply(stateController -> ((ResponseProcessingStateController) stateController).getResponseProcessingDetails()));
     }
 
-    public FailureResponseDetails getErrorResponseFromIdp(SessionId sessionId) {
-        AuthnFailedErrorStateController stateController = (AuthnFailedErrorStateController) sessionRepository.getStateController(sessionId, AuthnFailedErrorState.class);
-        return stateController.handleFailureResponse();
+    public CompletionStage<FailureResponseDetails> getErrorResponseFromIdp(SessionId sessionId) {
+        return errorResponses.call(sessionId, () -> sessionRepository.getStateControllerAsync(sessionId, AuthnFailedErrorState.class)
+                .thenApply(stateController -> ((AuthnFailedErrorStateController) stateController).handleFailureResponse()));
     }
 }
@@ -0,0 +1,38 @@
+package uk.gov.ida.hub.policy.controllogic;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight call between concurrent callers that ask for the same key. A call is forgotten
+ * as soon as it completes, so a caller arriving after that makes a fresh one.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public CompletionStage<V> call(K key, Supplier<? extends CompletionStage<V>> call) {
+        CompletableFuture<V> started = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, started);
+        if (existing != null) {
+            return existing.copy();
+        }
+        try {
+            call.get().whenComplete((result, error) -> {
+                inFlight.remove(key, started);
+                if (error == null) {
+                    started.complete(result);
+                } else {
+                    started.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, started);
+            started.completeExceptionally(e);
+        }
+        return started.copy();
+    }
+}
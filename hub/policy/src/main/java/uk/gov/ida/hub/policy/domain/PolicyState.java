@@ -18,8 +18,13 @@ import uk.gov.ida.hub.policy.domain.state.UserAccountCreatedState;
 import uk.gov.ida.hub.policy.domain.state.UserAccountCreationFailedState;
 import uk.gov.ida.hub.policy.domain.state.UserAccountCreationRequestSentState;
 
+import java.util.Map;
+import java.util.Optional;
+
 import static java.text.MessageFormat.format;
 import static java.util.Arrays.stream;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toUnmodifiableMap;
 
 public enum PolicyState {
     SESSION_STARTED(SessionStartedState.class),
@@ -40,16 +45,21 @@ public enum PolicyState {
     CYCLE_3_DATA_INPUT_CANCELLED(Cycle3DataInputCancelledState.class),
     USER_ACCOUNT_CREATION_FAILED(UserAccountCreationFailedState.class);
 
+    private static final Map<Class<? extends State>, PolicyState> BY_STATE_CLASS = stream(values())
+        .collect(toUnmodifiableMap(PolicyState::getStateClass, identity()));
+
     private final Class<? extends State> stateClass;
 
     PolicyState(Class<? extends State> stateClass) {
         this.stateClass = stateClass;
     }
 
+    public Class<? extends State> getStateClass() {
+        return stateClass;
+    }
+
     public static PolicyState fromStateClass(Class<? extends State> stateClass) {
-        return stream(values())
-            .filter(x -> x.stateClass.equals(stateClass))
-            .findFirst()
+        return Optional.ofNullable(BY_STATE_CLASS.get(stateClass))
             .orElseThrow(() -> new IllegalStateException(format("Unable to locate state for {0}", stateClass.getSimpleName())));
     }
 }
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import uk.gov.ida.hub.policy.Urls;
 import uk.gov.ida.hub.policy.domain.controller.StateControllerFactory;
 import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
 import uk.gov.ida.hub.policy.domain.state.AwaitingCycle3DataState;
 import uk.gov.ida.hub.policy.domain.state.Cycle0And1MatchRequestSentState;
 import uk.gov.ida.hub.policy.domain.state.ErrorResponsePreparedState;
@@ -16,32 +17,84 @@ import uk.gov.ida.hub.policy.domain.state.TimeoutState;
 import uk.gov.ida.hub.policy.domain.state.UserAccountCreatedState;
 import uk.gov.ida.hub.policy.exception.InvalidSessionStateException;
 import uk.gov.ida.hub.policy.exception.SessionTimeoutException;
+import uk.gov.ida.hub.policy.logging.HubEventAccumulator;
+import uk.gov.ida.hub.policy.session.AsyncSessionStore;
+import uk.gov.ida.hub.policy.session.SessionPopulation;
+import uk.gov.ida.hub.policy.session.SessionRecord;
 import uk.gov.ida.hub.policy.session.SessionStore;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 import static java.text.MessageFormat.format;
 
 public class SessionRepository {
 
+    public static final String STATE_CONTROLLER_EXECUTOR = "stateControllerExecutor";
+
     private static final Logger LOG = LoggerFactory.getLogger(SessionRepository.class);
 
     private final SessionStore dataStore;
+    private final AsyncSessionStore asyncDataStore;
     private final StateControllerFactory controllerFactory;
+    private final Executor stateControllerExecutor;
+    private final SessionPopulation sessionPopulation;
+    private final UnaryOperator<Executor> requestExecutor;
+
+    public SessionRepository(
+            SessionStore dataStore,
+            AsyncSessionStore asyncDataStore,
+            StateControllerFactory controllerFactory,
+            Executor stateControllerExecutor) {
+        this(dataStore, asyncDataStore, controllerFactory, stateControllerExecutor, SessionPopulation.NONE);
+    }
+
+    public SessionRepository(
+            SessionStore dataStore,
+            AsyncSessionStore asyncDataStore,
+            StateControllerFactory controllerFactory,
+            Executor stateControllerExecutor,
+            SessionPopulation sessionPopulation) {
+        this(dataStore, asyncDataStore, controllerFactory, stateControllerExecutor, sessionPopulation, UnaryOperator.identity());
+    }
 
     @Inject
     public SessionRepository(
             SessionStore dataStore,
-            StateControllerFactory controllerFactory) {
+            AsyncSessionStore asyncDataStore,
+            StateControllerFactory controllerFactory,
+            @Named(STATE_CONTROLLER_EXECUTOR) Executor stateControllerExecutor,
+            SessionPopulation sessionPopulation,
+            HubEventAccumulator hubEventAccumulator) {
+        this(dataStore, asyncDataStore, controllerFactory, stateControllerExecutor, sessionPopulation, hubEventAccumulator::propagating);
+    }
+
+    private SessionRepository(
+            SessionStore dataStore,
+            AsyncSessionStore asyncDataStore,
+            StateControllerFactory controllerFactory,
+            Executor stateControllerExecutor,
+            SessionPopulation sessionPopulation,
+            UnaryOperator<Executor> requestExecutor) {
         this.dataStore = dataStore;
+        this.asyncDataStore = asyncDataStore;
         this.controllerFactory = controllerFactory;
+        this.stateControllerExecutor = stateControllerExecutor;
+        this.sessionPopulation = sessionPopulation;
+        this.requestExecutor = requestExecutor;
     }
 
     public SessionId createSession(SessionStartedState startedState) {
         SessionId sessionId = startedState.getSessionId();
 
         dataStore.insert(sessionId, startedState);
+        sessionPopulation.sessionCreated(startedState);
         LOG.info(format("Session {0} created", sessionId.getSessionId()));
 
         return sessionId;
@@ -52,18 +105,83 @@ public class SessionRepository {
             final SessionId sessionId,
             final Class<T> expectedStateClass) {
 
-        validateSessionExists(sessionId);
+        long startNanos = System.nanoTime();
+        return toStateController(sessionId, loadSession(sessionId, startNanos), expectedStateClass, startNanos);
+    }
 
-        State currentState = getCurrentState(sessionId);
-        Class<? extends State> currentStateClass = currentState.getClass();
+    /**
+     * Loads the session without blocking the calling thread. The controller is built, and any
+     * timeout transition made, on the state controller executor rather than the store's I/O threads,
+     * so stages chained onto the result may use it directly. Events logged there join the calling
+     * request's batch.
+     */
+    public <T extends State> CompletionStage<StateController> getStateControllerAsync(
+            final SessionId sessionId,
+            final Class<T> expectedStateClass) {
+
+        long startNanos = System.nanoTime();
+        return asyncDataStore.getWithTtl(sessionId).thenApplyAsync(
+                sessionRecord -> toStateController(
+                        sessionId,
+                        sessionRecord.orElseThrow(() -> sessionNotFound(sessionId, startNanos)),
+                        expectedStateClass,
+                        startNanos),
+                StateTransitionMetrics.endingTransitions(requestExecutor.apply(stateControllerExecutor)));
+    }
 
-        handleTimeout(sessionId, currentState, currentStateClass, expectedStateClass);
+    /**
+     * Builds a controller for a request that only reads the session. The state may come from a
+     * replica; whenever it is not simply a live session in the expected state, because it is
+     * missing, timed out, in error or in another state, the session is loaded from the primary
+     * as {@link #getStateController} would so that a lagging replica never decides the outcome.
+     * The controller refuses to transition.
+     */
+    @Timed(name = Urls.SESSION_REPO_TIMED_GROUP)
+    public <T extends State> StateController getStateControllerForQuery(
+            final SessionId sessionId,
+            final Class<T> expectedStateClass) {
 
-        if (isAKindOf(expectedStateClass, currentStateClass) || currentStateClass.equals(TimeoutState.class)) {
-            return controllerFactory.build(currentState, state -> dataStore.replace(sessionId, state));
+        State currentState = dataStore.get(sessionId);
+        if (currentState == null
+                || isTimedOut(currentState)
+                || isErrorState(currentState.getClass())
+                || !isAKindOf(expectedStateClass, currentState.getClass())) {
+            return getStateController(sessionId, expectedStateClass);
         }
+        return controllerFactory.build(currentState, state -> {
+            throw new IllegalStateException(format("Session {0} was loaded for a query and cannot be transitioned", sessionId.getSessionId()));
+        });
+    }
+
+    private <T extends State> StateController toStateController(
+            final SessionId sessionId,
+            final SessionRecord sessionRecord,
+            final Class<T> expectedStateClass,
+            final long startNanos) {
 
-        throw new InvalidSessionStateException(sessionId, expectedStateClass, currentState.getClass());
+        State currentState = sessionRecord.getState();
+        Class<? extends State> currentStateClass = currentState.getClass();
+        long sessionStoreNanos = System.nanoTime() - startNanos;
+        String outcome = StateTransitionMetrics.ERROR;
+
+        try {
+            handleTimeout(sessionId, sessionRecord, currentStateClass, expectedStateClass);
+
+            if (isAKindOf(expectedStateClass, currentStateClass) || currentStateClass.equals(TimeoutState.class)) {
+                StateTransitionMetrics.Transition transition = StateTransitionMetrics.startTransition(currentState, startNanos, sessionStoreNanos);
+                StateController controller = controllerFactory.build(currentState, transitionActionFor(sessionId, sessionRecord, transition));
+                outcome = StateTransitionMetrics.SUCCESS;
+                return controller;
+            }
+
+            outcome = StateTransitionMetrics.INVALID_STATE;
+            throw new InvalidSessionStateException(sessionId, expectedStateClass, currentState.getClass());
+        } catch (SessionTimeoutException e) {
+            outcome = StateTransitionMetrics.TIMED_OUT;
+            throw e;
+        } finally {
+            StateTransitionMetrics.sessionLoaded(currentState, outcome, startNanos);
+        }
     }
 
     @Timed(name = Urls.SESSION_REPO_TIMED_GROUP)
@@ -71,11 +189,34 @@ public class SessionRepository {
         return dataStore.hasSession(sessionId);
     }
 
-    @Timed(name =Urls.SESSION_REPO_TIMED_GROUP)
-    public Optional<LevelOfAssurance> getLevelOfAssuranceFromIdp(SessionId sessionId){
+    public CompletionStage<Boolean> sessionExistsAsync(SessionId sessionId) {
+        return asyncDataStore.hasSession(sessionId);
+    }
+
+    /**
+     * Loads the session once, failing with {@link SessionNotFoundException} if it does not exist.
+     * The load is timed when the store answers rather than when the lookup is started.
+     */
+    public CompletionStage<Optional<LevelOfAssurance>> getLevelOfAssuranceFromIdp(SessionId sessionId) {
+        long startNanos = System.nanoTime();
+        return asyncDataStore.get(sessionId)
+                .whenComplete((state, failure) -> StateTransitionMetrics.sessionLoaded(state, loadOutcome(state, failure), startNanos))
+                .thenApply(state -> {
+                    if (state == null) {
+                        throw new SessionNotFoundException(sessionId);
+                    }
+                    return levelOfAssuranceFromIdp(state);
+                });
+    }
 
-        State currentState = getCurrentState(sessionId);
+    private static String loadOutcome(State state, Throwable failure) {
+        if (failure != null) {
+            return StateTransitionMetrics.ERROR;
+        }
+        return state == null ? StateTransitionMetrics.NOT_FOUND : StateTransitionMetrics.SUCCESS;
+    }
 
+    private Optional<LevelOfAssurance> levelOfAssuranceFromIdp(State currentState) {
         if(currentState instanceof Cycle0And1MatchRequestSentState){ // initial match request - no response received
             return Optional.of(((Cycle0And1MatchRequestSentState) currentState).getIdpLevelOfAssurance());
         }
@@ -117,8 +258,38 @@ public class SessionRepository {
         }
     }
 
-    private void handleTimeout(SessionId sessionId, State state, Class<? extends State> stateClass, Class<? extends State> expectedStateClass) {
-        boolean needsStateChangedToTimeout = isTimedOut(sessionId) && !stateClass.equals(TimeoutState.class);
+    private SessionRecord loadSession(SessionId sessionId, long startNanos) {
+        return dataStore.getWithTtl(sessionId).orElseThrow(() -> sessionNotFound(sessionId, startNanos));
+    }
+
+    private static SessionNotFoundException sessionNotFound(SessionId sessionId, long startNanos) {
+        StateTransitionMetrics.sessionLoaded(null, StateTransitionMetrics.NOT_FOUND, startNanos);
+        return new SessionNotFoundException(sessionId);
+    }
+
+    private StateTransitionAction transitionActionFor(SessionId sessionId, SessionRecord sessionRecord, StateTransitionMetrics.Transition transition) {
+        // Successive transitions in one request each build on the version written by the last
+        AtomicLong version = new AtomicLong(sessionRecord.getVersion());
+        AtomicReference<State> previousState = new AtomicReference<>(sessionRecord.getState());
+        return state -> {
+            long writeStartNanos = System.nanoTime();
+            try {
+                version.set(dataStore.replace(sessionId, state, version.get()));
+            } catch (SessionStateConflictException e) {
+                transition.completed(state, StateTransitionMetrics.CONFLICT, System.nanoTime() - writeStartNanos);
+                throw e;
+            } catch (RuntimeException e) {
+                transition.completed(state, StateTransitionMetrics.ERROR, System.nanoTime() - writeStartNanos);
+                throw e;
+            }
+            transition.completed(state, StateTransitionMetrics.SUCCESS, System.nanoTime() - writeStartNanos);
+            sessionPopulation.sessionTransitioned(previousState.getAndSet(state), state, sessionRecord.getRemainingTtlInMillis());
+        };
+    }
+
+    private void handleTimeout(SessionId sessionId, SessionRecord sessionRecord, Class<? extends State> stateClass, Class<? extends State> expectedStateClass) {
+        State state = sessionRecord.getState();
+        boolean needsStateChangedToTimeout = isTimedOut(state) && !stateClass.equals(TimeoutState.class);
         if (needsStateChangedToTimeout) {
             TimeoutState timeoutState = new TimeoutState(
                     state.getRequestId(),
@@ -127,7 +298,13 @@ public class SessionRepository {
                     state.getAssertionConsumerServiceUri(),
                     state.getSessionId()
             );
-            dataStore.replace(sessionId, timeoutState);
+            try {
+                dataStore.replace(sessionId, timeoutState, sessionRecord.getVersion());
+                sessionPopulation.sessionTransitioned(state, timeoutState, sessionRecord.getRemainingTtlInMillis());
+            } catch (SessionStateConflictException e) {
+                // Another request has moved the session on; it will be timed out on its next load
+                LOG.info(format("Session {0} changed while being timed out", sessionId.getSessionId()));
+            }
         }
 
         boolean unexpectedErrorState = isErrorState(stateClass) && !isErrorState(expectedStateClass);
@@ -142,12 +319,7 @@ public class SessionRepository {
                 || clazz.equals(TimeoutState.class);
     }
 
-    private boolean isTimedOut(SessionId sessionId) {
-        if (dataStore.hasSession(sessionId)) {
-            DateTime expiryTime = dataStore.get(sessionId).getSessionExpiryTimestamp();
-            return DateTime.now().isAfter(expiryTime);
-        } else {
-            throw new SessionNotFoundException(sessionId);
-        }
+    private boolean isTimedOut(State state) {
+        return DateTime.now().isAfter(state.getSessionExpiryTimestamp());
     }
 }
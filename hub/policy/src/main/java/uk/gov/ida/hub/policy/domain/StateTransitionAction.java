@@ -1,5 +1,10 @@
 package uk.gov.ida.hub.policy.domain;
 
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+
 public interface StateTransitionAction {
+    /**
+     * @throws SessionStateConflictException if another request has transitioned the session since it was loaded
+     */
     void transitionTo(State state);
 }
@@ -0,0 +1,173 @@
+package uk.gov.ida.hub.policy.domain;
+
+import io.prometheus.client.Histogram;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times loading a session and each transition made from it, and breaks the time up to a transition
+ * into that spent on the session store and that spent on downstream HTTP calls. States are labelled
+ * with their {@link PolicyState} name, so the label sets stay bounded.
+ */
+public final class StateTransitionMetrics {
+
+    static final String SUCCESS = "success";
+    static final String CONFLICT = "conflict";
+    static final String ERROR = "error";
+    static final String NOT_FOUND = "not_found";
+    static final String TIMED_OUT = "timed_out";
+    static final String INVALID_STATE = "invalid_state";
+
+    static final String UNKNOWN_STATE = "UNKNOWN";
+    static final String NO_STATE = "NONE";
+
+    private static final double[] BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private static final Histogram sessionLoadDuration = Histogram.build(
+            "verify_policy_session_load_duration_seconds",
+            "Time taken to load a session and build the controller for its state, by state and outcome")
+            .labelNames("state", "outcome")
+            .buckets(BUCKETS)
+            .register();
+
+    private static final Histogram transitionDuration = Histogram.build(
+            "verify_policy_state_transition_duration_seconds",
+            "Time from a session being loaded to it being moved to its next state, by state and outcome")
+            .labelNames("from_state", "to_state", "outcome")
+            .buckets(BUCKETS)
+            .register();
+
+    private static final Histogram transitionComponentDuration = Histogram.build(
+            "verify_policy_state_transition_component_duration_seconds",
+            "Time spent on the session store and on downstream HTTP calls within a state transition")
+            .labelNames("from_state", "to_state", "component")
+            .buckets(BUCKETS)
+            .register();
+
+    private static final ThreadLocal<Transition> currentTransition = new ThreadLocal<>();
+
+    private StateTransitionMetrics() {
+    }
+
+    static void sessionLoaded(State state, String outcome, long startNanos) {
+        sessionLoadDuration.labels(label(state), outcome).observe(secondsSince(startNanos));
+    }
+
+    /**
+     * Starts timing the transition out of {@code from} on this thread. Downstream calls made on this
+     * thread count towards it until the next transition is started.
+     */
+    static Transition startTransition(State from, long startNanos, long sessionStoreNanos) {
+        Transition transition = new Transition(from, startNanos, sessionStoreNanos);
+        currentTransition.set(transition);
+        return transition;
+    }
+
+    /**
+     * Stops counting downstream calls made on this thread towards its transition, as the request, or
+     * the work handed to another thread for it, has ended.
+     */
+    public static void endTransition() {
+        currentTransition.remove();
+    }
+
+    /**
+     * Wraps {@code executor} so that each piece of work handed to it ends any transition it starts,
+     * leaving nothing behind on the pooled thread.
+     */
+    static Executor endingTransitions(Executor executor) {
+        return command -> executor.execute(() -> {
+            try {
+                command.run();
+            } finally {
+                endTransition();
+            }
+        });
+    }
+
+    /**
+     * Wraps {@code executor} so that downstream calls made by work handed to it count towards the
+     * transition open on this thread now. Like {@code HubEventAccumulator#propagating}, it is wrapped
+     * for each request rather than once.
+     */
+    public static Executor continuingTransition(Executor executor) {
+        Transition transition = currentTransition.get();
+        if (transition == null) {
+            return executor;
+        }
+        return command -> executor.execute(() -> {
+            Transition previous = currentTransition.get();
+            currentTransition.set(transition);
+            try {
+                command.run();
+            } finally {
+                if (previous == null) {
+                    currentTransition.remove();
+                } else {
+                    currentTransition.set(previous);
+                }
+            }
+        });
+    }
+
+    public static void downstreamCallCompleted(long nanos) {
+        Transition transition = currentTransition.get();
+        if (transition != null) {
+            transition.downstreamNanos.addAndGet(nanos);
+        }
+    }
+
+    private static String label(State state) {
+        if (state == null) {
+            return NO_STATE;
+        }
+        try {
+            return PolicyState.fromStateClass(state.getClass()).name();
+        } catch (IllegalStateException e) {
+            return UNKNOWN_STATE;
+        }
+    }
+
+    private static double secondsSince(long startNanos) {
+        return toSeconds(System.nanoTime() - startNanos);
+    }
+
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    static final class Transition {
+        private volatile String fromState;
+        private volatile long startNanos;
+        private final AtomicLong sessionStoreNanos;
+        private final AtomicLong downstreamNanos = new AtomicLong();
+
+        private Transition(State from, long startNanos, long sessionStoreNanos) {
+            this.fromState = label(from);
+            this.startNanos = startNanos;
+            this.sessionStoreNanos = new AtomicLong(sessionStoreNanos);
+        }
+
+        /**
+         * Records a transition to {@code to} whose write took {@code writeNanos}. A successful one
+         * starts timing the next, as a request may move the session on more than once; any other
+         * outcome ends the request's transitions.
+         */
+        void completed(State to, String outcome, long writeNanos) {
+            String toState = label(to);
+            transitionDuration.labels(fromState, toState, outcome).observe(secondsSince(startNanos));
+            transitionComponentDuration.labels(fromState, toState, "session_store")
+                    .observe(toSeconds(sessionStoreNanos.getAndSet(0) + writeNanos));
+            transitionComponentDuration.labels(fromState, toState, "downstream_http")
+                    .observe(toSeconds(downstreamNanos.getAndSet(0)));
+            if (SUCCESS.equals(outcome)) {
+                fromState = toState;
+            } else if (currentTransition.get() == this) {
+                currentTransition.remove();
+            }
+            startNanos = System.nanoTime();
+        }
+    }
+}
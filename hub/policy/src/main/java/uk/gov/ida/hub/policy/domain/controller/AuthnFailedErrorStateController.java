@@ -9,24 +9,19 @@ import uk.gov.ida.hub.policy.domain.state.AuthnFailedErrorState;
 import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 public class AuthnFailedErrorStateController extends AbstractAuthnFailedErrorStateController<AuthnFailedErrorState> implements IdpSelectingStateController {
 
-    private final TransactionsConfigProxy transactionsConfigProxy;
     private final IdentityProvidersConfigProxy identityProvidersConfigProxy;
 
     public AuthnFailedErrorStateController(
             AuthnFailedErrorState state,
             ResponseFromHubFactory responseFromHubFactory,
             StateTransitionAction stateTransitionAction,
-            TransactionsConfigProxy transactionsConfigProxy,
             IdentityProvidersConfigProxy identityProvidersConfigProxy,
             HubEventLogger hubEventLogger) {
 
         super(state, responseFromHubFactory, stateTransitionAction, hubEventLogger);
-
-        this.transactionsConfigProxy = transactionsConfigProxy;
         this.identityProvidersConfigProxy = identityProvidersConfigProxy;
     }
 
@@ -40,7 +35,7 @@ public class AuthnFailedErrorStateController extends AbstractAuthnFailedErrorSta
 
     @Override
     public void handleIdpSelected(String idpEntityId, String principalIpAddress, boolean registering, LevelOfAssurance requestedLoa, String analyticsSessionId, String journeyType, String abTestVariant) {
-        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, idpEntityId, registering, requestedLoa, transactionsConfigProxy, identityProvidersConfigProxy);
+        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, idpEntityId, registering, requestedLoa, identityProvidersConfigProxy);
         stateTransitionAction.transitionTo(idpSelectedState);
         hubEventLogger.logIdpSelectedEvent(idpSelectedState, principalIpAddress, analyticsSessionId, journeyType, abTestVariant);
     }
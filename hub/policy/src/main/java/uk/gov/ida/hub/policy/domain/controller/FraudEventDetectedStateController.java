@@ -5,7 +5,6 @@ import uk.gov.ida.hub.policy.domain.StateTransitionAction;
 import uk.gov.ida.hub.policy.domain.state.FraudEventDetectedState;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 public class FraudEventDetectedStateController extends AuthnFailedErrorStateController {
 
@@ -13,7 +12,6 @@ public class FraudEventDetectedStateController extends AuthnFailedErrorStateCont
             FraudEventDetectedState state,
             ResponseFromHubFactory responseFromHubFactory,
             StateTransitionAction stateTransitionAction,
-            TransactionsConfigProxy transactionsConfigProxy,
             IdentityProvidersConfigProxy identityProvidersConfigProxy,
             HubEventLogger hubEventLogger) {
 
@@ -21,7 +19,6 @@ public class FraudEventDetectedStateController extends AuthnFailedErrorStateCont
                 state,
                 responseFromHubFactory,
                 stateTransitionAction,
-                transactionsConfigProxy,
                 identityProvidersConfigProxy,
                 hubEventLogger);
     }
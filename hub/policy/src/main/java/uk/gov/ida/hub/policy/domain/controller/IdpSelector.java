@@ -1,12 +1,12 @@
 package uk.gov.ida.hub.policy.domain.controller;
 
+import uk.gov.ida.hub.policy.contracts.IdpSelectionContextDto;
 import uk.gov.ida.hub.policy.domain.IdpConfigDto;
 import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
 import uk.gov.ida.hub.policy.domain.exception.StateProcessingValidationException;
 import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
 import uk.gov.ida.hub.policy.domain.state.IdpSelectingState;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 import java.util.Collections;
 import java.util.List;
@@ -20,26 +20,30 @@ public class IdpSelector {
                                                          String idpEntityId,
                                                          boolean registering,
                                                          LevelOfAssurance requestedLoa,
-                                                         TransactionsConfigProxy transactionsConfigProxy,
                                                          IdentityProvidersConfigProxy identityProvidersConfigProxy) {
 
-        List<LevelOfAssurance> levelsOfAssuranceForTransaction = transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId());
+        IdpSelectionContextDto context = identityProvidersConfigProxy.getIdpSelectionContext(
+                state.getRequestIssuerEntityId(),
+                idpEntityId,
+                registering,
+                requestedLoa);
+
+        List<LevelOfAssurance> levelsOfAssuranceForTransaction = context.getLevelsOfAssurance();
         if (!levelsOfAssuranceForTransaction.contains(requestedLoa)) {
             throw StateProcessingValidationException.requestedLevelOfAssuranceUnsupportedByTransactionEntity(state.getRequestIssuerEntityId(), levelsOfAssuranceForTransaction, requestedLoa);
         }
 
-        List<String> availableIdentityProviderEntityIdsForLoa = identityProvidersConfigProxy.getEnabledIdentityProvidersForAuthenticationRequestGeneration(
-                state.getRequestIssuerEntityId(), registering, requestedLoa);
+        List<String> availableIdentityProviderEntityIdsForLoa = context.getEnabledIdentityProviders();
 
         checkValidIdentityProvider(idpEntityId, availableIdentityProviderEntityIdsForLoa, state);
 
-        IdpConfigDto idpConfig = identityProvidersConfigProxy.getIdpConfig(idpEntityId);
+        IdpConfigDto idpConfig = context.getIdpConfig();
+        if (idpConfig == null) {
+            throw StateProcessingValidationException.unavailableIdp(idpEntityId, state.getSessionId());
+        }
         final List<LevelOfAssurance> idpLevelsOfAssurance = idpConfig.getSupportedLevelsOfAssurance();
 
-        boolean idpEnabledForRegistration = identityProvidersConfigProxy.isIDPEnabledForRegistration(
-                idpEntityId,
-                state.getRequestIssuerEntityId(),
-                requestedLoa);
+        boolean idpEnabledForRegistration = context.isIdpEnabledForRegistration();
 
         List<LevelOfAssurance> levelsOfAssuranceForTransactionSupportedByIdp =
                 getLevelsOfAssuranceForTransactionSupportedByIdp(
@@ -10,14 +10,12 @@ import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
 import uk.gov.ida.hub.policy.domain.state.RequesterErrorState;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 public class RequesterErrorStateController implements StateController, ResponsePreparedStateController, ErrorResponsePreparedStateController, IdpSelectingStateController {
 
     private final RequesterErrorState state;
     private final ResponseFromHubFactory responseFromHubFactory;
     private final StateTransitionAction stateTransitionAction;
-    private final TransactionsConfigProxy transactionsConfigProxy;
     private final IdentityProvidersConfigProxy identityProvidersConfigProxy;
     private final HubEventLogger hubEventLogger;
 
@@ -25,14 +23,12 @@ public class RequesterErrorStateController implements StateController, ResponseP
         RequesterErrorState state,
         ResponseFromHubFactory responseFromHubFactory,
         StateTransitionAction stateTransitionAction,
-        TransactionsConfigProxy transactionsConfigProxy,
         IdentityProvidersConfigProxy identityProvidersConfigProxy,
         HubEventLogger hubEventLogger) {
 
         this.state = state;
         this.responseFromHubFactory = responseFromHubFactory;
         this.stateTransitionAction = stateTransitionAction;
-        this.transactionsConfigProxy = transactionsConfigProxy;
         this.identityProvidersConfigProxy = identityProvidersConfigProxy;
         this.hubEventLogger = hubEventLogger;
     }
@@ -59,7 +55,7 @@ public class RequesterErrorStateController implements StateController, ResponseP
 
     @Override
     public void handleIdpSelected(String idpEntityId, String principalIpAddress, boolean registering, LevelOfAssurance requestedLoa, String analyticsSessionId, String journeyType, String abTestVariant) {
-        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, idpEntityId, registering, requestedLoa, transactionsConfigProxy, identityProvidersConfigProxy);
+        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, idpEntityId, registering, requestedLoa, identityProvidersConfigProxy);
         stateTransitionAction.transitionTo(idpSelectedState);
         hubEventLogger.logIdpSelectedEvent(idpSelectedState, principalIpAddress, analyticsSessionId, journeyType, abTestVariant);
     }
@@ -11,14 +11,12 @@ import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
 import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 public class SessionStartedStateController implements IdpSelectingStateController, ResponseProcessingStateController, ErrorResponsePreparedStateController {
 
     private final SessionStartedState state;
     private final HubEventLogger hubEventLogger;
     private final StateTransitionAction stateTransitionAction;
-    private final TransactionsConfigProxy transactionsConfigProxy;
     private final ResponseFromHubFactory responseFromHubFactory;
     private final IdentityProvidersConfigProxy identityProvidersConfigProxy;
 
@@ -26,14 +24,12 @@ public class SessionStartedStateController implements IdpSelectingStateControlle
             final SessionStartedState state,
             final HubEventLogger hubEventLogger,
             final StateTransitionAction stateTransitionAction,
-            final TransactionsConfigProxy transactionsConfigProxy,
             final ResponseFromHubFactory responseFromHubFactory,
             final IdentityProvidersConfigProxy identityProvidersConfigProxy) {
 
         this.state = state;
         this.hubEventLogger = hubEventLogger;
         this.stateTransitionAction = stateTransitionAction;
-        this.transactionsConfigProxy = transactionsConfigProxy;
         this.responseFromHubFactory = responseFromHubFactory;
         this.identityProvidersConfigProxy = identityProvidersConfigProxy;
     }
@@ -50,7 +46,7 @@ public class SessionStartedStateController implements IdpSelectingStateControlle
 
     @Override
     public void handleIdpSelected(final String idpEntityId, final String principalIpAddress, boolean registering, LevelOfAssurance requestedLoa, String analyticsSessionId, String journeyType, String abTestVariant) {
-        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, idpEntityId, registering, requestedLoa, transactionsConfigProxy, identityProvidersConfigProxy);
+        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, idpEntityId, registering, requestedLoa, identityProvidersConfigProxy);
         stateTransitionAction.transitionTo(idpSelectedState);
         hubEventLogger.logIdpSelectedEvent(idpSelectedState, principalIpAddress, analyticsSessionId, journeyType, abTestVariant);
     }
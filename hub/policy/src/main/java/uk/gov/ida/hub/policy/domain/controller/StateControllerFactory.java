@@ -1,6 +1,5 @@
 package uk.gov.ida.hub.policy.domain.controller;
 
-import com.google.inject.Injector;
 import uk.gov.ida.hub.policy.configuration.PolicyConfiguration;
 import uk.gov.ida.hub.policy.domain.AssertionRestrictionsFactory;
 import uk.gov.ida.hub.policy.domain.PolicyState;
@@ -33,163 +32,159 @@ import uk.gov.ida.hub.policy.services.AttributeQueryService;
 import uk.gov.ida.hub.policy.validators.LevelOfAssuranceValidator;
 
 import javax.inject.Inject;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiFunction;
 
 import static java.text.MessageFormat.format;
 
+/**
+ * Builds the controller for a session's current state. The collaborators the controllers need are
+ * resolved once, when the factory is created, rather than looked up each time a controller is built.
+ */
 public class StateControllerFactory {
 
-    private final Injector injector;
+    private final Map<PolicyState, BiFunction<State, StateTransitionAction, StateController>> controllers = new EnumMap<>(PolicyState.class);
 
     @Inject
-    public StateControllerFactory(Injector injector) {
-        this.injector = injector;
+    public StateControllerFactory(
+            HubEventLogger hubEventLogger,
+            ResponseFromHubFactory responseFromHubFactory,
+            IdentityProvidersConfigProxy identityProvidersConfigProxy,
+            TransactionsConfigProxy transactionsConfigProxy,
+            MatchingServiceConfigProxy matchingServiceConfigProxy,
+            PolicyConfiguration policyConfiguration,
+            AssertionRestrictionsFactory assertionRestrictionsFactory,
+            AttributeQueryService attributeQueryService) {
+        LevelOfAssuranceValidator levelOfAssuranceValidator = new LevelOfAssuranceValidator();
+
+        controllers.put(PolicyState.SESSION_STARTED, (state, stateTransitionAction) -> new SessionStartedStateController(
+                (SessionStartedState) state,
+                hubEventLogger,
+                stateTransitionAction,
+                responseFromHubFactory,
+                identityProvidersConfigProxy));
+
+        controllers.put(PolicyState.IDP_SELECTED, (state, stateTransitionAction) -> new IdpSelectedStateController(
+                (IdpSelectedState) state,
+                hubEventLogger,
+                stateTransitionAction,
+                identityProvidersConfigProxy,
+                transactionsConfigProxy,
+                responseFromHubFactory,
+                policyConfiguration,
+                assertionRestrictionsFactory,
+                matchingServiceConfigProxy));
+
+        controllers.put(PolicyState.CYCLE_0_AND_1_MATCH_REQUEST_SENT, (state, stateTransitionAction) -> new Cycle0And1MatchRequestSentStateController(
+                (Cycle0And1MatchRequestSentState) state,
+                hubEventLogger,
+                stateTransitionAction,
+                policyConfiguration,
+                levelOfAssuranceValidator,
+                transactionsConfigProxy,
+                responseFromHubFactory,
+                assertionRestrictionsFactory,
+                matchingServiceConfigProxy,
+                attributeQueryService));
+
+        controllers.put(PolicyState.SUCCESSFUL_MATCH, (state, stateTransitionAction) -> new SuccessfulMatchStateController(
+                (SuccessfulMatchState) state,
+                responseFromHubFactory,
+                identityProvidersConfigProxy));
+
+        controllers.put(PolicyState.NON_MATCHING_JOURNEY_SUCCESS, (state, stateTransitionAction) -> new NonMatchingJourneySuccessStateController(
+                (NonMatchingJourneySuccessState) state,
+                responseFromHubFactory));
+
+        controllers.put(PolicyState.NO_MATCH, (state, stateTransitionAction) -> new NoMatchStateController(
+                (NoMatchState) state,
+                responseFromHubFactory));
+
+        controllers.put(PolicyState.USER_ACCOUNT_CREATED, (state, stateTransitionAction) -> new UserAccountCreatedStateController(
+                (UserAccountCreatedState) state,
+                identityProvidersConfigProxy,
+                responseFromHubFactory));
+
+        controllers.put(PolicyState.AWAITING_CYCLE3_DATA, (state, stateTransitionAction) -> new AwaitingCycle3DataStateController(
+                (AwaitingCycle3DataState) state,
+                hubEventLogger,
+                stateTransitionAction,
+                transactionsConfigProxy,
+                responseFromHubFactory,
+                policyConfiguration,
+                assertionRestrictionsFactory,
+                matchingServiceConfigProxy));
+
+        controllers.put(PolicyState.CYCLE3_MATCH_REQUEST_SENT, (state, stateTransitionAction) -> new Cycle3MatchRequestSentStateController(
+                (Cycle3MatchRequestSentState) state,
+                hubEventLogger,
+                stateTransitionAction,
+                policyConfiguration,
+                levelOfAssuranceValidator,
+                responseFromHubFactory,
+                transactionsConfigProxy,
+                matchingServiceConfigProxy,
+                assertionRestrictionsFactory,
+                attributeQueryService));
+
+        controllers.put(PolicyState.TIMEOUT, (state, stateTransitionAction) -> new TimeoutStateController(
+                (TimeoutState) state,
+                responseFromHubFactory));
+
+        controllers.put(PolicyState.MATCHING_SERVICE_REQUEST_ERROR, (state, stateTransitionAction) -> new MatchingServiceRequestErrorStateController(
+                (MatchingServiceRequestErrorState) state,
+                responseFromHubFactory));
+
+        controllers.put(PolicyState.USER_ACCOUNT_CREATION_REQUEST_SENT, (state, stateTransitionAction) -> new UserAccountCreationRequestSentStateController(
+                (UserAccountCreationRequestSentState) state,
+                stateTransitionAction,
+                hubEventLogger,
+                policyConfiguration,
+                levelOfAssuranceValidator,
+                responseFromHubFactory,
+                attributeQueryService,
+                transactionsConfigProxy,
+                matchingServiceConfigProxy));
+
+        controllers.put(PolicyState.AUTHN_FAILED_ERROR, (state, stateTransitionAction) -> new AuthnFailedErrorStateController(
+                (AuthnFailedErrorState) state,
+                responseFromHubFactory,
+                stateTransitionAction,
+                identityProvidersConfigProxy,
+                hubEventLogger));
+
+        controllers.put(PolicyState.FRAUD_EVENT_DETECTED, (state, stateTransitionAction) -> new FraudEventDetectedStateController(
+                (FraudEventDetectedState) state,
+                responseFromHubFactory,
+                stateTransitionAction,
+                identityProvidersConfigProxy,
+                hubEventLogger));
+
+        controllers.put(PolicyState.REQUESTER_ERROR, (state, stateTransitionAction) -> new RequesterErrorStateController(
+                (RequesterErrorState) state,
+                responseFromHubFactory,
+                stateTransitionAction,
+                identityProvidersConfigProxy,
+                hubEventLogger));
+
+        controllers.put(PolicyState.CYCLE_3_DATA_INPUT_CANCELLED, (state, stateTransitionAction) -> new Cycle3DataInputCancelledStateController(
+                (Cycle3DataInputCancelledState) state,
+                responseFromHubFactory));
+
+        controllers.put(PolicyState.USER_ACCOUNT_CREATION_FAILED, (state, stateTransitionAction) -> new UserAccountCreationFailedStateController(
+                (UserAccountCreationFailedState) state,
+                responseFromHubFactory));
+
+        for (PolicyState policyState : PolicyState.values()) {
+            if (!controllers.containsKey(policyState)) {
+                throw new IllegalStateException(format("No state controller for {0}", policyState));
+            }
+        }
     }
 
     public <T extends State> StateController build(final T state, final StateTransitionAction stateTransitionAction) {
         PolicyState policyState = PolicyState.fromStateClass(state.getClass());
-        switch (policyState) {
-
-            case SESSION_STARTED:
-                return new SessionStartedStateController(
-                        (SessionStartedState) state,
-                        injector.getInstance(HubEventLogger.class),
-                        stateTransitionAction,
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        injector.getInstance(IdentityProvidersConfigProxy.class));
-
-            case IDP_SELECTED:
-                return new IdpSelectedStateController(
-                        (IdpSelectedState) state,
-                        injector.getInstance(HubEventLogger.class),
-                        stateTransitionAction,
-                        injector.getInstance(IdentityProvidersConfigProxy.class),
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        injector.getInstance(PolicyConfiguration.class),
-                        injector.getInstance(AssertionRestrictionsFactory.class),
-                        injector.getInstance(MatchingServiceConfigProxy.class));
-
-            case CYCLE_0_AND_1_MATCH_REQUEST_SENT:
-                return new Cycle0And1MatchRequestSentStateController(
-                        (Cycle0And1MatchRequestSentState) state,
-                        injector.getInstance(HubEventLogger.class),
-                        stateTransitionAction,
-                        injector.getInstance(PolicyConfiguration.class),
-                        new LevelOfAssuranceValidator(),
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        injector.getInstance(AssertionRestrictionsFactory.class),
-                        injector.getInstance(MatchingServiceConfigProxy.class),
-                        injector.getInstance(AttributeQueryService.class));
-
-            case SUCCESSFUL_MATCH:
-                return new SuccessfulMatchStateController(
-                        (SuccessfulMatchState) state,
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        injector.getInstance(IdentityProvidersConfigProxy.class));
-
-            case NON_MATCHING_JOURNEY_SUCCESS:
-                return new NonMatchingJourneySuccessStateController(
-                        (NonMatchingJourneySuccessState) state,
-                        injector.getInstance(ResponseFromHubFactory.class));
-
-            case NO_MATCH:
-                return new NoMatchStateController(
-                        (NoMatchState) state,
-                        injector.getInstance(ResponseFromHubFactory.class));
-
-            case USER_ACCOUNT_CREATED:
-                return new UserAccountCreatedStateController(
-                        (UserAccountCreatedState) state,
-                        injector.getInstance(IdentityProvidersConfigProxy.class),
-                        injector.getInstance(ResponseFromHubFactory.class));
-
-            case AWAITING_CYCLE3_DATA:
-                return new AwaitingCycle3DataStateController(
-                        (AwaitingCycle3DataState) state,
-                        injector.getInstance(HubEventLogger.class),
-                        stateTransitionAction,
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        injector.getInstance(PolicyConfiguration.class),
-                        injector.getInstance(AssertionRestrictionsFactory.class),
-                        injector.getInstance(MatchingServiceConfigProxy.class));
-
-            case CYCLE3_MATCH_REQUEST_SENT:
-                return new Cycle3MatchRequestSentStateController(
-                        (Cycle3MatchRequestSentState) state,
-                        injector.getInstance(HubEventLogger.class),
-                        stateTransitionAction,
-                        injector.getInstance(PolicyConfiguration.class),
-                        new LevelOfAssuranceValidator(),
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(MatchingServiceConfigProxy.class),
-                        injector.getInstance(AssertionRestrictionsFactory.class),
-                        injector.getInstance(AttributeQueryService.class));
-
-            case TIMEOUT:
-                return new TimeoutStateController(
-                        (TimeoutState) state,
-                        injector.getInstance(ResponseFromHubFactory.class));
-
-            case MATCHING_SERVICE_REQUEST_ERROR:
-                return new MatchingServiceRequestErrorStateController(
-                        (MatchingServiceRequestErrorState) state,
-                        injector.getInstance(ResponseFromHubFactory.class));
-
-            case USER_ACCOUNT_CREATION_REQUEST_SENT:
-                return new UserAccountCreationRequestSentStateController(
-                        (UserAccountCreationRequestSentState) state,
-                        stateTransitionAction,
-                        injector.getInstance(HubEventLogger.class),
-                        injector.getInstance(PolicyConfiguration.class),
-                        new LevelOfAssuranceValidator(),
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        injector.getInstance(AttributeQueryService.class),
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(MatchingServiceConfigProxy.class));
-
-            case AUTHN_FAILED_ERROR:
-                return new AuthnFailedErrorStateController(
-                        (AuthnFailedErrorState) state,
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        stateTransitionAction,
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(IdentityProvidersConfigProxy.class),
-                        injector.getInstance(HubEventLogger.class));
-
-            case FRAUD_EVENT_DETECTED:
-                return new FraudEventDetectedStateController(
-                        (FraudEventDetectedState) state,
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        stateTransitionAction,
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(IdentityProvidersConfigProxy.class),
-                        injector.getInstance(HubEventLogger.class));
-
-            case REQUESTER_ERROR:
-                return new RequesterErrorStateController(
-                        (RequesterErrorState) state,
-                        injector.getInstance(ResponseFromHubFactory.class),
-                        stateTransitionAction,
-                        injector.getInstance(TransactionsConfigProxy.class),
-                        injector.getInstance(IdentityProvidersConfigProxy.class),
-                        injector.getInstance(HubEventLogger.class));
-
-            case CYCLE_3_DATA_INPUT_CANCELLED:
-                return new Cycle3DataInputCancelledStateController(
-                        (Cycle3DataInputCancelledState) state,
-                        injector.getInstance(ResponseFromHubFactory.class));
-
-            case USER_ACCOUNT_CREATION_FAILED:
-                return new UserAccountCreationFailedStateController(
-                        (UserAccountCreationFailedState) state,
-                        injector.getInstance(ResponseFromHubFactory.class));
-
-            default:
-                throw new IllegalStateException(format("Invalid state controller class for {0}", policyState));
-        }
+        return controllers.get(policyState).apply(state, stateTransitionAction);
     }
 }
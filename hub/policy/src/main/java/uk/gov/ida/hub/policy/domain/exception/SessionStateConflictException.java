@@ -0,0 +1,24 @@
+package uk.gov.ida.hub.policy.domain.exception;
+
+import uk.gov.ida.hub.policy.domain.SessionId;
+
+import java.text.MessageFormat;
+
+public class SessionStateConflictException extends RuntimeException {
+
+    private final SessionId sessionId;
+
+    public SessionStateConflictException(SessionId sessionId, long expectedVersion) {
+        super(MessageFormat.format("Session: {0} was modified concurrently, expected version {1}.", sessionId.getSessionId(), expectedVersion));
+        this.sessionId = sessionId;
+    }
+
+    public SessionStateConflictException(SessionId sessionId, String reason) {
+        super(MessageFormat.format("Session: {0} could not be changed, {1}.", sessionId.getSessionId(), reason));
+        this.sessionId = sessionId;
+    }
+
+    public SessionId getSessionId() {
+        return sessionId;
+    }
+}
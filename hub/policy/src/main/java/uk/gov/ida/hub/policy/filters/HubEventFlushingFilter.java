@@ -0,0 +1,57 @@
+package uk.gov.ida.hub.policy.filters;
+
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import uk.gov.ida.hub.policy.logging.HubEventAccumulator;
+
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+
+/**
+ * Opens a batch of hub events for each request and sends it when the response is ready. A suspended
+ * request finishes on another thread, so its batch is detached from the request thread as soon as the
+ * resource method returns, before that thread is given another request.
+ */
+public class HubEventFlushingFilter implements ContainerRequestFilter, ContainerResponseFilter, ApplicationEventListener {
+
+    private static final String BATCH_PROPERTY = HubEventFlushingFilter.class.getName() + ".batch";
+
+    private final HubEventAccumulator hubEventAccumulator;
+
+    @Inject
+    public HubEventFlushingFilter(HubEventAccumulator hubEventAccumulator) {
+        this.hubEventAccumulator = hubEventAccumulator;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        requestContext.setProperty(BATCH_PROPERTY, hubEventAccumulator.open());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        HubEventAccumulator.Batch batch = (HubEventAccumulator.Batch) requestContext.getProperty(BATCH_PROPERTY);
+        if (batch != null) {
+            hubEventAccumulator.flush(batch);
+        }
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return event -> {
+            if (event.getType() == RequestEvent.Type.RESOURCE_METHOD_FINISHED
+                    && event.getUriInfo().getMatchedResourceMethod().isSuspendDeclared()) {
+                hubEventAccumulator.detach();
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.ida.hub.policy.filters;
+
+import javax.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a resource method that moves a session on, so that a second such request for the same
+ * session is turned away while the first is still being handled.
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SingleFlightPerSession {
+}
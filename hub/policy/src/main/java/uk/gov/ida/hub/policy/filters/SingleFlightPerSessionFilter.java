@@ -0,0 +1,161 @@
+package uk.gov.ida.hub.policy.filters;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static uk.gov.ida.common.CommonUrls.SESSION_ID_PARAM;
+
+/**
+ * Lets one {@link SingleFlightPerSession} request at a time through for each session. A duplicate with
+ * the same method, path and body, such as a double-submitted form, waits for the first to finish and is
+ * given a copy of its response, rather than loading the session and racing it to transition it. A
+ * different request for the session is refused with a conflict straight away. Requests handled by other
+ * instances are still caught by the session store's version check.
+ */
+@SingleFlightPerSession
+public class SingleFlightPerSessionFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    // A request whose response never passes back through here must not lock its session out for good
+    static final Duration MAXIMUM_HOLD = Duration.ofSeconds(60);
+
+    private static final String HELD_PROPERTY = SingleFlightPerSessionFilter.class.getName() + ".held";
+    private static final String FLIGHT_PROPERTY = SingleFlightPerSessionFilter.class.getName() + ".flight";
+
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public SingleFlightPerSessionFilter() {
+        this(Clock.systemUTC());
+    }
+
+    SingleFlightPerSessionFilter(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        String sessionId = requestContext.getUriInfo().getPathParameters().getFirst(SESSION_ID_PARAM);
+        if (sessionId == null) {
+            return;
+        }
+        long now = clock.millis();
+        Flight flight = new Flight(fingerprintOf(requestContext), now);
+        Flight leader = inFlight.putIfAbsent(sessionId, flight);
+        if (leader != null) {
+            long heldFor = now - leader.heldSince;
+            if (heldFor < MAXIMUM_HOLD.toMillis()) {
+                if (!leader.fingerprint.equals(flight.fingerprint)) {
+                    throw conflict(sessionId);
+                }
+                requestContext.abortWith(leader.awaitResponse(MAXIMUM_HOLD.toMillis() - heldFor).orElseThrow(() -> conflict(sessionId)));
+                return;
+            }
+            if (!inFlight.replace(sessionId, leader, flight)) {
+                throw conflict(sessionId);
+            }
+        }
+        requestContext.setProperty(HELD_PROPERTY, sessionId);
+        requestContext.setProperty(FLIGHT_PROPERTY, flight);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object sessionId = requestContext.getProperty(HELD_PROPERTY);
+        if (sessionId != null) {
+            Flight flight = (Flight) requestContext.getProperty(FLIGHT_PROPERTY);
+            flight.completed(responseContext);
+            // Only release our own hold; if it went stale another request may since have taken over
+            inFlight.remove(sessionId, flight);
+        }
+    }
+
+    private static String fingerprintOf(ContainerRequestContext requestContext) throws IOException {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(requestContext.getMethod(), UTF_8)
+                .putByte((byte) 0)
+                .putString(requestContext.getUriInfo().getPath(), UTF_8);
+        if (requestContext.hasEntity()) {
+            // The body is read here to compare it, so put it back for the resource to read in turn
+            byte[] body = requestContext.getEntityStream().readAllBytes();
+            requestContext.setEntityStream(new ByteArrayInputStream(body));
+            hasher.putByte((byte) 0).putBytes(body);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static SessionStateConflictException conflict(String sessionId) {
+        return new SessionStateConflictException(
+                new SessionId(sessionId),
+                "another request for this session is already in progress");
+    }
+
+    private static final class Flight {
+        private final String fingerprint;
+        private final long heldSince;
+        private final CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+
+        private Flight(String fingerprint, long heldSince) {
+            this.fingerprint = fingerprint;
+            this.heldSince = heldSince;
+        }
+
+        private void completed(ContainerResponseContext responseContext) {
+            outcome.complete(new Outcome(responseContext));
+        }
+
+        private Optional<Response> awaitResponse(long timeoutMillis) {
+            try {
+                return Optional.of(outcome.get(timeoutMillis, TimeUnit.MILLISECONDS).toResponse());
+            } catch (TimeoutException | ExecutionException e) {
+                return Optional.empty();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * What the leading request answered with, kept so that a fresh response can be built for each duplicate.
+     */
+    private static final class Outcome {
+        private final Response.StatusType status;
+        private final MultivaluedMap<String, Object> headers;
+        private final Object entity;
+
+        private Outcome(ContainerResponseContext responseContext) {
+            this.status = responseContext.getStatusInfo();
+            this.headers = new MultivaluedHashMap<>();
+            responseContext.getHeaders().forEach((name, values) -> this.headers.addAll(name, values));
+            this.entity = responseContext.getEntity();
+        }
+
+        private Response toResponse() {
+            Response.ResponseBuilder response = Response.status(status).entity(entity);
+            headers.forEach((name, values) -> values.forEach(value -> response.header(name, value)));
+            return response.build();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package uk.gov.ida.hub.policy.filters;
+
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import uk.gov.ida.hub.policy.domain.StateTransitionMetrics;
+
+/**
+ * Ends the state transition timed on the request thread once the resource method returns, so later
+ * requests handled by the same pooled thread are not counted towards it.
+ */
+public class StateTransitionEndingListener implements ApplicationEventListener {
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return event -> {
+            if (event.getType() == RequestEvent.Type.RESOURCE_METHOD_FINISHED) {
+                StateTransitionMetrics.endTransition();
+            }
+        };
+    }
+}
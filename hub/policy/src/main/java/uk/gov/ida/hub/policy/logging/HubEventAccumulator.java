@@ -0,0 +1,118 @@
+package uk.gov.ida.hub.policy.logging;
+
+import uk.gov.ida.eventemitter.Event;
+import uk.gov.ida.eventemitter.EventEmitter;
+import uk.gov.ida.hub.shared.eventsink.EventSinkProxy;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds back the hub events logged while a request is handled, so they are sent together when it ends
+ * rather than one at a time as each is logged. Events logged outside a request, or after its batch has
+ * been flushed, are sent straight away.
+ */
+public class HubEventAccumulator {
+
+    private final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+    private final EventSinkProxy eventSinkProxy;
+    private final EventEmitter eventEmitter;
+
+    @Inject
+    public HubEventAccumulator(EventSinkProxy eventSinkProxy, EventEmitter eventEmitter) {
+        this.eventSinkProxy = eventSinkProxy;
+        this.eventEmitter = eventEmitter;
+    }
+
+    /**
+     * Starts holding back the events logged on this thread, and on any executor wrapped by
+     * {@link #propagating(Executor)} while it is open.
+     */
+    public Batch open() {
+        Batch batch = new Batch();
+        currentBatch.set(batch);
+        return batch;
+    }
+
+    /**
+     * Stops holding back the events logged on this thread without sending the batch, for a request
+     * that goes on to finish on other threads. Work already wrapped by {@link #propagating(Executor)}
+     * still adds to the batch.
+     */
+    public void detach() {
+        currentBatch.remove();
+    }
+
+    /**
+     * Sends the events held in {@code batch}. This may be called on a different thread from the one
+     * that opened it, as it is for requests that are resumed asynchronously.
+     */
+    public void flush(Batch batch) {
+        if (currentBatch.get() == batch) {
+            currentBatch.remove();
+        }
+        List<Event> events = batch.close();
+        if (!events.isEmpty()) {
+            eventSinkProxy.logHubEvents(events);
+            events.forEach(eventEmitter::record);
+        }
+    }
+
+    public void record(Event event) {
+        Batch batch = currentBatch.get();
+        if (batch == null || !batch.add(event)) {
+            eventSinkProxy.logHubEvent(event);
+            eventEmitter.record(event);
+        }
+    }
+
+    /**
+     * Wraps {@code executor} so that work handed to it adds its events to the batch open on this thread
+     * now. The work may be handed over later from another thread, as it is by a stage waiting on Redis,
+     * so the executor is wrapped for each request rather than once.
+     */
+    public Executor propagating(Executor executor) {
+        Batch batch = currentBatch.get();
+        if (batch == null) {
+            return executor;
+        }
+        return command -> executor.execute(() -> runIn(batch, command));
+    }
+
+    private void runIn(Batch batch, Runnable command) {
+        Batch previous = currentBatch.get();
+        currentBatch.set(batch);
+        try {
+            command.run();
+        } finally {
+            if (previous == null) {
+                currentBatch.remove();
+            } else {
+                currentBatch.set(previous);
+            }
+        }
+    }
+
+    public static final class Batch {
+        private List<Event> events = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        private synchronized boolean add(Event event) {
+            if (events == null) {
+                return false;
+            }
+            events.add(event);
+            return true;
+        }
+
+        private synchronized List<Event> close() {
+            List<Event> closed = events == null ? List.of() : events;
+            events = null;
+            return closed;
+        }
+    }
+}
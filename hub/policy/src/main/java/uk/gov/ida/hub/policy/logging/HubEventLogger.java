@@ -21,7 +21,6 @@ import javax.inject.Inject;
 import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -76,21 +75,24 @@ public class HubEventLogger {
 
     private static final Logger LOG = LoggerFactory.getLogger(HubEventLogger.class);
 
-    private final EventSinkProxy eventSinkProxy;
     private final ServiceInfoConfiguration serviceInfo;
-    private final EventEmitter eventEmitter;
+    private final HubEventAccumulator hubEventAccumulator;
 
-    @Inject
     public HubEventLogger(ServiceInfoConfiguration serviceInfo,
                           EventSinkProxy eventSinkProxy,
                           EventEmitter eventEmitter) {
+        this(serviceInfo, new HubEventAccumulator(eventSinkProxy, eventEmitter));
+    }
+
+    @Inject
+    public HubEventLogger(ServiceInfoConfiguration serviceInfo,
+                          HubEventAccumulator hubEventAccumulator) {
         this.serviceInfo = serviceInfo;
-        this.eventSinkProxy = eventSinkProxy;
-        this.eventEmitter = eventEmitter;
+        this.hubEventAccumulator = hubEventAccumulator;
     }
 
     public void logSessionStartedEvent(SamlResponseWithAuthnRequestInformationDto samlResponse, String ipAddress, DateTime sessionExpiryTimestamp, SessionId sessionId, LevelOfAssurance minimum, LevelOfAssurance maximum, LevelOfAssurance preferred) {
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(principal_ip_address_as_seen_by_hub, ipAddress);
         details.put(message_id, samlResponse.getId());
         details.put(minimum_level_of_assurance, minimum.name());
@@ -103,7 +105,7 @@ public class HubEventLogger {
     public void logIdpAuthnFailedEvent(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp,
                                        String requestId, String principalIpAddressSeenByHub, String analyticsSessionId,
                                        String journeyType, String idpEntityID) {
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(principal_ip_address_as_seen_by_hub, principalIpAddressSeenByHub);
         details.put(idp_entity_id, idpEntityID);
         details.put(analytics_session_id, analyticsSessionId);
@@ -112,31 +114,31 @@ public class HubEventLogger {
     }
 
     public void logCycle3SuccessfulMatchEvent(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE3_MATCH, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE3_MATCH, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logCycle3NoMatchEvent(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE3_NO_MATCH, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE3_NO_MATCH, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logCycle01SuccessfulMatchEvent(SessionId sessionId, String transactionEntityId, String requestId, DateTime sessionExpiryTimestamp) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE01_MATCH, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE01_MATCH, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logCycle01NoMatchEvent(SessionId sessionId, String transactionEntityId, String requestId, DateTime sessionExpiryTimestamp) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE01_NO_MATCH, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE01_NO_MATCH, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logUserAccountCreatedEvent(final SessionId sessionId, final String transactionEntityId, final String requestId, final DateTime sessionExpiryTimestamp) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, USER_ACCOUNT_CREATED, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, USER_ACCOUNT_CREATED, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logUserAccountCreationFailedEvent(final SessionId sessionId, final String transactionEntityId, final String requestId, final DateTime sessionExpiryTimestamp) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, USER_ACCOUNT_CREATION_FAILED, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, USER_ACCOUNT_CREATION_FAILED, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logNoAuthnContextEvent(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId, String principalIpAddressAsSeenByHub, String analyticsSessionId, String journeyType, String idpEntityID) {
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(idp_entity_id, idpEntityID);
         details.put(principal_ip_address_as_seen_by_hub, principalIpAddressAsSeenByHub);
         details.put(analytics_session_id, analyticsSessionId);
@@ -145,7 +147,7 @@ public class HubEventLogger {
     }
 
     public void logPausedRegistrationEvent(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId, String principalIdAsSeenByHub, String analyticsSessionId, String journeyType, String idpEntityID) {
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(principal_ip_address_as_seen_by_hub, principalIdAsSeenByHub);
         details.put(idp_entity_id, idpEntityID);
         details.put(analytics_session_id, analyticsSessionId);
@@ -155,7 +157,7 @@ public class HubEventLogger {
 
     public void logIdpFraudEvent(SessionId sessionId, String idpEntityID, String requestIssuerEntityID, PersistentId persistentId, DateTime sessionExpiryTimestamp, FraudDetectedDetails fraudDetectedDetails,
                                  Optional<String> principalIpAddressSeenByIdp, String principalIpAddressSeenByHub, String requestId, String analyticsSessionId, String journeyType) {
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(idp_entity_id, idpEntityID);
         details.put(pid, persistentId.getNameId());
         details.put(idp_fraud_event_id, fraudDetectedDetails.getIdpFraudEventId());
@@ -172,17 +174,17 @@ public class HubEventLogger {
     }
 
     public void logWaitingForCycle3AttributesEvent(SessionId sessionId, String transactionEntityId, String requestId, DateTime sessionExpiryTimestamp) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, WAITING_FOR_CYCLE3_ATTRIBUTES, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, WAITING_FOR_CYCLE3_ATTRIBUTES, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logCycle3DataObtained(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId, String principalIpAddressAsSeenByHub) {
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(principal_ip_address_as_seen_by_hub, principalIpAddressAsSeenByHub);
         logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE3_DATA_OBTAINED, details);
     }
 
     public void logCycle3DataInputCancelled(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE3_CANCEL, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, CYCLE3_CANCEL, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logIdpRequesterErrorEvent(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId, Optional<String> errorMessage, String principalIpAddressSeenByHub, String analyticsSessionId, String journeyType,
@@ -213,7 +215,7 @@ public class HubEventLogger {
                                           String analyticsSessionId,
                                           String journeyType) {
 
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(idp_entity_id, idpEntityId);
         details.put(pid, persistentId.getNameId());
         details.put(minimum_level_of_assurance, minimumLevelOfAssurance.name());
@@ -230,7 +232,7 @@ public class HubEventLogger {
     }
 
     public void logRequestFromHub(SessionId sessionId, String transactionEntityId) {
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(hub_event_type, RECEIVED_AUTHN_REQUEST_FROM_HUB);
         details.put(transaction_entity_id, transactionEntityId);
 
@@ -240,12 +242,11 @@ public class HubEventLogger {
                 HUB_EVENT,
                 details);
 
-        eventSinkProxy.logHubEvent(eventSinkHubEvent);
-        eventEmitter.record(eventSinkHubEvent);
+        hubEventAccumulator.record(eventSinkHubEvent);
     }
 
     public void logSessionTimeoutEvent(SessionId sessionId, DateTime sessionExpiryTimestamp, String transactionEntityId, String requestId) {
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(session_event_type, SESSION_TIMEOUT);
         details.put(session_expiry_time, sessionExpiryTimestamp.toString());
         details.put(transaction_entity_id, transactionEntityId);
@@ -257,17 +258,16 @@ public class HubEventLogger {
                 SESSION_EVENT,
                 details);
 
-        eventSinkProxy.logHubEvent(eventSinkHubEvent);
-        eventEmitter.record(eventSinkHubEvent);
+        hubEventAccumulator.record(eventSinkHubEvent);
     }
 
     public void logMatchingServiceUserAccountCreationRequestSentEvent(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId) {
-        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, USER_ACCOUNT_CREATION_REQUEST_SENT, new HashMap<>());
+        logSessionEvent(sessionId, transactionEntityId, sessionExpiryTimestamp, requestId, USER_ACCOUNT_CREATION_REQUEST_SENT, new EnumMap<>(EventDetailsKey.class));
     }
 
     public void logIdpSelectedEvent(IdpSelectedState idpSelectedState, String principalIpAddress, String analyticsSessionId, String journeyType, String abTestVariant) {
         List<LevelOfAssurance> levelsOfAssurance = idpSelectedState.getLevelsOfAssurance();
-        Map<EventDetailsKey, String> details = new HashMap<>();
+        Map<EventDetailsKey, String> details = new EnumMap<>(EventDetailsKey.class);
         details.put(idp_entity_id, idpSelectedState.getIdpEntityId());
         details.put(principal_ip_address_as_seen_by_hub, principalIpAddress);
         details.put(minimum_level_of_assurance, Collections.min(levelsOfAssurance).name());
@@ -287,7 +287,7 @@ public class HubEventLogger {
     }
 
     public void logSessionMovedToStartStateEvent(SessionStartedState state) {
-        logSessionEvent(state.getSessionId(), state.getRequestIssuerEntityId(), state.getSessionExpiryTimestamp(), state.getRequestId(), SESSION_STARTED, new HashMap<>());
+        logSessionEvent(state.getSessionId(), state.getRequestIssuerEntityId(), state.getSessionExpiryTimestamp(), state.getRequestId(), SESSION_STARTED, new EnumMap<>(EventDetailsKey.class));
     }
 
     private void logSessionEvent(SessionId sessionId, String transactionEntityId, DateTime sessionExpiryTimestamp, String requestId, String state, Map<EventDetailsKey, String> details) {
@@ -303,8 +303,7 @@ public class HubEventLogger {
                 SESSION_EVENT,
                 details);
 
-        eventSinkProxy.logHubEvent(sessionHubEvent);
-        eventEmitter.record(sessionHubEvent);
+        hubEventAccumulator.record(sessionHubEvent);
     }
 
     public void logErrorEvent(final UUID errorId, final SessionId sessionId, final String errorMessage) {
@@ -342,7 +341,6 @@ public class HubEventLogger {
             EventSinkHubEventConstants.EventTypes.ERROR_EVENT,
             details
         );
-        eventSinkProxy.logHubEvent(eventSinkHubEvent);
-        eventEmitter.record(eventSinkHubEvent);
+        hubEventAccumulator.record(eventSinkHubEvent);
     }
 }
@@ -0,0 +1,89 @@
+package uk.gov.ida.hub.policy.proxy;
+
+import io.dropwizard.util.Duration;
+import uk.gov.ida.common.ExceptionType;
+import uk.gov.ida.exceptions.ApplicationException;
+import uk.gov.ida.hub.policy.domain.StateTransitionMetrics;
+import uk.gov.ida.hub.policy.logging.HubEventAccumulator;
+import uk.gov.ida.jerseyclient.JsonClient;
+
+import javax.ws.rs.core.GenericType;
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Makes downstream calls on a bounded executor so that calls which do not depend on each other can be
+ * made at the same time, making a request wait for the slowest of them rather than for all of them in
+ * turn. Each call fails with a {@link TimeoutException} if it has not completed within the deadline.
+ */
+public class AsyncJsonClient {
+
+    private final JsonClient jsonClient;
+    private final Executor executor;
+    private final Duration deadline;
+    private final UnaryOperator<Executor> requestExecutor;
+
+    public AsyncJsonClient(JsonClient jsonClient, Executor executor, Duration deadline) {
+        this(jsonClient, executor, deadline, UnaryOperator.identity());
+    }
+
+    /**
+     * Calls made through this client add their events to the calling request's batch and their time to
+     * its state transition, as they would if made on the request thread.
+     */
+    public AsyncJsonClient(JsonClient jsonClient, Executor executor, Duration deadline, HubEventAccumulator hubEventAccumulator) {
+        this(jsonClient, executor, deadline, callExecutor -> hubEventAccumulator.propagating(StateTransitionMetrics.continuingTransition(callExecutor)));
+    }
+
+    private AsyncJsonClient(JsonClient jsonClient, Executor executor, Duration deadline, UnaryOperator<Executor> requestExecutor) {
+        this.jsonClient = jsonClient;
+        this.executor = executor;
+        this.deadline = deadline;
+        this.requestExecutor = requestExecutor;
+    }
+
+    public <T> CompletableFuture<T> get(URI uri, Class<T> clazz) {
+        return supply(() -> jsonClient.get(uri, clazz));
+    }
+
+    public <T> CompletableFuture<T> get(URI uri, GenericType<T> type) {
+        return supply(() -> jsonClient.get(uri, type));
+    }
+
+    public <T> CompletableFuture<T> post(Object postBody, URI uri, Class<T> clazz) {
+        return supply(() -> jsonClient.post(postBody, uri, clazz));
+    }
+
+    /**
+     * Makes a call through one of the proxies, so that it keeps any caching the proxy does.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, requestExecutor.apply(executor)).orTimeout(deadline.toMilliseconds(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits for a call, throwing whatever it threw rather than a {@link CompletionException}, and a
+     * {@code NETWORK_ERROR} if it missed its deadline.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw ApplicationException.createUnauditedException(ExceptionType.NETWORK_ERROR, UUID.randomUUID(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package uk.gov.ida.hub.policy.proxy;
+
+import uk.gov.ida.hub.policy.domain.StateTransitionMetrics;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+
+/**
+ * Counts the time spent waiting on each downstream call towards the state transition being made on
+ * the calling thread, if there is one.
+ */
+public class DownstreamCallTimingFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String START_PROPERTY = DownstreamCallTimingFilter.class.getName() + ".start";
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        Object start = requestContext.getProperty(START_PROPERTY);
+        if (start != null) {
+            StateTransitionMetrics.downstreamCallCompleted(System.nanoTime() - (long) start);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package uk.gov.ida.hub.policy.proxy;
 import com.codahale.metrics.annotation.Timed;
 import uk.gov.ida.hub.policy.Urls;
 import uk.gov.ida.hub.policy.annotations.Config;
+import uk.gov.ida.hub.policy.contracts.IdpSelectionContextDto;
+import uk.gov.ida.hub.policy.contracts.TransactionPolicyConfigDto;
 import uk.gov.ida.hub.policy.domain.IdpConfigDto;
 import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
 import uk.gov.ida.jerseyclient.JsonClient;
@@ -15,20 +17,30 @@ import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Singleton
 public class IdentityProvidersConfigProxy {
 
     private final JsonClient jsonClient;
     private final URI configUri;
+    private final PolicyConfigSnapshot snapshot;
 
-    @Inject
     public IdentityProvidersConfigProxy(
             JsonClient jsonClient,
             @Config URI configUri) {
+        this(jsonClient, configUri, PolicyConfigSnapshot.NONE);
+    }
+
+    @Inject
+    public IdentityProvidersConfigProxy(
+            JsonClient jsonClient,
+            @Config URI configUri,
+            PolicyConfigSnapshot snapshot) {
 
         this.jsonClient = jsonClient;
         this.configUri = configUri;
+        this.snapshot = snapshot;
     }
 
     @Timed
@@ -51,8 +63,40 @@ public class IdentityProvidersConfigProxy {
                 getEnabledIdentityProvidersForSignIn(transactionEntityId);
     }
 
+    /**
+     * Everything needed to select an identity provider for a transaction, in one request to config
+     * rather than one for each of the transaction's levels of assurance, its enabled identity providers,
+     * the identity provider's config and whether it is enabled for registration.
+     */
+    @Timed
+    public IdpSelectionContextDto getIdpSelectionContext(String transactionEntityId, String idpEntityId, boolean registering, LevelOfAssurance loa) {
+        Optional<TransactionPolicyConfigDto> transaction = snapshot.getTransaction(transactionEntityId);
+        if (transaction.isPresent()) {
+            List<String> enabledForRegistration = getEnabledIdentityProvidersForRegistration(transactionEntityId, loa, false);
+            return new IdpSelectionContextDto(
+                    transaction.get().getLevelsOfAssurance(),
+                    registering ? enabledForRegistration : transaction.get().getEnabledIdentityProvidersForSignIn(),
+                    snapshot.getIdentityProvider(idpEntityId).orElse(null),
+                    enabledForRegistration.contains(idpEntityId));
+        }
+
+        URI uri = UriBuilder
+                .fromUri(configUri)
+                .path(Urls.ConfigUrls.IDP_SELECTION_CONTEXT_RESOURCE)
+                .queryParam(Urls.ConfigUrls.TRANSACTION_ENTITY_ID_PARAM, transactionEntityId)
+                .queryParam(Urls.ConfigUrls.IDP_ENTITY_ID_PARAM, idpEntityId)
+                .queryParam(Urls.ConfigUrls.REGISTERING_PARAM, registering)
+                .queryParam(Urls.SharedUrls.LEVEL_OF_ASSURANCE_PARAM, loa)
+                .build();
+        return jsonClient.get(uri, IdpSelectionContextDto.class);
+    }
+
     @Timed
     public IdpConfigDto getIdpConfig(String identityProviderEntityId) {
+        Optional<IdpConfigDto> fromSnapshot = snapshot.getIdentityProvider(identityProviderEntityId);
+        if (fromSnapshot.isPresent()) {
+            return fromSnapshot.get();
+        }
         URI uri = UriBuilder
                 .fromUri(configUri)
                 .path(Urls.ConfigUrls.IDENTITY_PROVIDER_CONFIG_DATA_RESOURCE)
@@ -69,6 +113,15 @@ public class IdentityProvidersConfigProxy {
     }
 
     private List<String> getEnabledIdentityProvidersForRegistration(String transactionEntityId, LevelOfAssurance levelOfAssurance, boolean processingIdpResponse) {
+        Optional<List<String>> fromSnapshot = snapshot.getTransaction(transactionEntityId)
+                .map(transaction -> processingIdpResponse ?
+                        transaction.getEnabledIdentityProvidersForRegistrationAuthnResponse() :
+                        transaction.getEnabledIdentityProvidersForRegistrationAuthnRequest())
+                .map(enabledIdentityProviders -> enabledIdentityProviders.get(levelOfAssurance));
+        if (fromSnapshot.isPresent()) {
+            return fromSnapshot.get();
+        }
+
         final String enabledIdpConfigServiceResourceUrl = processingIdpResponse ?
                 Urls.ConfigUrls.ENABLED_ID_PROVIDERS_FOR_REGISTRATION_AUTHN_RESPONSE_RESOURCE :
                 Urls.ConfigUrls.ENABLED_ID_PROVIDERS_FOR_REGISTRATION_AUTHN_REQUEST_RESOURCE;
@@ -79,6 +132,10 @@ public class IdentityProvidersConfigProxy {
     }
 
     private List<String> getEnabledIdentityProvidersForSignIn(String transactionEntityId) {
+        Optional<TransactionPolicyConfigDto> transaction = snapshot.getTransaction(transactionEntityId);
+        if (transaction.isPresent()) {
+            return transaction.get().getEnabledIdentityProvidersForSignIn();
+        }
         final UriBuilder uriBuilder = UriBuilder.fromUri(configUri).path(Urls.ConfigUrls.ENABLED_ID_PROVIDERS_FOR_SIGN_IN_RESOURCE);
         final URI uri = uriBuilder.buildFromEncoded(StringEncoding.urlEncode(transactionEntityId));
         return jsonClient.get(uri, new GenericType<List<String>>() {});
@@ -16,6 +16,7 @@ import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
 import java.util.Collection;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 @Singleton
@@ -23,14 +24,23 @@ public class MatchingServiceConfigProxy {
 
     private final JsonClient jsonClient;
     private final URI configUri;
+    private final PolicyConfigSnapshot snapshot;
 
-    @Inject
     public MatchingServiceConfigProxy(
             JsonClient jsonClient,
             @Config URI configUri) {
+        this(jsonClient, configUri, PolicyConfigSnapshot.NONE);
+    }
+
+    @Inject
+    public MatchingServiceConfigProxy(
+            JsonClient jsonClient,
+            @Config URI configUri,
+            PolicyConfigSnapshot snapshot) {
 
         this.jsonClient = jsonClient;
         this.configUri = configUri;
+        this.snapshot = snapshot;
     }
 
     private LoadingCache<URI, MatchingServiceConfigEntityDataDto> matchingServiceConfigEntityDataDto = CacheBuilder.newBuilder()
@@ -44,6 +54,10 @@ public class MatchingServiceConfigProxy {
 
     @Timed
     public MatchingServiceConfigEntityDataDto getMatchingService(String entityId) {
+        Optional<MatchingServiceConfigEntityDataDto> fromSnapshot = snapshot.getMatchingService(entityId);
+        if (fromSnapshot.isPresent()) {
+            return fromSnapshot.get();
+        }
         final UriBuilder uriBuilder = UriBuilder
                 .fromUri(configUri)
                 .path(Urls.ConfigUrls.MATCHING_SERVICE_RESOURCE);
@@ -53,6 +67,10 @@ public class MatchingServiceConfigProxy {
 
     @Timed
     public Collection<MatchingServiceConfigEntityDataDto> getMatchingServices() {
+        Optional<Collection<MatchingServiceConfigEntityDataDto>> fromSnapshot = snapshot.getMatchingServices();
+        if (fromSnapshot.isPresent()) {
+            return fromSnapshot.get();
+        }
         UriBuilder uriBuilder = UriBuilder
                 .fromUri(configUri)
                 .path(Urls.ConfigUrls.ENABLED_MATCHING_SERVICES_RESOURCE);
@@ -0,0 +1,120 @@
+package uk.gov.ida.hub.policy.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.hub.policy.Urls;
+import uk.gov.ida.hub.policy.contracts.MatchingServiceConfigEntityDataDto;
+import uk.gov.ida.hub.policy.contracts.PolicyConfigSnapshotDto;
+import uk.gov.ida.hub.policy.contracts.TransactionPolicyConfigDto;
+import uk.gov.ida.hub.policy.domain.IdpConfigDto;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * The config policy reads on every request, held in memory and kept up to date by polling config
+ * with conditional requests, which cost a {@code 304} while nothing has changed.
+ * <p>
+ * Lookups return empty until the first snapshot has loaded, and for anything the snapshot does not
+ * hold, so that the config proxies can fall back to asking config for that item on its own.
+ */
+public class PolicyConfigSnapshot implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PolicyConfigSnapshot.class);
+
+    public static final PolicyConfigSnapshot NONE = new PolicyConfigSnapshot(null, null);
+
+    private final Client client;
+    private final URI snapshotUri;
+    private volatile Loaded loaded;
+
+    public PolicyConfigSnapshot(Client client, URI configUri) {
+        this.client = client;
+        this.snapshotUri = configUri == null ? null : UriBuilder.fromUri(configUri).path(Urls.ConfigUrls.POLICY_CONFIG_SNAPSHOT_RESOURCE).build();
+    }
+
+    @Override
+    public void run() {
+        refresh();
+    }
+
+    /**
+     * Fetches the snapshot again if config has a different one, keeping the current snapshot if the
+     * request fails.
+     */
+    public void refresh() {
+        Loaded current = loaded;
+        Invocation.Builder request = client.target(snapshotUri).request(MediaType.APPLICATION_JSON_TYPE);
+        if (current != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, current.entityTag);
+        }
+        try {
+            Response response = request.get();
+            try {
+                if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                    return;
+                }
+                if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+                    LOG.warn("Config returned {} for the policy config snapshot, keeping version {}", response.getStatus(), getVersion());
+                    return;
+                }
+                long version = current == null ? 1 : current.version + 1;
+                loaded = new Loaded(response.readEntity(PolicyConfigSnapshotDto.class), response.getEntityTag(), version);
+                LOG.info("Loaded policy config snapshot version {} ({})", version, response.getEntityTag());
+            } finally {
+                response.close();
+            }
+        } catch (ProcessingException e) {
+            LOG.warn("Unable to refresh the policy config snapshot, keeping version {}", getVersion(), e);
+        }
+    }
+
+    /**
+     * How many different snapshots have been loaded, or 0 before the first.
+     */
+    public long getVersion() {
+        Loaded current = loaded;
+        return current == null ? 0 : current.version;
+    }
+
+    public Optional<TransactionPolicyConfigDto> getTransaction(String entityId) {
+        Loaded current = loaded;
+        return current == null ? Optional.empty() : Optional.ofNullable(current.snapshot.getTransactions().get(entityId));
+    }
+
+    public Optional<IdpConfigDto> getIdentityProvider(String entityId) {
+        Loaded current = loaded;
+        return current == null ? Optional.empty() : Optional.ofNullable(current.snapshot.getIdentityProviders().get(entityId));
+    }
+
+    public Optional<MatchingServiceConfigEntityDataDto> getMatchingService(String entityId) {
+        Loaded current = loaded;
+        return current == null ? Optional.empty() : Optional.ofNullable(current.snapshot.getMatchingServices().get(entityId));
+    }
+
+    public Optional<Collection<MatchingServiceConfigEntityDataDto>> getMatchingServices() {
+        Loaded current = loaded;
+        return current == null ? Optional.empty() : Optional.of(current.snapshot.getMatchingServices().values());
+    }
+
+    private static final class Loaded {
+        private final PolicyConfigSnapshotDto snapshot;
+        private final EntityTag entityTag;
+        private final long version;
+
+        private Loaded(PolicyConfigSnapshotDto snapshot, EntityTag entityTag, long version) {
+            this.snapshot = snapshot;
+            this.entityTag = entityTag;
+            this.version = version;
+        }
+    }
+}
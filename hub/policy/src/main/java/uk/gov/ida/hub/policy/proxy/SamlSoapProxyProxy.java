@@ -2,6 +2,7 @@ package uk.gov.ida.hub.policy.proxy;
 
 import uk.gov.ida.hub.policy.Urls;
 import uk.gov.ida.hub.policy.annotations.SamlSoapProxy;
+import uk.gov.ida.hub.policy.contracts.AbstractAttributeQueryRequestDto;
 import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.jerseyclient.JsonClient;
 
@@ -32,5 +33,13 @@ public class SamlSoapProxyProxy {
         jsonClient.post(attributeQueryRequest, uri);
     }
 
+    public void generateAndSendHubMatchingServiceRequest(SessionId sessionId, AbstractAttributeQueryRequestDto attributeQueryRequestDto) {
+        URI uri = UriBuilder
+                .fromUri(samlSoapProxyUri)
+                .path(Urls.SamlSoapProxyUrls.MATCHING_SERVICE_REQUEST_GENERATOR_RESOURCE)
+                .queryParam(Urls.SharedUrls.SESSION_ID_PARAM, sessionId)
+                .build();
+        jsonClient.post(attributeQueryRequestDto, uri);
+    }
 
 }
\ No newline at end of file
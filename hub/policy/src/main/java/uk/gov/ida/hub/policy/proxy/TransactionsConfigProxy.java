@@ -8,6 +8,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import uk.gov.ida.hub.policy.Urls;
 import uk.gov.ida.hub.policy.annotations.Config;
+import uk.gov.ida.hub.policy.contracts.TransactionPolicyConfigDto;
 import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
 import uk.gov.ida.hub.policy.domain.MatchingProcess;
 import uk.gov.ida.hub.policy.domain.ResourceLocation;
@@ -33,6 +34,7 @@ public class TransactionsConfigProxy {
 
     private final JsonClient jsonClient;
     private final URI configUri;
+    private final PolicyConfigSnapshot snapshot;
 
     private LoadingCache<URI, ResourceLocation> resourceLocation = CacheBuilder.newBuilder()
             .expireAfterWrite(5, TimeUnit.MINUTES)
@@ -43,17 +45,32 @@ public class TransactionsConfigProxy {
                 }
             });
 
-    @Inject
     public TransactionsConfigProxy(
             JsonClient jsonClient,
             @Config URI configUri) {
+        this(jsonClient, configUri, PolicyConfigSnapshot.NONE);
+    }
+
+    @Inject
+    public TransactionsConfigProxy(
+            JsonClient jsonClient,
+            @Config URI configUri,
+            PolicyConfigSnapshot snapshot) {
 
         this.jsonClient = jsonClient;
         this.configUri = configUri;
+        this.snapshot = snapshot;
     }
 
     @Timed
     public ResourceLocation getAssertionConsumerServiceUri(String entityId, Optional<Integer> assertionConsumerServiceIndex) {
+        // An index the snapshot doesn't list is left to config, which rejects it
+        Optional<URI> fromSnapshot = snapshot.getTransaction(entityId).flatMap(transaction -> assertionConsumerServiceIndex
+                .map(index -> Optional.ofNullable(transaction.getAssertionConsumerServiceUris().get(index)))
+                .orElseGet(() -> Optional.ofNullable(transaction.getDefaultAssertionConsumerServiceUri())));
+        if (fromSnapshot.isPresent()) {
+            return new ResourceLocation(fromSnapshot.get());
+        }
 
         Map<String, String> queryParams = emptyMap();
 
@@ -73,6 +90,10 @@ public class TransactionsConfigProxy {
 
     @Timed
     public MatchingProcess getMatchingProcess(String entityId) {
+        Optional<TransactionPolicyConfigDto> transaction = snapshot.getTransaction(entityId);
+        if (transaction.isPresent()) {
+            return new MatchingProcess(Optional.ofNullable(transaction.get().getCycle3AttributeName()));
+        }
         return getConfigItem(
                 entityId,
                 Urls.ConfigUrls.MATCHING_PROCESS_RESOURCE,
@@ -82,6 +103,10 @@ public class TransactionsConfigProxy {
 
     @Timed
     public boolean isUsingMatching( String entityId ) {
+        Optional<TransactionPolicyConfigDto> transaction = snapshot.getTransaction(entityId);
+        if (transaction.isPresent()) {
+            return transaction.get().isUsingMatching();
+        }
        return  getConfigItem(
                 entityId,
                 Urls.ConfigUrls.MATCHING_ENABLED_FOR_TRANSACTION_RESOURCE,
@@ -91,12 +116,20 @@ public class TransactionsConfigProxy {
 
     @Timed
     public List<LevelOfAssurance> getLevelsOfAssurance(String entityId) {
+        Optional<TransactionPolicyConfigDto> transaction = snapshot.getTransaction(entityId);
+        if (transaction.isPresent()) {
+            return transaction.get().getLevelsOfAssurance();
+        }
         final URI uriBuilder = getEncodedUri(Urls.ConfigUrls.LEVELS_OF_ASSURANCE_RESOURCE, emptyMap(), entityId);
         return jsonClient.get(uriBuilder, new GenericType<List<LevelOfAssurance>>() {});
     }
 
     @Timed
     public String getMatchingServiceEntityId(String entityId) {
+        Optional<TransactionPolicyConfigDto> transaction = snapshot.getTransaction(entityId);
+        if (transaction.isPresent()) {
+            return transaction.get().getMatchingServiceEntityId();
+        }
         return getConfigItem(
                 entityId,
                 Urls.ConfigUrls.MATCHING_SERVICE_ENTITY_ID_RESOURCE,
@@ -106,6 +139,10 @@ public class TransactionsConfigProxy {
 
     @Timed
     public List<UserAccountCreationAttribute> getUserAccountCreationAttributes(String entityId) {
+        Optional<TransactionPolicyConfigDto> transaction = snapshot.getTransaction(entityId);
+        if (transaction.isPresent()) {
+            return transaction.get().getUserAccountCreationAttributes();
+        }
         final URI uri = getEncodedUri(Urls.ConfigUrls.USER_ACCOUNT_CREATION_ATTRIBUTES_RESOURCE, emptyMap(), entityId);
 
         return jsonClient.get(uri, new GenericType<List<UserAccountCreationAttribute>>() {
@@ -0,0 +1,35 @@
+package uk.gov.ida.hub.policy.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.io.IOException;
+
+/**
+ * The original format: JSON with fully-qualified class names as type ids. Written without a header
+ * so that it stays readable by releases that predate {@link SessionStoreRedisCodec} headers.
+ */
+public class JsonStateSerializer implements StateSerializer {
+    public static final byte FORMAT_ID = 0;
+
+    private final ObjectMapper objectMapper;
+
+    public JsonStateSerializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte getFormatId() {
+        return FORMAT_ID;
+    }
+
+    @Override
+    public byte[] serialize(State state) throws IOException {
+        return objectMapper.writeValueAsBytes(state);
+    }
+
+    @Override
+    public State deserialize(byte[] bytes, int offset, int length) throws IOException {
+        return objectMapper.readValue(bytes, offset, length, State.class);
+    }
+}
@@ -1,7 +1,7 @@
 package uk.gov.ida.hub.policy.redis;
 
-class RedisSerializationException extends RuntimeException {
-    RedisSerializationException(String message, Throwable cause) {
+public class RedisSerializationException extends RuntimeException {
+    public RedisSerializationException(String message, Throwable cause) {
         super(message, cause);
     }
 }
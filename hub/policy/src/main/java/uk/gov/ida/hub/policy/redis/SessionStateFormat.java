@@ -0,0 +1,6 @@
+package uk.gov.ida.hub.policy.redis;
+
+public enum SessionStateFormat {
+    JSON,
+    SMILE
+}
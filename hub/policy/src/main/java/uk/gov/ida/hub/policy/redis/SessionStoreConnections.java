@@ -0,0 +1,211 @@
+package uk.gov.ida.hub.policy.redis;
+
+import io.dropwizard.lifecycle.Managed;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.masterslave.MasterSlave;
+import io.lettuce.core.masterslave.StatefulRedisMasterSlaveConnection;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.resource.ClientResources;
+import uk.gov.ida.hub.policy.configuration.RedisConfiguration;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The connections to the Redis deployment holding policy sessions, opened according to its
+ * {@link SessionStoreMode}. Standalone and cluster deployments appear as a single shard, since
+ * Lettuce routes cluster commands to the right node itself.
+ * <p>
+ * With replica reads enabled every shard has a second connection preferring replicas, for queries
+ * only; otherwise queries share the primary connection.
+ * <p>
+ * The connections, the client and its resources are closed when the service stops.
+ */
+public class SessionStoreConnections implements Managed {
+
+    private final ClientResources clientResources;
+    private final AbstractRedisClient client;
+    private final List<StatefulConnection<?, ?>> connections;
+    private final Map<String, RedisClusterCommands<SessionId, State>> syncShards;
+    private final Map<String, RedisClusterAsyncCommands<SessionId, State>> asyncShards;
+    private final Map<String, RedisClusterCommands<SessionId, State>> syncQueryShards;
+    private final Map<String, RedisClusterAsyncCommands<SessionId, State>> asyncQueryShards;
+    private final Supplier<List<StatefulRedisPubSubConnection<String, String>>> pubSubConnector;
+
+    private SessionStoreConnections(
+            ClientResources clientResources,
+            AbstractRedisClient client,
+            List<StatefulConnection<?, ?>> connections,
+            Map<String, RedisClusterCommands<SessionId, State>> syncShards,
+            Map<String, RedisClusterAsyncCommands<SessionId, State>> asyncShards,
+            Map<String, RedisClusterCommands<SessionId, State>> syncQueryShards,
+            Map<String, RedisClusterAsyncCommands<SessionId, State>> asyncQueryShards,
+            Supplier<List<StatefulRedisPubSubConnection<String, String>>> pubSubConnector) {
+        this.clientResources = clientResources;
+        this.client = client;
+        this.connections = new CopyOnWriteArrayList<>(connections);
+        this.syncShards = unmodifiableMap(syncShards);
+        this.asyncShards = unmodifiableMap(asyncShards);
+        this.syncQueryShards = unmodifiableMap(syncQueryShards);
+        this.asyncQueryShards = unmodifiableMap(asyncQueryShards);
+        this.pubSubConnector = pubSubConnector;
+    }
+
+    public static SessionStoreConnections open(RedisConfiguration config, SessionStoreRedisCodec codec, ClientResources clientResources) {
+        if (config.getMode() == SessionStoreMode.CLUSTER) {
+            return openCluster(config, codec, clientResources);
+        }
+        List<RedisURI> uris = config.getMode() == SessionStoreMode.SHARDED ? config.getUris() : singletonList(config.getUri());
+        return openShards(config, uris, codec, clientResources);
+    }
+
+    private static SessionStoreConnections openCluster(RedisConfiguration config, SessionStoreRedisCodec codec, ClientResources clientResources) {
+        RedisClusterClient clusterClient = RedisClusterClient.create(clientResources, config.getUris());
+        clusterClient.setDefaultTimeout(config.getTimeout());
+        clusterClient.setOptions(ClusterClientOptions.builder()
+                .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                        .enablePeriodicRefresh(config.getTopologyRefreshPeriod())
+                        .enableAllAdaptiveRefreshTriggers()
+                        .build())
+                .build());
+        StatefulRedisClusterConnection<SessionId, State> connection = clusterClient.connect(codec);
+        List<StatefulConnection<?, ?>> connections = new ArrayList<>(List.of(connection));
+        StatefulRedisClusterConnection<SessionId, State> queryConnection = connection;
+        if (config.isReplicaReads()) {
+            queryConnection = clusterClient.connect(codec);
+            queryConnection.setReadFrom(ReadFrom.REPLICA_PREFERRED);
+            connections.add(queryConnection);
+        }
+        // Scripts publish to the whole cluster, so one subscription sees every session update
+        return new SessionStoreConnections(
+                clientResources,
+                clusterClient,
+                connections,
+                Map.of("cluster", connection.sync()),
+                Map.of("cluster", connection.async()),
+                Map.of("cluster", queryConnection.sync()),
+                Map.of("cluster", queryConnection.async()),
+                () -> singletonList(clusterClient.connectPubSub()));
+    }
+
+    private static SessionStoreConnections openShards(RedisConfiguration config, List<RedisURI> uris, SessionStoreRedisCodec codec, ClientResources clientResources) {
+        List<String> shardNames = shardNames(uris);
+        RedisClient redisClient = RedisClient.create(clientResources);
+        redisClient.setDefaultTimeout(config.getTimeout());
+        Map<String, RedisClusterCommands<SessionId, State>> syncShards = new LinkedHashMap<>();
+        Map<String, RedisClusterAsyncCommands<SessionId, State>> asyncShards = new LinkedHashMap<>();
+        Map<String, RedisClusterCommands<SessionId, State>> syncQueryShards = new LinkedHashMap<>();
+        Map<String, RedisClusterAsyncCommands<SessionId, State>> asyncQueryShards = new LinkedHashMap<>();
+        List<StatefulConnection<?, ?>> connections = new ArrayList<>();
+        for (int i = 0; i < uris.size(); i++) {
+            RedisURI uri = uris.get(i);
+            StatefulRedisMasterSlaveConnection<SessionId, State> connection = MasterSlave.connect(redisClient, codec, singletonList(uri));
+            connections.add(connection);
+            StatefulRedisMasterSlaveConnection<SessionId, State> queryConnection = connection;
+            if (config.isReplicaReads()) {
+                // Replicas are discovered from the primary, or from the sentinels for a sentinel URI
+                queryConnection = MasterSlave.connect(redisClient, codec, singletonList(uri));
+                queryConnection.setReadFrom(ReadFrom.REPLICA_PREFERRED);
+                connections.add(queryConnection);
+            }
+            String shardName = shardNames.get(i);
+            syncShards.put(shardName, connection.sync());
+            asyncShards.put(shardName, connection.async());
+            syncQueryShards.put(shardName, queryConnection.sync());
+            asyncQueryShards.put(shardName, queryConnection.async());
+        }
+        return new SessionStoreConnections(
+                clientResources,
+                redisClient,
+                connections,
+                syncShards,
+                asyncShards,
+                syncQueryShards,
+                asyncQueryShards,
+                () -> uris.stream().map(redisClient::connectPubSub).collect(toList()));
+    }
+
+    /**
+     * Names each shard by its address, or by its master name for a sentinel URI, as a sentinel URI
+     * has no host of its own. Two URIs for the same shard would silently merge, so they are refused.
+     */
+    static List<String> shardNames(List<RedisURI> uris) {
+        List<String> shardNames = new ArrayList<>();
+        for (RedisURI uri : uris) {
+            String shardName = uri.getSentinelMasterId() != null
+                    ? "sentinel:" + uri.getSentinelMasterId()
+                    : uri.getHost() + ":" + uri.getPort();
+            if (shardNames.contains(shardName)) {
+                throw new IllegalArgumentException("More than one session store URI is for shard " + shardName);
+            }
+            shardNames.add(shardName);
+        }
+        return shardNames;
+    }
+
+    public AbstractRedisClient getClient() {
+        return client;
+    }
+
+    /**
+     * Commands for each shard, keyed by a name that stays the same for as long as the shard's address does.
+     */
+    public Map<String, RedisClusterCommands<SessionId, State>> getSyncShards() {
+        return syncShards;
+    }
+
+    public Map<String, RedisClusterAsyncCommands<SessionId, State>> getAsyncShards() {
+        return asyncShards;
+    }
+
+    /**
+     * Commands for each shard to use for session queries, under the same names as {@link #getSyncShards()}.
+     */
+    public Map<String, RedisClusterCommands<SessionId, State>> getSyncQueryShards() {
+        return syncQueryShards;
+    }
+
+    public Map<String, RedisClusterAsyncCommands<SessionId, State>> getAsyncQueryShards() {
+        return asyncQueryShards;
+    }
+
+    /**
+     * Opens connections that together receive the session updates published by every shard.
+     */
+    public List<StatefulRedisPubSubConnection<String, String>> connectPubSub() {
+        List<StatefulRedisPubSubConnection<String, String>> pubSubConnections = pubSubConnector.get();
+        connections.addAll(pubSubConnections);
+        return pubSubConnections;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        connections.forEach(StatefulConnection::close);
+        client.shutdown();
+        clientResources.shutdown();
+    }
+}
@@ -0,0 +1,14 @@
+package uk.gov.ida.hub.policy.redis;
+
+public enum SessionStoreLayout {
+    /**
+     * Each session state is one value, rewritten whole on every transition.
+     */
+    STRING,
+    /**
+     * Each session is a hash, with large strings in their own fields so that transitions only rewrite what changes.
+     * Sessions already held in the {@link #STRING} layout are still read, and are moved into a hash by their next
+     * transition. Nodes on the {@link #STRING} layout cannot read hashes, so every node should be switched at once.
+     */
+    HASH
+}
@@ -0,0 +1,16 @@
+package uk.gov.ida.hub.policy.redis;
+
+public enum SessionStoreMode {
+    /**
+     * A single primary, optionally with replicas, reached through one URI.
+     */
+    STANDALONE,
+    /**
+     * A Redis Cluster, discovered from one or more seed URIs.
+     */
+    CLUSTER,
+    /**
+     * Independent primaries, with each session placed on one of them by consistent hashing of its id.
+     */
+    SHARDED
+}
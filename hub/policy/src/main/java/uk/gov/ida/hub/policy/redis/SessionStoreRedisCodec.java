@@ -1,43 +1,75 @@
 package uk.gov.ida.hub.policy.redis;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
-import com.google.common.io.ByteStreams;
 import io.lettuce.core.codec.RedisCodec;
 import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.hub.policy.domain.State;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.text.MessageFormat.format;
+import static java.util.Collections.singletonList;
 
+/**
+ * Values are either legacy headerless JSON, which always starts with '{', or a three byte header
+ * (header version, {@link StateSerializer} format id, compression) followed by the serialized state.
+ * Every registered format can be read whichever format is being written, so the written format can
+ * be changed in a rolling deploy once all nodes are able to read it.
+ */
 public class SessionStoreRedisCodec implements RedisCodec<SessionId, State> {
-    private final ObjectMapper objectMapper;
+    private static final byte LEGACY_JSON_START = '{';
+    private static final byte HEADER_VERSION = 1;
+    private static final int HEADER_LENGTH = 3;
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte DEFLATE = 1;
+
+    private final StateSerializer writer;
+    private final Map<Byte, StateSerializer> readers = new HashMap<>();
+    private final int compressionThreshold;
 
     public SessionStoreRedisCodec(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this(new JsonStateSerializer(objectMapper), singletonList(new JsonStateSerializer(objectMapper)), Integer.MAX_VALUE);
+    }
+
+    public SessionStoreRedisCodec(StateSerializer writer, Collection<StateSerializer> readers, int compressionThreshold) {
+        this.writer = writer;
+        this.compressionThreshold = compressionThreshold;
+        this.readers.put(writer.getFormatId(), writer);
+        readers.forEach(reader -> this.readers.put(reader.getFormatId(), reader));
     }
 
     @Override
     public SessionId decodeKey(ByteBuffer keyBytes) {
-        try {
-            InputStream inputStream = new ByteBufferBackedInputStream(keyBytes);
-            // TODO: Replace with `inputStream.readAllBytes()` when we only use Java 9+
-            return new SessionId(new String(ByteStreams.toByteArray(inputStream), UTF_8));
-        } catch (IOException e) {
-            throw new RedisSerializationException("Error decoding SessionId", e);
-        }
+        return new SessionId(UTF_8.decode(keyBytes).toString());
     }
 
     @Override
     public State decodeValue(ByteBuffer valueBytes) {
+        byte[] bytes = new byte[valueBytes.remaining()];
+        valueBytes.get(bytes);
         try {
-            InputStream inputStream = new ByteBufferBackedInputStream(valueBytes);
-            return objectMapper.readValue(inputStream, State.class);
-        } catch (IOException e) {
+            if (bytes.length == 0 || bytes[0] == LEGACY_JSON_START) {
+                return getReader(JsonStateSerializer.FORMAT_ID).deserialize(bytes, 0, bytes.length);
+            }
+            if (bytes[0] != HEADER_VERSION) {
+                throw new RedisSerializationException(format("Unknown State header version {0}", bytes[0]), null);
+            }
+            StateSerializer reader = getReader(bytes[1]);
+            if (bytes[2] == DEFLATE) {
+                byte[] inflated = inflate(bytes, HEADER_LENGTH);
+                return reader.deserialize(inflated, 0, inflated.length);
+            }
+            return reader.deserialize(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        } catch (IOException | DataFormatException e) {
             throw new RedisSerializationException("Error decoding State", e);
         }
     }
@@ -50,9 +82,64 @@ public class SessionStoreRedisCodec implements RedisCodec<SessionId, State> {
     @Override
     public ByteBuffer encodeValue(State state) {
         try {
-            return ByteBuffer.wrap(objectMapper.writeValueAsBytes(state));
-        } catch (JsonProcessingException e) {
+            byte[] payload = writer.serialize(state);
+            if (writer.getFormatId() == JsonStateSerializer.FORMAT_ID) {
+                return ByteBuffer.wrap(payload);
+            }
+            byte compression = UNCOMPRESSED;
+            if (payload.length > compressionThreshold) {
+                payload = deflate(payload);
+                compression = DEFLATE;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+            buffer.put(HEADER_VERSION).put(writer.getFormatId()).put(compression).put(payload);
+            buffer.flip();
+            return buffer;
+        } catch (IOException e) {
             throw new RedisSerializationException("Error encoding State", e);
         }
     }
+
+    private StateSerializer getReader(byte formatId) {
+        StateSerializer reader = readers.get(formatId);
+        if (reader == null) {
+            throw new RedisSerializationException(format("No reader registered for State format {0}", formatId), null);
+        }
+        return reader;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 2);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed State");
+                }
+                output.write(buffer, 0, inflated);
+            }
+            return output.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package uk.gov.ida.hub.policy.redis;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import uk.gov.ida.hub.policy.PolicyModule;
+import uk.gov.ida.hub.policy.domain.PolicyState;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.state.PausedRegistrationState;
+
+import java.io.IOException;
+
+/**
+ * Binary Jackson Smile, with each state identified by its {@link PolicyState} name rather than its class name.
+ */
+public class SmileStateSerializer implements StateSerializer {
+    public static final byte FORMAT_ID = 1;
+
+    // States that are stored but have no controller, and so no PolicyState
+    private static final NamedType[] ADDITIONAL_STATE_TYPES = {
+            new NamedType(PausedRegistrationState.class, "PAUSED_REGISTRATION")
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public SmileStateSerializer() {
+        this.objectMapper = PolicyModule.getRedisObjectMapper(new SmileFactory())
+                .addMixIn(State.class, LogicalTypeIdMixin.class);
+        for (PolicyState policyState : PolicyState.values()) {
+            objectMapper.registerSubtypes(new NamedType(policyState.getStateClass(), policyState.name()));
+        }
+        objectMapper.registerSubtypes(ADDITIONAL_STATE_TYPES);
+    }
+
+    @Override
+    public byte getFormatId() {
+        return FORMAT_ID;
+    }
+
+    @Override
+    public byte[] serialize(State state) throws IOException {
+        return objectMapper.writeValueAsBytes(state);
+    }
+
+    @Override
+    public State deserialize(byte[] bytes, int offset, int length) throws IOException {
+        return objectMapper.readValue(bytes, offset, length, State.class);
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "@type")
+    private interface LogicalTypeIdMixin {
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.ida.hub.policy.redis;
+
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.io.IOException;
+
+/**
+ * A wire format for session {@link State} stored in Redis. Each format has a distinct id, written
+ * into the header of every value so that any node can read values written in any known format.
+ */
+public interface StateSerializer {
+    byte getFormatId();
+
+    byte[] serialize(State state) throws IOException;
+
+    State deserialize(byte[] bytes, int offset, int length) throws IOException;
+}
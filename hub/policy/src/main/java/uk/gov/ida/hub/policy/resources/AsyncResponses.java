@@ -0,0 +1,25 @@
+package uk.gov.ida.hub.policy.resources;
+
+import javax.ws.rs.container.AsyncResponse;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+final class AsyncResponses {
+
+    private AsyncResponses() {
+    }
+
+    /**
+     * Resumes the suspended request once {@code result} completes. Failures are resumed with the
+     * exception the stage failed with, so they reach the usual exception mappers.
+     */
+    static void resumeWhenComplete(AsyncResponse asyncResponse, CompletionStage<?> result) {
+        result.whenComplete((entity, error) -> {
+            if (error == null) {
+                asyncResponse.resume(entity);
+            } else {
+                asyncResponse.resume(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+}
@@ -7,6 +7,7 @@ import uk.gov.ida.hub.policy.domain.AuthnRequestSignInDetailsDto;
 import uk.gov.ida.hub.policy.domain.AuthnRequestSignInProcess;
 import uk.gov.ida.hub.policy.domain.IdpSelected;
 import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.filters.SingleFlightPerSession;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
@@ -32,6 +33,7 @@ public class AuthnRequestFromTransactionResource {
     }
 
     @POST
+    @SingleFlightPerSession
     @Path(Urls.PolicyUrls.AUTHN_REQUEST_SELECT_IDP_PATH)
     @Timed
     public Response selectIdentityProvider(
@@ -43,6 +45,7 @@ public class AuthnRequestFromTransactionResource {
     }
 
     @POST
+    @SingleFlightPerSession
     @Path(Urls.PolicyUrls.AUTHN_REQUEST_TRY_ANOTHER_IDP_PATH)
     @Timed
     public void tryAnotherIdp(@PathParam(SESSION_ID_PARAM) SessionId sessionId) {
@@ -50,6 +53,7 @@ public class AuthnRequestFromTransactionResource {
     }
 
     @POST
+    @SingleFlightPerSession
     @Path(Urls.PolicyUrls.AUTHN_REQUEST_RESTART_JOURNEY_PATH)
     @Timed
     public void restartJourney(@PathParam(SESSION_ID_PARAM) SessionId sessionId) {
@@ -5,6 +5,7 @@ import uk.gov.ida.hub.policy.Urls;
 import uk.gov.ida.hub.policy.domain.Cycle3AttributeRequestData;
 import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.hub.policy.domain.Cycle3UserInput;
+import uk.gov.ida.hub.policy.filters.SingleFlightPerSession;
 import uk.gov.ida.hub.policy.services.Cycle3Service;
 
 import javax.inject.Inject;
@@ -33,6 +34,7 @@ public class Cycle3DataResource {
     }
 
     @POST
+    @SingleFlightPerSession
     @Path(Urls.PolicyUrls.CYCLE_3_SUBMIT_PATH)
     @Timed
     public void submitCycle3Data(@PathParam(Urls.SharedUrls.SESSION_ID_PARAM) SessionId sessionId, Cycle3UserInput cycle3UserInput) {
@@ -40,6 +42,7 @@ public class Cycle3DataResource {
     }
 
     @POST
+    @SingleFlightPerSession
     @Path(Urls.PolicyUrls.CYCLE_3_CANCEL_PATH)
     @Timed
     public void cancelCycle3DataInput(@PathParam(Urls.SharedUrls.SESSION_ID_PARAM) SessionId sessionId) {
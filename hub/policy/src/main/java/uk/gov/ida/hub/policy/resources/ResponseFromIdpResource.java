@@ -3,8 +3,6 @@ package uk.gov.ida.hub.policy.resources;
 import com.codahale.metrics.annotation.Timed;
 import uk.gov.ida.hub.policy.Urls;
 import uk.gov.ida.hub.policy.controllogic.ResponseFromIdpHandler;
-import uk.gov.ida.hub.policy.domain.FailureResponseDetails;
-import uk.gov.ida.hub.policy.domain.ResponseProcessingDetails;
 import uk.gov.ida.hub.policy.domain.SessionId;
 
 import javax.inject.Inject;
@@ -12,8 +10,12 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 
+import static uk.gov.ida.hub.policy.resources.AsyncResponses.resumeWhenComplete;
+
 /**
  * This resource is called from frontend when its waiting for the matching to happen in the
  * background in order to respond back to the user based on the policy state.
@@ -34,14 +36,14 @@ public class ResponseFromIdpResource {
     @GET
     @Path(Urls.PolicyUrls.RESPONSE_PROCESSING_DETAILS_PATH)
     @Timed
-    public ResponseProcessingDetails getResponseProcessingDetails(@PathParam(Urls.SharedUrls.SESSION_ID_PARAM) SessionId sessionId) {
-        return responseFromIdpHandler.getResponseProcessingDetails(sessionId);
+    public void getResponseProcessingDetails(@PathParam(Urls.SharedUrls.SESSION_ID_PARAM) SessionId sessionId, @Suspended AsyncResponse asyncResponse) {
+        resumeWhenComplete(asyncResponse, responseFromIdpHandler.getResponseProcessingDetails(sessionId));
     }
 
     @GET
     @Path(Urls.PolicyUrls.FAILURE_DETAILS_PATH)
     @Timed
-    public FailureResponseDetails getErrorResponseFromIdp(@PathParam(Urls.SharedUrls.SESSION_ID_PARAM) SessionId sessionId) {
-        return responseFromIdpHandler.getErrorResponseFromIdp(sessionId);
+    public void getErrorResponseFromIdp(@PathParam(Urls.SharedUrls.SESSION_ID_PARAM) SessionId sessionId, @Suspended AsyncResponse asyncResponse) {
+        resumeWhenComplete(asyncResponse, responseFromIdpHandler.getErrorResponseFromIdp(sessionId));
     }
 }
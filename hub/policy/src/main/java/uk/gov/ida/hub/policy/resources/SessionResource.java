@@ -3,10 +3,10 @@ package uk.gov.ida.hub.policy.resources;
 import com.codahale.metrics.annotation.Timed;
 import uk.gov.ida.hub.policy.Urls;
 import uk.gov.ida.hub.policy.contracts.SamlAuthnResponseContainerDto;
-import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
 import uk.gov.ida.hub.policy.domain.ResponseAction;
 import uk.gov.ida.hub.policy.domain.SamlAuthnRequestContainerDto;
 import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.filters.SingleFlightPerSession;
 import uk.gov.ida.hub.policy.services.AuthnResponseFromIdpService;
 import uk.gov.ida.hub.policy.services.SessionService;
 
@@ -17,10 +17,11 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
-import java.util.Optional;
 
 import static uk.gov.ida.hub.policy.Urls.PolicyUrls.IDP_AUTHN_REQUEST_PATH;
 import static uk.gov.ida.hub.policy.Urls.PolicyUrls.IDP_AUTHN_RESPONSE_PATH;
@@ -29,6 +30,7 @@ import static uk.gov.ida.hub.policy.Urls.PolicyUrls.RP_AUTHN_RESPONSE_PATH;
 import static uk.gov.ida.hub.policy.Urls.PolicyUrls.RP_ERROR_RESPONSE_PATH;
 import static uk.gov.ida.hub.policy.Urls.SharedUrls.SESSION_ID_PARAM;
 import static uk.gov.ida.hub.policy.Urls.SharedUrls.SESSION_ID_PARAM_PATH;
+import static uk.gov.ida.hub.policy.resources.AsyncResponses.resumeWhenComplete;
 
 @Path(Urls.PolicyUrls.SESSION_RESOURCE_ROOT)
 @Produces(MediaType.APPLICATION_JSON)
@@ -46,14 +48,14 @@ public class SessionResource {
 
     @GET
     @Path(SESSION_ID_PARAM_PATH)
-    public SessionId getSession(@PathParam(SESSION_ID_PARAM) SessionId sessionIdParameter) {
-        return sessionService.getSessionIfItExists(sessionIdParameter);
+    public void getSession(@PathParam(SESSION_ID_PARAM) SessionId sessionIdParameter, @Suspended AsyncResponse asyncResponse) {
+        resumeWhenComplete(asyncResponse, sessionService.getSessionIfItExistsAsync(sessionIdParameter));
     }
 
     @GET
     @Path(LOA_FOR_SESSION_PATH)
-    public Optional<LevelOfAssurance> getLevelOfAssurance(@PathParam(SESSION_ID_PARAM) SessionId sessionIdParameter) {
-        return sessionService.getLevelOfAssurance(sessionIdParameter);
+    public void getLevelOfAssurance(@PathParam(SESSION_ID_PARAM) SessionId sessionIdParameter, @Suspended AsyncResponse asyncResponse) {
+        resumeWhenComplete(asyncResponse, sessionService.getLevelOfAssurance(sessionIdParameter));
     }
 
     @POST
@@ -73,6 +75,7 @@ public class SessionResource {
     }
 
     @POST
+    @SingleFlightPerSession
     @Path(IDP_AUTHN_RESPONSE_PATH)
     @Consumes(MediaType.APPLICATION_JSON)
     @Timed
@@ -1,5 +1,6 @@
 package uk.gov.ida.hub.policy.services;
 
+import uk.gov.ida.hub.policy.configuration.PolicyConfiguration;
 import uk.gov.ida.hub.policy.contracts.AbstractAttributeQueryRequestDto;
 import uk.gov.ida.hub.policy.contracts.AttributeQueryContainerDto;
 import uk.gov.ida.hub.policy.domain.SessionId;
@@ -12,16 +13,22 @@ import javax.inject.Inject;
 public class AttributeQueryService {
     private final SamlEngineProxy samlEngineProxy;
     private final SamlSoapProxyProxy samlSoapProxyProxy;
+    private final PolicyConfiguration policyConfiguration;
 
     @Inject
-    public AttributeQueryService(SamlEngineProxy samlEngineProxy, SamlSoapProxyProxy samlSoapProxyProxy) {
+    public AttributeQueryService(SamlEngineProxy samlEngineProxy, SamlSoapProxyProxy samlSoapProxyProxy, PolicyConfiguration policyConfiguration) {
         this.samlEngineProxy = samlEngineProxy;
         this.samlSoapProxyProxy = samlSoapProxyProxy;
+        this.policyConfiguration = policyConfiguration;
     }
 
     public void sendAttributeQueryRequest(
         final SessionId sessionId,
         final AbstractAttributeQueryRequestDto attributeQueryRequestDto) {
+        if (policyConfiguration.shouldGenerateAttributeQueriesInSamlSoapProxy()) {
+            samlSoapProxyProxy.generateAndSendHubMatchingServiceRequest(sessionId, attributeQueryRequestDto);
+            return;
+        }
         AttributeQueryContainerDto attributeQueryContainerDto = attributeQueryRequestDto.sendToSamlEngine(samlEngineProxy);
         generateAndSendMatchingServiceRequest(sessionId, attributeQueryRequestDto.isOnboarding(), attributeQueryContainerDto);
     }
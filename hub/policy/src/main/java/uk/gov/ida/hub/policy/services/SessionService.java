@@ -10,46 +10,60 @@ import uk.gov.ida.hub.policy.domain.AuthnRequestFromHub;
 import uk.gov.ida.hub.policy.domain.AuthnRequestFromHubContainerDto;
 import uk.gov.ida.hub.policy.domain.IdaAuthnRequestFromHubDto;
 import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
+import uk.gov.ida.hub.policy.domain.ResourceLocation;
 import uk.gov.ida.hub.policy.domain.ResponseFromHub;
 import uk.gov.ida.hub.policy.domain.SamlAuthnRequestContainerDto;
 import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.hub.policy.domain.SessionRepository;
 import uk.gov.ida.hub.policy.domain.exception.SessionCreationFailureException;
 import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.proxy.AsyncJsonClient;
 import uk.gov.ida.hub.policy.proxy.SamlEngineProxy;
 import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 import javax.inject.Inject;
 import javax.ws.rs.WebApplicationException;
 import java.net.URI;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 public class SessionService {
     private final SamlEngineProxy samlEngineProxy;
     private final TransactionsConfigProxy configProxy;
     private final AuthnRequestFromTransactionHandler authnRequestHandler;
     private final SessionRepository sessionRepository;
+    private final AsyncJsonClient asyncJsonClient;
 
     @Inject
     public SessionService(SamlEngineProxy samlEngineProxy,
                           TransactionsConfigProxy configProxy,
                           AuthnRequestFromTransactionHandler authnRequestHandler,
-                          SessionRepository sessionRepository) {
+                          SessionRepository sessionRepository,
+                          AsyncJsonClient asyncJsonClient) {
         this.samlEngineProxy = samlEngineProxy;
         this.configProxy = configProxy;
         this.authnRequestHandler = authnRequestHandler;
         this.sessionRepository = sessionRepository;
+        this.asyncJsonClient = asyncJsonClient;
     }
 
     public SessionId create(final SamlAuthnRequestContainerDto requestDto) {
         SamlResponseWithAuthnRequestInformationDto samlResponse = samlEngineProxy.translate(requestDto.getSamlRequest());
-        URI assertionConsumerServiceUri = getAssertionConsumerServiceUri(samlResponse);
+        // Both lookups only need the issuer, so ask config for them at the same time
+        CompletableFuture<ResourceLocation> assertionConsumerService = asyncJsonClient.supply(() ->
+                configProxy.getAssertionConsumerServiceUri(samlResponse.getIssuer(), samlResponse.getAssertionConsumerServiceIndex()));
+        CompletableFuture<List<LevelOfAssurance>> levelsOfAssurance = asyncJsonClient.supply(() ->
+                configProxy.getLevelsOfAssurance(samlResponse.getIssuer()));
+        URI assertionConsumerServiceUri = getAssertionConsumerServiceUri(samlResponse, assertionConsumerService);
 
         return authnRequestHandler.handleRequestFromTransaction(
             samlResponse,
             requestDto.getRelayState(),
             requestDto.getPrincipalIPAddressAsSeenByHub(),
-            assertionConsumerServiceUri);
+            assertionConsumerServiceUri,
+            AsyncJsonClient.await(levelsOfAssurance));
     }
 
     public SessionId getSessionIfItExists(SessionId sessionId) {
@@ -60,8 +74,17 @@ public class SessionService {
         throw new SessionNotFoundException(sessionId);
     }
 
-    public Optional<LevelOfAssurance> getLevelOfAssurance(SessionId sessionId){
-        getSessionIfItExists(sessionId);
+    public CompletionStage<SessionId> getSessionIfItExistsAsync(SessionId sessionId) {
+        return sessionRepository.sessionExistsAsync(sessionId).thenApply(exists -> {
+            if (exists) {
+                return sessionId;
+            }
+
+            throw new SessionNotFoundException(sessionId);
+        });
+    }
+
+    public CompletionStage<Optional<LevelOfAssurance>> getLevelOfAssurance(SessionId sessionId) {
         return sessionRepository.getLevelOfAssuranceFromIdp(sessionId);
     }
 
@@ -81,9 +104,9 @@ public class SessionService {
         return new AuthnRequestFromHubContainerDto(samlRequest.getSamlRequest(), samlRequest.getSsoUri(), request.getRegistering());
     }
 
-    private URI getAssertionConsumerServiceUri(SamlResponseWithAuthnRequestInformationDto samlResponse) {
+    private URI getAssertionConsumerServiceUri(SamlResponseWithAuthnRequestInformationDto samlResponse, CompletableFuture<ResourceLocation> assertionConsumerService) {
         try {
-            URI uri = configProxy.getAssertionConsumerServiceUri(samlResponse.getIssuer(), samlResponse.getAssertionConsumerServiceIndex()).getTarget();
+            URI uri = AsyncJsonClient.await(assertionConsumerService).getTarget();
             if (doesNotMatchProvidedAssertionConsumerServiceUrl(samlResponse.getAssertionConsumerServiceUrl(), uri)) {
                 throw SessionCreationFailureException.assertionConsumerServiceUrlNotMatching(
                     samlResponse.getAssertionConsumerServiceUrl().map(URI::toString).orElse("unknown"),
@@ -0,0 +1,21 @@
+package uk.gov.ida.hub.policy.session;
+
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking reads of session state, for requests that only need to look at a session
+ * and so should not hold a request thread while waiting on the store.
+ * <p>
+ * Stages may complete on the store's I/O threads, so callers must not block in them.
+ */
+public interface AsyncSessionStore {
+    CompletionStage<Boolean> hasSession(SessionId sessionId);
+
+    CompletionStage<State> get(SessionId sessionId);
+
+    CompletionStage<Optional<SessionRecord>> getWithTtl(SessionId sessionId);
+}
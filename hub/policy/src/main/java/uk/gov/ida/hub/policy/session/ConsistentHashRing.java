@@ -0,0 +1,43 @@
+package uk.gov.ida.hub.policy.session;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import uk.gov.ida.hub.policy.domain.SessionId;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Places each session on one of a set of named shards. Every shard owns many points on the ring,
+ * derived from its name alone, so adding or removing a shard only moves the sessions that it gains
+ * or loses, and every node agrees on the placement without coordinating.
+ */
+class ConsistentHashRing<T> {
+    private static final int POINTS_PER_SHARD = 160;
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32_fixed();
+
+    private final NavigableMap<Integer, T> ring = new TreeMap<>();
+
+    ConsistentHashRing(Map<String, T> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is needed");
+        }
+        shards.forEach((name, shard) -> {
+            for (int point = 0; point < POINTS_PER_SHARD; point++) {
+                ring.put(hash(name + "#" + point), shard);
+            }
+        });
+    }
+
+    T shardFor(SessionId sessionId) {
+        Map.Entry<Integer, T> entry = ring.ceilingEntry(hash(sessionId.getSessionId()));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static int hash(String value) {
+        return HASH_FUNCTION.hashString(value, UTF_8).asInt();
+    }
+}
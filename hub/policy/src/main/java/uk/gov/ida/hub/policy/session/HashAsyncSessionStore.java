@@ -0,0 +1,90 @@
+package uk.gov.ida.hub.policy.session;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static uk.gov.ida.hub.policy.session.SessionStoreScripts.evalScript;
+
+/**
+ * The non-blocking counterpart of {@link HashSessionStore}.
+ */
+public class HashAsyncSessionStore implements AsyncSessionStore {
+    private final RedisClusterAsyncCommands<SessionId, State> dataStore;
+    private final RedisClusterAsyncCommands<SessionId, State> queryDataStore;
+    private final RedisCodec<SessionId, State> codec;
+    private final HashSessionLayout layout;
+    private final String getWithTtlDigest;
+
+    public HashAsyncSessionStore(
+            RedisClusterAsyncCommands<SessionId, State> dataStore,
+            RedisClusterAsyncCommands<SessionId, State> queryDataStore,
+            RedisCodec<SessionId, State> codec,
+            ObjectMapper objectMapper,
+            int blobThreshold,
+            Long recordTTL) {
+        this.dataStore = dataStore;
+        this.queryDataStore = queryDataStore;
+        this.codec = codec;
+        this.layout = new HashSessionLayout(codec, objectMapper, blobThreshold, recordTTL);
+        this.getWithTtlDigest = dataStore.digest(HashSessionLayout.GET_WITH_TTL);
+    }
+
+    @Override
+    public CompletionStage<Boolean> hasSession(SessionId sessionId) {
+        SessionId hashKey = HashSessionLayout.hashKey(sessionId);
+        return queryDataStore.exists(hashKey, sessionId).thenCompose(count -> {
+            if (count > 0 || queryDataStore == dataStore) {
+                return CompletableFuture.completedFuture(count > 0);
+            }
+            return dataStore.exists(hashKey, sessionId).thenApply(primaryCount -> primaryCount > 0);
+        });
+    }
+
+    @Override
+    public CompletionStage<State> get(SessionId sessionId) {
+        return get(queryDataStore, sessionId).thenCompose(state -> {
+            if (state != null || queryDataStore == dataStore) {
+                return CompletableFuture.completedFuture(state);
+            }
+            return get(dataStore, sessionId);
+        });
+    }
+
+    @Override
+    public CompletionStage<Optional<SessionRecord>> getWithTtl(SessionId sessionId) {
+        return evalScript(
+                dataStore,
+                HashSessionLayout.GET_WITH_TTL,
+                getWithTtlDigest,
+                () -> new RawMultiOutput(codec),
+                script -> layout.keyArgs(script, sessionId))
+                .thenApply(layout::toSessionRecord);
+    }
+
+    private CompletionStage<State> get(RedisClusterAsyncCommands<SessionId, State> commands, SessionId sessionId) {
+        // A session not yet moved out of the string layout is read from there
+        return getAll(commands, sessionId).thenCompose(sessionRecord -> {
+            if (sessionRecord.isPresent()) {
+                return CompletableFuture.completedFuture(sessionRecord.get().getState());
+            }
+            return commands.get(sessionId);
+        });
+    }
+
+    private CompletionStage<Optional<SessionRecord>> getAll(RedisClusterAsyncCommands<SessionId, State> commands, SessionId sessionId) {
+        return commands.dispatch(
+                CommandType.HGETALL,
+                new RawMultiOutput(codec),
+                new CommandArgs<>(codec).addKey(HashSessionLayout.hashKey(sessionId)))
+                .thenApply(fieldsAndValues -> layout.toSessionRecord(fieldsAndValues, 0));
+    }
+}
@@ -0,0 +1,270 @@
+package uk.gov.ida.hub.policy.session;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.hash.Hashing;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.protocol.CommandArgs;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.redis.RedisSerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * How {@link HashSessionStore} and {@link HashAsyncSessionStore} lay a session out in one Redis hash.
+ * <p>
+ * The {@code state} field holds a JSON header: the session {@link State} with each large string property,
+ * such as an encrypted assertion, taken out, and a map from those properties to the fields holding them.
+ * Those fields are named after a digest of their content, so a string carried unchanged from state to state
+ * is written once and every later transition only rewrites the header and the {@code version} field. Field
+ * writes leave the expiry of the hash alone, so a transition never needs to restore it.
+ * <p>
+ * A session still stored in the {@link uk.gov.ida.hub.policy.redis.SessionStoreLayout#STRING} layout is read
+ * from there, and is moved into a hash, keeping its version and expiry, by its next transition.
+ */
+final class HashSessionLayout {
+    private static final String BLOB_FIELD_PREFIX = "blob:";
+    // Never a hash field; stands in for one in GET_WITH_TTL replies for a session in the string layout
+    private static final String STRING_LAYOUT_STATE = "string-layout-state";
+
+    static final long MISSING_BLOBS = -3;
+
+    // KEYS[1] = hash, ARGV[1] = header, ARGV[2] = TTL in seconds, ARGV[3..] = blob field and value pairs
+    static final String INSERT =
+            "redis.call('DEL', KEYS[1])\n" +
+            "redis.call('HMSET', KEYS[1], 'state', ARGV[1], 'version', 0, unpack(ARGV, 3))\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2])\n" +
+            "return 0";
+
+    // KEYS[1] = hash, KEYS[2] = string layout state, KEYS[3] = string layout version
+    // Answers the TTL then the hash fields, or stands the string layout's state and version in for them.
+    static final String GET_WITH_TTL =
+            "if redis.call('EXISTS', KEYS[1]) == 1 then\n" +
+            "  local fields = redis.call('HGETALL', KEYS[1])\n" +
+            "  table.insert(fields, 1, redis.call('PTTL', KEYS[1]))\n" +
+            "  return fields\n" +
+            "end\n" +
+            "local state = redis.call('GET', KEYS[2])\n" +
+            "if not state then return {-2} end\n" +
+            "return {redis.call('PTTL', KEYS[2]), '" + STRING_LAYOUT_STATE + "', state, 'version', redis.call('GET', KEYS[3]) or '0'}";
+
+    // KEYS[1] = hash, KEYS[2] = string layout state, KEYS[3] = string layout version, ARGV[1] = session id,
+    // ARGV[2] = header, ARGV[3] = expected version, ARGV[4] = blob field count n, ARGV[5..4+n] = blob fields,
+    // then optionally ARGV[5+n..4+2n] = their values.
+    // Without values, fails with MISSING_BLOBS unless every field is already present. Drops fields the
+    // header no longer refers to, and publishes the new version like SessionStoreScripts.REPLACE. A session
+    // only held in the string layout is moved into the hash, keeping its version and expiry.
+    static final String REPLACE =
+            "local version\n" +
+            "local ttl\n" +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then\n" +
+            "  version = tonumber(redis.call('HGET', KEYS[1], 'version') or '0')\n" +
+            "else\n" +
+            "  ttl = redis.call('PTTL', KEYS[2])\n" +
+            "  if ttl == -2 then return -1 end\n" +
+            "  version = tonumber(redis.call('GET', KEYS[3]) or '0')\n" +
+            "end\n" +
+            "if version ~= tonumber(ARGV[3]) then return -2 end\n" +
+            "local n = tonumber(ARGV[4])\n" +
+            "local withValues = #ARGV == 4 + 2 * n\n" +
+            "local referenced = {}\n" +
+            "for i = 1, n do\n" +
+            "  local field = ARGV[4 + i]\n" +
+            "  referenced[field] = true\n" +
+            "  if withValues then\n" +
+            "    redis.call('HSET', KEYS[1], field, ARGV[4 + n + i])\n" +
+            "  elseif redis.call('HEXISTS', KEYS[1], field) == 0 then\n" +
+            "    return " + MISSING_BLOBS + "\n" +
+            "  end\n" +
+            "end\n" +
+            "for _, field in ipairs(redis.call('HKEYS', KEYS[1])) do\n" +
+            "  if string.sub(field, 1, " + BLOB_FIELD_PREFIX.length() + ") == '" + BLOB_FIELD_PREFIX + "' and not referenced[field] then\n" +
+            "    redis.call('HDEL', KEYS[1], field)\n" +
+            "  end\n" +
+            "end\n" +
+            "version = version + 1\n" +
+            "redis.call('HMSET', KEYS[1], 'state', ARGV[2], 'version', version)\n" +
+            "if ttl then\n" +
+            "  if ttl > 0 then redis.call('PEXPIRE', KEYS[1], ttl) end\n" +
+            "  redis.call('DEL', KEYS[2], KEYS[3])\n" +
+            "end\n" +
+            "redis.call('PUBLISH', '" + SessionStoreScripts.SESSION_UPDATES_CHANNEL + "', ARGV[1] .. ' ' .. version)\n" +
+            "return version";
+
+    private static final String STATE_FIELD = "state";
+    private static final String VERSION_FIELD = "version";
+    private static final String HEADER_STATE = "state";
+    private static final String HEADER_BLOBS = "blobs";
+
+    private final RedisCodec<SessionId, State> codec;
+    private final ObjectMapper objectMapper;
+    private final int blobThreshold;
+    private final Long recordTTL;
+
+    HashSessionLayout(RedisCodec<SessionId, State> codec, ObjectMapper objectMapper, int blobThreshold, Long recordTTL) {
+        this.codec = codec;
+        this.objectMapper = objectMapper;
+        this.blobThreshold = blobThreshold;
+        this.recordTTL = recordTTL;
+    }
+
+    static SessionId hashKey(SessionId sessionId) {
+        return new SessionId("{" + sessionId.getSessionId() + "}:session");
+    }
+
+    /**
+     * Separates the large strings from a state, leaving a header that refers to them.
+     */
+    SplitState split(State state) {
+        JsonNode tree = objectMapper.valueToTree(state);
+        Map<String, byte[]> blobs = new LinkedHashMap<>();
+        ObjectNode references = objectMapper.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> iterator = propertiesOf(tree).fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> property = iterator.next();
+            if (property.getValue().isTextual() && property.getValue().textValue().length() >= blobThreshold) {
+                byte[] value = property.getValue().textValue().getBytes(UTF_8);
+                String field = BLOB_FIELD_PREFIX + Hashing.sha256().hashBytes(value);
+                blobs.put(field, value);
+                references.put(property.getKey(), field);
+                iterator.remove();
+            }
+        }
+        ObjectNode header = objectMapper.createObjectNode();
+        header.set(HEADER_STATE, tree);
+        header.set(HEADER_BLOBS, references);
+        try {
+            return new SplitState(objectMapper.writeValueAsBytes(header), blobs);
+        } catch (JsonProcessingException e) {
+            throw new RedisSerializationException("Error encoding State", e);
+        }
+    }
+
+    CommandArgs<SessionId, State> insertArgs(String scriptOrDigest, SessionId sessionId, SplitState split) {
+        CommandArgs<SessionId, State> args = new CommandArgs<>(codec)
+                .add(scriptOrDigest)
+                .add(1)
+                .addKey(hashKey(sessionId))
+                .add(split.header)
+                .add(recordTTL);
+        split.blobs.forEach((field, value) -> args.add(field).add(value));
+        return args;
+    }
+
+    CommandArgs<SessionId, State> replaceArgs(String scriptOrDigest, SessionId sessionId, SplitState split, long expectedVersion, boolean withBlobs) {
+        CommandArgs<SessionId, State> args = keyArgs(scriptOrDigest, sessionId)
+                .add(sessionId.getSessionId())
+                .add(split.header)
+                .add(expectedVersion)
+                .add(split.blobs.size());
+        split.blobs.keySet().forEach(args::add);
+        if (withBlobs) {
+            split.blobs.values().forEach(args::add);
+        }
+        return args;
+    }
+
+    /**
+     * The hash and the keys the session would have in the string layout, all on the same cluster slot.
+     */
+    CommandArgs<SessionId, State> keyArgs(String scriptOrDigest, SessionId sessionId) {
+        return new CommandArgs<>(codec)
+                .add(scriptOrDigest)
+                .add(3)
+                .addKey(hashKey(sessionId))
+                .addKey(sessionId)
+                .addKey(SessionStoreScripts.versionKey(sessionId));
+    }
+
+    /**
+     * Reassembles a session from the reply to {@link #GET_WITH_TTL}.
+     */
+    Optional<SessionRecord> toSessionRecord(List<Object> reply) {
+        long ttlInMillis = (Long) reply.get(0);
+        return toSessionRecord(reply.subList(1, reply.size()), ttlInMillis < 0 ? recordTTL * 1000 : ttlInMillis);
+    }
+
+    /**
+     * Reassembles a session from alternating hash fields and values, as returned by {@code HGETALL}.
+     */
+    Optional<SessionRecord> toSessionRecord(List<Object> fieldsAndValues, long ttlInMillis) {
+        Map<String, byte[]> fields = new HashMap<>();
+        for (int i = 0; i + 1 < fieldsAndValues.size(); i += 2) {
+            fields.put(new String((byte[]) fieldsAndValues.get(i), UTF_8), (byte[]) fieldsAndValues.get(i + 1));
+        }
+        byte[] header = fields.get(STATE_FIELD);
+        byte[] stringLayoutState = fields.get(STRING_LAYOUT_STATE);
+        if (header == null && stringLayoutState == null) {
+            return Optional.empty();
+        }
+        byte[] version = fields.get(VERSION_FIELD);
+        return Optional.of(new SessionRecord(
+                header == null ? codec.decodeValue(ByteBuffer.wrap(stringLayoutState)) : join(header, fields),
+                ttlInMillis,
+                version == null ? 0 : Long.parseLong(new String(version, UTF_8))));
+    }
+
+    private State join(byte[] header, Map<String, byte[]> fields) {
+        JsonNode headerTree;
+        try {
+            headerTree = objectMapper.readTree(header);
+        } catch (IOException e) {
+            throw new RedisSerializationException("Error decoding State", e);
+        }
+        JsonNode tree = headerTree.get(HEADER_STATE);
+        ObjectNode properties = propertiesOf(tree);
+        Iterator<Map.Entry<String, JsonNode>> references = headerTree.get(HEADER_BLOBS).fields();
+        while (references.hasNext()) {
+            Map.Entry<String, JsonNode> reference = references.next();
+            byte[] value = fields.get(reference.getValue().textValue());
+            if (value == null) {
+                throw new RedisSerializationException("Session state refers to a missing field " + reference.getValue().textValue(), null);
+            }
+            properties.put(reference.getKey(), new String(value, UTF_8));
+        }
+        return toState(tree);
+    }
+
+    private State toState(JsonNode tree) {
+        try {
+            return objectMapper.treeToValue(tree, State.class);
+        } catch (JsonProcessingException e) {
+            throw new RedisSerializationException("Error converting State", e);
+        }
+    }
+
+    private static ObjectNode propertiesOf(JsonNode tree) {
+        // States may be written wrapped with their type id, so look inside for the object itself
+        if (tree.isObject()) {
+            return (ObjectNode) tree;
+        }
+        for (JsonNode element : tree) {
+            if (element.isObject()) {
+                return (ObjectNode) element;
+            }
+        }
+        throw new RedisSerializationException("State was not written as an object", null);
+    }
+
+    static final class SplitState {
+        private final byte[] header;
+        private final Map<String, byte[]> blobs;
+
+        private SplitState(byte[] header, Map<String, byte[]> blobs) {
+            this.header = header;
+            this.blobs = blobs;
+        }
+    }
+}
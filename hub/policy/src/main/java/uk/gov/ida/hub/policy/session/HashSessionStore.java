@@ -0,0 +1,121 @@
+package uk.gov.ida.hub.policy.session;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.util.List;
+import java.util.Optional;
+
+import static uk.gov.ida.hub.policy.session.SessionStoreScripts.evalScript;
+
+/**
+ * Stores each session in a Redis hash laid out by {@link HashSessionLayout}, so that transitions
+ * rewrite only the small parts of a state that change. Reads and writes are otherwise the same as
+ * {@link RedisSessionStore}, including the routing of queries and the published updates.
+ */
+public class HashSessionStore implements SessionStore {
+    private final RedisClusterCommands<SessionId, State> dataStore;
+    private final RedisClusterCommands<SessionId, State> queryDataStore;
+    private final RedisCodec<SessionId, State> codec;
+    private final HashSessionLayout layout;
+    private final String insertDigest;
+    private final String getWithTtlDigest;
+    private final String replaceDigest;
+
+    public HashSessionStore(
+            RedisClusterCommands<SessionId, State> dataStore,
+            RedisClusterCommands<SessionId, State> queryDataStore,
+            RedisCodec<SessionId, State> codec,
+            ObjectMapper objectMapper,
+            int blobThreshold,
+            Long recordTTL) {
+        this.dataStore = dataStore;
+        this.queryDataStore = queryDataStore;
+        this.codec = codec;
+        this.layout = new HashSessionLayout(codec, objectMapper, blobThreshold, recordTTL);
+        this.insertDigest = dataStore.digest(HashSessionLayout.INSERT);
+        this.getWithTtlDigest = dataStore.digest(HashSessionLayout.GET_WITH_TTL);
+        this.replaceDigest = dataStore.digest(HashSessionLayout.REPLACE);
+    }
+
+    @Override
+    public void insert(SessionId sessionId, State state) {
+        HashSessionLayout.SplitState split = layout.split(state);
+        evalScript(
+                dataStore,
+                HashSessionLayout.INSERT,
+                insertDigest,
+                () -> new IntegerOutput<>(codec),
+                script -> layout.insertArgs(script, sessionId, split));
+    }
+
+    @Override
+    public long replace(SessionId sessionId, State state, long expectedVersion) {
+        HashSessionLayout.SplitState split = layout.split(state);
+        Long result = replace(sessionId, split, expectedVersion, false);
+        if (result == HashSessionLayout.MISSING_BLOBS) {
+            // Only a transition that brings in a new large string pays for sending it
+            result = replace(sessionId, split, expectedVersion, true);
+        }
+        return SessionStoreScripts.toVersion(result, sessionId, expectedVersion);
+    }
+
+    @Override
+    public boolean hasSession(SessionId sessionId) {
+        SessionId hashKey = HashSessionLayout.hashKey(sessionId);
+        if (queryDataStore.exists(hashKey, sessionId) > 0) {
+            return true;
+        }
+        return queryDataStore != dataStore && dataStore.exists(hashKey, sessionId) > 0;
+    }
+
+    @Override
+    public State get(SessionId sessionId) {
+        State state = get(queryDataStore, sessionId);
+        if (state == null && queryDataStore != dataStore) {
+            return get(dataStore, sessionId);
+        }
+        return state;
+    }
+
+    @Override
+    public Optional<SessionRecord> getWithTtl(SessionId sessionId) {
+        List<Object> result = evalScript(
+                dataStore,
+                HashSessionLayout.GET_WITH_TTL,
+                getWithTtlDigest,
+                () -> new RawMultiOutput(codec),
+                script -> layout.keyArgs(script, sessionId));
+
+        return layout.toSessionRecord(result);
+    }
+
+    private Long replace(SessionId sessionId, HashSessionLayout.SplitState split, long expectedVersion, boolean withBlobs) {
+        return evalScript(
+                dataStore,
+                HashSessionLayout.REPLACE,
+                replaceDigest,
+                () -> new IntegerOutput<>(codec),
+                script -> layout.replaceArgs(script, sessionId, split, expectedVersion, withBlobs));
+    }
+
+    private State get(RedisClusterCommands<SessionId, State> commands, SessionId sessionId) {
+        // A session not yet moved out of the string layout is read from there
+        return getAll(commands, sessionId).map(SessionRecord::getState).orElseGet(() -> commands.get(sessionId));
+    }
+
+    private Optional<SessionRecord> getAll(RedisClusterCommands<SessionId, State> commands, SessionId sessionId) {
+        // A plain HGETALL rather than a script, so that it can be routed to a replica
+        List<Object> fieldsAndValues = commands.dispatch(
+                CommandType.HGETALL,
+                new RawMultiOutput(codec),
+                new CommandArgs<>(codec).addKey(HashSessionLayout.hashKey(sessionId)));
+        return layout.toSessionRecord(fieldsAndValues, 0);
+    }
+}
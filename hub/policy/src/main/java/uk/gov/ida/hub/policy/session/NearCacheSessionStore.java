@@ -0,0 +1,201 @@
+package uk.gov.ida.hub.policy.session;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.prometheus.client.Counter;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a bounded local copy of recently used sessions in front of another {@link SessionStore}.
+ * <p>
+ * Copies are dropped when {@link #invalidate(SessionId, long)} reports a newer version written by
+ * another node. Every version that has been reported is remembered for a short while, so that a
+ * read racing with a write elsewhere cannot put an older copy back into the cache. While updates
+ * cannot be received (see {@link SessionUpdatesSubscriber}) the cache is suspended and every call
+ * goes straight to the underlying store.
+ */
+public class NearCacheSessionStore implements SessionStore {
+    private static final long PUBLISHED_VERSION_RETENTION_SECONDS = 60;
+
+    private static final Counter lookups = Counter.build(
+            "verify_policy_session_near_cache_lookups_total",
+            "Total number of session lookups made through the near cache")
+            .labelNames("result")
+            .register();
+
+    private static final Counter invalidations = Counter.build(
+            "verify_policy_session_near_cache_invalidations_total",
+            "Total number of cached sessions dropped because they were updated by another node")
+            .register();
+
+    private final SessionStore delegate;
+    private final long recordTTLInMillis;
+    private final Cache<SessionId, SessionRecord> records;
+    private final Cache<SessionId, Long> publishedVersions;
+    private volatile boolean active = false;
+
+    public NearCacheSessionStore(SessionStore delegate, Long recordTTL, long maximumSize) {
+        this.delegate = delegate;
+        this.recordTTLInMillis = TimeUnit.SECONDS.toMillis(recordTTL);
+        this.records = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(recordTTL, TimeUnit.SECONDS)
+                .build();
+        this.publishedVersions = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(PUBLISHED_VERSION_RETENTION_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public void insert(SessionId sessionId, State state) {
+        delegate.insert(sessionId, state);
+        cache(sessionId, new SessionRecord(state, recordTTLInMillis, 0L));
+    }
+
+    @Override
+    public long replace(SessionId sessionId, State state, long expectedVersion) {
+        SessionRecord previous = records.getIfPresent(sessionId);
+        long version;
+        try {
+            version = delegate.replace(sessionId, state, expectedVersion);
+        } catch (SessionNotFoundException | SessionStateConflictException e) {
+            records.invalidate(sessionId);
+            throw e;
+        }
+        if (previous != null) {
+            cache(sessionId, new SessionRecord(state, previous.getRemainingTtlInMillis(), version));
+        }
+        return version;
+    }
+
+    @Override
+    public boolean hasSession(SessionId sessionId) {
+        return lookup(sessionId).isPresent() || delegate.hasSession(sessionId);
+    }
+
+    @Override
+    public State get(SessionId sessionId) {
+        return lookup(sessionId).map(SessionRecord::getState).orElseGet(() -> delegate.get(sessionId));
+    }
+
+    @Override
+    public Optional<SessionRecord> getWithTtl(SessionId sessionId) {
+        Optional<SessionRecord> cached = lookup(sessionId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<SessionRecord> loaded = delegate.getWithTtl(sessionId);
+        loaded.ifPresent(sessionRecord -> cache(sessionId, sessionRecord));
+        return loaded;
+    }
+
+    /**
+     * A non-blocking view of this cache, which loads sessions it does not hold through {@code asyncDelegate}.
+     */
+    public AsyncSessionStore withAsyncDelegate(AsyncSessionStore asyncDelegate) {
+        return new AsyncView(asyncDelegate);
+    }
+
+    /**
+     * Drops the local copy of a session if it is older than {@code version}.
+     */
+    public void invalidate(SessionId sessionId, long version) {
+        publishedVersions.asMap().merge(sessionId, version, Math::max);
+        records.asMap().computeIfPresent(sessionId, (id, cached) -> {
+            if (cached.getVersion() >= version) {
+                return cached;
+            }
+            invalidations.inc();
+            return null;
+        });
+    }
+
+    public void suspend() {
+        active = false;
+        clear();
+    }
+
+    public void resume() {
+        clear();
+        active = true;
+    }
+
+    private void clear() {
+        records.invalidateAll();
+        publishedVersions.invalidateAll();
+    }
+
+    private Optional<SessionRecord> lookup(SessionId sessionId) {
+        if (!active) {
+            return Optional.empty();
+        }
+        SessionRecord cached = records.getIfPresent(sessionId);
+        if (cached != null && cached.hasExpired()) {
+            records.invalidate(sessionId);
+            cached = null;
+        }
+        if (cached == null) {
+            lookups.labels("miss").inc();
+            return Optional.empty();
+        }
+        lookups.labels("hit").inc();
+        return Optional.of(cached);
+    }
+
+    private void cache(SessionId sessionId, SessionRecord sessionRecord) {
+        if (!active) {
+            return;
+        }
+        records.asMap().compute(sessionId, (id, cached) -> {
+            if (cached != null && cached.getVersion() > sessionRecord.getVersion()) {
+                return cached;
+            }
+            Long published = publishedVersions.getIfPresent(id);
+            return published != null && published > sessionRecord.getVersion() ? null : sessionRecord;
+        });
+    }
+
+    private class AsyncView implements AsyncSessionStore {
+        private final AsyncSessionStore asyncDelegate;
+
+        private AsyncView(AsyncSessionStore asyncDelegate) {
+            this.asyncDelegate = asyncDelegate;
+        }
+
+        @Override
+        public CompletionStage<Boolean> hasSession(SessionId sessionId) {
+            if (lookup(sessionId).isPresent()) {
+                return CompletableFuture.completedFuture(true);
+            }
+            return asyncDelegate.hasSession(sessionId);
+        }
+
+        @Override
+        public CompletionStage<State> get(SessionId sessionId) {
+            return lookup(sessionId)
+                    .<CompletionStage<State>>map(sessionRecord -> CompletableFuture.completedFuture(sessionRecord.getState()))
+                    .orElseGet(() -> asyncDelegate.get(sessionId));
+        }
+
+        @Override
+        public CompletionStage<Optional<SessionRecord>> getWithTtl(SessionId sessionId) {
+            Optional<SessionRecord> cached = lookup(sessionId);
+            if (cached.isPresent()) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return asyncDelegate.getWithTtl(sessionId).thenApply(loaded -> {
+                loaded.ifPresent(sessionRecord -> cache(sessionId, sessionRecord));
+                return loaded;
+            });
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package uk.gov.ida.hub.policy.session;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.CommandOutput;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A flat multi-bulk reply whose bulk strings are kept as raw bytes rather than decoded as
+ * {@link State}, for replies that mix session states with other values. Integers are kept as longs.
+ */
+class RawMultiOutput extends CommandOutput<SessionId, State, List<Object>> {
+
+    RawMultiOutput(RedisCodec<SessionId, State> codec) {
+        super(codec, new ArrayList<>());
+    }
+
+    @Override
+    public void set(ByteBuffer bytes) {
+        if (bytes == null) {
+            output.add(null);
+            return;
+        }
+        byte[] value = new byte[bytes.remaining()];
+        bytes.get(value);
+        output.add(value);
+    }
+
+    @Override
+    public void set(long integer) {
+        output.add(integer);
+    }
+}
@@ -0,0 +1,73 @@
+package uk.gov.ida.hub.policy.session;
+
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.NestedMultiOutput;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static uk.gov.ida.hub.policy.session.SessionStoreScripts.evalScript;
+import static uk.gov.ida.hub.policy.session.SessionStoreScripts.scriptArgs;
+
+/**
+ * The non-blocking counterpart of {@link RedisSessionStore}, reading the same keys with the same scripts
+ * and routing {@link #hasSession} and {@link #get} in the same way.
+ */
+public class RedisAsyncSessionStore implements AsyncSessionStore {
+    private final RedisClusterAsyncCommands<SessionId, State> dataStore;
+    private final RedisClusterAsyncCommands<SessionId, State> queryDataStore;
+    private final RedisCodec<SessionId, State> codec;
+    private final Long recordTTL;
+    private final String getWithTtlDigest;
+
+    public RedisAsyncSessionStore(RedisClusterAsyncCommands<SessionId, State> dataStore, RedisCodec<SessionId, State> codec, Long recordTTL) {
+        this(dataStore, dataStore, codec, recordTTL);
+    }
+
+    public RedisAsyncSessionStore(
+            RedisClusterAsyncCommands<SessionId, State> dataStore,
+            RedisClusterAsyncCommands<SessionId, State> queryDataStore,
+            RedisCodec<SessionId, State> codec,
+            Long recordTTL) {
+        this.dataStore = dataStore;
+        this.queryDataStore = queryDataStore;
+        this.codec = codec;
+        this.recordTTL = recordTTL;
+        this.getWithTtlDigest = dataStore.digest(SessionStoreScripts.GET_WITH_TTL);
+    }
+
+    @Override
+    public CompletionStage<Boolean> hasSession(SessionId sessionId) {
+        return queryDataStore.exists(sessionId).thenCompose(count -> {
+            if (count > 0 || queryDataStore == dataStore) {
+                return CompletableFuture.completedFuture(count > 0);
+            }
+            return dataStore.exists(sessionId).thenApply(primaryCount -> primaryCount > 0);
+        });
+    }
+
+    @Override
+    public CompletionStage<State> get(SessionId sessionId) {
+        return queryDataStore.get(sessionId).thenCompose(state -> {
+            if (state != null || queryDataStore == dataStore) {
+                return CompletableFuture.completedFuture(state);
+            }
+            return dataStore.get(sessionId);
+        });
+    }
+
+    @Override
+    public CompletionStage<Optional<SessionRecord>> getWithTtl(SessionId sessionId) {
+        return evalScript(
+                dataStore,
+                SessionStoreScripts.GET_WITH_TTL,
+                getWithTtlDigest,
+                () -> new NestedMultiOutput<>(codec),
+                script -> scriptArgs(codec, script, sessionId))
+                .thenApply(result -> SessionStoreScripts.toSessionRecord(result, recordTTL));
+    }
+}
@@ -0,0 +1,295 @@
+package uk.gov.ida.hub.policy.session;
+
+import io.lettuce.core.RedisException;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.hub.policy.domain.PolicyState;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.state.AbstractAwaitingCycle3DataState;
+import uk.gov.ida.hub.policy.domain.state.AbstractMatchRequestSentState;
+import uk.gov.ida.hub.policy.domain.state.AbstractSuccessfulMatchState;
+import uk.gov.ida.hub.policy.domain.state.AuthnFailedErrorState;
+import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
+import uk.gov.ida.hub.policy.domain.state.MatchingServiceRequestErrorState;
+import uk.gov.ida.hub.policy.domain.state.NoMatchState;
+import uk.gov.ida.hub.policy.domain.state.UserAccountCreatedState;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.text.MessageFormat.format;
+import static java.util.Arrays.stream;
+import static java.util.Collections.emptyList;
+import static uk.gov.ida.hub.policy.session.SessionStoreScripts.evalScript;
+
+/**
+ * Counts sessions in Redis sorted sets, one for each state, relying party and identity provider,
+ * whose members are session ids scored by when the session expires. Sessions that expire are
+ * never transitioned again, so each count is trimmed of expired members as it is read. An index
+ * set names the sorted sets in use, so none of them has to be found by scanning.
+ * <p>
+ * Creations and transitions are queued in memory and sent in batches by {@link #flush}, which is
+ * run on a schedule, so journeys never wait on Redis and the shared hash tag, which lets the
+ * scripts work against a cluster, takes one script call per batch rather than one per request.
+ * Failures are logged and otherwise ignored: a missed update skews a count, but must never fail a
+ * journey.
+ */
+public class RedisSessionPopulation implements SessionPopulation {
+    private static final Logger LOG = LoggerFactory.getLogger(RedisSessionPopulation.class);
+
+    private static final String KEY_PREFIX = "{policy:population}:";
+    private static final SessionId INDEX_KEY = new SessionId(KEY_PREFIX + "index");
+    private static final int MAX_PENDING_UPDATES = 100_000;
+    private static final int UPDATES_PER_SCRIPT = 500;
+
+    // KEYS[1] = index, then for each update its sets to leave followed by its sets to join.
+    // ARGV holds four values for each update, in the same order: session id, expiry in epoch millis,
+    // number of sets to leave and number of sets to join.
+    private static final String TRACK =
+            "local k = 2\n" +
+            "for i = 1, #ARGV, 4 do\n" +
+            "  local leave = tonumber(ARGV[i + 2])\n" +
+            "  local join = tonumber(ARGV[i + 3])\n" +
+            "  for j = k, k + leave - 1 do redis.call('ZREM', KEYS[j], ARGV[i]) end\n" +
+            "  k = k + leave\n" +
+            "  for j = k, k + join - 1 do\n" +
+            "    redis.call('ZADD', KEYS[j], ARGV[i + 1], ARGV[i])\n" +
+            "    redis.call('SADD', KEYS[1], KEYS[j])\n" +
+            "  end\n" +
+            "  k = k + join\n" +
+            "end\n" +
+            "return 0";
+
+    // KEYS[1] = index, ARGV[1] = now in epoch millis. Returns alternating set names and counts.
+    private static final String COUNT =
+            "local counts = {}\n" +
+            "for _, key in ipairs(redis.call('SMEMBERS', KEYS[1])) do\n" +
+            "  redis.call('ZREMRANGEBYSCORE', key, '-inf', ARGV[1])\n" +
+            "  local count = redis.call('ZCARD', key)\n" +
+            "  if count == 0 then redis.call('SREM', KEYS[1], key) end\n" +
+            "  table.insert(counts, key)\n" +
+            "  table.insert(counts, count)\n" +
+            "end\n" +
+            "return counts";
+
+    public enum Dimension {
+        STATE("state"),
+        RP("rp"),
+        IDP("idp");
+
+        private final String keyPart;
+
+        Dimension(String keyPart) {
+            this.keyPart = keyPart;
+        }
+
+        private String keyFor(String value) {
+            return KEY_PREFIX + keyPart + ":" + value;
+        }
+    }
+
+    private final RedisClusterCommands<SessionId, State> dataStore;
+    private final RedisClusterAsyncCommands<SessionId, State> asyncDataStore;
+    private final RedisCodec<SessionId, State> codec;
+    private final Long recordTTL;
+    private final String trackDigest;
+    private final String countDigest;
+    private final BlockingQueue<Update> pendingUpdates = new LinkedBlockingQueue<>(MAX_PENDING_UPDATES);
+    private final AtomicLong droppedUpdates = new AtomicLong();
+
+    public RedisSessionPopulation(
+            RedisClusterCommands<SessionId, State> dataStore,
+            RedisClusterAsyncCommands<SessionId, State> asyncDataStore,
+            RedisCodec<SessionId, State> codec,
+            Long recordTTL) {
+        this.dataStore = dataStore;
+        this.asyncDataStore = asyncDataStore;
+        this.codec = codec;
+        this.recordTTL = recordTTL;
+        this.trackDigest = dataStore.digest(TRACK);
+        this.countDigest = dataStore.digest(COUNT);
+    }
+
+    @Override
+    public void sessionCreated(State state) {
+        List<String> join = new ArrayList<>();
+        join.add(Dimension.STATE.keyFor(stateName(state)));
+        join.add(Dimension.RP.keyFor(state.getRequestIssuerEntityId()));
+        idpEntityIdOf(state).ifPresent(idp -> join.add(Dimension.IDP.keyFor(idp)));
+        track(state.getSessionId(), emptyList(), join, TimeUnit.SECONDS.toMillis(recordTTL));
+    }
+
+    @Override
+    public void sessionTransitioned(State from, State to, long remainingTtlInMillis) {
+        List<String> leave = new ArrayList<>();
+        List<String> join = new ArrayList<>();
+        String fromState = stateName(from);
+        String toState = stateName(to);
+        if (!fromState.equals(toState)) {
+            leave.add(Dimension.STATE.keyFor(fromState));
+        }
+        join.add(Dimension.STATE.keyFor(toState));
+        Optional<String> fromIdp = idpEntityIdOf(from);
+        Optional<String> toIdp = idpEntityIdOf(to);
+        if (fromIdp.isPresent() && !fromIdp.equals(toIdp)) {
+            leave.add(Dimension.IDP.keyFor(fromIdp.get()));
+        }
+        toIdp.ifPresent(idp -> join.add(Dimension.IDP.keyFor(idp)));
+        track(to.getSessionId(), leave, join, remainingTtlInMillis);
+    }
+
+    /**
+     * Drops expired sessions and counts those left.
+     *
+     * @return the number of sessions for each state, relying party and identity provider that has any
+     */
+    public Map<Dimension, Map<String, Long>> count() {
+        List<Object> reply = evalScript(
+                dataStore,
+                COUNT,
+                countDigest,
+                () -> new RawMultiOutput(codec),
+                script -> new CommandArgs<>(codec)
+                        .add(script)
+                        .add(1)
+                        .addKey(INDEX_KEY)
+                        .add(System.currentTimeMillis()));
+
+        Map<Dimension, Map<String, Long>> counts = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : Dimension.values()) {
+            counts.put(dimension, new HashMap<>());
+        }
+        for (int i = 0; i + 1 < reply.size(); i += 2) {
+            String key = new String((byte[]) reply.get(i), UTF_8);
+            for (Dimension dimension : Dimension.values()) {
+                String prefix = dimension.keyFor("");
+                if (key.startsWith(prefix)) {
+                    counts.get(dimension).put(key.substring(prefix.length()), (Long) reply.get(i + 1));
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Sends the updates queued since the last flush, in the order they were made.
+     *
+     * @return a stage that completes once Redis has answered, whether or not the updates were applied
+     */
+    public CompletionStage<Void> flush() {
+        long dropped = droppedUpdates.getAndSet(0);
+        if (dropped > 0) {
+            LOG.warn(format("Dropped {0} session population updates as too many were waiting to be sent", dropped));
+        }
+        List<CompletableFuture<Long>> sent = new ArrayList<>();
+        List<Update> batch = new ArrayList<>(UPDATES_PER_SCRIPT);
+        while (pendingUpdates.drainTo(batch, UPDATES_PER_SCRIPT) > 0) {
+            sent.add(send(batch));
+            batch = new ArrayList<>(UPDATES_PER_SCRIPT);
+        }
+        return CompletableFuture.allOf(sent.toArray(new CompletableFuture[0]));
+    }
+
+    private CompletableFuture<Long> send(List<Update> batch) {
+        CompletionStage<Long> result;
+        try {
+            result = evalScript(
+                    asyncDataStore,
+                    TRACK,
+                    trackDigest,
+                    () -> new IntegerOutput<>(codec),
+                    script -> trackArgs(script, batch));
+        } catch (RedisException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.toCompletableFuture().exceptionally(e -> {
+            LOG.warn(format("Unable to update the session population for {0} sessions", batch.size()), e);
+            return null;
+        });
+    }
+
+    private CommandArgs<SessionId, State> trackArgs(String script, List<Update> batch) {
+        CommandArgs<SessionId, State> args = new CommandArgs<>(codec)
+                .add(script)
+                .add(1 + batch.stream().mapToInt(update -> update.leave.size() + update.join.size()).sum())
+                .addKey(INDEX_KEY);
+        for (Update update : batch) {
+            update.leave.forEach(key -> args.addKey(new SessionId(key)));
+            update.join.forEach(key -> args.addKey(new SessionId(key)));
+        }
+        for (Update update : batch) {
+            args.add(update.sessionId.getSessionId())
+                    .add(update.expiresAtMillis)
+                    .add(update.leave.size())
+                    .add(update.join.size());
+        }
+        return args;
+    }
+
+    private void track(SessionId sessionId, List<String> leave, List<String> join, long ttlInMillis) {
+        if (!pendingUpdates.offer(new Update(sessionId, leave, join, System.currentTimeMillis() + ttlInMillis))) {
+            droppedUpdates.incrementAndGet();
+        }
+    }
+
+    private static String stateName(State state) {
+        return stream(PolicyState.values())
+                .filter(policyState -> policyState.getStateClass().equals(state.getClass()))
+                .map(PolicyState::name)
+                .findFirst()
+                .orElse(state.getClass().getSimpleName());
+    }
+
+    private static Optional<String> idpEntityIdOf(State state) {
+        String idpEntityId = null;
+        if (state instanceof IdpSelectedState) {
+            idpEntityId = ((IdpSelectedState) state).getIdpEntityId();
+        } else if (state instanceof AuthnFailedErrorState) {
+            idpEntityId = ((AuthnFailedErrorState) state).getIdpEntityId();
+        } else if (state instanceof AbstractMatchRequestSentState) {
+            idpEntityId = ((AbstractMatchRequestSentState) state).getIdentityProviderEntityId();
+        } else if (state instanceof AbstractAwaitingCycle3DataState) {
+            idpEntityId = ((AbstractAwaitingCycle3DataState) state).getIdentityProviderEntityId();
+        } else if (state instanceof AbstractSuccessfulMatchState) {
+            idpEntityId = ((AbstractSuccessfulMatchState) state).getIdentityProviderEntityId();
+        } else if (state instanceof MatchingServiceRequestErrorState) {
+            idpEntityId = ((MatchingServiceRequestErrorState) state).getIdentityProviderEntityId();
+        } else if (state instanceof NoMatchState) {
+            idpEntityId = ((NoMatchState) state).getIdentityProviderEntityId();
+        } else if (state instanceof UserAccountCreatedState) {
+            idpEntityId = ((UserAccountCreatedState) state).getIdentityProviderEntityId();
+        }
+        return Optional.ofNullable(idpEntityId);
+    }
+
+    private static final class Update {
+        private final SessionId sessionId;
+        private final List<String> leave;
+        private final List<String> join;
+        private final long expiresAtMillis;
+
+        private Update(SessionId sessionId, List<String> leave, List<String> join, long expiresAtMillis) {
+            this.sessionId = sessionId;
+            this.leave = leave;
+            this.join = join;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -1,16 +1,53 @@
 package uk.gov.ida.hub.policy.session;
 
-import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.output.NestedMultiOutput;
 import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.hub.policy.domain.State;
 
+import java.util.List;
+import java.util.Optional;
+
+import static uk.gov.ida.hub.policy.session.SessionStoreScripts.evalScript;
+import static uk.gov.ida.hub.policy.session.SessionStoreScripts.scriptArgs;
+
+/**
+ * Stores each session {@link State} under its session id, with a version counter alongside it
+ * under a key sharing the same hash slot. Sessions written before versioning was introduced
+ * have no version key and are treated as being at version 0.
+ * <p>
+ * {@link #hasSession} and {@link #get} may be given their own connection, typically one reading
+ * from replicas. A replica that has not yet caught up with a new session answers with a miss, so
+ * misses are always confirmed against the primary. Loads with {@link #getWithTtl}, which precede
+ * transitions, and all writes go to the primary.
+ */
 public class RedisSessionStore implements SessionStore {
-    private final RedisCommands<SessionId, State> dataStore;
+    public static final String SESSION_UPDATES_CHANNEL = SessionStoreScripts.SESSION_UPDATES_CHANNEL;
+
+    private final RedisClusterCommands<SessionId, State> dataStore;
+    private final RedisClusterCommands<SessionId, State> queryDataStore;
+    private final RedisCodec<SessionId, State> codec;
     private final Long recordTTL;
+    private final String getWithTtlDigest;
+    private final String replaceDigest;
+
+    public RedisSessionStore(RedisClusterCommands<SessionId, State> dataStore, RedisCodec<SessionId, State> codec, Long recordTTL) {
+        this(dataStore, dataStore, codec, recordTTL);
+    }
 
-    public RedisSessionStore(RedisCommands<SessionId, State> dataStore, Long recordTTL) {
+    public RedisSessionStore(
+            RedisClusterCommands<SessionId, State> dataStore,
+            RedisClusterCommands<SessionId, State> queryDataStore,
+            RedisCodec<SessionId, State> codec,
+            Long recordTTL) {
         this.dataStore = dataStore;
+        this.queryDataStore = queryDataStore;
+        this.codec = codec;
         this.recordTTL = recordTTL;
+        this.getWithTtlDigest = dataStore.digest(SessionStoreScripts.GET_WITH_TTL);
+        this.replaceDigest = dataStore.digest(SessionStoreScripts.REPLACE);
     }
 
     @Override
@@ -19,18 +56,43 @@ public class RedisSessionStore implements SessionStore {
     }
 
     @Override
-    public void replace(SessionId sessionId, State value) {
-        Long ttl = dataStore.ttl(sessionId);
-        dataStore.setex(sessionId, ttl, value);
+    public long replace(SessionId sessionId, State value, long expectedVersion) {
+        Long result = evalScript(
+                dataStore,
+                SessionStoreScripts.REPLACE,
+                replaceDigest,
+                () -> new IntegerOutput<>(codec),
+                script -> scriptArgs(codec, script, sessionId).addValue(value).add(expectedVersion));
+
+        return SessionStoreScripts.toVersion(result, sessionId, expectedVersion);
     }
 
     @Override
     public boolean hasSession(SessionId sessionId) {
-        return dataStore.exists(sessionId) > 0;
+        if (queryDataStore.exists(sessionId) > 0) {
+            return true;
+        }
+        return queryDataStore != dataStore && dataStore.exists(sessionId) > 0;
     }
 
     @Override
     public State get(SessionId sessionId) {
-        return dataStore.get(sessionId);
+        State state = queryDataStore.get(sessionId);
+        if (state == null && queryDataStore != dataStore) {
+            return dataStore.get(sessionId);
+        }
+        return state;
+    }
+
+    @Override
+    public Optional<SessionRecord> getWithTtl(SessionId sessionId) {
+        List<Object> result = evalScript(
+                dataStore,
+                SessionStoreScripts.GET_WITH_TTL,
+                getWithTtlDigest,
+                () -> new NestedMultiOutput<>(codec),
+                script -> scriptArgs(codec, script, sessionId));
+
+        return SessionStoreScripts.toSessionRecord(result, recordTTL);
     }
 }
@@ -0,0 +1,23 @@
+package uk.gov.ida.hub.policy.session;
+
+import uk.gov.ida.hub.policy.domain.State;
+
+/**
+ * Keeps count of the sessions in flight as they are created and transitioned, so that the number
+ * in each state can be read without scanning the session store.
+ */
+public interface SessionPopulation {
+    SessionPopulation NONE = new SessionPopulation() {
+        @Override
+        public void sessionCreated(State state) {
+        }
+
+        @Override
+        public void sessionTransitioned(State from, State to, long remainingTtlInMillis) {
+        }
+    };
+
+    void sessionCreated(State state);
+
+    void sessionTransitioned(State from, State to, long remainingTtlInMillis);
+}
@@ -0,0 +1,61 @@
+package uk.gov.ida.hub.policy.session;
+
+import io.lettuce.core.RedisException;
+import io.prometheus.client.Gauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.hub.policy.session.RedisSessionPopulation.Dimension;
+
+import java.util.Map;
+
+/**
+ * Publishes the counts kept by a {@link RedisSessionPopulation} as gauges. Run periodically; each
+ * run also trims sessions that have expired since the last.
+ */
+public class SessionPopulationMetrics implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionPopulationMetrics.class);
+
+    private static final Gauge sessionsByState = Gauge.build(
+            "verify_policy_sessions",
+            "Number of unexpired sessions in each state")
+            .labelNames("state")
+            .register();
+
+    private static final Gauge sessionsByRp = Gauge.build(
+            "verify_policy_sessions_by_rp",
+            "Number of unexpired sessions started by each relying party")
+            .labelNames("rp")
+            .register();
+
+    private static final Gauge sessionsByIdp = Gauge.build(
+            "verify_policy_sessions_by_idp",
+            "Number of unexpired sessions whose current state names an identity provider, by identity provider")
+            .labelNames("idp")
+            .register();
+
+    private final RedisSessionPopulation population;
+
+    public SessionPopulationMetrics(RedisSessionPopulation population) {
+        this.population = population;
+    }
+
+    @Override
+    public void run() {
+        Map<Dimension, Map<String, Long>> counts;
+        try {
+            counts = population.count();
+        } catch (RedisException e) {
+            LOG.warn("Unable to count the session population", e);
+            return;
+        }
+        publish(sessionsByState, counts.get(Dimension.STATE));
+        publish(sessionsByRp, counts.get(Dimension.RP));
+        publish(sessionsByIdp, counts.get(Dimension.IDP));
+    }
+
+    private static void publish(Gauge gauge, Map<String, Long> counts) {
+        // Labels with no sessions left are dropped rather than reported as zero indefinitely
+        gauge.clear();
+        counts.forEach((label, count) -> gauge.labels(label).set(count));
+    }
+}
@@ -0,0 +1,35 @@
+package uk.gov.ida.hub.policy.session;
+
+import uk.gov.ida.hub.policy.domain.State;
+
+/**
+ * A session {@link State} as loaded from the session store, together with the
+ * point at which the stored record will expire and the version it was read at.
+ */
+public class SessionRecord {
+    private final State state;
+    private final long expiresAtMillis;
+    private final long version;
+
+    public SessionRecord(State state, long ttlInMillis, long version) {
+        this.state = state;
+        this.expiresAtMillis = System.currentTimeMillis() + ttlInMillis;
+        this.version = version;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRemainingTtlInMillis() {
+        return Math.max(expiresAtMillis - System.currentTimeMillis(), 1L);
+    }
+
+    public boolean hasExpired() {
+        return System.currentTimeMillis() >= expiresAtMillis;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -2,13 +2,36 @@ package uk.gov.ida.hub.policy.session;
 
 import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+
+import java.util.Optional;
 
 public interface SessionStore {
     void insert(SessionId sessionId, State state);
 
-    void replace(SessionId sessionId, State state);
+    /**
+     * Replaces the state of an existing session, keeping its current expiry.
+     *
+     * @return the version of the session after the replace
+     * @throws SessionNotFoundException if the session no longer exists
+     * @throws SessionStateConflictException if the session is no longer at {@code expectedVersion}
+     */
+    long replace(SessionId sessionId, State state, long expectedVersion);
 
+    /**
+     * May be answered by a replica, so a session replaced moments ago can still be seen as it was.
+     */
     boolean hasSession(SessionId sessionId);
 
+    /**
+     * May be answered by a replica, so a session replaced moments ago can still be seen as it was.
+     * Use {@link #getWithTtl} to load a session that is about to be transitioned.
+     */
     State get(SessionId sessionId);
+
+    /**
+     * Always reflects the latest replace, so the version returned can be passed to {@link #replace}.
+     */
+    Optional<SessionRecord> getWithTtl(SessionId sessionId);
 }
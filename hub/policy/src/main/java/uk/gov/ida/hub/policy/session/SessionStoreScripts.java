@@ -0,0 +1,126 @@
+package uk.gov.ida.hub.policy.session;
+
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.CommandOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The Lua scripts shared by the blocking and non-blocking Redis session stores, and the
+ * translation of their replies.
+ */
+final class SessionStoreScripts {
+    static final String SESSION_UPDATES_CHANNEL = "policy:session-updates";
+
+    // KEYS[1] = state, KEYS[2] = version
+    static final String GET_WITH_TTL =
+            "return {redis.call('GET', KEYS[1]), redis.call('PTTL', KEYS[1]), tonumber(redis.call('GET', KEYS[2]) or '0')}";
+
+    private static final long NOT_FOUND = -1;
+    private static final long CONFLICT = -2;
+
+    // KEYS[1] = state, KEYS[2] = version, ARGV[1] = new state, ARGV[2] = expected version
+    // Publishes "<session id> <new version>" so that near caches on other nodes can drop stale copies
+    static final String REPLACE =
+            "local ttl = redis.call('PTTL', KEYS[1])\n" +
+            "if ttl == -2 then return " + NOT_FOUND + " end\n" +
+            "local version = tonumber(redis.call('GET', KEYS[2]) or '0')\n" +
+            "if version ~= tonumber(ARGV[2]) then return " + CONFLICT + " end\n" +
+            "version = version + 1\n" +
+            "if ttl > 0 then\n" +
+            "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ttl)\n" +
+            "  redis.call('SET', KEYS[2], version, 'PX', ttl)\n" +
+            "else\n" +
+            "  redis.call('SET', KEYS[1], ARGV[1])\n" +
+            "  redis.call('SET', KEYS[2], version)\n" +
+            "end\n" +
+            "redis.call('PUBLISH', '" + SESSION_UPDATES_CHANNEL + "', KEYS[1] .. ' ' .. version)\n" +
+            "return version";
+
+    private SessionStoreScripts() {
+    }
+
+    static CommandArgs<SessionId, State> scriptArgs(RedisCodec<SessionId, State> codec, String scriptOrDigest, SessionId sessionId) {
+        return new CommandArgs<>(codec)
+                .add(scriptOrDigest)
+                .add(2)
+                .addKey(sessionId)
+                .addKey(versionKey(sessionId));
+    }
+
+    static Optional<SessionRecord> toSessionRecord(List<Object> result, Long recordTTL) {
+        State state = (State) result.get(0);
+        if (state == null) {
+            return Optional.empty();
+        }
+        long ttlInMillis = (Long) result.get(1);
+        long version = (Long) result.get(2);
+        return Optional.of(new SessionRecord(state, ttlInMillis < 0 ? recordTTL * 1000 : ttlInMillis, version));
+    }
+
+    static long toVersion(Long result, SessionId sessionId, long expectedVersion) {
+        if (result == NOT_FOUND) {
+            throw new SessionNotFoundException(sessionId);
+        }
+        if (result == CONFLICT) {
+            throw new SessionStateConflictException(sessionId, expectedVersion);
+        }
+        return result;
+    }
+
+    /**
+     * Runs a script by its digest, loading it with EVAL if the server does not have it cached.
+     */
+    static <T> T evalScript(
+            RedisClusterCommands<SessionId, State> dataStore,
+            String script,
+            String digest,
+            Supplier<CommandOutput<SessionId, State, T>> output,
+            Function<String, CommandArgs<SessionId, State>> args) {
+        try {
+            return dataStore.dispatch(CommandType.EVALSHA, output.get(), args.apply(digest));
+        } catch (RedisNoScriptException e) {
+            return dataStore.dispatch(CommandType.EVAL, output.get(), args.apply(script));
+        }
+    }
+
+    static <T> CompletionStage<T> evalScript(
+            RedisClusterAsyncCommands<SessionId, State> dataStore,
+            String script,
+            String digest,
+            Supplier<CommandOutput<SessionId, State, T>> output,
+            Function<String, CommandArgs<SessionId, State>> args) {
+        return dataStore.dispatch(CommandType.EVALSHA, output.get(), args.apply(digest))
+                .<CompletionStage<T>>handle((result, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof RedisNoScriptException) {
+                        return dataStore.dispatch(CommandType.EVAL, output.get(), args.apply(script));
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    static SessionId versionKey(SessionId sessionId) {
+        // The hash tag keeps the version on the same cluster slot as the state it describes
+        return new SessionId("{" + sessionId.getSessionId() + "}:version");
+    }
+}
@@ -0,0 +1,88 @@
+package uk.gov.ida.hub.policy.session;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.hub.policy.domain.SessionId;
+
+import java.net.SocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listens for the session versions published by {@link RedisSessionStore} and passes them on to a
+ * {@link NearCacheSessionStore}. The near cache is only active while every subscription is: it is
+ * suspended when any of their connections drops, and cleared and resumed once Redis has confirmed
+ * them all, so updates missed while disconnected can never be served from it.
+ */
+public class SessionUpdatesSubscriber implements RedisConnectionStateListener {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionUpdatesSubscriber.class);
+
+    private final NearCacheSessionStore nearCache;
+    private final Set<AbstractRedisClient> clients = ConcurrentHashMap.newKeySet();
+    private final Set<StatefulRedisPubSubConnection<String, String>> connections = ConcurrentHashMap.newKeySet();
+    private final Set<StatefulRedisPubSubConnection<String, String>> subscribed = ConcurrentHashMap.newKeySet();
+
+    public SessionUpdatesSubscriber(NearCacheSessionStore nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    public void subscribe(AbstractRedisClient redisClient, StatefulRedisPubSubConnection<String, String> connection) {
+        if (clients.add(redisClient)) {
+            redisClient.addListener(this);
+        }
+        connections.add(connection);
+        nearCache.suspend();
+        connection.addListener(new ChannelListener(connection));
+        connection.sync().subscribe(RedisSessionStore.SESSION_UPDATES_CHANNEL);
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+        if (connections.contains(connection)) {
+            LOG.warn("Lost subscription to session updates, suspending the session near cache");
+            subscribed.remove(connection);
+            nearCache.suspend();
+        }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> connection, Throwable cause) {
+    }
+
+    private class ChannelListener extends RedisPubSubAdapter<String, String> {
+        private final StatefulRedisPubSubConnection<String, String> connection;
+
+        private ChannelListener(StatefulRedisPubSubConnection<String, String> connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void subscribed(String channel, long count) {
+            subscribed.add(connection);
+            if (subscribed.containsAll(connections)) {
+                nearCache.resume();
+            }
+        }
+
+        @Override
+        public void message(String channel, String message) {
+            int separator = message.lastIndexOf(' ');
+            try {
+                nearCache.invalidate(
+                        new SessionId(message.substring(0, separator)),
+                        Long.parseLong(message.substring(separator + 1)));
+            } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                LOG.warn("Ignoring malformed session update '{}'", message);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package uk.gov.ida.hub.policy.session;
+
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The non-blocking counterpart of {@link ShardedSessionStore}. Given shards with the same names,
+ * both place every session on the same shard.
+ */
+public class ShardedAsyncSessionStore implements AsyncSessionStore {
+    private final ConsistentHashRing<AsyncSessionStore> shards;
+
+    public ShardedAsyncSessionStore(Map<String, AsyncSessionStore> shards) {
+        this.shards = new ConsistentHashRing<>(shards);
+    }
+
+    @Override
+    public CompletionStage<Boolean> hasSession(SessionId sessionId) {
+        return shards.shardFor(sessionId).hasSession(sessionId);
+    }
+
+    @Override
+    public CompletionStage<State> get(SessionId sessionId) {
+        return shards.shardFor(sessionId).get(sessionId);
+    }
+
+    @Override
+    public CompletionStage<Optional<SessionRecord>> getWithTtl(SessionId sessionId) {
+        return shards.shardFor(sessionId).getWithTtl(sessionId);
+    }
+}
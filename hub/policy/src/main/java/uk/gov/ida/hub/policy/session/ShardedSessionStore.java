@@ -0,0 +1,44 @@
+package uk.gov.ida.hub.policy.session;
+
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Spreads sessions over several independent stores, keeping every session on the same shard for
+ * its whole life. A shard that is unavailable only affects the sessions placed on it.
+ */
+public class ShardedSessionStore implements SessionStore {
+    private final ConsistentHashRing<SessionStore> shards;
+
+    public ShardedSessionStore(Map<String, SessionStore> shards) {
+        this.shards = new ConsistentHashRing<>(shards);
+    }
+
+    @Override
+    public void insert(SessionId sessionId, State state) {
+        shards.shardFor(sessionId).insert(sessionId, state);
+    }
+
+    @Override
+    public long replace(SessionId sessionId, State state, long expectedVersion) {
+        return shards.shardFor(sessionId).replace(sessionId, state, expectedVersion);
+    }
+
+    @Override
+    public boolean hasSession(SessionId sessionId) {
+        return shards.shardFor(sessionId).hasSession(sessionId);
+    }
+
+    @Override
+    public State get(SessionId sessionId) {
+        return shards.shardFor(sessionId).get(sessionId);
+    }
+
+    @Override
+    public Optional<SessionRecord> getWithTtl(SessionId sessionId) {
+        return shards.shardFor(sessionId).getWithTtl(sessionId);
+    }
+}
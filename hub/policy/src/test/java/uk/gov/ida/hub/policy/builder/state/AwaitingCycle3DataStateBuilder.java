@@ -68,4 +68,9 @@ public class AwaitingCycle3DataStateBuilder {
         this.registering = registering;
         return this;
     }
+
+    public AwaitingCycle3DataStateBuilder withEncryptedMatchingDatasetAssertion(String encryptedMatchingDatasetAssertion) {
+        this.encryptedMatchingDatasetAssertion = encryptedMatchingDatasetAssertion;
+        return this;
+    }
 }
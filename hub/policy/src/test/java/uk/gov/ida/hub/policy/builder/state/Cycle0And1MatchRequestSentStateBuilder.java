@@ -69,4 +69,9 @@ public class Cycle0And1MatchRequestSentStateBuilder {
         this.registering = registering;
         return this;
     }
+
+    public Cycle0And1MatchRequestSentStateBuilder withEncryptedMatchingDatasetAssertion(String encryptedMatchingDatasetAssertion) {
+        this.encryptedMatchingDatasetAssertion = encryptedMatchingDatasetAssertion;
+        return this;
+    }
 }
@@ -22,7 +22,6 @@ import uk.gov.ida.hub.policy.domain.state.IdpSelectingState;
 import uk.gov.ida.hub.policy.domain.state.RestartJourneyState;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
 import uk.gov.ida.hub.policy.proxy.SamlResponseWithAuthnRequestInformationDtoBuilder;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 import java.net.URI;
 import java.util.Optional;
@@ -52,8 +51,6 @@ public class AuthnRequestFromTransactionHandlerTest {
     @Mock
     private PolicyConfiguration policyConfiguration;
     @Mock
-    private TransactionsConfigProxy transactionsConfigProxy;
-    @Mock
     private RestartJourneyStateController restartJourneyStateController;
     @Mock
     private IdGenerator idGenerator;
@@ -62,7 +59,7 @@ public class AuthnRequestFromTransactionHandlerTest {
 
     @BeforeEach
     public void setUp() {
-        authnRequestFromTransactionHandler = new AuthnRequestFromTransactionHandler(sessionRepository, hubEventLogger, policyConfiguration, transactionsConfigProxy, idGenerator);
+        authnRequestFromTransactionHandler = new AuthnRequestFromTransactionHandler(sessionRepository, hubEventLogger, policyConfiguration, idGenerator);
     }
 
     @Test
@@ -71,9 +68,8 @@ public class AuthnRequestFromTransactionHandlerTest {
         final Optional<String> relayState = Optional.of(RELAY_STATE);
 
         when(policyConfiguration.getSessionLength()).thenReturn(Duration.standardHours(1));
-        when(transactionsConfigProxy.getLevelsOfAssurance(samlResponseWithAuthnRequestInformationDto.getIssuer())).thenReturn(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_1));
 
-        authnRequestFromTransactionHandler.handleRequestFromTransaction(samlResponseWithAuthnRequestInformationDto, relayState, PRINCIPAL_IP_ADDRESS, ASSERTION_CONSUMER_SERVICE_URI);
+        authnRequestFromTransactionHandler.handleRequestFromTransaction(samlResponseWithAuthnRequestInformationDto, relayState, PRINCIPAL_IP_ADDRESS, ASSERTION_CONSUMER_SERVICE_URI, asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_1));
 
         verify(hubEventLogger, times(1)).logSessionStartedEvent(
             any(),
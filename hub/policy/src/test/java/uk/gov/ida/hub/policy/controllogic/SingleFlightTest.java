@@ -0,0 +1,65 @@
+package uk.gov.ida.hub.policy.controllogic;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void concurrentCallersForTheSameKeyShouldShareOneCall() {
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+
+        CompletionStage<String> first = singleFlight.call("session", () -> counted(inFlight));
+        CompletionStage<String> second = singleFlight.call("session", () -> counted(inFlight));
+        inFlight.complete("result");
+
+        assertThat(first.toCompletableFuture().join()).isEqualTo("result");
+        assertThat(second.toCompletableFuture().join()).isEqualTo("result");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void callersForDifferentKeysShouldEachMakeTheirOwnCall() {
+        singleFlight.call("one session", () -> counted(new CompletableFuture<>()));
+        singleFlight.call("another session", () -> counted(new CompletableFuture<>()));
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void aCallerArrivingAfterTheCallCompletesShouldMakeAFreshOne() {
+        singleFlight.call("session", () -> counted(CompletableFuture.completedFuture("first"))).toCompletableFuture().join();
+
+        String result = singleFlight.call("session", () -> counted(CompletableFuture.completedFuture("second"))).toCompletableFuture().join();
+
+        assertThat(result).isEqualTo("second");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void everyCallerShouldSeeTheFailureOfTheSharedCall() {
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        CompletionStage<String> first = singleFlight.call("session", () -> inFlight);
+        CompletionStage<String> second = singleFlight.call("session", () -> inFlight);
+
+        inFlight.completeExceptionally(new IllegalStateException("failed"));
+
+        assertThat(Assertions.assertThrows(CompletionException.class, () -> first.toCompletableFuture().join())).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(Assertions.assertThrows(CompletionException.class, () -> second.toCompletableFuture().join())).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private CompletionStage<String> counted(CompletionStage<String> result) {
+        calls.incrementAndGet();
+        return result;
+    }
+}
@@ -10,6 +10,7 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.ida.hub.policy.domain.controller.StateControllerFactory;
+import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
 import uk.gov.ida.hub.policy.domain.state.ErrorResponsePreparedState;
 import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
 import uk.gov.ida.hub.policy.domain.state.ResponsePreparedState;
@@ -17,16 +18,23 @@ import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
 import uk.gov.ida.hub.policy.domain.state.TimeoutState;
 import uk.gov.ida.hub.policy.exception.InvalidSessionStateException;
 import uk.gov.ida.hub.policy.exception.SessionTimeoutException;
+import uk.gov.ida.hub.policy.session.AsyncSessionStore;
+import uk.gov.ida.hub.policy.session.SessionPopulation;
+import uk.gov.ida.hub.policy.session.SessionRecord;
 import uk.gov.ida.hub.policy.session.SessionStore;
 import uk.gov.ida.shared.utils.datetime.DateTimeFreezer;
 
 import java.net.URI;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
@@ -42,6 +50,9 @@ public class SessionRepositoryTest {
     @Mock
     private StateControllerFactory controllerFactory;
 
+    @Mock
+    private SessionPopulation sessionPopulation;
+
     @Captor
     private ArgumentCaptor<StateTransitionAction> stateTransitionActionArgumentCaptor = null;
 
@@ -51,7 +62,12 @@ public class SessionRepositoryTest {
     @BeforeEach
     public void setup() {
         dataStore = new ConcurrentHashMap<>();
-        sessionRepository = new SessionRepository(new ConcurrentMapSessionStore(dataStore), controllerFactory);
+        sessionRepository = new SessionRepository(
+                new ConcurrentMapSessionStore(dataStore),
+                new ConcurrentMapAsyncSessionStore(dataStore),
+                controllerFactory,
+                Runnable::run,
+                sessionPopulation);
     }
 
     @Test
@@ -90,6 +106,20 @@ public class SessionRepositoryTest {
         assertThat(dataStore.get(sessionId)).isEqualTo(state);
     }
 
+    @Test
+    public void stateTransitionAction_shouldMoveTheSessionToItsNewStateInThePopulation() {
+        SessionStartedState sessionStartedState = aSessionStartedState().withSessionExpiryTimestamp(defaultSessionExpiry).build();
+        SessionId sessionId = sessionRepository.createSession(sessionStartedState);
+
+        sessionRepository.getStateController(sessionId, SessionStartedState.class);
+        verify(controllerFactory).build(eq(sessionStartedState), stateTransitionActionArgumentCaptor.capture());
+        TestState state = new TestState();
+        stateTransitionActionArgumentCaptor.getValue().transitionTo(state);
+
+        verify(sessionPopulation).sessionCreated(sessionStartedState);
+        verify(sessionPopulation).sessionTransitioned(eq(sessionStartedState), eq(state), anyLong());
+    }
+
     @Test
     public void getState_shouldGetAnInterfaceImplementation() {
 
@@ -186,13 +216,76 @@ public class SessionRepositoryTest {
 
     }
 
+    @Test
+    public void getStateController_shouldThrowSessionNotFoundException_whenSessionDoesNotExist() {
+        Assertions.assertThrows(SessionNotFoundException.class, () -> sessionRepository.getStateController(aSessionId().build(), SessionStartedState.class));
+    }
+
     @Test
     public void getLevelOfAssuranceFromIdp(){
         SessionStartedState state = aSessionStartedState().build();
 
         SessionId sessionId = sessionRepository.createSession(state);
 
-        assertThat(sessionRepository.getLevelOfAssuranceFromIdp(sessionId)).isEqualTo(Optional.empty());
+        assertThat(sessionRepository.getLevelOfAssuranceFromIdp(sessionId).toCompletableFuture().join()).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void getLevelOfAssuranceFromIdp_shouldFailWithSessionNotFoundWhenSessionDoesNotExist() {
+        CompletionException exception = Assertions.assertThrows(
+                CompletionException.class,
+                () -> sessionRepository.getLevelOfAssuranceFromIdp(aSessionId().build()).toCompletableFuture().join());
+
+        assertThat(exception.getCause()).isInstanceOf(SessionNotFoundException.class);
+    }
+
+    @Test
+    public void getStateControllerAsync_shouldBuildTheControllerForTheStoredState() {
+        SessionStartedState sessionStartedState = aSessionStartedState().withSessionExpiryTimestamp(defaultSessionExpiry).build();
+        SessionId sessionId = sessionRepository.createSession(sessionStartedState);
+
+        sessionRepository.getStateControllerAsync(sessionId, SessionStartedState.class).toCompletableFuture().join();
+
+        verify(controllerFactory).build(eq(sessionStartedState), any(StateTransitionAction.class));
+    }
+
+    @Test
+    public void getStateControllerAsync_shouldFailWithSessionNotFoundException_whenSessionDoesNotExist() {
+        CompletableFuture<StateController> stateController = sessionRepository
+                .getStateControllerAsync(aSessionId().build(), SessionStartedState.class)
+                .toCompletableFuture();
+
+        CompletionException exception = Assertions.assertThrows(CompletionException.class, stateController::join);
+        assertThat(exception.getCause()).isInstanceOf(SessionNotFoundException.class);
+    }
+
+    @Test
+    public void getStateControllerForQuery_shouldBuildAControllerThatCannotTransition() {
+        SessionStartedState sessionStartedState = aSessionStartedState().withSessionExpiryTimestamp(defaultSessionExpiry).build();
+        SessionId sessionId = sessionRepository.createSession(sessionStartedState);
+
+        sessionRepository.getStateControllerForQuery(sessionId, SessionStartedState.class);
+
+        verify(controllerFactory).build(eq(sessionStartedState), stateTransitionActionArgumentCaptor.capture());
+        StateTransitionAction transitionAction = stateTransitionActionArgumentCaptor.getValue();
+        Assertions.assertThrows(IllegalStateException.class, () -> transitionAction.transitionTo(sessionStartedState));
+        assertThat(dataStore.get(sessionId)).isSameAs(sessionStartedState);
+    }
+
+    @Test
+    public void getStateControllerForQuery_shouldTimeOutTheSessionLikeAnyOtherLoad() {
+        DateTime now = DateTime.now();
+        DateTimeFreezer.freezeTime(now);
+        SessionId sessionId = sessionRepository.createSession(aSessionStartedState().withSessionExpiryTimestamp(now).build());
+        DateTimeFreezer.freezeTime(now.plusMinutes(3));
+
+        Assertions.assertThrows(SessionTimeoutException.class, () -> sessionRepository.getStateControllerForQuery(sessionId, SessionStartedState.class));
+        assertThat(dataStore.get(sessionId)).isInstanceOf(TimeoutState.class);
+    }
+
+    @Test
+    public void getStateControllerForQuery_shouldThrowSessionNotFoundException_whenSessionDoesNotExist() {
+        Assertions.assertThrows(SessionNotFoundException.class, () -> sessionRepository.getStateControllerForQuery(aSessionId().build(), SessionStartedState.class));
     }
 
     private class TestState extends AbstractState implements ResponsePreparedState {
@@ -220,8 +313,9 @@ public class SessionRepositoryTest {
         }
 
         @Override
-        public void replace(SessionId sessionId, State state) {
+        public long replace(SessionId sessionId, State state, long expectedVersion) {
             dataStore.replace(sessionId, state);
+            return expectedVersion + 1;
         }
 
         @Override
@@ -233,5 +327,34 @@ public class SessionRepositoryTest {
         public State get(SessionId sessionId) {
             return dataStore.get(sessionId);
         }
+
+        @Override
+        public Optional<SessionRecord> getWithTtl(SessionId sessionId) {
+            return Optional.ofNullable(dataStore.get(sessionId)).map(state -> new SessionRecord(state, 60000L, 0L));
+        }
+    }
+
+    private static class ConcurrentMapAsyncSessionStore implements AsyncSessionStore {
+
+        private final ConcurrentMapSessionStore dataStore;
+
+        public ConcurrentMapAsyncSessionStore(ConcurrentMap<SessionId, State> dataStore) {
+            this.dataStore = new ConcurrentMapSessionStore(dataStore);
+        }
+
+        @Override
+        public CompletionStage<Boolean> hasSession(SessionId sessionId) {
+            return CompletableFuture.completedFuture(dataStore.hasSession(sessionId));
+        }
+
+        @Override
+        public CompletionStage<State> get(SessionId sessionId) {
+            return CompletableFuture.completedFuture(dataStore.get(sessionId));
+        }
+
+        @Override
+        public CompletionStage<Optional<SessionRecord>> getWithTtl(SessionId sessionId) {
+            return CompletableFuture.completedFuture(dataStore.getWithTtl(sessionId));
+        }
     }
 }
@@ -0,0 +1,155 @@
+package uk.gov.ida.hub.policy.domain;
+
+import io.prometheus.client.CollectorRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.ida.hub.policy.domain.controller.StateControllerFactory;
+import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
+import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
+import uk.gov.ida.hub.policy.exception.InvalidSessionStateException;
+import uk.gov.ida.hub.policy.session.SessionPopulation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
+import static uk.gov.ida.hub.policy.builder.state.IdpSelectedStateBuilder.anIdpSelectedState;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+
+@ExtendWith(MockitoExtension.class)
+public class StateTransitionMetricsTest {
+
+    private static final String SESSION_LOADS = "verify_policy_session_load_duration_seconds_count";
+    private static final String TRANSITIONS = "verify_policy_state_transition_duration_seconds_count";
+    private static final String TRANSITION_COMPONENT_SECONDS = "verify_policy_state_transition_component_duration_seconds_sum";
+
+    private final CollectorRegistry registry = CollectorRegistry.defaultRegistry;
+
+    private SessionRepository sessionRepository;
+    private ConcurrentMap<SessionId, State> dataStore;
+
+    @Mock
+    private StateControllerFactory controllerFactory;
+
+    @Mock
+    private SessionPopulation sessionPopulation;
+
+    @Captor
+    private ArgumentCaptor<StateTransitionAction> stateTransitionActionArgumentCaptor = null;
+
+    @BeforeEach
+    public void setUp() {
+        dataStore = new ConcurrentHashMap<>();
+        sessionRepository = new SessionRepository(
+                new ConcurrentMapSessionStore(dataStore),
+                new ConcurrentMapAsyncSessionStore(dataStore),
+                controllerFactory,
+                Runnable::run,
+                sessionPopulation);
+    }
+
+    @Test
+    public void shouldRecordEachTransitionByFromStateToStateAndOutcome() {
+        SessionStartedState sessionStartedState = aSessionStartedState().build();
+        IdpSelectedState idpSelectedState = anIdpSelectedState().build();
+        SessionId sessionId = sessionRepository.createSession(sessionStartedState);
+        double before = sample(TRANSITIONS, "SESSION_STARTED", "IDP_SELECTED", "success");
+
+        sessionRepository.getStateController(sessionId, SessionStartedState.class);
+        verify(controllerFactory).build(eq(sessionStartedState), stateTransitionActionArgumentCaptor.capture());
+        stateTransitionActionArgumentCaptor.getValue().transitionTo(idpSelectedState);
+
+        assertThat(sample(TRANSITIONS, "SESSION_STARTED", "IDP_SELECTED", "success")).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void shouldCountDownstreamCallsMadeWhileHandlingTowardsTheTransition() {
+        SessionStartedState sessionStartedState = aSessionStartedState().build();
+        SessionId sessionId = sessionRepository.createSession(sessionStartedState);
+        double before = sample(TRANSITION_COMPONENT_SECONDS, "SESSION_STARTED", "IDP_SELECTED", "downstream_http");
+
+        sessionRepository.getStateController(sessionId, SessionStartedState.class);
+        verify(controllerFactory).build(eq(sessionStartedState), stateTransitionActionArgumentCaptor.capture());
+        StateTransitionMetrics.downstreamCallCompleted(TimeUnit.SECONDS.toNanos(2));
+        stateTransitionActionArgumentCaptor.getValue().transitionTo(anIdpSelectedState().build());
+
+        assertThat(sample(TRANSITION_COMPONENT_SECONDS, "SESSION_STARTED", "IDP_SELECTED", "downstream_http")).isEqualTo(before + 2);
+    }
+
+    @Test
+    public void shouldCountDownstreamCallsHandedToAnotherThreadTowardsTheTransition() throws Exception {
+        SessionStartedState sessionStartedState = aSessionStartedState().build();
+        SessionId sessionId = sessionRepository.createSession(sessionStartedState);
+        double before = sample(TRANSITION_COMPONENT_SECONDS, "SESSION_STARTED", "IDP_SELECTED", "downstream_http");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            sessionRepository.getStateController(sessionId, SessionStartedState.class);
+            verify(controllerFactory).build(eq(sessionStartedState), stateTransitionActionArgumentCaptor.capture());
+            CompletableFuture.runAsync(
+                    () -> StateTransitionMetrics.downstreamCallCompleted(TimeUnit.SECONDS.toNanos(2)),
+                    StateTransitionMetrics.continuingTransition(executor)).get();
+            stateTransitionActionArgumentCaptor.getValue().transitionTo(anIdpSelectedState().build());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(sample(TRANSITION_COMPONENT_SECONDS, "SESSION_STARTED", "IDP_SELECTED", "downstream_http")).isEqualTo(before + 2);
+    }
+
+    @Test
+    public void shouldNotCountDownstreamCallsMadeOnceTheTransitionHasEnded() {
+        SessionStartedState sessionStartedState = aSessionStartedState().build();
+        SessionId sessionId = sessionRepository.createSession(sessionStartedState);
+        double before = sample(TRANSITION_COMPONENT_SECONDS, "SESSION_STARTED", "IDP_SELECTED", "downstream_http");
+
+        sessionRepository.getStateController(sessionId, SessionStartedState.class);
+        verify(controllerFactory).build(eq(sessionStartedState), stateTransitionActionArgumentCaptor.capture());
+        StateTransitionMetrics.endTransition();
+        StateTransitionMetrics.downstreamCallCompleted(TimeUnit.SECONDS.toNanos(2));
+        stateTransitionActionArgumentCaptor.getValue().transitionTo(anIdpSelectedState().build());
+
+        assertThat(sample(TRANSITION_COMPONENT_SECONDS, "SESSION_STARTED", "IDP_SELECTED", "downstream_http")).isEqualTo(before);
+    }
+
+    @Test
+    public void shouldRecordSessionLoadsThatFindNoSession() {
+        double before = sample(SESSION_LOADS, "NONE", "not_found");
+
+        Assertions.assertThrows(SessionNotFoundException.class, () -> sessionRepository.getStateController(aSessionId().build(), SessionStartedState.class));
+
+        assertThat(sample(SESSION_LOADS, "NONE", "not_found")).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void shouldRecordSessionLoadsThatFindTheSessionInAnotherState() {
+        SessionId sessionId = sessionRepository.createSession(aSessionStartedState().build());
+        double before = sample(SESSION_LOADS, "SESSION_STARTED", "invalid_state");
+
+        Assertions.assertThrows(InvalidSessionStateException.class, () -> sessionRepository.getStateController(sessionId, IdpSelectedState.class));
+
+        assertThat(sample(SESSION_LOADS, "SESSION_STARTED", "invalid_state")).isEqualTo(before + 1);
+    }
+
+    private double sample(String name, String... labelValues) {
+        String[] labelNames = labelValues.length == 2
+                ? new String[]{"state", "outcome"}
+                : new String[]{"from_state", "to_state", name.equals(TRANSITIONS) ? "outcome" : "component"};
+        Double value = registry.getSampleValue(name, labelNames, labelValues);
+        return value == null ? 0 : value;
+    }
+}
@@ -10,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import uk.gov.ida.hub.policy.contracts.IdpSelectionContextDto;
 import uk.gov.ida.hub.policy.domain.AuthnRequestSignInProcess;
 import uk.gov.ida.hub.policy.domain.IdpConfigDto;
 import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
@@ -21,7 +22,6 @@ import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
 import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 import java.net.URI;
 
@@ -30,6 +30,7 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -56,8 +57,6 @@ public class AuthnFailedErrorStateControllerTest {
     @Mock
     private HubEventLogger hubEventLogger;
     @Mock
-    private TransactionsConfigProxy transactionsConfigProxy;
-    @Mock
     private IdentityProvidersConfigProxy identityProvidersConfigProxy;
     @Mock
     private ResponseFromHubFactory responseFromHubFactory;
@@ -69,17 +68,17 @@ public class AuthnFailedErrorStateControllerTest {
             .withSessionId(aSessionId().with("sessionId").build())
             .withSessionExpiryTimestamp(NOW)
             .build();
-        when(transactionsConfigProxy.getLevelsOfAssurance(authnFailedErrorState.getRequestIssuerEntityId()))
-                .thenReturn(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
         IdpConfigDto idpConfigDto = new IdpConfigDto(IDP_ENTITY_ID, true, asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
-        when(identityProvidersConfigProxy.getIdpConfig(IDP_ENTITY_ID)).thenReturn(idpConfigDto);
-        when(identityProvidersConfigProxy.getEnabledIdentityProvidersForAuthenticationRequestGeneration(authnFailedErrorState.getRequestIssuerEntityId(), REGISTERING, LevelOfAssurance.LEVEL_2))
-                .thenReturn(singletonList(IDP_ENTITY_ID));
+        when(identityProvidersConfigProxy.getIdpSelectionContext(eq(authnFailedErrorState.getRequestIssuerEntityId()), anyString(), eq(REGISTERING), eq(LevelOfAssurance.LEVEL_2)))
+                .thenReturn(new IdpSelectionContextDto(
+                        asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2),
+                        singletonList(IDP_ENTITY_ID),
+                        idpConfigDto,
+                        false));
         controller = new AuthnFailedErrorStateController(
                 authnFailedErrorState,
                 responseFromHubFactory,
                 stateTransitionAction,
-                transactionsConfigProxy,
                 identityProvidersConfigProxy,
                 hubEventLogger);
     }
@@ -96,13 +96,13 @@ public class ErrorStateControllerTests {
     @BeforeEach
     public void setUp() {
         sessionId = SessionId.createNewSessionId();
-        authnRequestFromTransactionHandler = new AuthnRequestFromTransactionHandler(sessionRepository, hubEventLogger, policyConfiguration, transactionsConfigProxy, idGenerator);
+        authnRequestFromTransactionHandler = new AuthnRequestFromTransactionHandler(sessionRepository, hubEventLogger, policyConfiguration, idGenerator);
     }
 
     @Test
     public void shouldReturnErrorResponseWhenAskedAndInSessionStartedState() {
         SessionStartedState state = SessionStartedStateBuilder.aSessionStartedState().build();
-        StateController stateController = new SessionStartedStateController(state, hubEventLogger, stateTransitionAction, transactionsConfigProxy, responseFromHubFactory, identityProvidersConfigProxy);
+        StateController stateController = new SessionStartedStateController(state, hubEventLogger, stateTransitionAction, responseFromHubFactory, identityProvidersConfigProxy);
         when(sessionRepository.getStateController(sessionId, ErrorResponsePreparedState.class)).thenReturn(stateController);
 
         ResponseFromHub responseFromHub = authnRequestFromTransactionHandler.getErrorResponseFromHub(sessionId);
@@ -113,7 +113,7 @@ public class ErrorStateControllerTests {
     @Test
     public void shouldReturnErrorResponseWhenAskedAndInAuthnFailedErrorState() {
         AuthnFailedErrorState state = AuthnFailedErrorStateBuilder.anAuthnFailedErrorState().build();
-        StateController stateController = new AuthnFailedErrorStateController(state, responseFromHubFactory, stateTransitionAction, transactionsConfigProxy, identityProvidersConfigProxy, hubEventLogger);
+        StateController stateController = new AuthnFailedErrorStateController(state, responseFromHubFactory, stateTransitionAction, identityProvidersConfigProxy, hubEventLogger);
         when(sessionRepository.getStateController(sessionId, ErrorResponsePreparedState.class)).thenReturn(stateController);
 
         ResponseFromHub responseFromHub = authnRequestFromTransactionHandler.getErrorResponseFromHub(sessionId);
@@ -124,7 +124,7 @@ public class ErrorStateControllerTests {
     @Test
     public void shouldReturnErrorResponseWhenAskedAndInRequesterErrorState() {
         RequesterErrorState state = RequesterErrorStateBuilder.aRequesterErrorState().build();
-        StateController stateController = new RequesterErrorStateController(state, responseFromHubFactory, stateTransitionAction, transactionsConfigProxy, identityProvidersConfigProxy, hubEventLogger);
+        StateController stateController = new RequesterErrorStateController(state, responseFromHubFactory, stateTransitionAction, identityProvidersConfigProxy, hubEventLogger);
         when(sessionRepository.getStateController(sessionId, ErrorResponsePreparedState.class)).thenReturn(stateController);
 
         ResponseFromHub responseFromHub = authnRequestFromTransactionHandler.getErrorResponseFromHub(sessionId);
@@ -223,7 +223,7 @@ public class ErrorStateControllerTests {
     @Test
     public void shouldReturnErrorResponseWhenAskedAndInFraudEventDetectedState() {
         FraudEventDetectedState state = FraudEventDetectedStateBuilder.aFraudEventDetectedState().build();
-        StateController stateController = new FraudEventDetectedStateController(state, responseFromHubFactory, stateTransitionAction, null, null, null);
+        StateController stateController = new FraudEventDetectedStateController(state, responseFromHubFactory, stateTransitionAction, null, null);
         when(sessionRepository.getStateController(sessionId, ErrorResponsePreparedState.class)).thenReturn(stateController);
 
         ResponseFromHub responseFromHub = authnRequestFromTransactionHandler.getErrorResponseFromHub(sessionId);
@@ -1,7 +1,6 @@
 package uk.gov.ida.hub.policy.domain.controller;
 
 import org.junit.jupiter.api.Assertions;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -10,19 +9,22 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import uk.gov.ida.hub.policy.builder.state.IdpSelectedStateBuilder;
 import uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder;
+import uk.gov.ida.hub.policy.contracts.IdpSelectionContextDto;
 import uk.gov.ida.hub.policy.domain.IdpConfigDto;
 import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
 import uk.gov.ida.hub.policy.domain.exception.StateProcessingValidationException;
 import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
 import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,25 +34,18 @@ public class IdpSelectorTest {
     private static final String OTHER_IDP_ENTITY_ID = "idp-b";
     private static final LevelOfAssurance REQUESTED_LOA = LevelOfAssurance.LEVEL_2;
 
-    @Mock
-    private TransactionsConfigProxy transactionsConfigProxy;
+    private static final IdpConfigDto IDP_CONFIG = new IdpConfigDto(IDP_ENTITY_ID, true, List.of(LevelOfAssurance.LEVEL_2, LevelOfAssurance.LEVEL_1));
+
     @Mock
     private IdentityProvidersConfigProxy identityProvidersConfigProxy;
 
-    @BeforeEach
-    public void setUp() {
-        IdpConfigDto idpConfigDto = new IdpConfigDto(IDP_ENTITY_ID, true, List.of(LevelOfAssurance.LEVEL_2, LevelOfAssurance.LEVEL_1));
-        when(identityProvidersConfigProxy.getIdpConfig(IDP_ENTITY_ID)).thenReturn(idpConfigDto);
-    }
-
     @Test
     public void buildIdpSelectedState_shouldReturnStateWithIdpSelectedState(){
         IdpSelectedState state = IdpSelectedStateBuilder.anIdpSelectedState().withRelayState("relay-state").withIdpEntityId(IDP_ENTITY_ID)
                 .withRegistration(true).withAvailableIdentityProviders(List.of(IDP_ENTITY_ID)).withRegistration(true).build();
-        when(transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId())).thenReturn(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
-        when(identityProvidersConfigProxy.getEnabledIdentityProvidersForAuthenticationRequestGeneration(state.getRequestIssuerEntityId(), state.isRegistering(), REQUESTED_LOA)).thenReturn(singletonList(IDP_ENTITY_ID));
+        givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2), singletonList(IDP_ENTITY_ID), IDP_CONFIG, false);
 
-        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, transactionsConfigProxy, identityProvidersConfigProxy);
+        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, identityProvidersConfigProxy);
 
         assertThat(idpSelectedState).isEqualToComparingFieldByField(state);
     }
@@ -59,12 +54,9 @@ public class IdpSelectorTest {
     public void buildIdpSelectedState_shouldReturnStateWithNewIdpForIdpSelectedState(){
         IdpSelectedState state = IdpSelectedStateBuilder.anIdpSelectedState().withRelayState("relay-state").withIdpEntityId("idp-b")
                 .withAvailableIdentityProviders(List.of(IDP_ENTITY_ID, OTHER_IDP_ENTITY_ID)).withRegistration(true).build();
-        IdpConfigDto idpConfigDto = new IdpConfigDto(IDP_ENTITY_ID, true, List.of(LevelOfAssurance.LEVEL_2, LevelOfAssurance.LEVEL_1));
-        when(identityProvidersConfigProxy.getIdpConfig("idp-b")).thenReturn(idpConfigDto);
-        when(transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId())).thenReturn(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
-        when(identityProvidersConfigProxy.getEnabledIdentityProvidersForAuthenticationRequestGeneration(state.getRequestIssuerEntityId(), state.isRegistering(), REQUESTED_LOA)).thenReturn(asList(IDP_ENTITY_ID, OTHER_IDP_ENTITY_ID));
+        givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2), asList(IDP_ENTITY_ID, OTHER_IDP_ENTITY_ID), IDP_CONFIG, false);
 
-        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, "idp-b", true, REQUESTED_LOA, transactionsConfigProxy, identityProvidersConfigProxy);
+        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, "idp-b", true, REQUESTED_LOA, identityProvidersConfigProxy);
 
         assertThat(idpSelectedState).isEqualToComparingFieldByField(state);
     }
@@ -72,10 +64,9 @@ public class IdpSelectorTest {
     @Test
     public void buildIdpSelectedState_shouldReturnStateWithSessionStartedState(){
         SessionStartedState state = SessionStartedStateBuilder.aSessionStartedState().build();
-        when(transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId())).thenReturn(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
-        when(identityProvidersConfigProxy.getEnabledIdentityProvidersForAuthenticationRequestGeneration(state.getRequestIssuerEntityId(), true, REQUESTED_LOA)).thenReturn(singletonList(IDP_ENTITY_ID));
+        givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2), singletonList(IDP_ENTITY_ID), IDP_CONFIG, false);
 
-        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, transactionsConfigProxy, identityProvidersConfigProxy);
+        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, identityProvidersConfigProxy);
 
         assertThat(idpSelectedState.getRelayState()).isEqualTo(state.getRelayState());
         assertThat(idpSelectedState.getIdpEntityId()).isEqualTo(IDP_ENTITY_ID);
@@ -89,10 +80,9 @@ public class IdpSelectorTest {
     @Test
     public void buildIdpSelectedState_shouldReturnStateWithCorrectSequenceOfLOAsWhenIDPSupportsRegistration() {
         SessionStartedState state = SessionStartedStateBuilder.aSessionStartedState().build();
-        when(transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId())).thenReturn(asList(LevelOfAssurance.LEVEL_2, LevelOfAssurance.LEVEL_1));
-        when(identityProvidersConfigProxy.getEnabledIdentityProvidersForAuthenticationRequestGeneration(state.getRequestIssuerEntityId(), true, REQUESTED_LOA)).thenReturn(singletonList(IDP_ENTITY_ID));
-        when(identityProvidersConfigProxy.isIDPEnabledForRegistration(IDP_ENTITY_ID, state.getRequestIssuerEntityId(), REQUESTED_LOA)).thenReturn(true);
-        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, transactionsConfigProxy, identityProvidersConfigProxy);
+        givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_2, LevelOfAssurance.LEVEL_1), singletonList(IDP_ENTITY_ID), IDP_CONFIG, true);
+
+        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, identityProvidersConfigProxy);
 
         assertThat(idpSelectedState.getRelayState()).isEqualTo(state.getRelayState());
         assertThat(idpSelectedState.getIdpEntityId()).isEqualTo(IDP_ENTITY_ID);
@@ -106,10 +96,9 @@ public class IdpSelectorTest {
     @Test
     public void buildIdpSelectedState_shouldReturnStateWithCorrectSequenceOfLOAsWhenIDPDoesNotSupportRegistration() {
         SessionStartedState state = SessionStartedStateBuilder.aSessionStartedState().build();
-        when(transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId())).thenReturn(asList(LevelOfAssurance.LEVEL_2, LevelOfAssurance.LEVEL_1));
-        when(identityProvidersConfigProxy.getEnabledIdentityProvidersForAuthenticationRequestGeneration(state.getRequestIssuerEntityId(), true, REQUESTED_LOA)).thenReturn(singletonList(IDP_ENTITY_ID));
-        when(identityProvidersConfigProxy.isIDPEnabledForRegistration(IDP_ENTITY_ID, state.getRequestIssuerEntityId(), REQUESTED_LOA)).thenReturn(false);
-        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, transactionsConfigProxy, identityProvidersConfigProxy);
+        givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_2, LevelOfAssurance.LEVEL_1), singletonList(IDP_ENTITY_ID), IDP_CONFIG, false);
+
+        IdpSelectedState idpSelectedState = IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, identityProvidersConfigProxy);
 
         assertThat(idpSelectedState.getRelayState()).isEqualTo(state.getRelayState());
         assertThat(idpSelectedState.getIdpEntityId()).isEqualTo(IDP_ENTITY_ID);
@@ -124,8 +113,9 @@ public class IdpSelectorTest {
     public void shouldRaiseAnExceptionWhenSelectedIDPDoesNotExist() {
         Assertions.assertThrows(StateProcessingValidationException.class, () -> {
             IdpSelectedState state = IdpSelectedStateBuilder.anIdpSelectedState().withIdpEntityId(IDP_ENTITY_ID).withAvailableIdentityProviders(List.of(IDP_ENTITY_ID)).build();
+            givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2), singletonList(IDP_ENTITY_ID), null, false);
 
-            IdpSelector.buildIdpSelectedState(state, "another-idp-entity-id", true, REQUESTED_LOA, transactionsConfigProxy, identityProvidersConfigProxy);
+            IdpSelector.buildIdpSelectedState(state, "another-idp-entity-id", true, REQUESTED_LOA, identityProvidersConfigProxy);
         });
     }
 
@@ -133,9 +123,9 @@ public class IdpSelectorTest {
     public void shouldRaiseAnExceptionWhenSelectedIDPDoesNotHaveSupportedLevelsOfAssurance() {
         Assertions.assertThrows(StateProcessingValidationException.class, () -> {
             IdpSelectedState state = IdpSelectedStateBuilder.anIdpSelectedState().withIdpEntityId(IDP_ENTITY_ID).withAvailableIdentityProviders(List.of(IDP_ENTITY_ID)).build();
-            when(transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId())).thenReturn(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
+            givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2), emptyList(), IDP_CONFIG, false);
 
-            IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, LevelOfAssurance.LEVEL_2, transactionsConfigProxy, identityProvidersConfigProxy);
+            IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, LevelOfAssurance.LEVEL_2, identityProvidersConfigProxy);
         });
     }
 
@@ -143,9 +133,9 @@ public class IdpSelectorTest {
     public void shouldRaiseAnExceptionWhenSelectedIDPDoesNotHaveRequestedLevelOfAssurance() {
         Assertions.assertThrows(StateProcessingValidationException.class, () -> {
             IdpSelectedState state = IdpSelectedStateBuilder.anIdpSelectedState().withIdpEntityId(IDP_ENTITY_ID).withAvailableIdentityProviders(List.of(IDP_ENTITY_ID)).build();
-            when(transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId())).thenReturn(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
+            givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2), emptyList(), IDP_CONFIG, false);
 
-            IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, transactionsConfigProxy, identityProvidersConfigProxy);
+            IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, identityProvidersConfigProxy);
         });
     }
 
@@ -153,9 +143,24 @@ public class IdpSelectorTest {
     public void shouldRaiseAnExceptionWhenTransactionEntityDoesNotHaveRequestedLevelOfAssurance() {
         Assertions.assertThrows(StateProcessingValidationException.class, () -> {
             IdpSelectedState state = IdpSelectedStateBuilder.anIdpSelectedState().withIdpEntityId(IDP_ENTITY_ID).withAvailableIdentityProviders(List.of(IDP_ENTITY_ID)).build();
-            when(transactionsConfigProxy.getLevelsOfAssurance(state.getRequestIssuerEntityId())).thenReturn(singletonList(LevelOfAssurance.LEVEL_1));
+            givenIdpSelectionContext(singletonList(LevelOfAssurance.LEVEL_1), singletonList(IDP_ENTITY_ID), IDP_CONFIG, false);
 
-            IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, transactionsConfigProxy, identityProvidersConfigProxy);
+            IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, identityProvidersConfigProxy);
         });
     }
+
+    @Test
+    public void shouldRaiseAnExceptionWhenSelectedIDPHasNoConfig() {
+        Assertions.assertThrows(StateProcessingValidationException.class, () -> {
+            IdpSelectedState state = IdpSelectedStateBuilder.anIdpSelectedState().withIdpEntityId(IDP_ENTITY_ID).withAvailableIdentityProviders(List.of(IDP_ENTITY_ID)).build();
+            givenIdpSelectionContext(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2), singletonList(IDP_ENTITY_ID), null, false);
+
+            IdpSelector.buildIdpSelectedState(state, IDP_ENTITY_ID, true, REQUESTED_LOA, identityProvidersConfigProxy);
+        });
+    }
+
+    private void givenIdpSelectionContext(List<LevelOfAssurance> levelsOfAssurance, List<String> enabledIdentityProviders, IdpConfigDto idpConfig, boolean idpEnabledForRegistration) {
+        when(identityProvidersConfigProxy.getIdpSelectionContext(any(), any(), anyBoolean(), any()))
+                .thenReturn(new IdpSelectionContextDto(levelsOfAssurance, enabledIdentityProviders, idpConfig, idpEnabledForRegistration));
+    }
 }
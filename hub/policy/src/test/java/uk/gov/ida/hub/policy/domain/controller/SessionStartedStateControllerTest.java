@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import uk.gov.ida.hub.policy.contracts.IdpSelectionContextDto;
 import uk.gov.ida.hub.policy.domain.IdpConfigDto;
 import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
 import uk.gov.ida.hub.policy.domain.ResponseFromHubFactory;
@@ -17,7 +18,6 @@ import uk.gov.ida.hub.policy.domain.state.IdpSelectedState;
 import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
 import uk.gov.ida.hub.policy.logging.HubEventLogger;
 import uk.gov.ida.hub.policy.proxy.IdentityProvidersConfigProxy;
-import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
 
 import java.util.List;
 
@@ -26,6 +26,7 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -40,8 +41,6 @@ public class SessionStartedStateControllerTest {
     private static final String AB_TEST_VARIANT = "variantA";
     private static final boolean REGISTERING = false;
 
-    @Mock
-    private TransactionsConfigProxy transactionsConfigProxy;
     @Mock
     private IdentityProvidersConfigProxy identityProvidersConfigProxy;
     @Mock
@@ -60,17 +59,17 @@ public class SessionStartedStateControllerTest {
         sessionStartedState = aSessionStartedState()
                 .withForceAuthentication(false)
                 .build();
-        when(transactionsConfigProxy.getLevelsOfAssurance(sessionStartedState.getRequestIssuerEntityId()))
-                .thenReturn(asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2));
         IdpConfigDto idpConfigDto = new IdpConfigDto(IDP_ENTITY_ID, true, List.of(LevelOfAssurance.LEVEL_2, LevelOfAssurance.LEVEL_1));
-        when(identityProvidersConfigProxy.getIdpConfig(IDP_ENTITY_ID)).thenReturn(idpConfigDto);
-        when(identityProvidersConfigProxy.getEnabledIdentityProvidersForAuthenticationRequestGeneration(sessionStartedState.getRequestIssuerEntityId(), REGISTERING, LevelOfAssurance.LEVEL_2))
-                .thenReturn(singletonList(IDP_ENTITY_ID));
+        when(identityProvidersConfigProxy.getIdpSelectionContext(eq(sessionStartedState.getRequestIssuerEntityId()), anyString(), eq(REGISTERING), eq(LevelOfAssurance.LEVEL_2)))
+                .thenReturn(new IdpSelectionContextDto(
+                        asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2),
+                        singletonList(IDP_ENTITY_ID),
+                        idpConfigDto,
+                        false));
         controller = new SessionStartedStateController(
                 sessionStartedState,
                 hubEventLogger,
                 stateTransitionAction,
-                transactionsConfigProxy,
                 responseFromHubFactory,
                 identityProvidersConfigProxy);
     }
@@ -1,6 +1,5 @@
 package uk.gov.ida.hub.policy.domain.controller;
 
-import com.google.inject.Injector;
 import org.joda.time.DateTime;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,7 +26,6 @@ import java.net.URI;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
 import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
 import static uk.gov.ida.hub.policy.builder.state.AuthnFailedErrorStateBuilder.anAuthnFailedErrorState;
 import static uk.gov.ida.hub.policy.builder.state.AwaitingCycle3DataStateBuilder.anAwaitingCycle3DataState;
@@ -50,7 +48,28 @@ import static uk.gov.ida.hub.policy.builder.state.UserAccountCreationRequestSent
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class StateControllerFactoryTest {
     @Mock
-    private Injector injector;
+    private HubEventLogger hubEventLogger;
+
+    @Mock
+    private ResponseFromHubFactory responseFromHubFactory;
+
+    @Mock
+    private IdentityProvidersConfigProxy identityProvidersConfigProxy;
+
+    @Mock
+    private TransactionsConfigProxy transactionsConfigProxy;
+
+    @Mock
+    private MatchingServiceConfigProxy matchingServiceConfigProxy;
+
+    @Mock
+    private PolicyConfiguration policyConfiguration;
+
+    @Mock
+    private AssertionRestrictionsFactory assertionRestrictionsFactory;
+
+    @Mock
+    private AttributeQueryService attributeQueryService;
 
     @Mock
     private StateTransitionAction stateTransitionAction;
@@ -59,15 +78,15 @@ public class StateControllerFactoryTest {
 
     @BeforeEach
     public void setUp() {
-        stateControllerFactory = new StateControllerFactory(injector);
-        when(injector.getInstance(AssertionRestrictionsFactory.class)).thenReturn(null);
-        when(injector.getInstance(AttributeQueryService.class)).thenReturn(null);
-        when(injector.getInstance(HubEventLogger.class)).thenReturn(null);
-        when(injector.getInstance(IdentityProvidersConfigProxy.class)).thenReturn(null);
-        when(injector.getInstance(MatchingServiceConfigProxy.class)).thenReturn(null);
-        when(injector.getInstance(PolicyConfiguration.class)).thenReturn(null);
-        when(injector.getInstance(ResponseFromHubFactory.class)).thenReturn(null);
-        when(injector.getInstance(TransactionsConfigProxy.class)).thenReturn(null);
+        stateControllerFactory = new StateControllerFactory(
+                hubEventLogger,
+                responseFromHubFactory,
+                identityProvidersConfigProxy,
+                transactionsConfigProxy,
+                matchingServiceConfigProxy,
+                policyConfiguration,
+                assertionRestrictionsFactory,
+                attributeQueryService);
     }
 
     @Test
@@ -0,0 +1,57 @@
+package uk.gov.ida.hub.policy.domain.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.ida.common.ErrorStatusDto;
+import uk.gov.ida.common.ExceptionType;
+import uk.gov.ida.hub.policy.Urls;
+import uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.logging.HubEventLogger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.Response;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionStateConflictExceptionMapperTest {
+
+    private static final SessionId SESSION_ID = SessionIdBuilder.aSessionId().build();
+
+    @Mock
+    private HubEventLogger hubEventLogger;
+
+    @Mock
+    private HttpServletRequest servletRequest;
+
+    private SessionStateConflictExceptionMapper mapper;
+
+    @BeforeEach
+    public void setUp() {
+        when(servletRequest.getParameter(Urls.SharedUrls.SESSION_ID_PARAM)).thenReturn(SESSION_ID.getSessionId());
+        mapper = new SessionStateConflictExceptionMapper(hubEventLogger);
+        mapper.setHttpServletRequest(servletRequest);
+    }
+
+    @Test
+    public void toResponse_shouldReturnConflictAndLogToAudit() {
+        SessionStateConflictException exception = new SessionStateConflictException(SESSION_ID, 2L);
+
+        final Response response = mapper.toResponse(exception);
+
+        verify(hubEventLogger).logErrorEvent(any(UUID.class), eq(SESSION_ID), eq(exception.getMessage()));
+        assertThat(response.getStatus()).isEqualTo(Response.Status.CONFLICT.getStatusCode());
+        final ErrorStatusDto errorStatusDto = (ErrorStatusDto) response.getEntity();
+        assertThat(errorStatusDto.isAudited()).isEqualTo(true);
+        assertThat(errorStatusDto.getExceptionType()).isEqualTo(ExceptionType.INVALID_STATE);
+    }
+}
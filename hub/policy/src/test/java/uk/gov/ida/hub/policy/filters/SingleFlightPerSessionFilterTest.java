@@ -0,0 +1,201 @@
+package uk.gov.ida.hub.policy.filters;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.ida.common.CommonUrls.SESSION_ID_PARAM;
+
+public class SingleFlightPerSessionFilterTest {
+
+    private static final Instant NOW = Instant.parse("2020-01-01T12:00:00Z");
+
+    private final MovableClock clock = new MovableClock();
+    private final SingleFlightPerSessionFilter filter = new SingleFlightPerSessionFilter(clock);
+
+    @Test
+    public void shouldRefuseADifferentRequestForTheSameSessionWhileTheFirstIsInProgress() throws IOException {
+        filter.filter(aRequestFor("session-id", "idp-a"));
+
+        Assertions.assertThrows(SessionStateConflictException.class, () -> filter.filter(aRequestFor("session-id", "idp-b")));
+    }
+
+    @Test
+    public void shouldGiveAnIdenticalRequestTheResponseOfTheFirst() throws Exception {
+        ContainerRequestContext first = aRequestFor("session-id", "idp-a");
+        filter.filter(first);
+        ContainerRequestContext duplicate = aRequestFor("session-id", "idp-a");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicReference<Thread> duplicateThread = new AtomicReference<>();
+
+        try {
+            Future<?> waiting = executor.submit(() -> {
+                duplicateThread.set(Thread.currentThread());
+                filter.filter(duplicate);
+                return null;
+            });
+            awaitWaiting(duplicateThread);
+            filter.filter(first, aResponse(Response.Status.OK, "idp-a selected"));
+            waiting.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(duplicate).abortWith(response.capture());
+        assertThat(response.getValue().getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(response.getValue().getEntity()).isEqualTo("idp-a selected");
+        assertThat(response.getValue().getHeaderString("X-Test")).isEqualTo("first");
+    }
+
+    @Test
+    public void shouldPutTheBodyBackForTheResourceToRead() throws IOException {
+        ContainerRequestContext request = aRequestFor("session-id", "idp-a");
+
+        filter.filter(request);
+
+        assertThat(request.getEntityStream().readAllBytes()).isEqualTo("idp-a".getBytes(UTF_8));
+    }
+
+    @Test
+    public void shouldLetRequestsForOtherSessionsThrough() throws IOException {
+        filter.filter(aRequestFor("session-id", "idp-a"));
+
+        filter.filter(aRequestFor("another-session-id", "idp-a"));
+    }
+
+    @Test
+    public void shouldLetTheNextRequestThroughOnceTheFirstHasItsResponse() throws IOException {
+        ContainerRequestContext first = aRequestFor("session-id", "idp-a");
+        filter.filter(first);
+        filter.filter(first, aResponse(Response.Status.OK, "idp-a selected"));
+
+        ContainerRequestContext next = aRequestFor("session-id", "idp-a");
+        filter.filter(next);
+
+        verify(next, never()).abortWith(any());
+    }
+
+    @Test
+    public void aRefusedRequestShouldNotReleaseTheSessionForOthers() throws IOException {
+        filter.filter(aRequestFor("session-id", "idp-a"));
+        ContainerRequestContext refused = aRequestFor("session-id", "idp-b");
+        Assertions.assertThrows(SessionStateConflictException.class, () -> filter.filter(refused));
+        filter.filter(refused, aResponse(Response.Status.CONFLICT, "conflict"));
+
+        Assertions.assertThrows(SessionStateConflictException.class, () -> filter.filter(aRequestFor("session-id", "idp-c")));
+    }
+
+    @Test
+    public void shouldLetARequestThroughOnceTheSessionHasBeenHeldForTooLong() throws IOException {
+        filter.filter(aRequestFor("session-id", "idp-a"));
+        clock.instant = NOW.plus(SingleFlightPerSessionFilter.MAXIMUM_HOLD);
+
+        filter.filter(aRequestFor("session-id", "idp-a"));
+        Assertions.assertThrows(SessionStateConflictException.class, () -> filter.filter(aRequestFor("session-id", "idp-b")));
+    }
+
+    @Test
+    public void aRequestWhoseHoldWasTakenOverShouldNotReleaseTheSessionWhenItFinishes() throws IOException {
+        ContainerRequestContext stale = aRequestFor("session-id", "idp-a");
+        filter.filter(stale);
+        clock.instant = NOW.plus(SingleFlightPerSessionFilter.MAXIMUM_HOLD);
+        filter.filter(aRequestFor("session-id", "idp-a"));
+        filter.filter(stale, aResponse(Response.Status.OK, "idp-a selected"));
+
+        Assertions.assertThrows(SessionStateConflictException.class, () -> filter.filter(aRequestFor("session-id", "idp-b")));
+    }
+
+    private static void awaitWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("The duplicate request never waited for the first");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static ContainerRequestContext aRequestFor(String sessionId, String body) {
+        MultivaluedHashMap<String, String> pathParameters = new MultivaluedHashMap<>();
+        pathParameters.putSingle(SESSION_ID_PARAM, sessionId);
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getPathParameters()).thenReturn(pathParameters);
+        when(uriInfo.getPath()).thenReturn("policy/received-authn-request/" + sessionId + "/select-identity-provider");
+
+        Map<String, Object> properties = new HashMap<>();
+        AtomicReference<InputStream> entityStream = new AtomicReference<>(new ByteArrayInputStream(body.getBytes(UTF_8)));
+        ContainerRequestContext requestContext = mock(ContainerRequestContext.class);
+        when(requestContext.getUriInfo()).thenReturn(uriInfo);
+        when(requestContext.getMethod()).thenReturn("POST");
+        when(requestContext.hasEntity()).thenReturn(true);
+        when(requestContext.getEntityStream()).thenAnswer(invocation -> entityStream.get());
+        doAnswer(invocation -> {
+            entityStream.set(invocation.getArgument(0));
+            return null;
+        }).when(requestContext).setEntityStream(any());
+        doAnswer(invocation -> properties.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(requestContext).setProperty(anyString(), any());
+        when(requestContext.getProperty(anyString())).thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+        return requestContext;
+    }
+
+    private static ContainerResponseContext aResponse(Response.Status status, Object entity) {
+        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle("X-Test", "first");
+        ContainerResponseContext responseContext = mock(ContainerResponseContext.class);
+        when(responseContext.getStatusInfo()).thenReturn(status);
+        when(responseContext.getHeaders()).thenReturn(headers);
+        when(responseContext.getEntity()).thenReturn(entity);
+        return responseContext;
+    }
+
+    private static class MovableClock extends Clock {
+        private Instant instant = NOW;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
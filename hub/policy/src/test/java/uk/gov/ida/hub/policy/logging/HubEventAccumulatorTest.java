@@ -0,0 +1,136 @@
+package uk.gov.ida.hub.policy.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.ida.common.ServiceInfoConfiguration;
+import uk.gov.ida.common.ServiceInfoConfigurationBuilder;
+import uk.gov.ida.eventemitter.EventDetailsKey;
+import uk.gov.ida.eventemitter.EventEmitter;
+import uk.gov.ida.hub.policy.domain.EventSinkHubEvent;
+import uk.gov.ida.hub.shared.eventsink.EventSinkProxy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
+import static uk.gov.ida.hub.shared.eventsink.EventSinkHubEventConstants.EventTypes.SESSION_EVENT;
+
+@ExtendWith(MockitoExtension.class)
+public class HubEventAccumulatorTest {
+
+    private static final ServiceInfoConfiguration SERVICE_INFO = ServiceInfoConfigurationBuilder.aServiceInfo().withName("policy").build();
+
+    @Mock
+    private EventSinkProxy eventSinkProxy;
+
+    @Mock
+    private EventEmitter eventEmitter;
+
+    private HubEventAccumulator accumulator;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        accumulator = new HubEventAccumulator(eventSinkProxy, eventEmitter);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldSendEventsStraightAwayWhenNoBatchIsOpen() {
+        EventSinkHubEvent event = anEvent();
+
+        accumulator.record(event);
+
+        verify(eventSinkProxy).logHubEvent(event);
+        verify(eventEmitter).record(event);
+    }
+
+    @Test
+    public void shouldHoldBackEventsUntilTheBatchIsFlushed() {
+        EventSinkHubEvent first = anEvent();
+        EventSinkHubEvent second = anEvent();
+
+        HubEventAccumulator.Batch batch = accumulator.open();
+        accumulator.record(first);
+        accumulator.record(second);
+        verifyNoInteractions(eventSinkProxy, eventEmitter);
+
+        accumulator.flush(batch);
+        verify(eventSinkProxy).logHubEvents(List.of(first, second));
+        verify(eventEmitter).record(first);
+        verify(eventEmitter).record(second);
+    }
+
+    @Test
+    public void shouldSendEventsStraightAwayOnceTheBatchIsFlushed() {
+        HubEventAccumulator.Batch batch = accumulator.open();
+        accumulator.flush(batch);
+
+        EventSinkHubEvent late = anEvent();
+        accumulator.record(late);
+
+        verify(eventSinkProxy).logHubEvent(late);
+    }
+
+    @Test
+    public void shouldAddEventsLoggedOnAPropagatingExecutorToTheOpenBatch() throws Exception {
+        EventSinkHubEvent event = anEvent();
+
+        HubEventAccumulator.Batch batch = accumulator.open();
+        accumulator.propagating(executor).execute(() -> accumulator.record(event));
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        verifyNoInteractions(eventSinkProxy, eventEmitter);
+
+        accumulator.flush(batch);
+        verify(eventSinkProxy).logHubEvents(List.of(event));
+    }
+
+    @Test
+    public void shouldAddEventsToTheBatchOpenWhenTheStageWasChainedWhateverThreadSchedulesIt() throws Exception {
+        EventSinkHubEvent event = anEvent();
+        CompletableFuture<Void> sessionLoaded = new CompletableFuture<>();
+
+        HubEventAccumulator.Batch batch = accumulator.open();
+        CompletableFuture<Void> handled = sessionLoaded.thenRunAsync(() -> accumulator.record(event), accumulator.propagating(executor));
+        accumulator.detach();
+        Thread ioThread = new Thread(() -> sessionLoaded.complete(null));
+        ioThread.start();
+        ioThread.join();
+        handled.get(5, TimeUnit.SECONDS);
+        verifyNoInteractions(eventSinkProxy, eventEmitter);
+
+        accumulator.flush(batch);
+        verify(eventSinkProxy).logHubEvents(List.of(event));
+    }
+
+    @Test
+    public void shouldSendEventsStraightAwayOnceTheBatchIsDetachedFromThisThread() {
+        EventSinkHubEvent event = anEvent();
+
+        accumulator.open();
+        accumulator.detach();
+        accumulator.record(event);
+
+        verify(eventSinkProxy).logHubEvent(event);
+    }
+
+    private static EventSinkHubEvent anEvent() {
+        return new EventSinkHubEvent(SERVICE_INFO, aSessionId().build(), SESSION_EVENT, Map.of(EventDetailsKey.session_event_type, "state"));
+    }
+}
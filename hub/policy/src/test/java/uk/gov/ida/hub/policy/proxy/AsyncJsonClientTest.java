@@ -0,0 +1,133 @@
+package uk.gov.ida.hub.policy.proxy;
+
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.ida.common.ExceptionType;
+import uk.gov.ida.eventemitter.Event;
+import uk.gov.ida.eventemitter.EventEmitter;
+import uk.gov.ida.exceptions.ApplicationException;
+import uk.gov.ida.hub.policy.logging.HubEventAccumulator;
+import uk.gov.ida.hub.shared.eventsink.EventSinkProxy;
+import uk.gov.ida.jerseyclient.JsonClient;
+
+import javax.ws.rs.WebApplicationException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncJsonClientTest {
+
+    private static final URI FIRST_URI = URI.create("http://config/first");
+    private static final URI SECOND_URI = URI.create("http://config/second");
+    private static final long LATENCY_MILLIS = 300;
+
+    @Mock
+    private JsonClient jsonClient;
+
+    @Mock
+    private EventSinkProxy eventSinkProxy;
+
+    @Mock
+    private EventEmitter eventEmitter;
+
+    @Mock
+    private Event event;
+
+    private ExecutorService executor;
+    private AsyncJsonClient asyncJsonClient;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        asyncJsonClient = new AsyncJsonClient(jsonClient, executor, Duration.seconds(2));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldMakeTheCallsAtTheSameTime() {
+        CountDownLatch bothInFlight = new CountDownLatch(2);
+        when(jsonClient.get(FIRST_URI, String.class)).thenAnswer(invocation -> onceBothAreInFlight(bothInFlight, "first"));
+        when(jsonClient.get(SECOND_URI, String.class)).thenAnswer(invocation -> onceBothAreInFlight(bothInFlight, "second"));
+
+        CompletableFuture<String> first = asyncJsonClient.get(FIRST_URI, String.class);
+        CompletableFuture<String> second = asyncJsonClient.get(SECOND_URI, String.class);
+
+        assertThat(AsyncJsonClient.await(first)).isEqualTo("first");
+        assertThat(AsyncJsonClient.await(second)).isEqualTo("second");
+    }
+
+    @Test
+    public void awaitShouldThrowWhatTheCallThrew() {
+        when(jsonClient.get(FIRST_URI, String.class)).thenThrow(new WebApplicationException());
+
+        CompletableFuture<String> call = asyncJsonClient.get(FIRST_URI, String.class);
+
+        Assertions.assertThrows(WebApplicationException.class, () -> AsyncJsonClient.await(call));
+    }
+
+    @Test
+    public void awaitShouldThrowANetworkErrorWhenTheCallMissesItsDeadline() {
+        asyncJsonClient = new AsyncJsonClient(jsonClient, executor, Duration.milliseconds(50));
+
+        CompletableFuture<String> call = asyncJsonClient.supply(() -> slowly("too late"));
+
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class, () -> AsyncJsonClient.await(call));
+        assertThat(exception.getExceptionType()).isEqualTo(ExceptionType.NETWORK_ERROR);
+    }
+
+    @Test
+    public void shouldAddTheEventsOfACallToTheCallingRequestsBatch() {
+        HubEventAccumulator hubEventAccumulator = new HubEventAccumulator(eventSinkProxy, eventEmitter);
+        asyncJsonClient = new AsyncJsonClient(jsonClient, executor, Duration.seconds(2), hubEventAccumulator);
+        HubEventAccumulator.Batch batch = hubEventAccumulator.open();
+
+        AsyncJsonClient.await(asyncJsonClient.supply(() -> {
+            hubEventAccumulator.record(event);
+            return "logged";
+        }));
+
+        verifyNoInteractions(eventSinkProxy);
+        hubEventAccumulator.flush(batch);
+        verify(eventSinkProxy).logHubEvents(List.of(event));
+    }
+
+    /**
+     * Returns only once the other call has also started, so calls made one after the other miss their deadline.
+     */
+    private static String onceBothAreInFlight(CountDownLatch bothInFlight, String value) throws InterruptedException {
+        bothInFlight.countDown();
+        if (!bothInFlight.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The other call was not made at the same time");
+        }
+        return value;
+    }
+
+    private static String slowly(String value) {
+        try {
+            Thread.sleep(LATENCY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
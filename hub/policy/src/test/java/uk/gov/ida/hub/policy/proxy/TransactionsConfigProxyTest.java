@@ -6,15 +6,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.ida.hub.policy.Urls;
+import uk.gov.ida.hub.policy.contracts.TransactionPolicyConfigDto;
+import uk.gov.ida.hub.policy.domain.LevelOfAssurance;
+import uk.gov.ida.hub.policy.domain.ResourceLocation;
 import uk.gov.ida.jerseyclient.JsonClient;
 import uk.gov.ida.shared.utils.string.StringEncoding;
 
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +33,8 @@ public class TransactionsConfigProxyTest {
     private TransactionsConfigProxy configProxy;
     @Mock
     private JsonClient client;
+    @Mock
+    private PolicyConfigSnapshot snapshot;
 
     @Test
     public void whenUrlForIsUsingMatchingIsValidReturnTrue() {
@@ -81,4 +91,64 @@ public class TransactionsConfigProxyTest {
             configProxy.isUsingMatching(ENTITY_ID);
         });
     }
+
+    @Test
+    public void shouldAnswerFromTheConfigSnapshotWithoutCallingConfig() {
+        configProxy = new TransactionsConfigProxy(client, CONFIG_BASE_URI, snapshot);
+        URI defaultUri = URI.create("http://rp/default");
+        URI indexedUri = URI.create("http://rp/indexed");
+        when(snapshot.getTransaction(ENTITY_ID)).thenReturn(Optional.of(new TransactionPolicyConfigDto(
+                defaultUri,
+                Map.of(1, indexedUri),
+                "NationalInsuranceNumber",
+                true,
+                List.of(LevelOfAssurance.LEVEL_2),
+                "matching-service-entity-id",
+                List.of(),
+                List.of(),
+                Map.of(),
+                Map.of())));
+
+        assertThat(configProxy.isUsingMatching(ENTITY_ID)).isTrue();
+        assertThat(configProxy.getMatchingServiceEntityId(ENTITY_ID)).isEqualTo("matching-service-entity-id");
+        assertThat(configProxy.getMatchingProcess(ENTITY_ID).getAttributeName()).contains("NationalInsuranceNumber");
+        assertThat(configProxy.getAssertionConsumerServiceUri(ENTITY_ID, Optional.empty()).getTarget()).isEqualTo(defaultUri);
+        assertThat(configProxy.getAssertionConsumerServiceUri(ENTITY_ID, Optional.of(1)).getTarget()).isEqualTo(indexedUri);
+        verifyNoInteractions(client);
+    }
+
+    @Test
+    public void shouldAskConfigForAnAssertionConsumerServiceIndexMissingFromTheConfigSnapshot() {
+        configProxy = new TransactionsConfigProxy(client, CONFIG_BASE_URI, snapshot);
+        when(snapshot.getTransaction(ENTITY_ID)).thenReturn(Optional.of(new TransactionPolicyConfigDto(
+                URI.create("http://rp/default"),
+                Map.of(1, URI.create("http://rp/indexed")),
+                "NationalInsuranceNumber",
+                true,
+                List.of(LevelOfAssurance.LEVEL_2),
+                "matching-service-entity-id",
+                List.of(),
+                List.of(),
+                Map.of(),
+                Map.of())));
+        URI assertionConsumerServiceUri = UriBuilder
+                .fromUri(CONFIG_BASE_URI)
+                .path(Urls.ConfigUrls.TRANSACTIONS_ASSERTION_CONSUMER_SERVICE_URI_RESOURCE)
+                .queryParam(Urls.ConfigUrls.ASSERTION_CONSUMER_SERVICE_INDEX_PARAM, "2")
+                .buildFromEncoded(StringEncoding.urlEncode(ENTITY_ID).replace("+", "%20"));
+        when(client.get(any(URI.class), eq(ResourceLocation.class))).thenThrow(new RuntimeException("invalid index"));
+
+        Assertions.assertThrows(RuntimeException.class, () -> configProxy.getAssertionConsumerServiceUri(ENTITY_ID, Optional.of(2)));
+
+        verify(client).get(assertionConsumerServiceUri, ResourceLocation.class);
+    }
+
+    @Test
+    public void shouldAskConfigForATransactionMissingFromTheConfigSnapshot() {
+        configProxy = new TransactionsConfigProxy(client, CONFIG_BASE_URI, snapshot);
+        when(snapshot.getTransaction(ENTITY_ID)).thenReturn(Optional.empty());
+        when(client.get(any(), eq(boolean.class))).thenReturn(true);
+
+        assertThat(configProxy.isUsingMatching(ENTITY_ID)).isTrue();
+    }
 }
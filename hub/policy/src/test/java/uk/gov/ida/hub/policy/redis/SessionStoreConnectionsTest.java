@@ -0,0 +1,37 @@
+package uk.gov.ida.hub.policy.redis;
+
+import io.lettuce.core.RedisURI;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SessionStoreConnectionsTest {
+
+    @Test
+    public void shouldNameShardsByAddress() {
+        List<String> shardNames = SessionStoreConnections.shardNames(List.of(
+                RedisURI.create("redis://redis-1:6379"),
+                RedisURI.create("redis://redis-2:6380")));
+
+        assertThat(shardNames).containsExactly("redis-1:6379", "redis-2:6380");
+    }
+
+    @Test
+    public void shouldNameSentinelShardsByTheirMaster() {
+        List<String> shardNames = SessionStoreConnections.shardNames(List.of(
+                RedisURI.create("redis-sentinel://sentinel-1:26379,sentinel-2:26379#sessions-1"),
+                RedisURI.create("redis-sentinel://sentinel-1:26379,sentinel-2:26379#sessions-2")));
+
+        assertThat(shardNames).containsExactly("sentinel:sessions-1", "sentinel:sessions-2");
+    }
+
+    @Test
+    public void shouldRefuseTwoUrisForTheSameShard() {
+        assertThrows(IllegalArgumentException.class, () -> SessionStoreConnections.shardNames(List.of(
+                RedisURI.create("redis-sentinel://sentinel-1:26379#sessions"),
+                RedisURI.create("redis-sentinel://sentinel-2:26379#sessions"))));
+    }
+}
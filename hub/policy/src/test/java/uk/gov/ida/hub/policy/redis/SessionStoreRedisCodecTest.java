@@ -0,0 +1,128 @@
+package uk.gov.ida.hub.policy.redis;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import uk.gov.ida.hub.policy.PolicyModule;
+import uk.gov.ida.hub.policy.domain.PolicyState;
+import uk.gov.ida.hub.policy.domain.State;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.ida.hub.policy.builder.state.AuthnFailedErrorStateBuilder.anAuthnFailedErrorState;
+import static uk.gov.ida.hub.policy.builder.state.AwaitingCycle3DataStateBuilder.anAwaitingCycle3DataState;
+import static uk.gov.ida.hub.policy.builder.state.Cycle0And1MatchRequestSentStateBuilder.aCycle0And1MatchRequestSentState;
+import static uk.gov.ida.hub.policy.builder.state.Cycle3DataInputCancelledStateBuilder.aCycle3DataInputCancelledState;
+import static uk.gov.ida.hub.policy.builder.state.Cycle3MatchRequestSentStateBuilder.aCycle3MatchRequestSentState;
+import static uk.gov.ida.hub.policy.builder.state.FraudEventDetectedStateBuilder.aFraudEventDetectedState;
+import static uk.gov.ida.hub.policy.builder.state.IdpSelectedStateBuilder.anIdpSelectedState;
+import static uk.gov.ida.hub.policy.builder.state.MatchingServiceRequestErrorStateBuilder.aMatchingServiceRequestErrorState;
+import static uk.gov.ida.hub.policy.builder.state.NoMatchStateBuilder.aNoMatchState;
+import static uk.gov.ida.hub.policy.builder.state.NonMatchingJourneySuccessStateBuilder.aNonMatchingJourneySuccessStateBuilder;
+import static uk.gov.ida.hub.policy.builder.state.PausedRegistrationStateBuilder.aPausedRegistrationState;
+import static uk.gov.ida.hub.policy.builder.state.RequesterErrorStateBuilder.aRequesterErrorState;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+import static uk.gov.ida.hub.policy.builder.state.SuccessfulMatchStateBuilder.aSuccessfulMatchState;
+import static uk.gov.ida.hub.policy.builder.state.TimeoutStateBuilder.aTimeoutState;
+import static uk.gov.ida.hub.policy.builder.state.UserAccountCreatedStateBuilder.aUserAccountCreatedState;
+import static uk.gov.ida.hub.policy.builder.state.UserAccountCreationFailedStateBuilder.aUserAccountCreationFailedState;
+import static uk.gov.ida.hub.policy.builder.state.UserAccountCreationRequestSentStateBuilder.aUserAccountCreationRequestSentState;
+
+public class SessionStoreRedisCodecTest {
+
+    private static final JsonStateSerializer JSON = new JsonStateSerializer(PolicyModule.getRedisObjectMapper());
+    private static final SmileStateSerializer SMILE = new SmileStateSerializer();
+    private static final List<StateSerializer> ALL_FORMATS = asList(JSON, SMILE);
+
+    private final SessionStoreRedisCodec legacyCodec = new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper());
+    private final SessionStoreRedisCodec jsonCodec = new SessionStoreRedisCodec(JSON, ALL_FORMATS, Integer.MAX_VALUE);
+    private final SessionStoreRedisCodec smileCodec = new SessionStoreRedisCodec(SMILE, ALL_FORMATS, Integer.MAX_VALUE);
+    private final SessionStoreRedisCodec compressingSmileCodec = new SessionStoreRedisCodec(SMILE, ALL_FORMATS, 0);
+
+    @Test
+    public void everyPolicyStateShouldHaveAStateToRoundTrip() {
+        List<Class<?>> stateClasses = allStates().stream().map(Object::getClass).collect(toList());
+
+        for (PolicyState policyState : PolicyState.values()) {
+            assertThat(stateClasses).contains(policyState.getStateClass());
+        }
+    }
+
+    @Test
+    public void shouldRoundTripEveryStateInEveryFormat() {
+        for (SessionStoreRedisCodec codec : asList(legacyCodec, jsonCodec, smileCodec, compressingSmileCodec)) {
+            for (State state : allStates()) {
+                State decoded = codec.decodeValue(codec.encodeValue(state));
+
+                assertThat(decoded).isInstanceOf(state.getClass());
+                assertSameState(decoded, state);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadValuesWrittenInAnyFormatDuringARollingDeploy() {
+        for (State state : allStates()) {
+            assertSameState(smileCodec.decodeValue(legacyCodec.encodeValue(state)), state);
+            assertSameState(jsonCodec.decodeValue(compressingSmileCodec.encodeValue(state)), state);
+        }
+    }
+
+    @Test
+    public void jsonShouldBeWrittenWithoutAHeaderSoOlderReleasesCanReadIt() {
+        State state = anAwaitingCycle3DataState().build();
+
+        assertThat(jsonCodec.encodeValue(state)).isEqualTo(legacyCodec.encodeValue(state));
+    }
+
+    @Test
+    public void smileShouldBeSmallerThanJson() {
+        for (State state : allStates()) {
+            int jsonSize = jsonCodec.encodeValue(state).remaining();
+            int smileSize = smileCodec.encodeValue(state).remaining();
+
+            assertThat(smileSize).isLessThan(jsonSize);
+        }
+    }
+
+    @Test
+    public void shouldFailToDecodeAnUnknownFormat() {
+        ByteBuffer value = ByteBuffer.wrap(new byte[]{1, 42, 0, 0});
+
+        assertThrows(RedisSerializationException.class, () -> smileCodec.decodeValue(value));
+    }
+
+    private static void assertSameState(State actual, State expected) {
+        // Timestamps are stored as epoch millis, so come back in UTC whatever zone they were built in
+        assertThat(actual).usingRecursiveComparison()
+                .withComparatorForType(Comparator.comparing(DateTime::getMillis), DateTime.class)
+                .isEqualTo(expected);
+    }
+
+    private static List<State> allStates() {
+        return asList(
+                anAuthnFailedErrorState().build(),
+                anAwaitingCycle3DataState().build(),
+                aCycle0And1MatchRequestSentState().build(),
+                aCycle3DataInputCancelledState().build(),
+                aCycle3MatchRequestSentState().build(),
+                aFraudEventDetectedState().build(),
+                anIdpSelectedState().build(),
+                aMatchingServiceRequestErrorState().build(),
+                aNoMatchState().build(),
+                aNonMatchingJourneySuccessStateBuilder().build(),
+                aPausedRegistrationState().build(),
+                aRequesterErrorState().build(),
+                aSessionStartedState().build(),
+                aSuccessfulMatchState().build(),
+                aTimeoutState().build(),
+                aUserAccountCreatedState().build(),
+                aUserAccountCreationFailedState().build(),
+                aUserAccountCreationRequestSentState().build());
+    }
+}
@@ -9,6 +9,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.ida.exceptions.ApplicationException;
 import uk.gov.ida.hub.policy.builder.AttributeQueryRequestBuilder;
 import uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder;
+import uk.gov.ida.hub.policy.configuration.PolicyConfiguration;
 import uk.gov.ida.hub.policy.contracts.AttributeQueryContainerDto;
 import uk.gov.ida.hub.policy.contracts.AttributeQueryRequestDto;
 import uk.gov.ida.hub.policy.domain.SessionId;
@@ -21,6 +22,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.ida.common.ExceptionType.INVALID_SAML;
 import static uk.gov.ida.hub.policy.builder.AttributeQueryContainerDtoBuilder.anAttributeQueryContainerDto;
@@ -33,13 +35,16 @@ public class AttributeQueryServiceTest {
     @Mock
     private SamlSoapProxyProxy samlSoapProxyProxy;
 
+    @Mock
+    private PolicyConfiguration policyConfiguration;
+
     private AttributeQueryService service;
     private SessionId sessionId;
 
     @BeforeEach
     public void setup() {
         sessionId = SessionIdBuilder.aSessionId().build();
-        service = new AttributeQueryService(samlEngineProxy, samlSoapProxyProxy);
+        service = new AttributeQueryService(samlEngineProxy, samlSoapProxyProxy, policyConfiguration);
     }
 
     @Test
@@ -74,4 +79,18 @@ public class AttributeQueryServiceTest {
 
         });
     }
+
+    @Test
+    public void shouldLeaveGeneratingTheAttributeQueryToSamlSoapProxyWhenConfiguredTo() {
+        // Given
+        AttributeQueryRequestDto attributeQueryRequestDto = AttributeQueryRequestBuilder.anAttributeQueryRequest().build();
+        when(policyConfiguration.shouldGenerateAttributeQueriesInSamlSoapProxy()).thenReturn(true);
+
+        // When
+        service.sendAttributeQueryRequest(sessionId, attributeQueryRequestDto);
+
+        // Then
+        verify(samlSoapProxyProxy).generateAndSendHubMatchingServiceRequest(sessionId, attributeQueryRequestDto);
+        verifyNoInteractions(samlEngineProxy);
+    }
 }
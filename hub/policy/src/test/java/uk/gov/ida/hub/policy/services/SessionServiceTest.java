@@ -1,5 +1,6 @@
 package uk.gov.ida.hub.policy.services;
 
+import io.dropwizard.util.Duration;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,15 +29,20 @@ import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.hub.policy.domain.SessionRepository;
 import uk.gov.ida.hub.policy.domain.exception.SessionCreationFailureException;
 import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.proxy.AsyncJsonClient;
 import uk.gov.ida.hub.policy.proxy.SamlEngineProxy;
 import uk.gov.ida.hub.policy.proxy.TransactionsConfigProxy;
+import uk.gov.ida.jerseyclient.JsonClient;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -50,6 +56,8 @@ import static uk.gov.ida.hub.policy.proxy.SamlResponseWithAuthnRequestInformatio
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class SessionServiceTest {
 
+    private static final List<LevelOfAssurance> LEVELS_OF_ASSURANCE = asList(LevelOfAssurance.LEVEL_1, LevelOfAssurance.LEVEL_2);
+
     @Mock
     private AuthnRequestFromTransactionHandler authnRequestHandler;
     @Mock
@@ -58,6 +66,8 @@ public class SessionServiceTest {
     private TransactionsConfigProxy configProxy;
     @Mock
     private SessionRepository sessionRepository;
+    @Mock
+    private JsonClient jsonClient;
 
     private SessionService service;
 
@@ -65,7 +75,8 @@ public class SessionServiceTest {
 
     @BeforeEach
     public void setUp() {
-        service = new SessionService(samlEngineProxy, configProxy, authnRequestHandler, sessionRepository);
+        AsyncJsonClient asyncJsonClient = new AsyncJsonClient(jsonClient, Runnable::run, Duration.seconds(1));
+        service = new SessionService(samlEngineProxy, configProxy, authnRequestHandler, sessionRepository, asyncJsonClient);
     }
 
     @Test
@@ -182,10 +193,9 @@ public class SessionServiceTest {
     @Test
     public void shouldGetLevelOfAssurance() {
         SessionId sessionId = createNewSessionId();
-        when(sessionRepository.sessionExists(sessionId)).thenReturn(true);
         final Optional<LevelOfAssurance> loa = Optional.of(LevelOfAssurance.LEVEL_1);
-        when(sessionRepository.getLevelOfAssuranceFromIdp(sessionId)).thenReturn(loa);
-        assertThat(service.getLevelOfAssurance(sessionId)).isEqualTo(loa);
+        when(sessionRepository.getLevelOfAssuranceFromIdp(sessionId)).thenReturn(completedFuture(loa));
+        assertThat(service.getLevelOfAssurance(sessionId).toCompletableFuture().join()).isEqualTo(loa);
     }
 
     @Test
@@ -236,7 +246,8 @@ public class SessionServiceTest {
 
 
     private void givenSessionIsCreated(SamlResponseWithAuthnRequestInformationDto samlResponse, URI assertionConsumerServiceUri, SessionId sessionId) {
-        when(authnRequestHandler.handleRequestFromTransaction(samlResponse, requestDto.getRelayState(), requestDto.getPrincipalIPAddressAsSeenByHub(), assertionConsumerServiceUri))
+        when(configProxy.getLevelsOfAssurance(samlResponse.getIssuer())).thenReturn(LEVELS_OF_ASSURANCE);
+        when(authnRequestHandler.handleRequestFromTransaction(samlResponse, requestDto.getRelayState(), requestDto.getPrincipalIPAddressAsSeenByHub(), assertionConsumerServiceUri, LEVELS_OF_ASSURANCE))
                 .thenReturn(sessionId);
     }
 
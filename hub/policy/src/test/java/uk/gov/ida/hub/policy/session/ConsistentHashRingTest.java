@@ -0,0 +1,70 @@
+package uk.gov.ida.hub.policy.session;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.ida.hub.policy.domain.SessionId;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ConsistentHashRingTest {
+
+    private static final int SESSIONS = 30000;
+
+    private final List<SessionId> sessionIds = range(0, SESSIONS)
+            .mapToObj(i -> SessionId.createNewSessionId())
+            .collect(toList());
+
+    @Test
+    public void shouldSpreadSessionsEvenlyOverTheShards() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(shards("a", "b", "c"));
+
+        Map<String, Long> sessionsPerShard = sessionIds.stream().collect(groupingBy(ring::shardFor, counting()));
+
+        assertThat(sessionsPerShard).containsOnlyKeys("a", "b", "c");
+        sessionsPerShard.values().forEach(count -> assertThat(count).isBetween(SESSIONS / 4L, SESSIONS / 2L));
+    }
+
+    @Test
+    public void shouldOnlyMoveTheSessionsOfARemovedShard() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(shards("a", "b", "c"));
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(shards("a", "c"));
+
+        for (SessionId sessionId : sessionIds) {
+            String shard = before.shardFor(sessionId);
+            if (!shard.equals("b")) {
+                assertThat(after.shardFor(sessionId)).isEqualTo(shard);
+            }
+        }
+    }
+
+    @Test
+    public void shouldPlaceSessionsTheSameWayWhateverOrderTheShardsAreGivenIn() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(shards("a", "b", "c"));
+        ConsistentHashRing<String> reordered = new ConsistentHashRing<>(shards("c", "a", "b"));
+
+        for (SessionId sessionId : sessionIds) {
+            assertThat(reordered.shardFor(sessionId)).isEqualTo(ring.shardFor(sessionId));
+        }
+    }
+
+    @Test
+    public void shouldRequireAtLeastOneShard() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(new LinkedHashMap<String, String>()));
+    }
+
+    private static Map<String, String> shards(String... names) {
+        Map<String, String> shards = new LinkedHashMap<>();
+        for (String name : names) {
+            shards.put(name, name);
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,135 @@
+package uk.gov.ida.hub.policy.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.ida.hub.policy.domain.SessionId;
+import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
+import static uk.gov.ida.hub.policy.builder.state.SessionStartedStateBuilder.aSessionStartedState;
+import static uk.gov.ida.hub.policy.builder.state.TimeoutStateBuilder.aTimeoutState;
+
+@ExtendWith(MockitoExtension.class)
+public class NearCacheSessionStoreTest {
+
+    private static final Long RECORD_TTL = 60L;
+    private static final SessionId SESSION_ID = aSessionId().build();
+
+    @Mock
+    private SessionStore delegate;
+
+    private NearCacheSessionStore nearCache;
+
+    @BeforeEach
+    public void setUp() {
+        nearCache = new NearCacheSessionStore(delegate, RECORD_TTL, 10);
+        nearCache.resume();
+    }
+
+    @Test
+    public void getWithTtl_shouldOnlyLoadFromTheDelegateOnce() {
+        SessionRecord sessionRecord = new SessionRecord(aSessionStartedState().build(), 60000L, 1L);
+        when(delegate.getWithTtl(SESSION_ID)).thenReturn(Optional.of(sessionRecord));
+
+        nearCache.getWithTtl(SESSION_ID);
+        Optional<SessionRecord> cached = nearCache.getWithTtl(SESSION_ID);
+
+        assertThat(cached).contains(sessionRecord);
+        verify(delegate, times(1)).getWithTtl(SESSION_ID);
+    }
+
+    @Test
+    public void getWithTtl_shouldServeAnInsertedSessionWithoutLoadingIt() {
+        State state = aSessionStartedState().build();
+
+        nearCache.insert(SESSION_ID, state);
+
+        assertThat(nearCache.getWithTtl(SESSION_ID).get().getState()).isSameAs(state);
+        assertThat(nearCache.getWithTtl(SESSION_ID).get().getVersion()).isEqualTo(0L);
+        verify(delegate).insert(SESSION_ID, state);
+        verify(delegate, times(0)).getWithTtl(SESSION_ID);
+    }
+
+    @Test
+    public void replace_shouldCacheTheNewVersion() {
+        State replacement = aTimeoutState().build();
+        nearCache.insert(SESSION_ID, aSessionStartedState().build());
+        when(delegate.replace(SESSION_ID, replacement, 0L)).thenReturn(1L);
+
+        nearCache.replace(SESSION_ID, replacement, 0L);
+        nearCache.invalidate(SESSION_ID, 1L);
+
+        SessionRecord cached = nearCache.getWithTtl(SESSION_ID).get();
+        assertThat(cached.getState()).isSameAs(replacement);
+        assertThat(cached.getVersion()).isEqualTo(1L);
+        verify(delegate, times(0)).getWithTtl(SESSION_ID);
+    }
+
+    @Test
+    public void replace_shouldDropTheCachedSessionOnAConflict() {
+        State replacement = aTimeoutState().build();
+        nearCache.insert(SESSION_ID, aSessionStartedState().build());
+        when(delegate.replace(SESSION_ID, replacement, 0L)).thenThrow(new SessionStateConflictException(SESSION_ID, 0L));
+        when(delegate.getWithTtl(SESSION_ID)).thenReturn(Optional.empty());
+
+        assertThrows(SessionStateConflictException.class, () -> nearCache.replace(SESSION_ID, replacement, 0L));
+
+        assertThat(nearCache.getWithTtl(SESSION_ID)).isEmpty();
+    }
+
+    @Test
+    public void invalidate_shouldDropAnOlderCachedSession() {
+        nearCache.insert(SESSION_ID, aSessionStartedState().build());
+        when(delegate.getWithTtl(SESSION_ID)).thenReturn(Optional.empty());
+
+        nearCache.invalidate(SESSION_ID, 1L);
+
+        assertThat(nearCache.getWithTtl(SESSION_ID)).isEmpty();
+    }
+
+    @Test
+    public void getWithTtl_shouldNotCacheAVersionOlderThanOneAlreadyPublished() {
+        SessionRecord staleRecord = new SessionRecord(aSessionStartedState().build(), 60000L, 1L);
+        when(delegate.getWithTtl(SESSION_ID)).thenReturn(Optional.of(staleRecord));
+        nearCache.invalidate(SESSION_ID, 2L);
+
+        nearCache.getWithTtl(SESSION_ID);
+        nearCache.getWithTtl(SESSION_ID);
+
+        verify(delegate, times(2)).getWithTtl(SESSION_ID);
+    }
+
+    @Test
+    public void shouldPassEveryCallThroughWhileSuspended() {
+        State state = aSessionStartedState().build();
+        when(delegate.getWithTtl(SESSION_ID)).thenReturn(Optional.of(new SessionRecord(state, 60000L, 0L)));
+        nearCache.suspend();
+
+        nearCache.insert(SESSION_ID, state);
+        nearCache.getWithTtl(SESSION_ID);
+        nearCache.getWithTtl(SESSION_ID);
+
+        verify(delegate, times(2)).getWithTtl(SESSION_ID);
+    }
+
+    @Test
+    public void getWithTtl_shouldNotServeAnExpiredSession() {
+        SessionRecord expiring = new SessionRecord(aSessionStartedState().build(), 0L, 0L);
+        when(delegate.getWithTtl(SESSION_ID)).thenReturn(Optional.of(expiring), Optional.empty());
+
+        nearCache.getWithTtl(SESSION_ID);
+
+        assertThat(nearCache.getWithTtl(SESSION_ID)).isEmpty();
+    }
+}
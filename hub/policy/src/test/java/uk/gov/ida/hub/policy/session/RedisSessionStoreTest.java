@@ -1,22 +1,32 @@
 package uk.gov.ida.hub.policy.session;
 
 import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
 import org.joda.time.DateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.ida.hub.policy.PolicyModule;
 import uk.gov.ida.hub.policy.domain.SessionId;
 import uk.gov.ida.hub.policy.domain.State;
+import uk.gov.ida.hub.policy.domain.exception.SessionNotFoundException;
+import uk.gov.ida.hub.policy.domain.exception.SessionStateConflictException;
 import uk.gov.ida.hub.policy.domain.state.SessionStartedState;
+import uk.gov.ida.hub.policy.redis.SessionStoreRedisCodec;
 
 import java.net.URI;
 import java.util.UUID;
 
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static uk.gov.ida.hub.policy.builder.domain.SessionIdBuilder.aSessionId;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,7 +40,7 @@ public class RedisSessionStoreTest {
 
     @BeforeEach
     public void setUp() {
-        redisSessionStore = new RedisSessionStore(redis, EXPIRY_TIME);
+        redisSessionStore = new RedisSessionStore(redis, new SessionStoreRedisCodec(PolicyModule.getRedisObjectMapper()), EXPIRY_TIME);
     }
 
     @Test
@@ -43,12 +53,32 @@ public class RedisSessionStoreTest {
     }
 
     @Test
-    public void shouldReplaceSessionInRedis() {
+    public void shouldReplaceSessionInRedisAndReturnTheNewVersion() {
         SessionId sessionId = aSessionId().build();
         State state = getRandomState();
-        redisSessionStore.replace(sessionId, state);
+        when(redis.dispatch(eq(CommandType.EVALSHA), any(IntegerOutput.class), any(CommandArgs.class))).thenReturn(3L);
 
-        verify(redis).setex(eq(sessionId), anyLong(), eq(state));
+        long version = redisSessionStore.replace(sessionId, state, 2L);
+
+        assertThat(version).isEqualTo(3L);
+    }
+
+    @Test
+    public void shouldThrowConflictWhenReplacingASessionThatHasChangedVersion() {
+        SessionId sessionId = aSessionId().build();
+        State state = getRandomState();
+        when(redis.dispatch(eq(CommandType.EVALSHA), any(IntegerOutput.class), any(CommandArgs.class))).thenReturn(-2L);
+
+        assertThrows(SessionStateConflictException.class, () -> redisSessionStore.replace(sessionId, state, 2L));
+    }
+
+    @Test
+    public void shouldThrowSessionNotFoundWhenReplacingASessionThatHasExpired() {
+        SessionId sessionId = aSessionId().build();
+        State state = getRandomState();
+        when(redis.dispatch(eq(CommandType.EVALSHA), any(IntegerOutput.class), any(CommandArgs.class))).thenReturn(-1L);
+
+        assertThrows(SessionNotFoundException.class, () -> redisSessionStore.replace(sessionId, state, 2L));
     }
 
     @Test
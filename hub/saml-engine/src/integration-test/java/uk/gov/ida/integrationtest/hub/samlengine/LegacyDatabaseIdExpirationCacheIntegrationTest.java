@@ -0,0 +1,95 @@
+package uk.gov.ida.integrationtest.hub.samlengine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+import uk.gov.ida.hub.samlengine.redis.AssertionExpirationCacheRedisCodec;
+import uk.gov.ida.hub.samlengine.security.LegacyDatabaseIdExpirationCache;
+import uk.gov.ida.hub.samlengine.security.RedisIdExpirationCache;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LegacyDatabaseIdExpirationCacheIntegrationTest {
+
+    private static final int REDIS_PORT = 6388;
+    private static final long RECORD_TTL = 3600L;
+
+    private static RedisServer redisServer;
+    private static RedisClient redisClient;
+    private static RedisCommands<String, DateTime> redis;
+    private static RedisCommands<String, DateTime> legacy;
+
+    private LegacyDatabaseIdExpirationCache<String> cache;
+
+    @BeforeAll
+    public static void startRedis() {
+        redisServer = RedisServer.builder().setting("bind 127.0.0.1").port(REDIS_PORT).build();
+        redisServer.start();
+        redisClient = RedisClient.create();
+        AssertionExpirationCacheRedisCodec codec = new AssertionExpirationCacheRedisCodec(new ObjectMapper().registerModule(new JodaModule()));
+        redis = redisClient.connect(codec, RedisURI.builder().withHost("localhost").withPort(REDIS_PORT).withDatabase(0).withTimeout(Duration.ofSeconds(2)).build()).sync();
+        legacy = redisClient.connect(codec, RedisURI.builder().withHost("localhost").withPort(REDIS_PORT).withDatabase(1).withTimeout(Duration.ofSeconds(2)).build()).sync();
+    }
+
+    @AfterAll
+    public static void stopRedis() {
+        redisClient.shutdown();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushall();
+        cache = new LegacyDatabaseIdExpirationCache<>(new RedisIdExpirationCache<>(redis, RECORD_TTL), legacy, RECORD_TTL);
+    }
+
+    @Test
+    public void checkAndRecordAll_shouldReportIdsStillHeldInTheLegacyDatabaseWithoutRecordingThem() {
+        DateTime legacyExpiration = DateTime.now().plusMinutes(5);
+        legacy.setex("legacy-id", RECORD_TTL, legacyExpiration);
+        DateTime expiration = DateTime.now().plusMinutes(10);
+
+        Map<String, DateTime> unexpired = cache.checkAndRecordAll(Map.of("legacy-id", expiration, "new-id", expiration));
+
+        assertThat(unexpired).containsOnlyKeys("legacy-id");
+        assertThat(unexpired.get("legacy-id").getMillis()).isEqualTo(legacyExpiration.getMillis());
+        assertThat(redis.exists("legacy-id")).isZero();
+        assertThat(redis.get("new-id").getMillis()).isEqualTo(expiration.getMillis());
+    }
+
+    @Test
+    public void putIfAbsentOrExpired_shouldIgnoreAnExpiredIdInTheLegacyDatabase() {
+        legacy.setex("expired-id", RECORD_TTL, DateTime.now().minusMinutes(1));
+        DateTime expiration = DateTime.now().plusMinutes(5);
+
+        assertThat(cache.putIfAbsentOrExpired("expired-id", expiration)).isNull();
+        assertThat(cache.getExpiration("expired-id").getMillis()).isEqualTo(expiration.getMillis());
+    }
+
+    @Test
+    public void checkAndRecordAll_shouldStopReadingTheLegacyDatabaseOnceItsRecordsHaveGone() {
+        legacy.setex("legacy-id", RECORD_TTL, DateTime.now().plusMinutes(5));
+        LegacyDatabaseIdExpirationCache<String> cacheWithNoLegacyRecordsLeft = new LegacyDatabaseIdExpirationCache<>(new RedisIdExpirationCache<>(redis, RECORD_TTL), legacy, 0L);
+
+        assertThat(cacheWithNoLegacyRecordsLeft.checkAndRecordAll(Map.of("legacy-id", DateTime.now().plusMinutes(10)))).isEmpty();
+    }
+
+    @Test
+    public void contains_shouldFindAnIdHeldOnlyInTheLegacyDatabase() {
+        legacy.setex("legacy-id", RECORD_TTL, DateTime.now().plusMinutes(5));
+
+        assertThat(cache.contains("legacy-id")).isTrue();
+        assertThat(cache.contains("unknown-id")).isFalse();
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.ida.integrationtest.hub.samlengine;
+
+import com.google.common.base.Strings;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.StringCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+import uk.gov.ida.hub.samlengine.claimcheck.RedisAssertionClaimCheck;
+import uk.gov.ida.hub.samlengine.exceptions.UnableToGenerateSamlException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RedisAssertionClaimCheckIntegrationTest {
+
+    private static final int REDIS_PORT = 6385;
+    private static final long RECORD_TTL = 3600L;
+    private static final String ENCRYPTED_ASSERTION = Strings.repeat("ZW5jcnlwdGVkLWFzc2VydGlvbg==", 500);
+
+    private static RedisServer redisServer;
+    private static RedisClient redisClient;
+    private static RedisCommands<String, String> redis;
+
+    private RedisAssertionClaimCheck claimCheck;
+
+    @BeforeAll
+    public static void startRedis() {
+        redisServer = RedisServer.builder().setting("bind 127.0.0.1").port(REDIS_PORT).build();
+        redisServer.start();
+        redisClient = RedisClient.create();
+        redis = redisClient.connect(StringCodec.UTF8, new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2))).sync();
+    }
+
+    @AfterAll
+    public static void stopRedis() {
+        redisClient.shutdown();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushdb();
+        claimCheck = new RedisAssertionClaimCheck(redis, RECORD_TTL);
+    }
+
+    @Test
+    public void redeem_shouldReturnTheAssertionThatWasCheckedIn() {
+        String reference = claimCheck.checkIn(ENCRYPTED_ASSERTION);
+
+        assertThat(reference.length()).isLessThan(100);
+        assertThat(claimCheck.redeem(reference)).isEqualTo(ENCRYPTED_ASSERTION);
+    }
+
+    @Test
+    public void checkIn_shouldStoreTheSameAssertionOnceForAsLongAsASessionLasts() {
+        String reference = claimCheck.checkIn(ENCRYPTED_ASSERTION);
+
+        assertThat(claimCheck.checkIn(ENCRYPTED_ASSERTION)).isEqualTo(reference);
+        assertThat(redis.dbsize()).isEqualTo(1L);
+        assertThat(redis.ttl(redis.keys("*").get(0))).isBetween(1L, RECORD_TTL);
+    }
+
+    @Test
+    public void redeem_shouldPassThroughAnAssertionThatWasNotCheckedIn() {
+        assertThat(claimCheck.redeem(ENCRYPTED_ASSERTION)).isEqualTo(ENCRYPTED_ASSERTION);
+    }
+
+    @Test
+    public void redeem_shouldFailWhenTheAssertionHasExpired() {
+        String reference = claimCheck.checkIn(ENCRYPTED_ASSERTION);
+        redis.flushdb();
+
+        assertThrows(UnableToGenerateSamlException.class, () -> claimCheck.redeem(reference));
+    }
+}
@@ -0,0 +1,109 @@
+package uk.gov.ida.integrationtest.hub.samlengine;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.StringCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+import uk.gov.ida.hub.shared.redis.RedisConnectionManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RedisConnectionManagerIntegrationTest {
+
+    private static final int REDIS_PORT = 6387;
+    private static final RedisURI REDIS_URI = new RedisURI("localhost", REDIS_PORT, Duration.ofSeconds(2));
+
+    private static RedisServer redisServer;
+    private static RedisClient redisClient;
+    private static RedisCommands<String, String> redis;
+
+    private RedisConnectionManager redisConnectionManager;
+
+    @BeforeAll
+    public static void startRedis() {
+        redisServer = RedisServer.builder().setting("bind 127.0.0.1").port(REDIS_PORT).build();
+        redisServer.start();
+        redisClient = RedisClient.create();
+        redis = redisClient.connect(StringCodec.UTF8, REDIS_URI).sync();
+    }
+
+    @AfterAll
+    public static void stopRedis() {
+        redisClient.shutdown();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushdb();
+        redisConnectionManager = new RedisConnectionManager();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisConnectionManager.stop();
+    }
+
+    @Test
+    public void connect_shouldPrefixTheKeysItWritesAndReads() {
+        RedisCommands<String, String> store = redisConnectionManager.connect(REDIS_URI, "store:", StringCodec.UTF8);
+
+        store.set("some-id", "some-value");
+
+        assertThat(redis.get("store:some-id")).isEqualTo("some-value");
+        assertThat(redis.exists("some-id")).isZero();
+        assertThat(store.get("some-id")).isEqualTo("some-value");
+        assertThat(store.keys("*")).containsExactly("some-id");
+    }
+
+    @Test
+    public void connect_shouldKeepStoresSharingADatabaseApart() {
+        RedisCommands<String, String> assertionIds = redisConnectionManager.connect(REDIS_URI, "assertion-id:", StringCodec.UTF8);
+        RedisCommands<String, String> authnRequestIds = redisConnectionManager.connect(REDIS_URI, "authn-request-id:", StringCodec.UTF8);
+
+        assertionIds.set("same-id", "assertion");
+        authnRequestIds.set("same-id", "authn-request");
+
+        assertThat(assertionIds.get("same-id")).isEqualTo("assertion");
+        assertThat(authnRequestIds.get("same-id")).isEqualTo("authn-request");
+        assertThat(redis.keys("*")).containsExactlyInAnyOrder("assertion-id:same-id", "authn-request-id:same-id");
+    }
+
+    @Test
+    public void connect_shouldShareOneConnectionBetweenStoresOnTheSameRedis() {
+        RedisCommands<String, String> assertionIds = redisConnectionManager.connect(REDIS_URI, "assertion-id:", StringCodec.UTF8);
+        assertionIds.set("some-id", "assertion");
+        long clients = clientCount();
+
+        RedisCommands<String, String> authnRequestIds = redisConnectionManager.connect(REDIS_URI, "authn-request-id:", StringCodec.UTF8);
+        authnRequestIds.set("some-id", "authn-request");
+
+        assertThat(clientCount()).isEqualTo(clients);
+    }
+
+    @Test
+    public void connect_shouldLeaveKeysAloneWithAnEmptyPrefix() {
+        RedisCommands<String, String> store = redisConnectionManager.connect(REDIS_URI, "", StringCodec.UTF8);
+
+        store.set("some-id", "some-value");
+
+        assertThat(redis.get("some-id")).isEqualTo("some-value");
+    }
+
+    @Test
+    public void stop_shouldNotNeedAConnectionToHaveBeenMade() {
+        new RedisConnectionManager().stop();
+    }
+
+    private static long clientCount() {
+        return redis.clientList().lines().count();
+    }
+}
@@ -0,0 +1,153 @@
+package uk.gov.ida.integrationtest.hub.samlengine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import io.dropwizard.util.Duration;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+import uk.gov.ida.hub.samlengine.redis.AuthnRequestExpirationCacheRedisCodec;
+import uk.gov.ida.hub.samlengine.security.RedisIdExpirationCache;
+import uk.gov.ida.saml.hub.validators.authnrequest.AuthnRequestIdKey;
+import uk.gov.ida.saml.hub.validators.authnrequest.DuplicateAuthnRequestValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RedisIdExpirationCacheIntegrationTest {
+
+    private static final int REDIS_PORT = 6386;
+    private static final long RECORD_TTL = 3600L;
+    private static final int CONCURRENT_VALIDATORS = 16;
+
+    private static RedisServer redisServer;
+    private static RedisClient redisClient;
+    private static RedisCommands<AuthnRequestIdKey, DateTime> redis;
+
+    private RedisIdExpirationCache<AuthnRequestIdKey> cache;
+
+    @BeforeAll
+    public static void startRedis() {
+        redisServer = RedisServer.builder().setting("bind 127.0.0.1").port(REDIS_PORT).build();
+        redisServer.start();
+        redisClient = RedisClient.create();
+        AuthnRequestExpirationCacheRedisCodec codec = new AuthnRequestExpirationCacheRedisCodec(new ObjectMapper().registerModule(new JodaModule()));
+        redis = redisClient.connect(codec, new RedisURI("localhost", REDIS_PORT, java.time.Duration.ofSeconds(2))).sync();
+    }
+
+    @AfterAll
+    public static void stopRedis() {
+        redisClient.shutdown();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        redis.flushdb();
+        cache = new RedisIdExpirationCache<>(redis, RECORD_TTL);
+    }
+
+    @Test
+    public void putIfAbsentOrExpired_shouldStoreAnExpirationForANewKey() {
+        AuthnRequestIdKey key = new AuthnRequestIdKey("new-id");
+        DateTime expiration = DateTime.now().plusMinutes(5);
+
+        assertThat(cache.putIfAbsentOrExpired(key, expiration)).isNull();
+        assertThat(cache.getExpiration(key).getMillis()).isEqualTo(expiration.getMillis());
+        assertThat(redis.ttl(key)).isBetween(1L, RECORD_TTL);
+    }
+
+    @Test
+    public void putIfAbsentOrExpired_shouldKeepAndReturnAnUnexpiredExpiration() {
+        AuthnRequestIdKey key = new AuthnRequestIdKey("duplicate-id");
+        DateTime expiration = DateTime.now().plusMinutes(5);
+        cache.setExpiration(key, expiration);
+
+        DateTime previous = cache.putIfAbsentOrExpired(key, DateTime.now().plusMinutes(10));
+
+        assertThat(previous.getMillis()).isEqualTo(expiration.getMillis());
+        assertThat(cache.getExpiration(key).getMillis()).isEqualTo(expiration.getMillis());
+    }
+
+    @Test
+    public void putIfAbsentOrExpired_shouldReplaceAnExpiredExpiration() {
+        AuthnRequestIdKey key = new AuthnRequestIdKey("expired-id");
+        cache.setExpiration(key, DateTime.now().minusMinutes(1));
+        DateTime expiration = DateTime.now().plusMinutes(5);
+
+        assertThat(cache.putIfAbsentOrExpired(key, expiration)).isNull();
+        assertThat(cache.getExpiration(key).getMillis()).isEqualTo(expiration.getMillis());
+    }
+
+    @Test
+    public void checkAndRecordAll_shouldRecordNewAndExpiredKeysAndReturnOnlyUnexpiredOnes() {
+        AuthnRequestIdKey duplicate = new AuthnRequestIdKey("duplicate-id");
+        AuthnRequestIdKey expired = new AuthnRequestIdKey("expired-id");
+        AuthnRequestIdKey fresh = new AuthnRequestIdKey("new-id");
+        DateTime heldExpiration = DateTime.now().plusMinutes(5);
+        cache.setExpiration(duplicate, heldExpiration);
+        cache.setExpiration(expired, DateTime.now().minusMinutes(1));
+        DateTime expiration = DateTime.now().plusMinutes(10);
+
+        Map<AuthnRequestIdKey, DateTime> unexpired = cache.checkAndRecordAll(Map.of(duplicate, expiration, expired, expiration, fresh, expiration));
+
+        assertThat(unexpired).containsOnlyKeys(duplicate);
+        assertThat(unexpired.get(duplicate).getMillis()).isEqualTo(heldExpiration.getMillis());
+        assertThat(cache.getExpiration(expired).getMillis()).isEqualTo(expiration.getMillis());
+        assertThat(cache.getExpiration(fresh).getMillis()).isEqualTo(expiration.getMillis());
+    }
+
+    @Test
+    public void checkAndRecordAll_shouldStillWorkOnceRedisHasForgottenTheScript() {
+        AuthnRequestIdKey key = new AuthnRequestIdKey("after-flush-id");
+        DateTime expiration = DateTime.now().plusMinutes(5);
+        cache.putIfAbsentOrExpired(new AuthnRequestIdKey("before-flush-id"), expiration);
+        redis.scriptFlush();
+
+        assertThat(cache.putIfAbsentOrExpired(key, expiration)).isNull();
+        assertThat(cache.putIfAbsentOrExpired(key, expiration).getMillis()).isEqualTo(expiration.getMillis());
+    }
+
+    @Test
+    public void valid_shouldAcceptARequestIdOnceWhenValidatorsRaceOnTheSameId() throws Exception {
+        DuplicateAuthnRequestValidator validator = new DuplicateAuthnRequestValidator(cache, () -> Duration.hours(2));
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_VALIDATORS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Boolean>> validations = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_VALIDATORS; i++) {
+            validations.add(() -> {
+                start.await();
+                return validator.valid("replayed-id");
+            });
+        }
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            validations.forEach(validation -> results.add(executor.submit(validation)));
+            start.countDown();
+            long accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    accepted++;
+                }
+            }
+            assertThat(accepted).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -32,6 +32,7 @@ import uk.gov.ida.saml.hub.domain.IdpIdaStatus;
 import uk.gov.ida.shared.utils.datetime.DateTimeFreezer;
 
 import javax.ws.rs.core.Response;
+import java.util.Optional;
 import java.util.UUID;
 
 import static io.dropwizard.testing.ConfigOverride.config;
@@ -485,6 +486,24 @@ public class IdpAuthnResponseTranslatorResourceTest {
         assertThat(errorStatusDto.getExceptionType()).isEqualTo(ExceptionType.INVALID_SAML);
     }
 
+    @Test
+    public void handleResponseFromIdp_shouldNotUseUpTheAssertionIdsOfAResponseThatFailsValidation() throws Exception {
+        String authnStatementAssertionId = "authnStatementAssertionId" + UUID.randomUUID().toString();
+        String mdsStatementAssertionId = "mdsStatementAssertionId" + UUID.randomUUID().toString();
+        SamlAuthnResponseTranslatorDto invalidResponseDto = getSamlAuthnResponseTranslatorDto("", authnStatementAssertionId, mdsStatementAssertionId);
+        SamlAuthnResponseTranslatorDto validResponseDto = getSamlAuthnResponseTranslatorDto("127.0.0.1", authnStatementAssertionId, mdsStatementAssertionId);
+
+        Response clientResponse = postToSamlEngine(invalidResponseDto);
+        assertThat(clientResponse.getStatus()).isEqualTo(Response.Status.BAD_REQUEST.getStatusCode());
+
+        clientResponse = postToSamlEngine(validResponseDto);
+        assertThat(clientResponse.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+
+        clientResponse = postToSamlEngine(validResponseDto);
+        assertThat(clientResponse.getStatus()).isEqualTo(Response.Status.BAD_REQUEST.getStatusCode());
+        assertThat(clientResponse.readEntity(ErrorStatusDto.class).getExceptionType()).isEqualTo(ExceptionType.INVALID_SAML);
+    }
+
     @Test
     public void handleResponseFromIdp_shouldThrowExceptionForSecondIdpIfTwoIdpsSubmitAnAuthnStatementAssertionWithTheSameId() throws Exception {
         String authnStatementAssertionId = "authnStatementAssertionId"+UUID.randomUUID().toString();
@@ -625,6 +644,18 @@ public class IdpAuthnResponseTranslatorResourceTest {
                 .build();
     }
 
+    private SamlAuthnResponseTranslatorDto getSamlAuthnResponseTranslatorDto(String ipAddressSeenByIdp, String authnStatementAssertionId, String mdsStatementAssertionId) throws Exception {
+        final org.opensaml.saml.saml2.core.Response samlAuthnResponse = authnResponseFactory
+                .aResponseFromIdpBuilder(STUB_IDP_ONE, ipAddressSeenByIdp, DateTime.now(), authnStatementAssertionId, mdsStatementAssertionId, Optional.empty())
+                .withDestination(IDP_RESPONSE_ENDPOINT)
+                .build();
+        String saml = authnResponseFactory.transformResponseToSaml(samlAuthnResponse);
+        return aSamlAuthnResponseTranslatorDto()
+                .withSamlResponse(saml)
+                .withMatchingServiceEntityId(TEST_RP_MS)
+                .build();
+    }
+
     private Status buildStatus(String uri) {
         return buildStatus(StatusCodeBuilder.aStatusCode().withValue(uri).build());
     }
@@ -5,9 +5,11 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dropwizard.Configuration;
 import io.dropwizard.client.JerseyClientConfiguration;
 import io.dropwizard.util.Duration;
+import io.dropwizard.validation.ValidationMethod;
 import uk.gov.ida.common.ServiceInfoConfiguration;
 import uk.gov.ida.common.shared.configuration.PrivateKeyConfiguration;
 import uk.gov.ida.configuration.ServiceNameConfiguration;
+import uk.gov.ida.hub.samlengine.config.InMemoryReplayCacheConfiguration;
 import uk.gov.ida.hub.samlengine.config.RedisConfiguration;
 import uk.gov.ida.hub.samlengine.config.SamlConfiguration;
 import uk.gov.ida.metrics.config.PrometheusConfiguration;
@@ -48,6 +50,10 @@ public class SamlEngineConfiguration extends Configuration implements RestfulCli
     @JsonProperty
     protected RedisConfiguration redis;
 
+    @Valid
+    @JsonProperty
+    protected InMemoryReplayCacheConfiguration inMemoryReplayCache;
+
     @Valid
     @NotNull
     @JsonProperty
@@ -115,6 +121,16 @@ public class SamlEngineConfiguration extends Configuration implements RestfulCli
         return redis;
     }
 
+    public Optional<InMemoryReplayCacheConfiguration> getInMemoryReplayCache() {
+        return Optional.ofNullable(inMemoryReplayCache);
+    }
+
+    @ValidationMethod(message = "Either redis or inMemoryReplayCache must be configured to hold the replay caches.")
+    @SuppressWarnings("unused") // used by the deserializer
+    private boolean isReplayCacheConfigured() {
+        return redis != null || inMemoryReplayCache != null;
+    }
+
     @Override
     public Duration getAuthnRequestIdExpirationDuration() {
         return authnRequestIdExpirationDuration;
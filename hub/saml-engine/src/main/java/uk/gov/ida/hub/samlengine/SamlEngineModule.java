@@ -11,12 +11,11 @@ import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
 import io.dropwizard.servlets.tasks.Task;
 import io.dropwizard.setup.Environment;
-import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
 import io.lettuce.core.codec.RedisCodec;
-import io.lettuce.core.masterslave.MasterSlave;
-import io.lettuce.core.masterslave.StatefulRedisMasterSlaveConnection;
+import io.lettuce.core.codec.StringCodec;
 import io.prometheus.client.Gauge;
 import net.shibboleth.utilities.java.support.component.ComponentInitializationException;
 import org.joda.time.DateTime;
@@ -35,6 +34,9 @@ import uk.gov.ida.common.ServiceInfoConfiguration;
 import uk.gov.ida.hub.samlengine.annotations.Config;
 import uk.gov.ida.hub.samlengine.attributequery.AttributeQueryGenerator;
 import uk.gov.ida.hub.samlengine.attributequery.HubAttributeQueryRequestBuilder;
+import uk.gov.ida.hub.samlengine.claimcheck.AssertionClaimCheck;
+import uk.gov.ida.hub.samlengine.claimcheck.PassThroughAssertionClaimCheck;
+import uk.gov.ida.hub.samlengine.claimcheck.RedisAssertionClaimCheck;
 import uk.gov.ida.hub.samlengine.config.ConfigServiceKeyStore;
 import uk.gov.ida.hub.samlengine.config.RedisConfiguration;
 import uk.gov.ida.hub.samlengine.config.SamlConfiguration;
@@ -48,6 +50,7 @@ import uk.gov.ida.hub.samlengine.proxy.IdpSingleSignOnServiceHelper;
 import uk.gov.ida.hub.samlengine.proxy.TransactionsConfigProxy;
 import uk.gov.ida.hub.samlengine.redis.AssertionExpirationCacheRedisCodec;
 import uk.gov.ida.hub.samlengine.redis.AuthnRequestExpirationCacheRedisCodec;
+import uk.gov.ida.hub.samlengine.security.LegacyDatabaseIdExpirationCache;
 import uk.gov.ida.hub.samlengine.security.RedisIdExpirationCache;
 import uk.gov.ida.hub.samlengine.services.IdaAuthnRequestTranslator;
 import uk.gov.ida.hub.samlengine.services.IdpAuthnRequestGeneratorService;
@@ -59,6 +62,7 @@ import uk.gov.ida.hub.samlengine.services.MatchingServiceResponseTranslatorServi
 import uk.gov.ida.hub.samlengine.services.RpAuthnRequestTranslatorService;
 import uk.gov.ida.hub.samlengine.services.RpAuthnResponseGeneratorService;
 import uk.gov.ida.hub.samlengine.services.RpErrorResponseGeneratorService;
+import uk.gov.ida.hub.shared.redis.RedisConnectionManager;
 import uk.gov.ida.jerseyclient.DefaultClientProvider;
 import uk.gov.ida.jerseyclient.ErrorHandlingClient;
 import uk.gov.ida.jerseyclient.JsonClient;
@@ -94,6 +98,7 @@ import uk.gov.ida.saml.hub.transformers.outbound.SimpleProfileTransactionIdaStat
 import uk.gov.ida.saml.hub.transformers.outbound.providers.ResponseToUnsignedStringTransformer;
 import uk.gov.ida.saml.hub.transformers.outbound.providers.SimpleProfileOutboundResponseFromHubToResponseTransformerProvider;
 import uk.gov.ida.saml.hub.validators.authnrequest.AuthnRequestIdKey;
+import uk.gov.ida.saml.hub.validators.authnrequest.BoundedIdExpirationCache;
 import uk.gov.ida.saml.hub.validators.authnrequest.IdExpirationCache;
 import uk.gov.ida.saml.metadata.ExpiredCertificateMetadataFilter;
 import uk.gov.ida.saml.security.EncrypterFactory;
@@ -124,11 +129,14 @@ import java.util.Optional;
 import java.util.function.Function;
 
 import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
 
 public class SamlEngineModule extends AbstractModule {
 
     private static final String REDIS_OBJECT_MAPPER = "RedisObjectMapper";
+    private static final String ASSERTION_ID_KEY_PREFIX = "assertion-id:";
+    private static final String AUTHN_REQUEST_ID_KEY_PREFIX = "authn-request-id:";
+    private static final int LEGACY_ASSERTION_ID_DATABASE = 1;
+    private static final int LEGACY_AUTHN_REQUEST_ID_DATABASE = 0;
     public static final String VERIFY_METADATA_RESOLVER = "VerifyMetadataResolver";
     public static final String FED_METADATA_ENTITY_SIGNATURE_VALIDATOR = "verifySignatureValidator";
     public static final String VERIFY_METADATA_SIGNATURE_TRUST_ENGINE = "VerifyMetadataSignatureTrustEngine";
@@ -343,35 +351,69 @@ public class SamlEngineModule extends AbstractModule {
     @Provides
     @Singleton
     private IdExpirationCache<String> assertionIdCache(SamlEngineConfiguration configuration,
+                                                       RedisConnectionManager redisConnectionManager,
                                                        @Named(REDIS_OBJECT_MAPPER) ObjectMapper objectMapper) {
+        if (configuration.getInMemoryReplayCache().isPresent()) {
+            return new BoundedIdExpirationCache<>("assertion_id", configuration.getInMemoryReplayCache().get().getMaximumSize());
+        }
         RedisCodec<String, DateTime> codec = new AssertionExpirationCacheRedisCodec(objectMapper);
-        return getIdExpirationCache(configuration.getRedis(), codec, 1);
+        return getIdExpirationCache(redisConnectionManager, configuration.getRedis(), ASSERTION_ID_KEY_PREFIX, LEGACY_ASSERTION_ID_DATABASE, codec);
     }
 
     @Provides
     @Singleton
     private IdExpirationCache<AuthnRequestIdKey> authRequestIdCache(SamlEngineConfiguration configuration,
+                                                                    RedisConnectionManager redisConnectionManager,
                                                                     @Named(REDIS_OBJECT_MAPPER) ObjectMapper objectMapper) {
+        if (configuration.getInMemoryReplayCache().isPresent()) {
+            return new BoundedIdExpirationCache<>("authn_request_id", configuration.getInMemoryReplayCache().get().getMaximumSize());
+        }
         RedisCodec<AuthnRequestIdKey, DateTime> codec = new AuthnRequestExpirationCacheRedisCodec(objectMapper);
-        return getIdExpirationCache(configuration.getRedis(), codec, 0);
+        return getIdExpirationCache(redisConnectionManager, configuration.getRedis(), AUTHN_REQUEST_ID_KEY_PREFIX, LEGACY_AUTHN_REQUEST_ID_DATABASE, codec);
     }
 
-    private <T> IdExpirationCache<T> getIdExpirationCache(RedisConfiguration config,
-                                                          RedisCodec<T, DateTime> codec,
-                                                          int dbIndex) {
-        RedisClient redisClient = RedisClient.create();
-        redisClient.setDefaultTimeout(config.getTimeout());
-        RedisURI uri = config.getUri();
-        uri.setDatabase(dbIndex);
+    @Provides
+    @Singleton
+    private AssertionClaimCheck assertionClaimCheck(SamlEngineConfiguration configuration, RedisConnectionManager redisConnectionManager) {
+        RedisConfiguration config = configuration.getRedis();
+        if (config == null || !config.isAssertionClaimCheck()) {
+            return new PassThroughAssertionClaimCheck();
+        }
+        // RedisAssertionClaimCheck prefixes its own keys
+        RedisClusterCommands<String, String> redisCommands = config.isCluster()
+                ? redisConnectionManager.connectCluster(getRedisUri(config), "", StringCodec.UTF8)
+                : redisConnectionManager.connect(getRedisUri(config), "", StringCodec.UTF8);
+        return new RedisAssertionClaimCheck(redisCommands, config.getRecordTTL());
+    }
 
-        StatefulRedisMasterSlaveConnection<T, DateTime> redisConnection = MasterSlave.connect(
-                redisClient,
-                codec,
-                singletonList(uri)
-        );
+    @Provides
+    @Singleton
+    private RedisConnectionManager getRedisConnectionManager() {
+        return new RedisConnectionManager();
+    }
 
-        RedisCommands<T, DateTime> redisCommands = redisConnection.sync();
-        return new RedisIdExpirationCache<>(redisCommands, config.getRecordTTL());
+    private <T> IdExpirationCache<T> getIdExpirationCache(RedisConnectionManager redisConnectionManager,
+                                                          RedisConfiguration config,
+                                                          String keyPrefix,
+                                                          int legacyDatabase,
+                                                          RedisCodec<T, DateTime> codec) {
+        if (config.isCluster()) {
+            return new RedisIdExpirationCache<>(redisConnectionManager.connectCluster(getRedisUri(config), keyPrefix, codec), config.getRecordTTL());
+        }
+        RedisCommands<T, DateTime> redisCommands = redisConnectionManager.connect(getRedisUri(config), keyPrefix, codec);
+        IdExpirationCache<T> cache = new RedisIdExpirationCache<>(redisCommands, config.getRecordTTL());
+        if (!config.isReadLegacyReplayCacheDatabases()) {
+            return cache;
+        }
+        RedisURI legacyUri = getRedisUri(config);
+        legacyUri.setDatabase(legacyDatabase);
+        return new LegacyDatabaseIdExpirationCache<>(cache, redisConnectionManager.connect(legacyUri, "", codec), config.getRecordTTL());
+    }
+
+    private RedisURI getRedisUri(RedisConfiguration config) {
+        RedisURI uri = config.getUri();
+        uri.setTimeout(config.getTimeout());
+        return uri;
     }
 
     @Provides
@@ -419,11 +461,6 @@ public class SamlEngineModule extends AbstractModule {
         return hubTransformersFactory.getStringToResponseTransformer();
     }
 
-    @Provides
-    private StringToOpenSamlObjectTransformer<Assertion> getStringToAssertionTransformer() {
-        return hubTransformersFactory.getStringToAssertionTransformer();
-    }
-
     @Provides
     @Named(FED_METADATA_ENTITY_SIGNATURE_VALIDATOR)
     private MetadataBackedSignatureValidator fedMetadataEntitySignatureValidator(@Named(VERIFY_METADATA_SIGNATURE_TRUST_ENGINE) ExplicitKeySignatureTrustEngine explicitKeySignatureTrustEngine) {
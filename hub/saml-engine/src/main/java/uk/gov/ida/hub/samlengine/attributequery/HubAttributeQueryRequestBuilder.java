@@ -1,6 +1,7 @@
 package uk.gov.ida.hub.samlengine.attributequery;
 
 import org.joda.time.DateTime;
+import uk.gov.ida.hub.samlengine.claimcheck.AssertionClaimCheck;
 import uk.gov.ida.hub.samlengine.domain.AttributeQueryRequestDto;
 import uk.gov.ida.saml.core.domain.AssertionRestrictions;
 import uk.gov.ida.saml.core.domain.AuthnContext;
@@ -17,10 +18,12 @@ import java.util.UUID;
 public class HubAttributeQueryRequestBuilder {
 
     private final String hubEntityId;
+    private final AssertionClaimCheck assertionClaimCheck;
 
     @Inject
-    public HubAttributeQueryRequestBuilder(@Named("HubEntityId") String hubEntityId) {
+    public HubAttributeQueryRequestBuilder(@Named("HubEntityId") String hubEntityId, AssertionClaimCheck assertionClaimCheck) {
         this.hubEntityId = hubEntityId;
+        this.assertionClaimCheck = assertionClaimCheck;
     }
 
     public HubAttributeQueryRequest createHubAttributeQueryRequest(final AttributeQueryRequestDto attributeQueryRequestDto) {
@@ -32,8 +35,8 @@ public class HubAttributeQueryRequestBuilder {
         return new HubAttributeQueryRequest(
                 attributeQueryRequestDto.getRequestId(),
                 new PersistentId(attributeQueryRequestDto.getPersistentId().getNameId()),
-                attributeQueryRequestDto.getEncryptedMatchingDatasetAssertion(),
-                attributeQueryRequestDto.getEncryptedAuthnAssertion(),
+                assertionClaimCheck.redeem(attributeQueryRequestDto.getEncryptedMatchingDatasetAssertion()),
+                assertionClaimCheck.redeem(attributeQueryRequestDto.getEncryptedAuthnAssertion()),
                 cycle3AttributeAssertion,
                 attributeQueryRequestDto.getUserAccountCreationAttributes(),
                 DateTime.now(),
@@ -0,0 +1,19 @@
+package uk.gov.ida.hub.samlengine.claimcheck;
+
+/**
+ * Keeps the encrypted assertions received from identity providers in saml-engine, handing out a short
+ * reference in their place. Policy stores and returns the reference without reading it, so each
+ * assertion crosses the network once on the way in and once on the way out to its recipient.
+ */
+public interface AssertionClaimCheck {
+    /**
+     * @return a reference to pass on in place of the assertion
+     */
+    String checkIn(String encryptedAssertion);
+
+    /**
+     * @return the assertion the reference was handed out for, or the value unchanged if it is not a
+     * reference, such as an assertion in a session started before claim checks were enabled
+     */
+    String redeem(String referenceOrEncryptedAssertion);
+}
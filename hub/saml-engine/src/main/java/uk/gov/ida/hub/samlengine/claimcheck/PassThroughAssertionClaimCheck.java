@@ -0,0 +1,16 @@
+package uk.gov.ida.hub.samlengine.claimcheck;
+
+/**
+ * Used when claim checks are disabled: assertions are passed on in full.
+ */
+public class PassThroughAssertionClaimCheck implements AssertionClaimCheck {
+    @Override
+    public String checkIn(String encryptedAssertion) {
+        return encryptedAssertion;
+    }
+
+    @Override
+    public String redeem(String referenceOrEncryptedAssertion) {
+        return referenceOrEncryptedAssertion;
+    }
+}
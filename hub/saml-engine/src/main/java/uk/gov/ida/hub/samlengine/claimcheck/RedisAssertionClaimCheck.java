@@ -0,0 +1,45 @@
+package uk.gov.ida.hub.samlengine.claimcheck;
+
+import com.google.common.hash.Hashing;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import org.slf4j.event.Level;
+import uk.gov.ida.hub.samlengine.exceptions.UnableToGenerateSamlException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.text.MessageFormat.format;
+
+/**
+ * Stores each assertion under a digest of its content for as long as a session lasts. References
+ * contain a ':', which never appears in a base64 encoded assertion, so the two cannot be confused.
+ */
+public class RedisAssertionClaimCheck implements AssertionClaimCheck {
+    private static final String REFERENCE_PREFIX = "claim-check:sha256:";
+    private static final String KEY_PREFIX = "assertion:";
+
+    private final RedisClusterCommands<String, String> redis;
+    private final Long recordTTL;
+
+    public RedisAssertionClaimCheck(RedisClusterCommands<String, String> redis, Long recordTTL) {
+        this.redis = redis;
+        this.recordTTL = recordTTL;
+    }
+
+    @Override
+    public String checkIn(String encryptedAssertion) {
+        String digest = Hashing.sha256().hashString(encryptedAssertion, UTF_8).toString();
+        redis.setex(KEY_PREFIX + digest, recordTTL, encryptedAssertion);
+        return REFERENCE_PREFIX + digest;
+    }
+
+    @Override
+    public String redeem(String referenceOrEncryptedAssertion) {
+        if (!referenceOrEncryptedAssertion.startsWith(REFERENCE_PREFIX)) {
+            return referenceOrEncryptedAssertion;
+        }
+        String encryptedAssertion = redis.get(KEY_PREFIX + referenceOrEncryptedAssertion.substring(REFERENCE_PREFIX.length()));
+        if (encryptedAssertion == null) {
+            throw new UnableToGenerateSamlException(format("No assertion is held for {0}", referenceOrEncryptedAssertion), null, Level.WARN);
+        }
+        return encryptedAssertion;
+    }
+}
@@ -0,0 +1,24 @@
+package uk.gov.ida.hub.samlengine.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Keeps the assertion and authn request ID replay caches in memory rather than in Redis. Only
+ * suitable for a single saml-engine node, as replays sent to another node will not be caught.
+ * A {@code redis} block is then only needed for the assertion claim check.
+ */
+public class InMemoryReplayCacheConfiguration {
+
+    /**
+     * The most unexpired IDs each cache holds. New IDs are rejected once it is reached.
+     */
+    @Min(1)
+    @JsonProperty
+    private int maximumSize = 1_000_000;
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+}
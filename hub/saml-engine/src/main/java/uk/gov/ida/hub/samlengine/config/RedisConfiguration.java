@@ -24,6 +24,27 @@ public class RedisConfiguration {
     @JsonProperty
     private Duration timeout = Duration.of(20L, SECONDS);
 
+    /**
+     * Whether assertions from identity providers are kept here and passed to policy by reference.
+     */
+    @JsonProperty
+    private boolean assertionClaimCheck = false;
+
+    /**
+     * Whether {@code uri} is a node of a Redis Cluster rather than a primary.
+     */
+    @JsonProperty
+    private boolean cluster = false;
+
+    /**
+     * Whether the replay caches also check the databases they each had before they moved to key
+     * prefixes, database 0 for authn request IDs and database 1 for assertion IDs, for one record TTL
+     * after starting. Only worth turning on for the rollout of the key prefixes, as each check then
+     * costs an extra round trip. Ignored for a cluster, which never used them.
+     */
+    @JsonProperty
+    private boolean readLegacyReplayCacheDatabases = false;
+
     public Long getRecordTTL() {
         return recordTTL.getSeconds();
     }
@@ -35,4 +56,16 @@ public class RedisConfiguration {
     public Duration getTimeout() {
         return timeout;
     }
+
+    public boolean isAssertionClaimCheck() {
+        return assertionClaimCheck;
+    }
+
+    public boolean isCluster() {
+        return cluster;
+    }
+
+    public boolean isReadLegacyReplayCacheDatabases() {
+        return readLegacyReplayCacheDatabases;
+    }
 }
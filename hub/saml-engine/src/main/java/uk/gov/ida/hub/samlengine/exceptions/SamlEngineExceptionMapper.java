@@ -7,6 +7,7 @@ import uk.gov.ida.exceptions.ApplicationException;
 import uk.gov.ida.saml.core.validation.SamlTransformationErrorException;
 import uk.gov.ida.saml.hub.exception.SamlDuplicateRequestIdException;
 import uk.gov.ida.saml.hub.exception.SamlRequestTooOldException;
+import uk.gov.ida.saml.hub.validators.authnrequest.IdExpirationCacheFullException;
 import uk.gov.ida.saml.metadata.exceptions.NoKeyConfiguredForEntityException;
 import uk.gov.ida.saml.security.exception.SamlFailedToDecryptException;
 import uk.gov.ida.shared.utils.logging.LevelLogger;
@@ -60,6 +61,10 @@ public class SamlEngineExceptionMapper implements ExceptionMapper<Exception> {
             response.entity(logAndGetErrorStatusDto(((UnableToGenerateSamlException) exception).getLogLevel(), ExceptionType.INVALID_INPUT, exception, errorId, HAS_NOT_BEEN_AUDITED_YET));
         } else if (exception instanceof NoKeyConfiguredForEntityException) {
             response.entity(logAndGetErrorStatusDto(ERROR, ExceptionType.NO_KEY_CONFIGURED_FOR_ENTITY, exception, errorId, HAS_NOT_BEEN_AUDITED_YET));
+        } else if (exception instanceof IdExpirationCacheFullException) {
+            // Not the sender's fault: the replay cache named in the message needs more room
+            response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity(logAndGetErrorStatusDto(ERROR, ExceptionType.UNKNOWN, exception, errorId, HAS_NOT_BEEN_AUDITED_YET));
         } else {
             levelLogger.log(WARN, exception, errorId);
         }
@@ -0,0 +1,76 @@
+package uk.gov.ida.hub.samlengine.security;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.joda.time.DateTime;
+import uk.gov.ida.saml.hub.validators.authnrequest.IdExpirationCache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Also treats IDs recorded in the database a cache used before the caches shared one database under
+ * key prefixes as seen, so replays are still caught while those records last. New IDs are only
+ * recorded in {@code cache}. The legacy database is no longer read once a record TTL has passed
+ * since this cache was made, as everything written there before the rollout has gone by then.
+ */
+public class LegacyDatabaseIdExpirationCache<T> implements IdExpirationCache<T> {
+
+    private final IdExpirationCache<T> cache;
+    private final RedisCommands<T, DateTime> legacy;
+    private final DateTime legacyRecordsGoneAt;
+
+    public LegacyDatabaseIdExpirationCache(IdExpirationCache<T> cache, RedisCommands<T, DateTime> legacy, Long recordTTL) {
+        this.cache = cache;
+        this.legacy = legacy;
+        this.legacyRecordsGoneAt = DateTime.now().plusSeconds(recordTTL.intValue());
+    }
+
+    @Override
+    public boolean contains(T key) {
+        return cache.contains(key) || (readingLegacy() && legacy.exists(key) > 0);
+    }
+
+    @Override
+    public DateTime getExpiration(T key) {
+        DateTime expiration = cache.getExpiration(key);
+        return expiration != null || !readingLegacy() ? expiration : legacy.get(key);
+    }
+
+    @Override
+    public void setExpiration(T key, DateTime expirationTime) {
+        cache.setExpiration(key, expirationTime);
+    }
+
+    @Override
+    public DateTime putIfAbsentOrExpired(T key, DateTime expirationTime) {
+        return checkAndRecordAll(Map.of(key, expirationTime)).get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<T, DateTime> checkAndRecordAll(Map<T, DateTime> expirations) {
+        if (!readingLegacy()) {
+            return cache.checkAndRecordAll(expirations);
+        }
+        DateTime now = DateTime.now();
+        Map<T, DateTime> unexpired = new HashMap<>();
+        Map<T, DateTime> unseen = new HashMap<>(expirations);
+        List<KeyValue<T, DateTime>> held = legacy.mget((T[]) expirations.keySet().toArray());
+        for (KeyValue<T, DateTime> record : held) {
+            if (record.hasValue() && record.getValue().isAfter(now)) {
+                unexpired.put(record.getKey(), record.getValue());
+                unseen.remove(record.getKey());
+            }
+        }
+        if (!unseen.isEmpty()) {
+            unexpired.putAll(cache.checkAndRecordAll(unseen));
+        }
+        return unexpired;
+    }
+
+    private boolean readingLegacy() {
+        return legacyRecordsGoneAt.isAfterNow();
+    }
+}
@@ -1,17 +1,66 @@
 package uk.gov.ida.hub.samlengine.security;
 
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.cluster.api.sync.RedisAdvancedClusterCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
 import org.joda.time.DateTime;
 import uk.gov.ida.saml.hub.validators.authnrequest.IdExpirationCache;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class RedisIdExpirationCache<T> implements IdExpirationCache<T> {
-    private final RedisCommands<T, DateTime> redis;
+
+    // Expirations are stored as epoch milliseconds, so the script can compare them as numbers.
+    // Records are kept for the record TTL rather than until they expire, which is why a plain
+    // SET NX cannot be used. The last argument is the current time; the others are the
+    // expirations for each key in turn.
+    private static final String CHECK_AND_RECORD_ALL_SCRIPT =
+            "local now = tonumber(ARGV[#ARGV]) " +
+            "local unexpired = {} " +
+            "for i, key in ipairs(KEYS) do " +
+            "  local current = redis.call('GET', key) " +
+            "  if current and tonumber(current) > now then " +
+            "    unexpired[i] = current " +
+            "  else " +
+            "    redis.call('SET', key, ARGV[i], 'EX', %d) " +
+            "    unexpired[i] = false " +
+            "  end " +
+            "end " +
+            "return unexpired";
+
+    private final RedisClusterCommands<T, DateTime> redis;
     private final Long recordTTL;
+    private final boolean oneKeyPerScript;
+    private final String checkAndRecordAllScript;
+    private final String checkAndRecordAllDigest;
 
     public RedisIdExpirationCache(RedisCommands<T, DateTime> redis,
                                   Long recordTTL) {
+        this(redis, recordTTL, false);
+    }
+
+    /**
+     * A script may only touch keys in one hash slot of a cluster, and the IDs in a batch hash to any
+     * slot, so each ID is checked and recorded by a script of its own.
+     */
+    public RedisIdExpirationCache(RedisAdvancedClusterCommands<T, DateTime> redis,
+                                  Long recordTTL) {
+        this(redis, recordTTL, true);
+    }
+
+    private RedisIdExpirationCache(RedisClusterCommands<T, DateTime> redis,
+                                   Long recordTTL,
+                                   boolean oneKeyPerScript) {
         this.redis = redis;
         this.recordTTL = recordTTL;
+        this.oneKeyPerScript = oneKeyPerScript;
+        this.checkAndRecordAllScript = String.format(CHECK_AND_RECORD_ALL_SCRIPT, recordTTL);
+        this.checkAndRecordAllDigest = redis.digest(checkAndRecordAllScript);
     }
 
     @Override
@@ -28,4 +77,46 @@ public class RedisIdExpirationCache<T> implements IdExpirationCache<T> {
     public void setExpiration(T key, DateTime expirationTime) {
         redis.setex(key, recordTTL, expirationTime);
     }
+
+    @Override
+    public DateTime putIfAbsentOrExpired(T key, DateTime expirationTime) {
+        return checkAndRecordAll(Map.of(key, expirationTime)).get(key);
+    }
+
+    @Override
+    public Map<T, DateTime> checkAndRecordAll(Map<T, DateTime> expirations) {
+        Map<T, DateTime> unexpired = new HashMap<>();
+        if (oneKeyPerScript) {
+            expirations.forEach((key, expiration) -> unexpired.putAll(checkAndRecord(List.of(key), expirations)));
+        } else {
+            unexpired.putAll(checkAndRecord(new ArrayList<>(expirations.keySet()), expirations));
+        }
+        return unexpired;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<T, DateTime> checkAndRecord(List<T> keys, Map<T, DateTime> expirations) {
+        DateTime[] values = new DateTime[keys.size() + 1];
+        for (int i = 0; i < keys.size(); i++) {
+            values[i] = expirations.get(keys.get(i));
+        }
+        values[keys.size()] = DateTime.now();
+
+        T[] keyArray = (T[]) keys.toArray();
+        List<DateTime> results;
+        try {
+            results = redis.evalsha(checkAndRecordAllDigest, ScriptOutputType.MULTI, keyArray, values);
+        } catch (RedisNoScriptException e) {
+            // The script cache is empty after a restart or failover; EVAL loads the script again
+            results = redis.eval(checkAndRecordAllScript, ScriptOutputType.MULTI, keyArray, values);
+        }
+
+        Map<T, DateTime> unexpired = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (results.get(i) != null) {
+                unexpired.put(keys.get(i), results.get(i));
+            }
+        }
+        return unexpired;
+    }
 }
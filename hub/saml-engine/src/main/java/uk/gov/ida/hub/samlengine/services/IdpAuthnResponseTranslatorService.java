@@ -5,6 +5,7 @@ import org.opensaml.saml.saml2.core.Assertion;
 import org.opensaml.saml.saml2.core.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.gov.ida.hub.samlengine.claimcheck.AssertionClaimCheck;
 import uk.gov.ida.hub.samlengine.contracts.SamlAuthnResponseTranslatorDto;
 import uk.gov.ida.hub.samlengine.domain.InboundResponseFromIdpDto;
 import uk.gov.ida.hub.samlengine.domain.LevelOfAssurance;
@@ -34,25 +35,25 @@ public class IdpAuthnResponseTranslatorService {
     private static final String AUTHN_STATEMENT = "AuthnStatement";
     private static final String MATCHING_DATASET = "MatchingDataset";
     private final StringToOpenSamlObjectTransformer<Response> stringToOpenSamlResponseTransformer;
-    private final StringToOpenSamlObjectTransformer<Assertion> stringToAssertionTransformer;
     private final DecoratedSamlResponseToIdaResponseIssuedByIdpTransformer samlResponseToIdaResponseIssuedByIdpTransformer;
     private InboundResponseFromIdpDataGenerator inboundResponseFromIdpDataGenerator;
     private final IdpAssertionMetricsCollector idpAssertionMetricsCollector;
     private final TransactionsConfigProxy transactionsConfigProxy;
+    private final AssertionClaimCheck assertionClaimCheck;
 
     @Inject
     public IdpAuthnResponseTranslatorService(StringToOpenSamlObjectTransformer<Response> stringToOpenSamlResponseTransformer,
-                                             StringToOpenSamlObjectTransformer<Assertion> stringToAssertionTransformer,
                                              @Named("IdpSamlResponseTransformer") DecoratedSamlResponseToIdaResponseIssuedByIdpTransformer samlResponseToIdaResponseIssuedByIdpTransformer,
                                              InboundResponseFromIdpDataGenerator inboundResponseFromIdpDataGenerator,
                                              IdpAssertionMetricsCollector idpAssertionMetricsCollector,
-                                             TransactionsConfigProxy transactionsConfigProxy) {
+                                             TransactionsConfigProxy transactionsConfigProxy,
+                                             AssertionClaimCheck assertionClaimCheck) {
         this.stringToOpenSamlResponseTransformer = stringToOpenSamlResponseTransformer;
-        this.stringToAssertionTransformer = stringToAssertionTransformer;
         this.samlResponseToIdaResponseIssuedByIdpTransformer = samlResponseToIdaResponseIssuedByIdpTransformer;
         this.inboundResponseFromIdpDataGenerator = inboundResponseFromIdpDataGenerator;
         this.idpAssertionMetricsCollector = idpAssertionMetricsCollector;
         this.transactionsConfigProxy = transactionsConfigProxy;
+        this.assertionClaimCheck = assertionClaimCheck;
     }
 
     public InboundResponseFromIdpDto translate(SamlAuthnResponseTranslatorDto samlResponseDto) {
@@ -61,14 +62,10 @@ public class IdpAuthnResponseTranslatorService {
         try {
             InboundResponseFromIdp idaResponseFromIdp = samlResponseToIdaResponseIssuedByIdpTransformer.apply(response);
             UnknownMethodAlgorithmLogger.probeResponseForMethodAlgorithm(idaResponseFromIdp);
-            if (idaResponseFromIdp.getAuthnStatementAssertion().isPresent()) {
-                Assertion authnStatementAssertion = stringToAssertionTransformer.apply(idaResponseFromIdp.getAuthnStatementAssertion().get().getUnderlyingAssertionBlob());
-                logAnalytics(authnStatementAssertion, AUTHN_STATEMENT);
-            }
+            idaResponseFromIdp.getAuthnStatementSamlAssertion().ifPresent(assertion -> logAnalytics(assertion, AUTHN_STATEMENT));
 
-            Assertion matchingDatasetAssertion = null;
-            if (idaResponseFromIdp.getMatchingDatasetAssertion().isPresent()) {
-                matchingDatasetAssertion = stringToAssertionTransformer.apply(idaResponseFromIdp.getMatchingDatasetAssertion().get().getUnderlyingAssertionBlob());
+            Assertion matchingDatasetAssertion = idaResponseFromIdp.getMatchingDatasetSamlAssertion().orElse(null);
+            if (matchingDatasetAssertion != null) {
                 logAnalytics(matchingDatasetAssertion, MATCHING_DATASET);
             }
 
@@ -85,8 +82,8 @@ public class IdpAuthnResponseTranslatorService {
                     inboundResponseFromIdpData.getStatus(),
                     inboundResponseFromIdpData.getStatusMessage(),
                     inboundResponseFromIdpData.getIssuer(),
-                    inboundResponseFromIdpData.getEncryptedAuthnAssertion(),
-                    inboundResponseFromIdpData.getEncryptedMatchingDatasetAssertion(),
+                    inboundResponseFromIdpData.getEncryptedAuthnAssertion().map(assertionClaimCheck::checkIn),
+                    inboundResponseFromIdpData.getEncryptedMatchingDatasetAssertion().map(assertionClaimCheck::checkIn),
                     inboundResponseFromIdpData.getPersistentId(),
                     inboundResponseFromIdpData.getPrincipalIpAddressAsSeenByIdp(),
                     levelOfAssurance,
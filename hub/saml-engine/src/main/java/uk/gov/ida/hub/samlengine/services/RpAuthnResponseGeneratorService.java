@@ -2,6 +2,7 @@ package uk.gov.ida.hub.samlengine.services;
 
 import org.joda.time.DateTime;
 import org.slf4j.event.Level;
+import uk.gov.ida.hub.samlengine.claimcheck.AssertionClaimCheck;
 import uk.gov.ida.hub.samlengine.contracts.AuthnResponseFromHubContainerDto;
 import uk.gov.ida.hub.samlengine.contracts.ResponseFromHubDto;
 import uk.gov.ida.hub.samlengine.exceptions.UnableToGenerateSamlException;
@@ -13,19 +14,24 @@ import uk.gov.ida.saml.core.domain.TransactionIdaStatus;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import static java.util.stream.Collectors.toList;
+
 public class RpAuthnResponseGeneratorService {
 
     private final OutboundResponseFromHubToResponseTransformerFactory outboundResponseFromHubToResponseTransformerFactory;
     private final String hubEntityId;
     private final AssignableEntityToEncryptForLocator entityToEncryptForLocator;
+    private final AssertionClaimCheck assertionClaimCheck;
 
     @Inject
     public RpAuthnResponseGeneratorService(OutboundResponseFromHubToResponseTransformerFactory outboundResponseFromHubToResponseTransformerFactory,
                                            @Named("HubEntityId") String hubEntityId,
-                                           final AssignableEntityToEncryptForLocator entityToEncryptForLocator) {
+                                           final AssignableEntityToEncryptForLocator entityToEncryptForLocator,
+                                           AssertionClaimCheck assertionClaimCheck) {
         this.outboundResponseFromHubToResponseTransformerFactory = outboundResponseFromHubToResponseTransformerFactory;
         this.hubEntityId = hubEntityId;
         this.entityToEncryptForLocator = entityToEncryptForLocator;
+        this.assertionClaimCheck = assertionClaimCheck;
     }
 
     public AuthnResponseFromHubContainerDto generate(ResponseFromHubDto responseFromHub) {
@@ -45,7 +51,7 @@ public class RpAuthnResponseGeneratorService {
                 hubEntityId,
                 DateTime.now(),
                 TransactionIdaStatus.valueOf(responseFromHub.getStatus().name()),
-                responseFromHub.getEncryptedAssertions(),
+                responseFromHub.getEncryptedAssertions().stream().map(assertionClaimCheck::redeem).collect(toList()),
                 responseFromHub.getAssertionConsumerServiceUri());
 
         String samlMessage = outboundResponseFromHubToResponseTransformerFactory.get(authnRequestIssuerEntityId).apply(response);
@@ -13,6 +13,7 @@ import uk.gov.ida.exceptions.ApplicationException;
 import uk.gov.ida.saml.core.validation.SamlTransformationErrorException;
 import uk.gov.ida.saml.hub.exception.SamlDuplicateRequestIdException;
 import uk.gov.ida.saml.hub.exception.SamlRequestTooOldException;
+import uk.gov.ida.saml.hub.validators.authnrequest.IdExpirationCacheFullException;
 import uk.gov.ida.saml.metadata.exceptions.NoKeyConfiguredForEntityException;
 import uk.gov.ida.saml.security.exception.SamlFailedToDecryptException;
 import uk.gov.ida.shared.utils.logging.LevelLogger;
@@ -86,6 +87,21 @@ public class SamlEngineExceptionMapperTest {
         checkLogLevel(applicationException.getExceptionType().getLevel());
     }
 
+    @Test
+    public void toResponse_shouldReportAFullReplayCacheAsUnavailableAndLogItAsAnError() {
+        IdExpirationCacheFullException exception = new IdExpirationCacheFullException("assertion_id", 1000);
+
+        Response response = samlEngineExceptionMapper.toResponse(exception);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        ErrorStatusDto errorStatusDto = (ErrorStatusDto) response.getEntity();
+        assertThat(errorStatusDto.isAudited()).isFalse();
+        assertThat(errorStatusDto.getExceptionType()).isEqualTo(ExceptionType.UNKNOWN);
+        assertThat(exception.getMessage()).contains("assertion_id");
+
+        checkLogLevel(Level.ERROR);
+    }
+
     @Test
     public void toResponse_shouldCreateResponseWithUnauditedErrorStatus() throws Exception {
         SamlTransformationErrorException exception = aSamlTransformationFailureException().build();
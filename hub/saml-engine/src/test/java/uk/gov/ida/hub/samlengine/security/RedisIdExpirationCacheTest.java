@@ -0,0 +1,49 @@
+package uk.gov.ida.hub.samlengine.security;
+
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.sync.RedisAdvancedClusterCommands;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RedisIdExpirationCacheTest {
+
+    private static final long RECORD_TTL = 3600L;
+
+    @Mock
+    private RedisAdvancedClusterCommands<String, DateTime> redis;
+
+    @Test
+    public void checkAndRecordAll_shouldCheckEachKeyWithAScriptOfItsOwnOnACluster() {
+        DateTime held = DateTime.now().plusMinutes(5);
+        when(redis.digest(anyString())).thenReturn("digest");
+        when(redis.<List<DateTime>>evalsha(eq("digest"), eq(ScriptOutputType.MULTI), argThat((String[] keys) -> keys.length == 1), any()))
+                .thenAnswer(invocation -> {
+                    String[] keys = invocation.getArgument(2);
+                    return Arrays.asList(keys[0].equals("duplicate-id") ? held : null);
+                });
+        RedisIdExpirationCache<String> cache = new RedisIdExpirationCache<>(redis, RECORD_TTL);
+        DateTime expiration = DateTime.now().plusMinutes(10);
+
+        Map<String, DateTime> unexpired = cache.checkAndRecordAll(Map.of("duplicate-id", expiration, "new-id", expiration));
+
+        assertThat(unexpired).containsOnly(Map.entry("duplicate-id", held));
+        verify(redis, times(2)).evalsha(eq("digest"), eq(ScriptOutputType.MULTI), argThat((String[] keys) -> keys.length == 1), any());
+    }
+}
@@ -19,6 +19,7 @@ import org.opensaml.xmlsec.algorithm.descriptors.SignatureRSASHA1;
 import org.opensaml.xmlsec.signature.Signature;
 import org.opensaml.xmlsec.signature.impl.SignatureImpl;
 import uk.gov.ida.hub.samlengine.builders.BuilderHelper;
+import uk.gov.ida.hub.samlengine.claimcheck.PassThroughAssertionClaimCheck;
 import uk.gov.ida.hub.samlengine.contracts.SamlAuthnResponseTranslatorDto;
 import uk.gov.ida.hub.samlengine.domain.InboundResponseFromIdpDto;
 import uk.gov.ida.hub.samlengine.logging.IdpAssertionMetricsCollector;
@@ -77,8 +78,6 @@ public class IdpAuthnResponseTranslatorServiceTest {
     @Mock
     private PersistentId authnStatementPersistentId;
     @Mock
-    private StringToOpenSamlObjectTransformer<Assertion> stringToAssertionTransformer;
-    @Mock
     private Assertion authnStatementAssertion;
     @Mock
     private Assertion matchingDatasetAssertion;
@@ -152,17 +151,17 @@ public class IdpAuthnResponseTranslatorServiceTest {
         when(responseFromIdp.getAuthnStatementAssertion()).thenReturn(empty());
         when(responseFromIdp.getSignature()).thenReturn(signature);
         when(samlResponse.getIssuer()).thenReturn(issuer);
-        when(stringToAssertionTransformer.apply(authStatementUnderlyingAssertionBlob)).thenReturn(authnStatementAssertion);
-        when(stringToAssertionTransformer.apply(matchingDatasetUnderlyingAssertionBlob)).thenReturn(matchingDatasetAssertion);
+        when(responseFromIdp.getAuthnStatementSamlAssertion()).thenReturn(empty());
+        when(responseFromIdp.getMatchingDatasetSamlAssertion()).thenReturn(empty());
 
         InboundResponseFromIdpDataGenerator inboundResponseFromIdpDataGenerator = new InboundResponseFromIdpDataGenerator(assertionBlobEncrypter);
         service = new IdpAuthnResponseTranslatorService(
                 stringToOpenSamlResponseTransformer,
-                stringToAssertionTransformer,
                 samlResponseToIdaResponseIssuedByIdpTransformer,
                 inboundResponseFromIdpDataGenerator,
                 idpAssertionMetricsCollector,
-                transactionsConfigProxy);
+                transactionsConfigProxy,
+                new PassThroughAssertionClaimCheck());
     }
 
     @Test
@@ -231,6 +230,7 @@ public class IdpAuthnResponseTranslatorServiceTest {
     @Test
     public void shouldCallUpdateMetricsForNotOnOrAfterWhenHasAuthnStatementAssertion() {
         when(responseFromIdp.getAuthnStatementAssertion()).thenReturn(of(authStatementAssertion));
+        when(responseFromIdp.getAuthnStatementSamlAssertion()).thenReturn(of(authnStatementAssertion));
 
         service.translate(responseContainer);
 
@@ -241,6 +241,7 @@ public class IdpAuthnResponseTranslatorServiceTest {
     public void shouldCallUpdateMetricsForNotOnOrAfterWhenHasMatchingDatasetAssertion() {
         when(passThroughAssertion.getUnderlyingAssertionBlob()).thenReturn(matchingDatasetUnderlyingAssertionBlob);
         when(responseFromIdp.getMatchingDatasetAssertion()).thenReturn(Optional.of(passThroughAssertion));
+        when(responseFromIdp.getMatchingDatasetSamlAssertion()).thenReturn(Optional.of(matchingDatasetAssertion));
 
         service.translate(responseContainer);
 
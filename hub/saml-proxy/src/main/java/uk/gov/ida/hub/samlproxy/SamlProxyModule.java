@@ -43,6 +43,7 @@ import uk.gov.ida.hub.samlproxy.proxy.SessionProxy;
 import uk.gov.ida.hub.samlproxy.security.AuthnRequestKeyStore;
 import uk.gov.ida.hub.samlproxy.security.AuthnResponseKeyStore;
 import uk.gov.ida.hub.samlproxy.security.HubSigningKeyStore;
+import uk.gov.ida.hub.shared.eventsink.AsyncEventSinkPublisher;
 import uk.gov.ida.hub.shared.eventsink.EventSinkHttpProxy;
 import uk.gov.ida.hub.shared.eventsink.EventSinkMessageSender;
 import uk.gov.ida.hub.shared.eventsink.EventSinkProxy;
@@ -330,6 +331,14 @@ public class SamlProxyModule extends AbstractModule {
     @Singleton
     public EventSinkProxy eventSinkProxy(JsonClient jsonClient, SamlProxyConfiguration samlProxyConfiguration, Environment environment) {
         URI eventSinkUri = samlProxyConfiguration.getEventSinkUri();
+        if (eventSinkUri != null && samlProxyConfiguration.getEventSinkPublisher().isEnabled()) {
+            // Started and stopped with the application, as it is Managed
+            return new AsyncEventSinkPublisher(
+                    jsonClient,
+                    eventSinkUri,
+                    environment.getObjectMapper(),
+                    samlProxyConfiguration.getEventSinkPublisher());
+        }
         if (eventSinkUri != null) {
             return new EventSinkHttpProxy(jsonClient, eventSinkUri, environment);
         }
@@ -10,6 +10,7 @@ import uk.gov.ida.configuration.JerseyClientWithRetryBackoffConfiguration;
 import uk.gov.ida.configuration.ServiceNameConfiguration;
 import uk.gov.ida.hub.samlsoapproxy.config.PrometheusClientServiceConfiguration;
 import uk.gov.ida.hub.samlsoapproxy.config.SamlConfiguration;
+import uk.gov.ida.hub.shared.eventsink.AsyncEventSinkConfiguration;
 import uk.gov.ida.metrics.config.PrometheusConfiguration;
 import uk.gov.ida.restclient.RestfulClientConfiguration;
 import uk.gov.ida.saml.metadata.MetadataResolverConfiguration;
@@ -64,6 +65,11 @@ public class SamlSoapProxyConfiguration extends Configuration implements Restful
     @JsonProperty
     protected URI eventSinkUri;
 
+    @Valid
+    @NotNull
+    @JsonProperty
+    protected AsyncEventSinkConfiguration eventSinkPublisher = new AsyncEventSinkConfiguration();
+
     @Valid
     @NotNull
     @JsonProperty
@@ -138,6 +144,10 @@ public class SamlSoapProxyConfiguration extends Configuration implements Restful
         return eventSinkUri;
     }
 
+    public AsyncEventSinkConfiguration getEventSinkPublisher() {
+        return eventSinkPublisher;
+    }
+
     public URI getSamlEngineUri() {
         return samlEngineUri;
     }
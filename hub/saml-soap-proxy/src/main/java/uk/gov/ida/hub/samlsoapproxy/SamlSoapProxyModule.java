@@ -21,6 +21,7 @@ import uk.gov.ida.common.shared.security.X509CertificateFactory;
 import uk.gov.ida.common.shared.security.verification.CertificateChainValidator;
 import uk.gov.ida.common.shared.security.verification.PKIXParametersProvider;
 import uk.gov.ida.eventemitter.Configuration;
+import uk.gov.ida.hub.shared.eventsink.AsyncEventSinkPublisher;
 import uk.gov.ida.hub.shared.eventsink.EventSinkHttpProxy;
 import uk.gov.ida.hub.shared.eventsink.EventSinkProxy;
 import uk.gov.ida.hub.samlsoapproxy.annotations.Config;
@@ -274,6 +275,14 @@ public class SamlSoapProxyModule extends AbstractModule {
     @Singleton
     public EventSinkProxy eventSinkProxy(JsonClient jsonClient, SamlSoapProxyConfiguration samlSoapProxyConfiguration, Environment environment) {
         URI eventSinkUri = samlSoapProxyConfiguration.getEventSinkUri();
+        if (eventSinkUri != null && samlSoapProxyConfiguration.getEventSinkPublisher().isEnabled()) {
+            // Started and stopped with the application, as it is Managed
+            return new AsyncEventSinkPublisher(
+                    jsonClient,
+                    eventSinkUri,
+                    environment.getObjectMapper(),
+                    samlSoapProxyConfiguration.getEventSinkPublisher());
+        }
         if (eventSinkUri != null) {
             return new EventSinkHttpProxy(jsonClient, eventSinkUri, environment);
         }
@@ -16,6 +16,7 @@ public interface Urls {
 
         String GENERATE_MSA_HEALTHCHECK_ATTRIBUTE_QUERY_RESOURCE = SAML_ENGINE_ROOT + "/generate-msa-healthcheck-attribute-query";
         String TRANSLATE_MSA_HEALTHCHECK_ATTRIBUTE_QUERY_RESPONSE_RESOURCE = SAML_ENGINE_ROOT + "/translate-msa-healthcheck-attribute-query";
+        String GENERATE_ATTRIBUTE_QUERY_RESOURCE = SAML_ENGINE_ROOT + "/generate-attribute-query";
 
     }
 
@@ -70,6 +71,7 @@ public interface Urls {
     interface SamlSoapProxyUrls {
         String SAML_SOAP_PROXY_ROOT = "/saml-soap-proxy";
         String MATCHING_SERVICE_REQUEST_SENDER_RESOURCE = "/matching-service-request-sender";
+        String MATCHING_SERVICE_REQUEST_GENERATOR_PATH = "/generate-and-send";
         String MATCHING_SERVICE_HEALTH_CHECK_RESOURCE = SAML_SOAP_PROXY_ROOT + "/matching-service-health-check";
         String MATCHING_SERVICE_VERSION_CHECK_RESOURCE = SAML_SOAP_PROXY_ROOT + "/matching-service-version-check";
     }
@@ -1,10 +1,12 @@
 package uk.gov.ida.hub.samlsoapproxy.proxy;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import uk.gov.ida.hub.samlsoapproxy.Urls;
 import uk.gov.ida.hub.samlsoapproxy.annotations.SamlEngine;
 import uk.gov.ida.hub.samlsoapproxy.contract.MatchingServiceHealthCheckerRequestDto;
 import uk.gov.ida.hub.samlsoapproxy.contract.MatchingServiceHealthCheckerResponseDto;
 import uk.gov.ida.hub.samlsoapproxy.contract.SamlMessageDto;
+import uk.gov.ida.hub.samlsoapproxy.domain.AttributeQueryContainerDto;
 import uk.gov.ida.jerseyclient.JsonClient;
 
 import javax.inject.Inject;
@@ -39,4 +41,12 @@ public class SamlEngineProxy {
         return jsonClient.post(samlMessageDto, uri, MatchingServiceHealthCheckerResponseDto.class);
     }
 
+    public AttributeQueryContainerDto generateAttributeQuery(JsonNode attributeQueryRequest) {
+        URI uri = UriBuilder
+                .fromUri(samlEngineUri)
+                .path(Urls.SamlEngineUrls.GENERATE_ATTRIBUTE_QUERY_RESOURCE)
+                .build();
+        return jsonClient.post(attributeQueryRequest, uri, AttributeQueryContainerDto.class);
+    }
+
 }
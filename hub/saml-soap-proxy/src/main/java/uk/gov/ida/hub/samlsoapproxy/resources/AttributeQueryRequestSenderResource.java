@@ -2,6 +2,7 @@ package uk.gov.ida.hub.samlsoapproxy.resources;
 
 import com.codahale.metrics.annotation.ResponseMetered;
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.ida.common.SessionId;
@@ -47,4 +48,16 @@ public class AttributeQueryRequestSenderResource {
 
         return Response.status(Response.Status.ACCEPTED).build();
     }
+
+    @POST
+    @Path(Urls.SamlSoapProxyUrls.MATCHING_SERVICE_REQUEST_GENERATOR_PATH)
+    @Timed
+    @ResponseMetered
+    public Response generateAndSendAttributeQueryRequest(final JsonNode attributeQueryRequest, @QueryParam(Urls.SharedUrls.SESSION_ID_PARAM) SessionId sessionId) {
+        executorService.submit(runnableFactory.createGenerating(sessionId, attributeQueryRequest));
+
+        LOG.info("Attribute query for session {} has been queued for generating and sending to matching service.", sessionId);
+
+        return Response.status(Response.Status.ACCEPTED).build();
+    }
 }
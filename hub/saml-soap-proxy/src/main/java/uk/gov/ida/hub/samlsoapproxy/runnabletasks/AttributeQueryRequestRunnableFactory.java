@@ -1,6 +1,7 @@
 package uk.gov.ida.hub.samlsoapproxy.runnabletasks;
 
 import com.codahale.metrics.Counter;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import uk.gov.ida.common.ServiceInfoConfiguration;
@@ -11,6 +12,7 @@ import uk.gov.ida.hub.samlsoapproxy.annotations.MatchingServiceRequestExecutorBa
 import uk.gov.ida.hub.samlsoapproxy.domain.AttributeQueryContainerDto;
 import uk.gov.ida.hub.samlsoapproxy.domain.TimeoutEvaluator;
 import uk.gov.ida.hub.samlsoapproxy.proxy.HubMatchingServiceResponseReceiverProxy;
+import uk.gov.ida.hub.samlsoapproxy.proxy.SamlEngineProxy;
 
 import javax.inject.Inject;
 
@@ -35,4 +37,13 @@ public class AttributeQueryRequestRunnableFactory {
                 injector.getInstance(EventSinkProxy.class),
                 injector.getInstance(EventEmitter.class));
     }
+
+    public Runnable createGenerating(final SessionId sessionId, final JsonNode attributeQueryRequest) {
+        return new GenerateAttributeQueryRequestRunnable(
+                sessionId,
+                attributeQueryRequest,
+                injector.getInstance(SamlEngineProxy.class),
+                injector.getInstance(HubMatchingServiceResponseReceiverProxy.class),
+                this);
+    }
 }
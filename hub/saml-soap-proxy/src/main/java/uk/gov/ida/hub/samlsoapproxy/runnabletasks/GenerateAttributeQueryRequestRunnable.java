@@ -0,0 +1,55 @@
+package uk.gov.ida.hub.samlsoapproxy.runnabletasks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.jboss.logging.MDC;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.common.SessionId;
+import uk.gov.ida.hub.samlsoapproxy.domain.AttributeQueryContainerDto;
+import uk.gov.ida.hub.samlsoapproxy.proxy.HubMatchingServiceResponseReceiverProxy;
+import uk.gov.ida.hub.samlsoapproxy.proxy.SamlEngineProxy;
+
+/**
+ * Has saml-engine generate the attribute query for a request policy has handed over, then sends it
+ * to the matching service on the same thread. Policy no longer waits for the query to be generated,
+ * so a failure to generate it is reported back to policy as a failed matching service request.
+ */
+public class GenerateAttributeQueryRequestRunnable implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GenerateAttributeQueryRequestRunnable.class);
+
+    private final SessionId sessionId;
+    private final JsonNode attributeQueryRequest;
+    private final SamlEngineProxy samlEngineProxy;
+    private final HubMatchingServiceResponseReceiverProxy hubMatchingServiceResponseReceiverProxy;
+    private final AttributeQueryRequestRunnableFactory runnableFactory;
+
+    public GenerateAttributeQueryRequestRunnable(SessionId sessionId,
+                                                 JsonNode attributeQueryRequest,
+                                                 SamlEngineProxy samlEngineProxy,
+                                                 HubMatchingServiceResponseReceiverProxy hubMatchingServiceResponseReceiverProxy,
+                                                 AttributeQueryRequestRunnableFactory runnableFactory) {
+        this.sessionId = sessionId;
+        this.attributeQueryRequest = attributeQueryRequest;
+        this.samlEngineProxy = samlEngineProxy;
+        this.hubMatchingServiceResponseReceiverProxy = hubMatchingServiceResponseReceiverProxy;
+        this.runnableFactory = runnableFactory;
+    }
+
+    @Override
+    public void run() {
+        MDC.put("SessionId", sessionId);
+
+        AttributeQueryContainerDto attributeQueryContainerDto;
+        try {
+            attributeQueryContainerDto = samlEngineProxy.generateAttributeQuery(attributeQueryRequest);
+        } catch (Exception e) {
+            LOG.error("Failed to generate attribute query for session {}", sessionId, e);
+            hubMatchingServiceResponseReceiverProxy.notifyHubOfMatchingServiceRequestFailure(sessionId);
+            return;
+        }
+
+        LOG.info("Generated attribute query {} to send to {}", attributeQueryContainerDto.getId(), attributeQueryContainerDto.getMatchingServiceUri());
+        runnableFactory.create(sessionId, attributeQueryContainerDto).run();
+    }
+}
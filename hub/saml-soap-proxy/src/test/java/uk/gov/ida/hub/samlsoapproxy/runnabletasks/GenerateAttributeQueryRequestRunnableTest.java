@@ -0,0 +1,71 @@
+package uk.gov.ida.hub.samlsoapproxy.runnabletasks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.ida.common.SessionId;
+import uk.gov.ida.hub.samlsoapproxy.domain.AttributeQueryContainerDto;
+import uk.gov.ida.hub.samlsoapproxy.proxy.HubMatchingServiceResponseReceiverProxy;
+import uk.gov.ida.hub.samlsoapproxy.proxy.SamlEngineProxy;
+import uk.gov.ida.saml.core.test.OpenSAMLExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.ida.hub.samlsoapproxy.builders.AttributeQueryContainerDtoBuilder.anAttributeQueryContainerDto;
+import static uk.gov.ida.saml.core.test.builders.AttributeQueryBuilder.anAttributeQuery;
+
+@ExtendWith(OpenSAMLExtension.class)
+@ExtendWith(MockitoExtension.class)
+public class GenerateAttributeQueryRequestRunnableTest {
+
+    @Mock
+    private SamlEngineProxy samlEngineProxy;
+    @Mock
+    private HubMatchingServiceResponseReceiverProxy hubMatchingServiceResponseReceiverProxy;
+    @Mock
+    private AttributeQueryRequestRunnableFactory runnableFactory;
+    @Mock
+    private Runnable attributeQueryRequestRunnable;
+
+    private final SessionId sessionId = SessionId.createNewSessionId();
+    private final JsonNode attributeQueryRequest = JsonNodeFactory.instance.objectNode().put("requestId", "a-request-id");
+    private GenerateAttributeQueryRequestRunnable runnable;
+
+    @BeforeEach
+    public void setup() {
+        runnable = new GenerateAttributeQueryRequestRunnable(
+                sessionId,
+                attributeQueryRequest,
+                samlEngineProxy,
+                hubMatchingServiceResponseReceiverProxy,
+                runnableFactory);
+    }
+
+    @Test
+    public void shouldSendTheGeneratedAttributeQueryToTheMatchingService() {
+        AttributeQueryContainerDto attributeQueryContainerDto = anAttributeQueryContainerDto(anAttributeQuery().build()).build();
+        when(samlEngineProxy.generateAttributeQuery(attributeQueryRequest)).thenReturn(attributeQueryContainerDto);
+        when(runnableFactory.create(sessionId, attributeQueryContainerDto)).thenReturn(attributeQueryRequestRunnable);
+
+        runnable.run();
+
+        verify(attributeQueryRequestRunnable).run();
+        verify(hubMatchingServiceResponseReceiverProxy, never()).notifyHubOfMatchingServiceRequestFailure(any());
+    }
+
+    @Test
+    public void shouldNotifyPolicyOfAFailedRequestWhenTheAttributeQueryCannotBeGenerated() {
+        when(samlEngineProxy.generateAttributeQuery(attributeQueryRequest)).thenThrow(new RuntimeException("saml-engine unavailable"));
+
+        runnable.run();
+
+        verify(hubMatchingServiceResponseReceiverProxy).notifyHubOfMatchingServiceRequestFailure(sessionId);
+        verify(runnableFactory, never()).create(any(), any());
+    }
+}
@@ -0,0 +1,68 @@
+package uk.gov.ida.hub.shared.eventsink;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+public class AsyncEventSinkConfiguration {
+
+    @JsonProperty
+    protected boolean enabled = false;
+
+    /**
+     * How many events may wait to be sent before further events are spilled.
+     */
+    @Min(1)
+    @JsonProperty
+    protected int bufferSize = 10_000;
+
+    @Min(1)
+    @JsonProperty
+    protected int batchSize = 100;
+
+    @Min(1)
+    @JsonProperty
+    protected int maxAttempts = 5;
+
+    /**
+     * The wait before the first retry of a batch, doubled for each later retry and jittered.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    protected Duration retryBackoff = Duration.milliseconds(200);
+
+    /**
+     * A file events are appended to when they cannot be buffered or sent, and which is sent again once
+     * the event sink is back. Without one, those events are only logged.
+     */
+    @JsonProperty
+    protected String spillFile;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public String getSpillFile() {
+        return spillFile;
+    }
+}
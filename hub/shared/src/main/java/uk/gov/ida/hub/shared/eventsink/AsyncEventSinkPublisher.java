@@ -0,0 +1,223 @@
+package uk.gov.ida.hub.shared.eventsink;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.common.CommonUrls;
+import uk.gov.ida.eventemitter.Event;
+import uk.gov.ida.jerseyclient.JsonClient;
+
+import javax.ws.rs.core.UriBuilder;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Sends hub events to the event sink in batches from a background thread, so that logging an event
+ * never waits for the event sink.
+ * <p>
+ * Events wait in a bounded buffer. A batch that still fails after its retries, and any event that
+ * arrives while the buffer is full, is appended to the spill file, one JSON event per line. The spill
+ * file is sent again after the next batch the event sink accepts.
+ */
+public class AsyncEventSinkPublisher implements EventSinkProxy, Managed {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEventSinkPublisher.class);
+
+    public static final String BATCH_PATH = "/batch";
+
+    private final JsonClient jsonClient;
+    private final URI batchUri;
+    private final ObjectMapper objectMapper;
+    private final AsyncEventSinkConfiguration configuration;
+    private final BlockingQueue<Event> buffer;
+    private final Path spillFile;
+    private final Path replayFile;
+    private final Object spillLock = new Object();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AsyncEventSinkPublisher(
+            JsonClient jsonClient,
+            URI eventSinkUri,
+            ObjectMapper objectMapper,
+            AsyncEventSinkConfiguration configuration) {
+        this.jsonClient = jsonClient;
+        this.batchUri = UriBuilder
+                .fromUri(eventSinkUri)
+                .path(CommonUrls.HUB_SUPPORT_EVENT_SINK_RESOURCE)
+                .path(BATCH_PATH)
+                .build();
+        this.objectMapper = objectMapper;
+        this.configuration = configuration;
+        this.buffer = new ArrayBlockingQueue<>(configuration.getBufferSize());
+        this.spillFile = configuration.getSpillFile() == null ? null : Paths.get(configuration.getSpillFile());
+        this.replayFile = spillFile == null ? null : Paths.get(configuration.getSpillFile() + ".replay");
+    }
+
+    @Override
+    public void logHubEvent(Event eventSinkHubEvent) {
+        if (!buffer.offer(eventSinkHubEvent)) {
+            LOG.warn("Event sink buffer is full, spilling {} hub event", eventSinkHubEvent.getEventType());
+            spill(List.of(eventSinkHubEvent));
+        }
+    }
+
+    @Override
+    public void logHubEvents(List<? extends Event> eventSinkHubEvents) {
+        List<Event> overflow = new ArrayList<>();
+        for (Event eventSinkHubEvent : eventSinkHubEvents) {
+            if (!buffer.offer(eventSinkHubEvent)) {
+                overflow.add(eventSinkHubEvent);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            LOG.warn("Event sink buffer is full, spilling {} hub events", overflow.size());
+            spill(overflow);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::publish, "Event sink publisher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        List<Event> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+    }
+
+    private void publish() {
+        while (running) {
+            List<Event> batch = new ArrayList<>(configuration.getBatchSize());
+            try {
+                Event first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, configuration.getBatchSize() - 1);
+                if (send(batch, configuration.getMaxAttempts())) {
+                    batch.clear();
+                    replaySpill();
+                } else {
+                    spill(batch);
+                }
+            } catch (InterruptedException e) {
+                spill(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Unexpected failure publishing to the event sink", e);
+                spill(batch);
+            }
+        }
+    }
+
+    private boolean send(List<?> batch, int maxAttempts) throws InterruptedException {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                jsonClient.post(batch, batchUri);
+                LOG.info("Sent {} hub events to event-sink on {}", batch.size(), batchUri);
+                return true;
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to send {} hub events to event sink (attempt {} of {})", batch.size(), attempt, maxAttempts, e);
+                if (attempt < maxAttempts) {
+                    Thread.sleep(backoff(attempt));
+                }
+            }
+        }
+        return false;
+    }
+
+    private long backoff(int attempt) {
+        long backoff = configuration.getRetryBackoff().toMilliseconds() << (attempt - 1);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+    private void spill(List<? extends Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>(events.size());
+        for (Event event : events) {
+            try {
+                lines.add(objectMapper.writeValueAsString(event));
+            } catch (JsonProcessingException e) {
+                LOG.error("Unable to serialize hub event for logger.", e);
+            }
+        }
+        if (spillFile == null) {
+            lines.forEach(line -> LOG.warn("failed event: {}", line));
+            return;
+        }
+        synchronized (spillLock) {
+            try {
+                Files.write(spillFile, lines, UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                LOG.error("Unable to spill hub events to " + spillFile, e);
+                lines.forEach(line -> LOG.warn("failed event: {}", line));
+            }
+        }
+    }
+
+    private void replaySpill() throws InterruptedException {
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            // Only this thread touches the replay file, so the lock is held just long enough to take
+            // the spill file away from anything spilling into it
+            if (!Files.exists(replayFile)) {
+                synchronized (spillLock) {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            List<String> lines = Files.readAllLines(replayFile, UTF_8);
+            for (int from = 0; from < lines.size(); from += configuration.getBatchSize()) {
+                List<String> chunk = lines.subList(from, Math.min(lines.size(), from + configuration.getBatchSize()));
+                List<JsonNode> batch = new ArrayList<>(chunk.size());
+                for (String line : chunk) {
+                    batch.add(objectMapper.readTree(line));
+                }
+                if (!send(batch, 1)) {
+                    // Keep what is left for the next replay, ahead of anything spilled since
+                    Files.write(replayFile, lines.subList(from, lines.size()), UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
+                    return;
+                }
+            }
+            Files.delete(replayFile);
+            LOG.info("Sent {} spilled hub events to event-sink", lines.size());
+        } catch (IOException e) {
+            LOG.error("Unable to replay hub events spilled to " + spillFile, e);
+        }
+    }
+}
@@ -2,7 +2,13 @@ package uk.gov.ida.hub.shared.eventsink;
 
 import uk.gov.ida.eventemitter.Event;
 
+import java.util.List;
+
 public interface EventSinkProxy {
 
     void logHubEvent(Event eventSinkHubEvent);
+
+    default void logHubEvents(List<? extends Event> eventSinkHubEvents) {
+        eventSinkHubEvents.forEach(this::logHubEvent);
+    }
 }
@@ -0,0 +1,53 @@
+package uk.gov.ida.hub.shared.redis;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Blocking commands over asynchronous ones built with a codec of their own, so stores with different
+ * codecs can send their commands down one shared connection. Lettuce only builds blocking commands
+ * for a connection's own codec, and encodes and decodes each command with the codec of the commands
+ * object that built it, whatever the connection was opened with.
+ */
+final class CodecCommands {
+
+    private CodecCommands() {
+    }
+
+    static <T> T blocking(Object asyncCommands, Class<T> syncInterface, Duration timeout) {
+        Map<Method, Method> asyncMethods = new ConcurrentHashMap<>();
+        Object proxy = Proxy.newProxyInstance(syncInterface.getClassLoader(), new Class<?>[]{syncInterface}, (self, method, args) -> {
+            Method asyncMethod = asyncMethods.computeIfAbsent(method, asyncMethodOf(asyncCommands));
+            Object result;
+            try {
+                result = asyncMethod.invoke(asyncCommands, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof RedisFuture) {
+                return LettuceFutures.awaitOrCancel((RedisFuture<?>) result, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            return result;
+        });
+        return syncInterface.cast(proxy);
+    }
+
+    private static Function<Method, Method> asyncMethodOf(Object asyncCommands) {
+        return method -> {
+            try {
+                return asyncCommands.getClass().getMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                throw new UnsupportedOperationException(method.getName() + " has no asynchronous form", e);
+            }
+        };
+    }
+}
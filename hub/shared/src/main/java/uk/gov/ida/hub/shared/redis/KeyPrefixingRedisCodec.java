@@ -0,0 +1,47 @@
+package uk.gov.ida.hub.shared.redis;
+
+import io.lettuce.core.codec.RedisCodec;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Puts a fixed prefix in front of every key another codec encodes, so that several logical stores
+ * can share one Redis database.
+ */
+public class KeyPrefixingRedisCodec<K, V> implements RedisCodec<K, V> {
+
+    private final byte[] prefix;
+    private final RedisCodec<K, V> codec;
+
+    public KeyPrefixingRedisCodec(String prefix, RedisCodec<K, V> codec) {
+        this.prefix = prefix.getBytes(UTF_8);
+        this.codec = codec;
+    }
+
+    @Override
+    public K decodeKey(ByteBuffer bytes) {
+        ByteBuffer unprefixed = bytes.duplicate();
+        unprefixed.position(unprefixed.position() + prefix.length);
+        return codec.decodeKey(unprefixed.slice());
+    }
+
+    @Override
+    public V decodeValue(ByteBuffer bytes) {
+        return codec.decodeValue(bytes);
+    }
+
+    @Override
+    public ByteBuffer encodeKey(K key) {
+        ByteBuffer encoded = codec.encodeKey(key).duplicate();
+        ByteBuffer prefixed = ByteBuffer.allocate(prefix.length + encoded.remaining());
+        prefixed.put(prefix).put(encoded).flip();
+        return prefixed;
+    }
+
+    @Override
+    public ByteBuffer encodeValue(V value) {
+        return codec.encodeValue(value);
+    }
+}
@@ -0,0 +1,44 @@
+package uk.gov.ida.hub.shared.redis;
+
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.prometheus.client.Histogram;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of every Redis command against the node that served it, so that a slow or
+ * overloaded shard or cluster node can be told apart from the rest.
+ */
+public class RedisCommandLatencyRecorder implements CommandLatencyRecorder {
+
+    // A histogram can only be registered once, however many clients record to it
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private final Histogram commandLatency;
+
+    public RedisCommandLatencyRecorder(String metricName, String help) {
+        this.commandLatency = histograms.computeIfAbsent(metricName, name -> Histogram.build(name, help)
+                .labelNames("node", "command")
+                .buckets(0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 5)
+                .register());
+    }
+
+    @Override
+    public void recordCommandLatency(SocketAddress local, SocketAddress remote, ProtocolKeyword commandType, long firstResponseLatency, long completionLatency) {
+        commandLatency.labels(nodeName(remote), commandType.name())
+                .observe((double) completionLatency / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static String nodeName(SocketAddress remote) {
+        if (remote instanceof InetSocketAddress) {
+            InetSocketAddress address = (InetSocketAddress) remote;
+            return address.getHostString() + ":" + address.getPort();
+        }
+        return String.valueOf(remote);
+    }
+}
@@ -0,0 +1,110 @@
+package uk.gov.ida.hub.shared.redis;
+
+import io.dropwizard.lifecycle.Managed;
+import io.lettuce.core.RedisAsyncCommandsImpl;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.cluster.RedisAdvancedClusterAsyncCommandsImpl;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.sync.RedisAdvancedClusterCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.masterslave.MasterSlave;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Opens the Redis connections for a service on one set of client resources, so its logical stores
+ * share event loops, timers and reconnection handling rather than each bringing their own. Stores on
+ * the same Redis share one connection, each encoding its own commands with its own codec. Each store
+ * gets a key prefix rather than a database of its own, as Redis Cluster only has database 0.
+ * <p>
+ * Command latencies are exported to Prometheus. The connections are closed when the service stops.
+ */
+public class RedisConnectionManager implements Managed {
+
+    private final Map<URI, StatefulRedisConnection<byte[], byte[]>> primaryConnections = new ConcurrentHashMap<>();
+    private final Map<URI, StatefulRedisClusterConnection<byte[], byte[]>> clusterConnections = new ConcurrentHashMap<>();
+    private final List<RedisClusterClient> clusterClients = new CopyOnWriteArrayList<>();
+    private ClientResources clientResources;
+    private RedisClient redisClient;
+
+    /**
+     * Connects to the primary at {@code uri}, using its database and timeout, for a store whose keys
+     * are all given {@code keyPrefix}. An empty prefix leaves keys as the codec encodes them.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> RedisCommands<K, V> connect(RedisURI uri, String keyPrefix, RedisCodec<K, V> codec) {
+        StatefulRedisConnection<byte[], byte[]> connection = primaryConnections.computeIfAbsent(uri.toURI(),
+                key -> MasterSlave.connect(redisClient(), ByteArrayCodec.INSTANCE, singletonList(uri)));
+        RedisAsyncCommandsImpl<K, V> asyncCommands = new RedisAsyncCommandsImpl<>((StatefulRedisConnection<K, V>) (StatefulRedisConnection<?, ?>) connection, prefixed(keyPrefix, codec));
+        return CodecCommands.blocking(asyncCommands, RedisCommands.class, connection.getTimeout());
+    }
+
+    /**
+     * Connects to the Redis Cluster that {@code uri} is a node of, using its timeout, for a store whose
+     * keys are all given {@code keyPrefix}. Commands are routed to the node holding each key's slot.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> RedisAdvancedClusterCommands<K, V> connectCluster(RedisURI uri, String keyPrefix, RedisCodec<K, V> codec) {
+        StatefulRedisClusterConnection<byte[], byte[]> connection = clusterConnections.computeIfAbsent(uri.toURI(), key -> {
+            RedisClusterClient clusterClient = RedisClusterClient.create(clientResources(), uri);
+            clusterClients.add(clusterClient);
+            return clusterClient.connect(ByteArrayCodec.INSTANCE);
+        });
+        RedisAdvancedClusterAsyncCommandsImpl<K, V> asyncCommands = new RedisAdvancedClusterAsyncCommandsImpl<>((StatefulRedisClusterConnection<K, V>) (StatefulRedisClusterConnection<?, ?>) connection, prefixed(keyPrefix, codec));
+        return CodecCommands.blocking(asyncCommands, RedisAdvancedClusterCommands.class, connection.getTimeout());
+    }
+
+    private static <K, V> RedisCodec<K, V> prefixed(String keyPrefix, RedisCodec<K, V> codec) {
+        return keyPrefix.isEmpty() ? codec : new KeyPrefixingRedisCodec<>(keyPrefix, codec);
+    }
+
+    // The client and its threads are only started once a store needs Redis
+    private synchronized RedisClient redisClient() {
+        if (redisClient == null) {
+            redisClient = RedisClient.create(clientResources());
+        }
+        return redisClient;
+    }
+
+    private synchronized ClientResources clientResources() {
+        if (clientResources == null) {
+            clientResources = DefaultClientResources.builder()
+                    .commandLatencyRecorder(new RedisCommandLatencyRecorder(
+                            "verify_hub_redis_command_duration_seconds",
+                            "Time taken to complete a Redis command, by node and command"))
+                    .build();
+        }
+        return clientResources;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public synchronized void stop() {
+        primaryConnections.values().forEach(StatefulConnection::close);
+        clusterConnections.values().forEach(StatefulConnection::close);
+        clusterClients.forEach(RedisClusterClient::shutdown);
+        if (redisClient != null) {
+            redisClient.shutdown();
+        }
+        if (clientResources != null) {
+            clientResources.shutdown();
+        }
+    }
+}
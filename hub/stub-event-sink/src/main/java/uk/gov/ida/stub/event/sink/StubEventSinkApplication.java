@@ -10,6 +10,7 @@ import uk.gov.ida.bundles.LoggingBundle;
 import uk.gov.ida.bundles.MonitoringBundle;
 import uk.gov.ida.bundles.ServiceStatusBundle;
 import uk.gov.ida.hub.shared.guice.GuiceBundle;
+import uk.gov.ida.metrics.bundle.PrometheusBundle;
 import uk.gov.ida.stub.event.sink.healthcheck.StubEventSinkHealthCheck;
 import uk.gov.ida.stub.event.sink.resources.EventSinkHubEventResource;
 import uk.gov.ida.stub.event.sink.resources.EventSinkHubEventTestResource;
@@ -37,13 +38,14 @@ public class StubEventSinkApplication extends Application<StubEventSinkConfigura
         );
 
         GuiceBundle<StubEventSinkConfiguration> guiceBundle = new GuiceBundle<>(
-                () -> asList(),
+                () -> asList(new StubEventSinkModule()),
                 StubEventSinkConfiguration.class
         );
         bootstrap.addBundle(guiceBundle);
         bootstrap.addBundle(new ServiceStatusBundle());
         bootstrap.addBundle(new MonitoringBundle());
         bootstrap.addBundle(new LoggingBundle());
+        bootstrap.addBundle(new PrometheusBundle());
     }
 
     @Override
@@ -5,12 +5,14 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dropwizard.Configuration;
 import uk.gov.ida.common.ServiceInfoConfiguration;
 import uk.gov.ida.configuration.ServiceNameConfiguration;
+import uk.gov.ida.metrics.config.PrometheusConfiguration;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class StubEventSinkConfiguration extends Configuration implements ServiceNameConfiguration {
+public class StubEventSinkConfiguration extends Configuration implements ServiceNameConfiguration, PrometheusConfiguration {
 
     protected StubEventSinkConfiguration() {}
 
@@ -19,12 +21,28 @@ public class StubEventSinkConfiguration extends Configuration implements Service
     @Valid
     protected ServiceInfoConfiguration serviceInfo;
 
+    /**
+     * How many events are kept before the oldest are dropped to make room.
+     */
+    @JsonProperty
+    @Min(1)
+    protected int eventStoreCapacity = 100_000;
+
     public ServiceInfoConfiguration getServiceInfo() {
         return serviceInfo;
     }
 
+    public int getEventStoreCapacity() {
+        return eventStoreCapacity;
+    }
+
     @Override
     public String getServiceName() {
         return serviceInfo.getName();
     }
+
+    @Override
+    public boolean isPrometheusEnabled() {
+        return true;
+    }
 }
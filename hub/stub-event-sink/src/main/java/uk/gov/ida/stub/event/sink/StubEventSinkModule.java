@@ -1,8 +1,11 @@
 package uk.gov.ida.stub.event.sink;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import uk.gov.ida.stub.event.sink.repositories.InMemoryEventSinkHubEventStore;
 
+import javax.inject.Singleton;
+
 public class StubEventSinkModule extends AbstractModule {
 
     public StubEventSinkModule() {
@@ -10,6 +13,11 @@ public class StubEventSinkModule extends AbstractModule {
 
     @Override
     protected void configure() {
-        bind(InMemoryEventSinkHubEventStore.class).asEagerSingleton();
+    }
+
+    @Provides
+    @Singleton
+    public InMemoryEventSinkHubEventStore getEventStore(StubEventSinkConfiguration configuration) {
+        return new InMemoryEventSinkHubEventStore(configuration.getEventStoreCapacity());
     }
 }
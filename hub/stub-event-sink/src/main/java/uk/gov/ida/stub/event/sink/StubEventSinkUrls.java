@@ -4,4 +4,6 @@ public interface StubEventSinkUrls {
     String HUB_SUPPORT_EVENT_SINK_TEST_ROOT = "/test/events";
     String HUB_SUPPORT_EVENT_SINK_TEST_ID_PARAM = "id";
     String HUB_SUPPORT_EVENT_SINK_TEST_ID_PATH = "/{id}";
+    String HUB_SUPPORT_EVENT_SINK_TEST_SESSION_ID_PARAM = "sessionId";
+    String HUB_SUPPORT_EVENT_SINK_TEST_EVENT_TYPE_PARAM = "eventType";
 }
@@ -14,6 +14,7 @@ public interface Urls {
     interface HubSupportUrls {
         String EVENT_SINK_ROOT = "/event-sink";
         String HUB_SUPPORT_EVENT_SINK_RESOURCE = EVENT_SINK_ROOT + "/hub-support-hub-events";
+        String HUB_SUPPORT_EVENT_SINK_BATCH_PATH = "/batch";
     }
 
 }
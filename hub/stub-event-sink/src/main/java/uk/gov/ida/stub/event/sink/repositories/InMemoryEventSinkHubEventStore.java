@@ -1,37 +1,153 @@
 package uk.gov.ida.stub.event.sink.repositories;
 
+import io.prometheus.client.Counter;
 import uk.gov.ida.hub.shared.eventsink.EventSinkHubEvent;
 
-import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Holds the most recent events received, up to a fixed capacity, so the stub can run under load for
+ * as long as needed. Events are kept in a ring buffer, with the oldest overwritten once it is full, and
+ * indexed by session id and event type so tests can find theirs without scanning everything.
+ */
 public class InMemoryEventSinkHubEventStore {
-    private Map<String, EventSinkHubEvent> exceptionMap = new ConcurrentHashMap<>();
 
-    @Inject
-    public InMemoryEventSinkHubEventStore() {
+    private static final Counter eventsReceived = Counter.build(
+            "verify_stub_event_sink_events_received_total",
+            "Total number of hub events received by the stub event sink")
+            .labelNames("event_type")
+            .register();
+
+    private static final Counter batchesReceived = Counter.build(
+            "verify_stub_event_sink_batches_received_total",
+            "Total number of batches of hub events received by the stub event sink")
+            .register();
+
+    private static final Counter eventsEvicted = Counter.build(
+            "verify_stub_event_sink_events_evicted_total",
+            "Total number of hub events dropped to make room for newer ones")
+            .register();
+
+    private final AtomicReferenceArray<StoredEvent> events;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final Map<String, StoredEvent> eventsById = new ConcurrentHashMap<>();
+    private final Map<String, Set<StoredEvent>> eventsBySessionId = new ConcurrentHashMap<>();
+    private final Map<String, Set<StoredEvent>> eventsByType = new ConcurrentHashMap<>();
+
+    public InMemoryEventSinkHubEventStore(int capacity) {
+        this.events = new AtomicReferenceArray<>(capacity);
     }
 
     public void add(EventSinkHubEvent eventSinkHubEvent) {
-        exceptionMap.put(eventSinkHubEvent.getEventId().toString(), eventSinkHubEvent);
+        long sequence = nextSequence.getAndIncrement();
+        StoredEvent stored = new StoredEvent(sequence, eventSinkHubEvent);
+        // Indexed before it is put in its slot, so that whoever evicts it always finds it to unindex
+        eventsById.put(eventSinkHubEvent.getEventId().toString(), stored);
+        addToIndex(eventsBySessionId, eventSinkHubEvent.getSessionId(), stored);
+        addToIndex(eventsByType, eventSinkHubEvent.getEventType(), stored);
+        StoredEvent evicted = events.getAndSet((int) (sequence % events.length()), stored);
+        if (evicted != null) {
+            unindex(evicted);
+            eventsEvicted.inc();
+        }
+        eventsReceived.labels(eventSinkHubEvent.getEventType()).inc();
+    }
+
+    public void addAll(List<EventSinkHubEvent> eventSinkHubEvents) {
+        eventSinkHubEvents.forEach(this::add);
+        batchesReceived.inc();
     }
 
     public EventSinkHubEvent getEventById(String id) {
-        return exceptionMap.get(id);
+        StoredEvent stored = eventsById.get(id);
+        return stored == null ? null : stored.event;
     }
 
     public List<EventSinkHubEvent> getAllEvents() {
-        List<EventSinkHubEvent> list = new ArrayList<>();
-        for (String s : exceptionMap.keySet()) {
-            list.add(exceptionMap.get(s));
+        List<StoredEvent> stored = new ArrayList<>();
+        for (int i = 0; i < events.length(); i++) {
+            StoredEvent event = events.get(i);
+            if (event != null) {
+                stored.add(event);
+            }
         }
-        return list;
+        return inOrderReceived(stored.stream());
+    }
+
+    /**
+     * The events for a session and/or of a type, in the order they were received. A null criterion
+     * matches every event.
+     */
+    public List<EventSinkHubEvent> getEvents(String sessionId, String eventType) {
+        if (sessionId == null && eventType == null) {
+            return getAllEvents();
+        }
+        if (sessionId == null) {
+            return inOrderReceived(indexed(eventsByType, eventType).stream());
+        }
+        return inOrderReceived(indexed(eventsBySessionId, sessionId).stream()
+                .filter(stored -> eventType == null || eventType.equals(stored.event.getEventType())));
     }
 
     public void deleteAllEvents() {
-        exceptionMap.clear();
+        for (int i = 0; i < events.length(); i++) {
+            events.set(i, null);
+        }
+        eventsById.clear();
+        eventsBySessionId.clear();
+        eventsByType.clear();
+    }
+
+    private void unindex(StoredEvent evicted) {
+        eventsById.remove(evicted.event.getEventId().toString(), evicted);
+        removeFromIndex(eventsBySessionId, evicted.event.getSessionId(), evicted);
+        removeFromIndex(eventsByType, evicted.event.getEventType(), evicted);
+    }
+
+    private static void addToIndex(Map<String, Set<StoredEvent>> index, String key, StoredEvent event) {
+        // Added within compute so that a removal emptying the same set cannot drop it from under us
+        index.compute(key, (k, stored) -> {
+            Set<StoredEvent> entries = stored == null ? ConcurrentHashMap.newKeySet() : stored;
+            entries.add(event);
+            return entries;
+        });
+    }
+
+    private static void removeFromIndex(Map<String, Set<StoredEvent>> index, String key, StoredEvent evicted) {
+        index.computeIfPresent(key, (k, stored) -> {
+            stored.remove(evicted);
+            return stored.isEmpty() ? null : stored;
+        });
+    }
+
+    private static Collection<StoredEvent> indexed(Map<String, Set<StoredEvent>> index, String key) {
+        return index.getOrDefault(key, Set.of());
+    }
+
+    private static List<EventSinkHubEvent> inOrderReceived(Stream<StoredEvent> stored) {
+        return stored
+                .sorted(Comparator.comparingLong(event -> event.sequence))
+                .map(event -> event.event)
+                .collect(Collectors.toList());
+    }
+
+    private static final class StoredEvent {
+        private final long sequence;
+        private final EventSinkHubEvent event;
+
+        private StoredEvent(long sequence, EventSinkHubEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
     }
 }
@@ -10,6 +10,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.List;
 
 @Path(Urls.HubSupportUrls.HUB_SUPPORT_EVENT_SINK_RESOURCE)
 public class EventSinkHubEventResource {
@@ -27,4 +28,12 @@ public class EventSinkHubEventResource {
         inMemoryEventSinkHubEventStore.add(event);
         return Response.status(Response.Status.NO_CONTENT).build();
     }
+
+    @POST
+    @Path(Urls.HubSupportUrls.HUB_SUPPORT_EVENT_SINK_BATCH_PATH)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response postHubEvents(List<EventSinkHubEvent> events) {
+        inMemoryEventSinkHubEventStore.addAll(events);
+        return Response.status(Response.Status.NO_CONTENT).build();
+    }
 }
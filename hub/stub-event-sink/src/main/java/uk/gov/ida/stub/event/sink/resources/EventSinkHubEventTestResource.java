@@ -10,6 +10,7 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import java.util.List;
 
@@ -32,8 +33,10 @@ public class EventSinkHubEventTestResource {
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public List<EventSinkHubEvent> getHubEvents() {
-        return inMemoryEventSinkHubEventStore.getAllEvents();
+    public List<EventSinkHubEvent> getHubEvents(
+            @QueryParam(StubEventSinkUrls.HUB_SUPPORT_EVENT_SINK_TEST_SESSION_ID_PARAM) String sessionId,
+            @QueryParam(StubEventSinkUrls.HUB_SUPPORT_EVENT_SINK_TEST_EVENT_TYPE_PARAM) String eventType) {
+        return inMemoryEventSinkHubEventStore.getEvents(sessionId, eventType);
     }
 
     @DELETE
@@ -0,0 +1,118 @@
+package uk.gov.ida.stub.event.sink.repositories;
+
+import io.prometheus.client.CollectorRegistry;
+import org.junit.jupiter.api.Test;
+import uk.gov.ida.common.ServiceInfoConfiguration;
+import uk.gov.ida.common.SessionId;
+import uk.gov.ida.hub.shared.eventsink.EventSinkHubEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.common.ServiceInfoConfigurationBuilder.aServiceInfo;
+import static uk.gov.ida.eventemitter.EventDetailsKey.message_id;
+
+public class InMemoryEventSinkHubEventStoreTest {
+
+    private static final ServiceInfoConfiguration SERVICE_INFO = aServiceInfo().withName("test-service").build();
+    private static final String SESSION_EVENT = "session_event";
+    private static final String ERROR_EVENT = "error_event";
+
+    private final CollectorRegistry registry = CollectorRegistry.defaultRegistry;
+
+    @Test
+    public void getEvents_shouldFilterBySessionAndTypeInTheOrderReceived() {
+        InMemoryEventSinkHubEventStore store = new InMemoryEventSinkHubEventStore(10);
+        SessionId sessionId = SessionId.createNewSessionId();
+        EventSinkHubEvent first = anEvent(sessionId, SESSION_EVENT);
+        EventSinkHubEvent error = anEvent(sessionId, ERROR_EVENT);
+        EventSinkHubEvent otherSession = anEvent(SessionId.createNewSessionId(), SESSION_EVENT);
+        EventSinkHubEvent last = anEvent(sessionId, SESSION_EVENT);
+        store.addAll(List.of(first, error, otherSession, last));
+
+        assertThat(store.getEvents(sessionId.toString(), null)).containsExactly(first, error, last);
+        assertThat(store.getEvents(null, SESSION_EVENT)).containsExactly(first, otherSession, last);
+        assertThat(store.getEvents(sessionId.toString(), SESSION_EVENT)).containsExactly(first, last);
+        assertThat(store.getEvents(null, null)).containsExactly(first, error, otherSession, last);
+        assertThat(store.getEvents("unknown-session", null)).isEmpty();
+        assertThat(store.getEventById(error.getEventId().toString())).isEqualTo(error);
+    }
+
+    @Test
+    public void add_shouldEvictTheOldestEventOnceFull() {
+        InMemoryEventSinkHubEventStore store = new InMemoryEventSinkHubEventStore(2);
+        SessionId sessionId = SessionId.createNewSessionId();
+        EventSinkHubEvent oldest = anEvent(sessionId, ERROR_EVENT);
+        EventSinkHubEvent middle = anEvent(sessionId, SESSION_EVENT);
+        EventSinkHubEvent newest = anEvent(sessionId, SESSION_EVENT);
+        double evictedBefore = sample("verify_stub_event_sink_events_evicted_total");
+
+        store.add(oldest);
+        store.add(middle);
+        store.add(newest);
+
+        assertThat(store.getAllEvents()).containsExactly(middle, newest);
+        assertThat(store.getEvents(sessionId.toString(), null)).containsExactly(middle, newest);
+        assertThat(store.getEvents(null, ERROR_EVENT)).isEmpty();
+        assertThat(store.getEventById(oldest.getEventId().toString())).isNull();
+        assertThat(sample("verify_stub_event_sink_events_evicted_total")).isEqualTo(evictedBefore + 1);
+    }
+
+    @Test
+    public void addAll_shouldCountTheBatchAndEachEventByType() {
+        InMemoryEventSinkHubEventStore store = new InMemoryEventSinkHubEventStore(10);
+        double batchesBefore = sample("verify_stub_event_sink_batches_received_total");
+        double sessionEventsBefore = sample("verify_stub_event_sink_events_received_total", SESSION_EVENT);
+        double errorEventsBefore = sample("verify_stub_event_sink_events_received_total", ERROR_EVENT);
+
+        store.addAll(List.of(
+                anEvent(SessionId.createNewSessionId(), SESSION_EVENT),
+                anEvent(SessionId.createNewSessionId(), SESSION_EVENT),
+                anEvent(SessionId.createNewSessionId(), ERROR_EVENT)));
+
+        assertThat(sample("verify_stub_event_sink_batches_received_total")).isEqualTo(batchesBefore + 1);
+        assertThat(sample("verify_stub_event_sink_events_received_total", SESSION_EVENT)).isEqualTo(sessionEventsBefore + 2);
+        assertThat(sample("verify_stub_event_sink_events_received_total", ERROR_EVENT)).isEqualTo(errorEventsBefore + 1);
+    }
+
+    @Test
+    public void add_shouldOnlyIndexTheEventsStillHeldWhenAddedConcurrently() throws Exception {
+        InMemoryEventSinkHubEventStore store = new InMemoryEventSinkHubEventStore(8);
+        List<SessionId> sessionIds = IntStream.range(0, 4).mapToObj(i -> SessionId.createNewSessionId()).collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = IntStream.range(0, 8)
+                    .mapToObj(writer -> executor.submit(() -> IntStream.range(0, 1000)
+                            .forEach(i -> store.add(anEvent(sessionIds.get(i % sessionIds.size()), SESSION_EVENT)))))
+                    .collect(Collectors.toList());
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<EventSinkHubEvent> held = store.getAllEvents();
+        assertThat(held).hasSize(8);
+        assertThat(store.getEvents(null, SESSION_EVENT)).containsExactlyInAnyOrderElementsOf(held);
+        assertThat(sessionIds.stream().flatMap(sessionId -> store.getEvents(sessionId.toString(), null).stream()))
+                .containsExactlyInAnyOrderElementsOf(held);
+    }
+
+    private static EventSinkHubEvent anEvent(SessionId sessionId, String eventType) {
+        return new EventSinkHubEvent(SERVICE_INFO, sessionId, eventType, Map.of(message_id, "message-id"));
+    }
+
+    private double sample(String name, String... eventType) {
+        Double value = eventType.length == 0
+                ? registry.getSampleValue(name)
+                : registry.getSampleValue(name, new String[]{"event_type"}, eventType);
+        return value == null ? 0 : value;
+    }
+}